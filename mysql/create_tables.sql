@@ -26,6 +26,9 @@ CREATE TABLE `USERS` (
 -- 原始数据采集
 -- =============================================
 
+-- 全文索引使用ngram分词，要求MySQL 5.7.6及以上，ngram_token_size保持默认值2。
+-- ngram分词会丢弃包含停用词的词元，需在my.cnf中设置 innodb_ft_enable_stopword=OFF 后再建表。
+
 -- 2. raw_questions (原始问题表)
 DROP TABLE IF EXISTS `RAW_QUESTIONS`;
 CREATE TABLE `RAW_QUESTIONS` (
@@ -38,7 +41,8 @@ CREATE TABLE `RAW_QUESTIONS` (
     `TAGS` JSON NULL COMMENT '标签列表，例如: ["医学", "疾病", "治疗"]',
     `OTHER_METADATA` JSON NULL COMMENT '存储原始站点的其他信息 (e.g., 原始ID, 作者)',
     INDEX `IDX_RAW_QUESTIONS_SITE_TIME` (`SOURCE_SITE`, `CRAWL_TIME`),
-    INDEX `IDX_RAW_QUESTIONS_CRAWL_TIME` (`CRAWL_TIME`)
+    INDEX `IDX_RAW_QUESTIONS_CRAWL_TIME` (`CRAWL_TIME`),
+    FULLTEXT INDEX `FT_RAW_QUESTIONS_TITLE_CONTENT` (`TITLE`, `CONTENT`) WITH PARSER ngram
 ) ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE=UTF8MB4_UNICODE_CI COMMENT='原始问题表';
 
 -- 3. raw_answers (原始回答表)
@@ -54,7 +58,8 @@ CREATE TABLE `RAW_ANSWERS` (
     `OTHER_METADATA` JSON NULL COMMENT '存储原始站点的其他信息',
     FOREIGN KEY (`RAW_QUESTION_ID`) REFERENCES `RAW_QUESTIONS`(`ID`) ON DELETE CASCADE,
     INDEX `IDX_RAW_ANSWERS_QUESTION` (`RAW_QUESTION_ID`),
-    INDEX `IDX_RAW_ANSWERS_ACCEPTED` (`IS_ACCEPTED`)
+    INDEX `IDX_RAW_ANSWERS_ACCEPTED` (`IS_ACCEPTED`),
+    FULLTEXT INDEX `FT_RAW_ANSWERS_CONTENT` (`CONTENT`) WITH PARSER ngram
 ) ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE=UTF8MB4_UNICODE_CI COMMENT='原始回答表';
 
 -- =============================================
@@ -113,7 +118,8 @@ CREATE TABLE `STANDARD_QUESTIONS` (
     FOREIGN KEY (`CREATED_CHANGE_LOG_ID`) REFERENCES `CHANGE_LOG`(`ID`) ON DELETE SET NULL,
     INDEX `IDX_STANDARD_QUESTIONS_TYPE_DIFFICULTY` (`QUESTION_TYPE`, `DIFFICULTY`),
     INDEX `IDX_STANDARD_QUESTIONS_CREATOR_TIME` (`CREATED_BY_USER_ID`, `CREATION_TIME`),
-    INDEX `IDX_STANDARD_QUESTIONS_DELETED` (`DELETED_AT`)
+    INDEX `IDX_STANDARD_QUESTIONS_DELETED` (`DELETED_AT`),
+    FULLTEXT INDEX `FT_STANDARD_QUESTIONS_TEXT` (`QUESTION_TEXT`) WITH PARSER ngram
 ) ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE=UTF8MB4_UNICODE_CI COMMENT='标准问题基表';
 
 -- Add FK for associated_standard_question_id in change_log
@@ -476,6 +482,11 @@ CREATE TABLE `LLM_MODELS` (
     `API_KEY` VARCHAR(512) NULL COMMENT 'API密钥',
     `API_TYPE` VARCHAR(50) NULL COMMENT '调用方式或接口类型，如OpenAI、Azure、Anthropic等',
     `MODEL_PARAMETERS` JSON NULL COMMENT '默认模型参数',
+    `REQUESTS_PER_MINUTE` INT NULL COMMENT '每分钟请求数上限，为空时使用默认配置',
+    `TOKENS_PER_MINUTE` INT NULL COMMENT '每分钟Token数上限，为空时使用默认配置',
+    `MAX_CONCURRENCY` INT NULL COMMENT '最大并发请求数，为空时使用默认配置',
+    `CONNECT_TIMEOUT_MS` INT NULL COMMENT '连接超时（毫秒），为空时使用默认配置',
+    `READ_TIMEOUT_MS` INT NULL COMMENT '读取超时（毫秒），为空时按模型名称推断',
     `CREATED_AT` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `CREATED_BY_USER_ID` BIGINT NULL COMMENT '创建者用户ID',
     `CREATED_CHANGE_LOG_ID` BIGINT NULL COMMENT '关联到创建此模型记录的 change_log 条目',
@@ -512,7 +523,7 @@ CREATE TABLE `ANSWER_GENERATION_BATCHES` (
     `PAUSE_REASON` TEXT NULL COMMENT '暂停原因',
     `ANSWER_REPEAT_COUNT` INT NOT NULL DEFAULT 1 COMMENT '每个问题获取回答的次数',
     `ERROR_MESSAGE` TEXT NULL COMMENT '错误信息',
-    `PROCESSING_INSTANCE` VARCHAR(100) NULL COMMENT '处理实例标识，用于防止多进程同时处理同一批次',
+    `PROCESSING_INSTANCE` VARCHAR(100) NULL COMMENT '创建工作单元并发起处理的实例标识，批次全部单元结束后清除',
     `LAST_PROCESSED_RUN_ID` BIGINT NULL COMMENT '上次处理到的MODEL_ANSWER_RUN的ID',
     FOREIGN KEY (`DATASET_VERSION_ID`) REFERENCES `DATASET_VERSIONS`(`ID`) ON DELETE RESTRICT,
     FOREIGN KEY (`CREATED_BY_USER_ID`) REFERENCES `USERS`(`ID`) ON DELETE SET NULL,
@@ -561,6 +572,33 @@ CREATE TABLE `MODEL_ANSWER_RUNS` (
     INDEX `IDX_MODEL_ANSWER_RUNS_PROGRESS` (`PROGRESS_PERCENTAGE`)
 ) ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE=UTF8MB4_UNICODE_CI COMMENT='模型回答运行表';
 
+-- 26. answer_generation_work_units (回答生成工作单元表)
+DROP TABLE IF EXISTS `ANSWER_GENERATION_WORK_UNITS`;
+CREATE TABLE `ANSWER_GENERATION_WORK_UNITS` (
+    `ID` BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '工作单元ID',
+    `BATCH_ID` BIGINT NOT NULL COMMENT '所属的回答生成批次',
+    `RUN_ID` BIGINT NOT NULL COMMENT '所属的模型回答运行',
+    `LLM_MODEL_ID` BIGINT NOT NULL COMMENT '运行使用的模型，领取时避免同一实例并行处理同一模型',
+    `START_INDEX` INT NOT NULL COMMENT '起始扁平索引（重复索引 * 问题数 + 问题索引，包含）',
+    `END_INDEX` INT NOT NULL COMMENT '结束扁平索引（不包含）',
+    `CHECKPOINT_INDEX` INT NOT NULL COMMENT '单元断点，之前的问题均已完成',
+    `STATUS` ENUM('PENDING', 'LEASED', 'COMPLETED', 'FAILED') NOT NULL DEFAULT 'PENDING' COMMENT '单元状态',
+    `LEASE_OWNER` VARCHAR(100) NULL COMMENT '持有租约的实例标识',
+    `LEASE_EXPIRES_AT` DATETIME(3) NULL COMMENT '租约到期时间，到期未续约的单元可被其他实例回收',
+    `ATTEMPTS` INT NOT NULL DEFAULT 0 COMMENT '出错结束的处理次数',
+    `COMPLETED_COUNT` INT NOT NULL DEFAULT 0 COMMENT '单元内已完成的问题数',
+    `FAILED_COUNT` INT NOT NULL DEFAULT 0 COMMENT '单元内失败的问题数',
+    `ERROR_MESSAGE` TEXT NULL COMMENT '最近一次处理的错误信息',
+    `CREATED_AT` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `UPDATED_AT` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    FOREIGN KEY (`BATCH_ID`) REFERENCES `ANSWER_GENERATION_BATCHES`(`ID`) ON DELETE CASCADE,
+    FOREIGN KEY (`RUN_ID`) REFERENCES `MODEL_ANSWER_RUNS`(`ID`) ON DELETE CASCADE,
+    UNIQUE (`RUN_ID`, `START_INDEX`) COMMENT '确保同一运行的区间只创建一次',
+    INDEX `IDX_WORK_UNITS_CLAIM` (`STATUS`, `LEASE_EXPIRES_AT`),
+    INDEX `IDX_WORK_UNITS_BATCH_STATUS` (`BATCH_ID`, `STATUS`),
+    INDEX `IDX_WORK_UNITS_OWNER` (`LEASE_OWNER`)
+) ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE=UTF8MB4_UNICODE_CI COMMENT='回答生成工作单元表';
+
 -- 添加额外的外键约束 (依赖 MODEL_ANSWER_RUNS)
 ALTER TABLE `ANSWER_GENERATION_BATCHES`
     ADD CONSTRAINT `FK_BATCHES_LAST_RUN` FOREIGN KEY (
@@ -582,6 +620,8 @@ CREATE TABLE `LLM_ANSWERS` (
     `RAW_MODEL_RESPONSE` TEXT NULL COMMENT '模型的原始响应',
     `OTHER_METADATA` JSON NULL COMMENT '其他元数据',
     `REPEAT_INDEX` INT NOT NULL DEFAULT 0 COMMENT '重复回答的索引，0表示第一次',
+    `FIRST_TOKEN_MS` BIGINT NULL COMMENT '流式生成时首个Token的耗时（毫秒）',
+    `TOKENS_PER_SECOND` DECIMAL(10,2) NULL COMMENT '流式生成时每秒输出Token数',
     FOREIGN KEY (`MODEL_ANSWER_RUN_ID`) REFERENCES `MODEL_ANSWER_RUNS`(`ID`) ON DELETE CASCADE,
     FOREIGN KEY (`DATASET_QUESTION_MAPPING_ID`) REFERENCES `DATASET_QUESTION_MAPPING`(`ID`) ON DELETE CASCADE,
     INDEX `IDX_LLM_ANSWERS_RUN_STATUS` (`MODEL_ANSWER_RUN_ID`, `GENERATION_STATUS`),
@@ -763,22 +803,73 @@ CREATE TABLE `MODEL_BATCH_SCORES` (
     `SCORED_ANSWERS` INT NOT NULL DEFAULT 0 COMMENT '已评分回答数',
     `MAX_SCORE` DECIMAL(5, 2) NULL COMMENT '最高分',
     `MIN_SCORE` DECIMAL(5, 2) NULL COMMENT '最低分',
+    `SCORE_SUM` DECIMAL(18, 4) NULL COMMENT '标准化分数累计和，评测保存时增量累加（为NULL表示不做增量维护）',
     `SCORE_DISTRIBUTION` JSON NULL COMMENT '分数分布统计',
     `CALCULATED_AT` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '计算时间',
     `UPDATED_AT` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     `CREATED_BY_USER_ID` BIGINT NULL COMMENT '创建用户ID',
     `REPEAT_INDEX` INT NULL COMMENT '回答重复索引（-1表示所有重复索引的平均）',
+    `EVALUATOR_KEY` BIGINT AS (IFNULL(`EVALUATOR_ID`, 0)) VIRTUAL COMMENT '唯一键使用的评测者ID，综合行为0',
     FOREIGN KEY (`BATCH_ID`) REFERENCES `ANSWER_GENERATION_BATCHES`(`ID`) ON DELETE CASCADE,
     FOREIGN KEY (`MODEL_ID`) REFERENCES `LLM_MODELS`(`ID`) ON DELETE CASCADE,
     FOREIGN KEY (`EVALUATOR_ID`) REFERENCES `EVALUATORS`(`ID`) ON DELETE SET NULL,
     FOREIGN KEY (`CREATED_BY_USER_ID`) REFERENCES `USERS`(`ID`) ON DELETE SET NULL,
-    UNIQUE KEY `UK_MODEL_BATCH_SCORES` (`BATCH_ID`, `MODEL_ID`, `EVALUATOR_ID`, `SCORE_TYPE`, `REPEAT_INDEX`),
+    UNIQUE KEY `UK_MODEL_BATCH_SCORES` (`BATCH_ID`, `MODEL_ID`, `EVALUATOR_KEY`, `SCORE_TYPE`, `REPEAT_INDEX`),
     INDEX `IDX_MODEL_BATCH_SCORES_BATCH` (`BATCH_ID`),
     INDEX `IDX_MODEL_BATCH_SCORES_MODEL` (`MODEL_ID`),
     INDEX `IDX_MODEL_BATCH_SCORES_TYPE` (`SCORE_TYPE`),
     INDEX `IDX_MODEL_BATCH_SCORES_CALC_TIME` (`CALCULATED_AT`)
 ) ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE=UTF8MB4_UNICODE_CI COMMENT='模型批次评分表';
 
+-- 34. batch_leaderboards (批次排行榜快照表)
+DROP TABLE IF EXISTS `BATCH_LEADERBOARDS`;
+CREATE TABLE `BATCH_LEADERBOARDS` (
+    `BATCH_ID` BIGINT PRIMARY KEY COMMENT '回答生成批次ID',
+    `DATA_VERSION` BIGINT NOT NULL DEFAULT 0 COMMENT '评测数据版本，批次的评测每次写入时递增',
+    `SNAPSHOT_VERSION` BIGINT NULL COMMENT '快照计算所依据的数据版本，与DATA_VERSION相等时快照为最新',
+    `SNAPSHOT` JSON NULL COMMENT '排行榜快照（批次信息、各模型评分和评测概览）',
+    `CALCULATED_AT` DATETIME(3) NULL COMMENT '快照计算时间',
+    FOREIGN KEY (`BATCH_ID`) REFERENCES `ANSWER_GENERATION_BATCHES`(`ID`) ON DELETE CASCADE
+) ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE=UTF8MB4_UNICODE_CI COMMENT='批次排行榜快照表';
+
+-- 35. human_evaluation_tasks (人工评测任务表)
+DROP TABLE IF EXISTS `HUMAN_EVALUATION_TASKS`;
+CREATE TABLE `HUMAN_EVALUATION_TASKS` (
+    `ID` BIGINT PRIMARY KEY AUTO_INCREMENT COMMENT '任务ID',
+    `BATCH_ID` BIGINT NOT NULL COMMENT '回答所属的回答生成批次',
+    `EVALUATOR_ID` BIGINT NOT NULL COMMENT '人类评测者ID',
+    `LLM_ANSWER_ID` BIGINT NOT NULL COMMENT '待评测的LLM回答ID',
+    `MODEL_ID` BIGINT NOT NULL COMMENT '回答所属的模型，用于按模型筛选',
+    `QUESTION_ID` BIGINT NOT NULL COMMENT '回答对应的标准问题，用于排序',
+    `QUESTION_TYPE` ENUM('SINGLE_CHOICE', 'MULTIPLE_CHOICE', 'SIMPLE_FACT', 'SUBJECTIVE') NOT NULL COMMENT '问题类型，用于按类型筛选',
+    `STATUS` ENUM('PENDING', 'LEASED', 'COMPLETED') NOT NULL DEFAULT 'PENDING' COMMENT '任务状态',
+    `LEASE_OWNER` BIGINT NULL COMMENT '领取任务的用户ID',
+    `LEASE_EXPIRES_AT` DATETIME(3) NULL COMMENT '租约到期时间，到期未提交的任务回到等待领取',
+    `EVALUATION_ID` BIGINT NULL COMMENT '对应的评测记录ID',
+    `CREATED_AT` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `UPDATED_AT` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    FOREIGN KEY (`BATCH_ID`) REFERENCES `ANSWER_GENERATION_BATCHES`(`ID`) ON DELETE CASCADE,
+    FOREIGN KEY (`EVALUATOR_ID`) REFERENCES `EVALUATORS`(`ID`) ON DELETE CASCADE,
+    FOREIGN KEY (`LLM_ANSWER_ID`) REFERENCES `LLM_ANSWERS`(`ID`) ON DELETE CASCADE,
+    UNIQUE (`EVALUATOR_ID`, `LLM_ANSWER_ID`) COMMENT '确保同一回答对同一评测者只生成一个任务',
+    INDEX `IDX_HUMAN_EVAL_TASKS_CLAIM` (`BATCH_ID`, `EVALUATOR_ID`, `STATUS`, `QUESTION_ID`, `MODEL_ID`),
+    INDEX `IDX_HUMAN_EVAL_TASKS_LEASE` (`STATUS`, `LEASE_EXPIRES_AT`)
+) ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE=UTF8MB4_UNICODE_CI COMMENT='人工评测任务表';
+
+-- 36. human_evaluation_queues (人工评测队列表)
+DROP TABLE IF EXISTS `HUMAN_EVALUATION_QUEUES`;
+CREATE TABLE `HUMAN_EVALUATION_QUEUES` (
+    `BATCH_ID` BIGINT NOT NULL COMMENT '回答生成批次ID',
+    `EVALUATOR_ID` BIGINT NOT NULL COMMENT '人类评测者ID',
+    `TOTAL_COUNT` INT NOT NULL DEFAULT 0 COMMENT '已生成的任务数',
+    `COMPLETED_COUNT` INT NOT NULL DEFAULT 0 COMMENT '已完成的任务数',
+    `SEALED` TINYINT(1) NOT NULL DEFAULT 0 COMMENT '批次回答已全部生成，任务不再补充',
+    `REFRESHED_AT` DATETIME(3) NULL COMMENT '最近一次生成或补充任务的时间，为空表示尚未生成',
+    PRIMARY KEY (`BATCH_ID`, `EVALUATOR_ID`),
+    FOREIGN KEY (`BATCH_ID`) REFERENCES `ANSWER_GENERATION_BATCHES`(`ID`) ON DELETE CASCADE,
+    FOREIGN KEY (`EVALUATOR_ID`) REFERENCES `EVALUATORS`(`ID`) ON DELETE CASCADE
+) ENGINE=INNODB DEFAULT CHARSET=UTF8MB4 COLLATE=UTF8MB4_UNICODE_CI COMMENT='人工评测队列表';
+
 -- =============================================
 -- 性能优化视图
 -- =============================================
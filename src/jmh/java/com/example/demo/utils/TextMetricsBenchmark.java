@@ -0,0 +1,97 @@
+package com.example.demo.utils;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 简单事实题评分指标的微基准测试
+ *
+ * 按回答长度分别测量标准化、文本相似度、ROUGE-L和BLEU的单次耗时；
+ * legacySimilarity为改用TextMetrics之前的实现（两次String.replaceAll加完整编辑距离矩阵），作为对照。
+ * 运行: ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TextMetricsBenchmark {
+
+    private static final String REFERENCE_SEED = "答案：光合作用是绿色植物利用光能，把二氧化碳和水转化成储存能量的有机物，并释放出氧气的过程。";
+    private static final String CANDIDATE_SEED = "回答: 光合作用指绿色植物通过叶绿体利用光能，将二氧化碳和水合成有机物并释放氧气（O2）的过程！";
+
+    // 回答的字符数，标准答案与回答长度相近
+    @Param({"20", "200", "2000"})
+    private int length;
+
+    private String candidate;
+    private String reference;
+    private String normalizedCandidate;
+    private String normalizedReference;
+
+    @Setup
+    public void setUp() {
+        candidate = repeat(CANDIDATE_SEED, length);
+        reference = repeat(REFERENCE_SEED, length);
+        normalizedCandidate = TextMetrics.normalize(candidate);
+        normalizedReference = TextMetrics.normalize(reference);
+    }
+
+    private static String repeat(String seed, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(seed);
+        }
+        return sb.substring(0, length);
+    }
+
+    @Benchmark
+    public String normalize() {
+        return TextMetrics.normalize(candidate);
+    }
+
+    @Benchmark
+    public double editSimilarity() {
+        return TextMetrics.editSimilarity(TextMetrics.normalize(candidate), TextMetrics.normalize(reference));
+    }
+
+    @Benchmark
+    public double rougeL() {
+        return TextMetrics.rougeL(normalizedCandidate, normalizedReference);
+    }
+
+    @Benchmark
+    public double bleu() {
+        return TextMetrics.bleu(normalizedCandidate, normalizedReference);
+    }
+
+    @Benchmark
+    public double legacySimilarity() {
+        String text1 = candidate.toLowerCase()
+                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "")
+                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", "");
+        String text2 = reference.toLowerCase()
+                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "")
+                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", "");
+        int[][] dp = new int[text1.length() + 1][text2.length() + 1];
+        for (int i = 0; i <= text1.length(); i++) {
+            dp[i][0] = i;
+        }
+        for (int j = 0; j <= text2.length(); j++) {
+            dp[0][j] = j;
+        }
+        for (int i = 1; i <= text1.length(); i++) {
+            for (int j = 1; j <= text2.length(); j++) {
+                int cost = text1.charAt(i - 1) == text2.charAt(j - 1) ? 0 : 1;
+                dp[i][j] = Math.min(Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1), dp[i - 1][j - 1] + cost);
+            }
+        }
+        return 1.0 - (double) dp[text1.length()][text2.length()] / Math.max(text1.length(), text2.length());
+    }
+}
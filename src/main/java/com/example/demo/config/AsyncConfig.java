@@ -5,31 +5,22 @@ import java.util.concurrent.Executor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.example.demo.manager.ExecutorRegistry;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
-    
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5); // 核心线程数
-        executor.setMaxPoolSize(10); // 最大线程数
-        executor.setQueueCapacity(25); // 队列容量
-        executor.setThreadNamePrefix("AnswerGen-"); // 线程名前缀
-        executor.initialize();
-        return executor;
+
+    // 未指定执行器的@Async默认使用该执行器；执行器均由ExecutorRegistry关闭
+    @Bean(name = "taskExecutor", destroyMethod = "")
+    public Executor taskExecutor(ExecutorRegistry executorRegistry) {
+        return executorRegistry.executor(ExecutorRegistry.Workload.GENERAL);
     }
-    
-    @Bean(name = "evaluationExecutor")
-    public Executor evaluationExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(3); // 核心线程数
-        executor.setMaxPoolSize(5); // 最大线程数
-        executor.setQueueCapacity(10); // 队列容量
-        executor.setThreadNamePrefix("Eval-"); // 线程名前缀
-        executor.initialize();
-        return executor;
+
+    // 评测运行使用@Async("evaluationExecutor")
+    @Bean(name = "evaluationExecutor", destroyMethod = "")
+    public Executor evaluationExecutor(ExecutorRegistry executorRegistry) {
+        return executorRegistry.executor(ExecutorRegistry.Workload.EVALUATION);
     }
-} 
+}
@@ -0,0 +1,154 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 各类工作负载执行器的配置
+ *
+ * 调用LLM等I/O密集的类别可使用虚拟线程，maxConcurrency限制同时执行的任务数；
+ * CPU密集的类别使用平台线程池，按核心线程数、最大线程数和队列容量配置。
+ * 队列已满时按rejectionPolicy处理：CALLER_RUNS由提交任务的线程执行（反压），ABORT拒绝并抛出异常。
+ */
+@Configuration
+@ConfigurationProperties(prefix = "executors")
+public class ExecutorProperties {
+
+    private Pool generation = new Pool();
+    private Pool evaluation = new Pool();
+    private Pool connectivity = new Pool();
+    private Pool scoring = new Pool();
+    private Pool notification = new Pool();
+    private Pool general = new Pool();
+
+    /**
+     * 队列已满时的处理策略
+     */
+    public enum RejectionPolicy {
+        CALLER_RUNS,
+        ABORT
+    }
+
+    public static class Pool {
+        private boolean virtualThreads;
+        private int maxConcurrency;          // 虚拟线程同时执行的任务数，0表示不限制
+        private int corePoolSize = 2;
+        private int maxPoolSize = 4;
+        private int queueCapacity = 100;     // 等待执行的任务数上限，0表示不排队
+        private int keepAliveSeconds = 60;
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+        private int awaitTerminationSeconds = 30;
+
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public void setVirtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getCorePoolSize() {
+            return corePoolSize;
+        }
+
+        public void setCorePoolSize(int corePoolSize) {
+            this.corePoolSize = corePoolSize;
+        }
+
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getKeepAliveSeconds() {
+            return keepAliveSeconds;
+        }
+
+        public void setKeepAliveSeconds(int keepAliveSeconds) {
+            this.keepAliveSeconds = keepAliveSeconds;
+        }
+
+        public RejectionPolicy getRejectionPolicy() {
+            return rejectionPolicy;
+        }
+
+        public void setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+        }
+
+        public int getAwaitTerminationSeconds() {
+            return awaitTerminationSeconds;
+        }
+
+        public void setAwaitTerminationSeconds(int awaitTerminationSeconds) {
+            this.awaitTerminationSeconds = awaitTerminationSeconds;
+        }
+    }
+
+    public Pool getGeneration() {
+        return generation;
+    }
+
+    public void setGeneration(Pool generation) {
+        this.generation = generation;
+    }
+
+    public Pool getEvaluation() {
+        return evaluation;
+    }
+
+    public void setEvaluation(Pool evaluation) {
+        this.evaluation = evaluation;
+    }
+
+    public Pool getConnectivity() {
+        return connectivity;
+    }
+
+    public void setConnectivity(Pool connectivity) {
+        this.connectivity = connectivity;
+    }
+
+    public Pool getScoring() {
+        return scoring;
+    }
+
+    public void setScoring(Pool scoring) {
+        this.scoring = scoring;
+    }
+
+    public Pool getNotification() {
+        return notification;
+    }
+
+    public void setNotification(Pool notification) {
+        this.notification = notification;
+    }
+
+    public Pool getGeneral() {
+        return general;
+    }
+
+    public void setGeneral(Pool general) {
+        this.general = general;
+    }
+}
@@ -2,28 +2,63 @@ package com.example.demo.config;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
+import com.zaxxer.hikari.HikariDataSource;
+
 /**
  * JDBC配置类
+ *
+ * 除主数据源外另建一个开启useCursorFetch的小连接池，只供JdbcStreams.cursor的流式查询使用。
+ * useCursorFetch对设置了fetchSize的语句启用服务端游标，放在主数据源上会让其余查询也可能走游标，
+ * 多出往返和服务端临时表开销，因此不在全局URL上开启。
  */
 @Configuration
 public class JdbcConfig {
 
-    private final DataSource dataSource;
+    // 流式查询连接池的最大连接数，流式查询持有连接直到读取结束
+    @Value("${jdbc.cursor.maximum-pool-size:4}")
+    private int cursorMaximumPoolSize;
 
-    public JdbcConfig(DataSource dataSource) {
-        this.dataSource = dataSource;
+    /**
+     * 主数据源，按spring.datasource配置
+     */
+    @Bean
+    @Primary
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * 流式查询数据源，连接参数与主数据源相同并开启useCursorFetch
+     */
+    @Bean
+    public HikariDataSource cursorDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        String url = properties.determineUrl();
+        dataSource.setJdbcUrl(url + (url.contains("?") ? "&" : "?") + "useCursorFetch=true");
+        dataSource.setPoolName("cursor-pool");
+        dataSource.setMaximumPoolSize(cursorMaximumPoolSize);
+        dataSource.setMinimumIdle(0);
+        dataSource.setReadOnly(true);
+        return dataSource;
     }
 
     /**
      * 配置JdbcTemplate
      */
     @Bean
-    public JdbcTemplate jdbcTemplate() {
+    @Primary
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
         return new JdbcTemplate(dataSource);
     }
 
@@ -32,7 +67,17 @@ public class JdbcConfig {
      * 支持命名参数，而不是位置参数（?）
      */
     @Bean
-    public NamedParameterJdbcTemplate namedParameterJdbcTemplate() {
+    public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
         return new NamedParameterJdbcTemplate(dataSource);
     }
-} 
+
+    /**
+     * 流式查询使用的JdbcTemplate，配合JdbcStreams.cursor使用
+     *
+     * 连接不参与主数据源的事务，只能读取已提交的数据
+     */
+    @Bean
+    public JdbcTemplate cursorJdbcTemplate(@Qualifier("cursorDataSource") DataSource cursorDataSource) {
+        return new JdbcTemplate(cursorDataSource);
+    }
+}
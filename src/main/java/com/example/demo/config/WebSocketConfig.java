@@ -12,6 +12,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketSession;
@@ -25,6 +26,8 @@ import org.springframework.web.socket.server.HandshakeInterceptor;
 import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
+import com.example.demo.manager.ExecutorRegistry;
+
 /**
  * WebSocket配置类
  */
@@ -37,6 +40,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${spring.websocket.base-path:/ws}")
     private String websocketPath;
     
+    private final ExecutorRegistry executorRegistry;
+    
+    public WebSocketConfig(ExecutorRegistry executorRegistry) {
+        this.executorRegistry = executorRegistry;
+    }
+    
     /**
      * 配置消息代理
      * 
@@ -54,6 +63,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.setUserDestinationPrefix("/user");
     }
     
+    /**
+     * 向客户端推送消息使用NOTIFICATION执行器，配置为虚拟线程时保留框架默认的线程池
+     * 
+     * @param registration 出站通道注册
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        executorRegistry.platformExecutor(ExecutorRegistry.Workload.NOTIFICATION)
+                .ifPresent(registration::taskExecutor);
+    }
+    
     /**
      * 注册STOMP端点
      * 
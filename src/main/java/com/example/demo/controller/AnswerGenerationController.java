@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.demo.dto.AnswerGenerationBatchDTO;
 import com.example.demo.dto.ModelAnswerRunDTO;
 import com.example.demo.manager.BatchStateManager;
+import com.example.demo.manager.ExecutorRegistry;
 import com.example.demo.service.AnswerGenerationService;
 import com.example.demo.service.AnswerGenerationService.AnswerGenerationBatchCreateRequest;
 import com.example.demo.util.ApiConstants;
@@ -38,13 +39,16 @@ public class AnswerGenerationController {
     private final AnswerGenerationService answerGenerationService;
     private final BatchStateManager batchStateManager;
     private final JdbcTemplate jdbcTemplate;
+    private final ExecutorRegistry executorRegistry;
     
     public AnswerGenerationController(AnswerGenerationService answerGenerationService, 
                                       BatchStateManager batchStateManager,
-                                      JdbcTemplate jdbcTemplate) {
+                                      JdbcTemplate jdbcTemplate,
+                                      ExecutorRegistry executorRegistry) {
         this.answerGenerationService = answerGenerationService;
         this.batchStateManager = batchStateManager;
         this.jdbcTemplate = jdbcTemplate;
+        this.executorRegistry = executorRegistry;
     }
     
     @PostMapping("/batches")
@@ -80,10 +84,10 @@ public class AnswerGenerationController {
             }
         }
         
-        // 创建一个后台线程启动批次，不阻塞当前请求
-        new Thread(() -> {
+        // 在回答生成执行器上启动批次，不阻塞当前请求
+        executorRegistry.executor(ExecutorRegistry.Workload.GENERATION).execute(() -> {
             try {
-                logger.info("启动独立线程处理批次{}", batchId);
+                logger.info("后台线程开始处理批次{}", batchId);
                 answerGenerationService.startBatch(batchId);
                 logger.info("批次{}启动线程执行完成", batchId);
             } catch (Exception e) {
@@ -101,7 +105,7 @@ public class AnswerGenerationController {
                     logger.error("发送错误通知失败", ex);
                 }
             }
-        }).start();
+        });
         
         // 立即返回响应，不等待批次启动完成
         Map<String, Object> response = new HashMap<>();
@@ -34,6 +34,7 @@ import com.example.demo.entity.jdbc.LlmAnswer;
 import com.example.demo.entity.jdbc.QuestionType;
 import com.example.demo.entity.jdbc.StandardQuestion;
 import com.example.demo.entity.jdbc.User;
+import com.example.demo.manager.ExecutorRegistry;
 import com.example.demo.repository.jdbc.LlmAnswerRepository;
 import com.example.demo.service.EvaluationService;
 import com.example.demo.util.ApiConstants;
@@ -49,12 +50,15 @@ public class EvaluationController {
     
     private final EvaluationService evaluationService;
     private final LlmAnswerRepository llmAnswerRepository;
+    private final ExecutorRegistry executorRegistry;
     
     public EvaluationController(
             EvaluationService evaluationService,
-            LlmAnswerRepository llmAnswerRepository) {
+            LlmAnswerRepository llmAnswerRepository,
+            ExecutorRegistry executorRegistry) {
         this.evaluationService = evaluationService;
         this.llmAnswerRepository = llmAnswerRepository;
+        this.executorRegistry = executorRegistry;
     }
     
     /**
@@ -652,7 +656,7 @@ public class EvaluationController {
                 } catch (Exception e) {
                     logger.error("异步批量评测主观题失败", e);
                 }
-            });
+            }, executorRegistry.executor(ExecutorRegistry.Workload.EVALUATION));
             
             // 立即返回响应
             Map<String, Object> result = new HashMap<>();
@@ -676,7 +680,7 @@ public class EvaluationController {
     
     /**
      * 获取待人工评测的回答列表
-     * 返回未被指定用户评测过的回答，并附上对应的标准问题和标准答案
+     * 返回批次中该评测者尚未完成的回答，并附上对应的标准问题和标准答案
      */
     @GetMapping("/human/pending")
     public ResponseEntity<Map<String, Object>> getPendingHumanEvaluations(
@@ -697,6 +701,39 @@ public class EvaluationController {
         return ResponseEntity.ok(results);
     }
     
+    /**
+     * 领取人工评测任务
+     * 多名评测人员同时评测同一批次时，各自领取到的回答互不重叠，租约到期未提交的任务可被重新领取
+     */
+    @PostMapping("/human/tasks/claim")
+    public ResponseEntity<Map<String, Object>> claimHumanEvaluationTasks(
+            @RequestBody ClaimHumanEvaluationTasksRequest request) {
+        
+        logger.info("接收到领取人工评测任务请求，用户ID: {}, 评测者ID: {}, 批次ID: {}, 数量: {}", 
+                request.getUserId(), request.getEvaluatorId(), request.getBatchId(), request.getCount());
+        
+        Map<String, Object> results = evaluationService.claimHumanEvaluationTasks(
+                request.getUserId(), request.getEvaluatorId(), request.getBatchId(),
+                request.getModelIds(), request.getQuestionType(), request.getCount());
+        
+        return ResponseEntity.ok(results);
+    }
+    
+    /**
+     * 释放已领取的人工评测任务
+     */
+    @PostMapping("/human/tasks/release")
+    public ResponseEntity<Map<String, Object>> releaseHumanEvaluationTasks(
+            @RequestBody ReleaseHumanEvaluationTasksRequest request) {
+        
+        logger.info("接收到释放人工评测任务请求，用户ID: {}, 任务IDs: {}", request.getUserId(), request.getTaskIds());
+        
+        Map<String, Object> results = evaluationService.releaseHumanEvaluationTasks(
+                request.getUserId(), request.getTaskIds());
+        
+        return ResponseEntity.ok(results);
+    }
+    
     /**
      * 获取用户已评测的回答列表
      * 返回用户已评测过的回答列表及评测结果
@@ -1275,6 +1312,92 @@ public class EvaluationController {
         }
     }
     
+    /**
+     * 领取人工评测任务请求类
+     */
+    public static class ClaimHumanEvaluationTasksRequest {
+        private Long userId;
+        private Long evaluatorId;
+        private Long batchId;
+        private List<Long> modelIds;
+        private String questionType;
+        private int count = 10;
+        
+        // Getters and Setters
+        public Long getUserId() {
+            return userId;
+        }
+        
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+        
+        public Long getEvaluatorId() {
+            return evaluatorId;
+        }
+        
+        public void setEvaluatorId(Long evaluatorId) {
+            this.evaluatorId = evaluatorId;
+        }
+        
+        public Long getBatchId() {
+            return batchId;
+        }
+        
+        public void setBatchId(Long batchId) {
+            this.batchId = batchId;
+        }
+        
+        public List<Long> getModelIds() {
+            return modelIds;
+        }
+        
+        public void setModelIds(List<Long> modelIds) {
+            this.modelIds = modelIds;
+        }
+        
+        public String getQuestionType() {
+            return questionType;
+        }
+        
+        public void setQuestionType(String questionType) {
+            this.questionType = questionType;
+        }
+        
+        public int getCount() {
+            return count;
+        }
+        
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+    
+    /**
+     * 释放人工评测任务请求类
+     */
+    public static class ReleaseHumanEvaluationTasksRequest {
+        private Long userId;
+        private List<Long> taskIds;
+        
+        // Getters and Setters
+        public Long getUserId() {
+            return userId;
+        }
+        
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+        
+        public List<Long> getTaskIds() {
+            return taskIds;
+        }
+        
+        public void setTaskIds(List<Long> taskIds) {
+            this.taskIds = taskIds;
+        }
+    }
+    
     /**
      * 一步式人工评测请求类
      */
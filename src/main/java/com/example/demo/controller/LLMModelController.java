@@ -25,6 +25,10 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.demo.dto.LLMModelDTO;
 import com.example.demo.dto.LLMModelRegistrationRequest;
 import com.example.demo.dto.LLMModelRegistrationResponse;
+import com.example.demo.entity.jdbc.LlmModel;
+import com.example.demo.manager.LlmHttpClientRegistry;
+import com.example.demo.manager.LlmRateLimitManager;
+import com.example.demo.repository.jdbc.LlmModelRepository;
 import com.example.demo.service.LLMModelService;
 
 import jakarta.validation.Valid;
@@ -42,6 +46,15 @@ public class LLMModelController {
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
+    @Autowired
+    private LlmModelRepository llmModelRepository;
+    
+    @Autowired
+    private LlmRateLimitManager rateLimitManager;
+    
+    @Autowired
+    private LlmHttpClientRegistry httpClientRegistry;
+    
     @PostMapping("/register")
     public ResponseEntity<LLMModelRegistrationResponse> registerModels(
             @Valid @RequestBody LLMModelRegistrationRequest request) {
@@ -84,6 +97,65 @@ public class LLMModelController {
         }
     }
     
+    /**
+     * 获取所有模型当前的调用限额、并发上限和排队数
+     * 
+     * @return 各模型限流器的状态
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<?> getAllRateLimits() {
+        Map<String, Object> response = new HashMap<>();
+        List<Map<String, Object>> limiters = rateLimitManager.getAllStats();
+        response.put("success", true);
+        response.put("limiters", limiters);
+        response.put("total", limiters.size());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 获取各模型HTTP客户端的超时配置和请求统计
+     * 
+     * @return 各模型HTTP客户端的状态
+     */
+    @GetMapping("/http-clients")
+    public ResponseEntity<?> getHttpClientStats() {
+        Map<String, Object> response = new HashMap<>();
+        List<Map<String, Object>> clients = httpClientRegistry.getStats();
+        response.put("success", true);
+        response.put("clients", clients);
+        response.put("total", clients.size());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 获取指定模型当前的调用限额、并发上限和排队数
+     * 
+     * @param modelId 模型ID
+     * @return 模型限流器的状态
+     */
+    @GetMapping("/{modelId}/rate-limit")
+    public ResponseEntity<?> getModelRateLimit(@PathVariable Long modelId) {
+        Map<String, Object> response = new HashMap<>();
+        
+        LlmModel model = llmModelRepository.findById(modelId).orElse(null);
+        if (model == null) {
+            response.put("success", false);
+            response.put("message", "模型不存在: " + modelId);
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        Map<String, Object> stats = rateLimitManager.getStats(model);
+        response.put("success", true);
+        response.put("modelId", modelId);
+        response.put("modelName", model.getName());
+        response.put("configuredRequestsPerMinute", model.getRequestsPerMinute());
+        response.put("configuredTokensPerMinute", model.getTokensPerMinute());
+        response.put("configuredMaxConcurrency", model.getMaxConcurrency());
+        response.put("active", stats != null);
+        response.put("limiter", stats);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * 获取指定模型的总体评分统计信息
      * 
@@ -36,7 +36,9 @@ public class LlmAnswerQueryController {
      * 3. 关键词和标签搜索
      * 4. 批次ID(batchId)筛选
      * 5. 问题类型(questionType)筛选，支持SINGLE_CHOICE, MULTIPLE_CHOICE, SIMPLE_FACT, SUBJECTIVE
-     * 6. 分页返回
+     * 6. 分页返回，传入上一页返回的nextCursor时按游标定位，翻到任意页的代价相同；
+     *    只传页码时按偏移量定位页起点，代价随页码增长，连续翻页应使用cursor
+     * 7. 列表默认只返回回答摘要，fullText=true时返回完整回答
      * 
      * @param evaluatorId 评测员ID
      * @param onlyUnevaluated 是否只返回未评测的回答
@@ -44,8 +46,10 @@ public class LlmAnswerQueryController {
      * @param tag 标签
      * @param batchId 批次ID
      * @param questionType 问题类型（SINGLE_CHOICE, MULTIPLE_CHOICE, SIMPLE_FACT, SUBJECTIVE）
-     * @param page 页码
+     * @param page 页码，跳页时使用
      * @param size 每页大小
+     * @param cursor 翻页游标，为上一页返回的nextCursor，推荐用于连续翻页
+     * @param fullText 是否返回完整回答内容
      * @return 分页的LLM回答结果
      */
     @GetMapping("/query")
@@ -57,7 +61,9 @@ public class LlmAnswerQueryController {
             @RequestParam(required = false) Long batchId,
             @RequestParam(required = false) String questionType,
             @RequestParam(defaultValue = "0") Integer page,
-            @RequestParam(defaultValue = "10") Integer size) {
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "false") Boolean fullText) {
         
         LlmAnswerQueryDTO queryDTO = new LlmAnswerQueryDTO();
         queryDTO.setEvaluatorId(evaluatorId);
@@ -68,9 +74,11 @@ public class LlmAnswerQueryController {
         queryDTO.setQuestionType(questionType);
         queryDTO.setPage(page);
         queryDTO.setSize(size);
+        queryDTO.setCursor(cursor);
+        queryDTO.setFullText(fullText);
         
-        logger.info("查询LLM回答, 参数: evaluatorId={}, onlyUnevaluated={}, keyword={}, tag={}, batchId={}, questionType={}, page={}, size={}", 
-                evaluatorId, onlyUnevaluated, keyword, tag, batchId, questionType, page, size);
+        logger.info("查询LLM回答, 参数: evaluatorId={}, onlyUnevaluated={}, keyword={}, tag={}, batchId={}, questionType={}, page={}, size={}, cursor={}", 
+                evaluatorId, onlyUnevaluated, keyword, tag, batchId, questionType, page, size, cursor);
         
         PageResponseDTO<LlmAnswerResponseDTO> result = llmAnswerQueryService.queryLlmAnswers(queryDTO);
         
@@ -0,0 +1,84 @@
+package com.example.demo.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.service.FullTextSearchService;
+
+/**
+ * 问题全文检索控制器
+ */
+@RestController
+@RequestMapping("/search")
+public class SearchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchController.class);
+
+    private final FullTextSearchService fullTextSearchService;
+
+    public SearchController(FullTextSearchService fullTextSearchService) {
+        this.fullTextSearchService = fullTextSearchService;
+    }
+
+    /**
+     * 全文检索标准问题，按相关度排序，返回高亮摘要和标签分布
+     *
+     * @param keyword 关键词，多个词用空格分隔
+     * @param tags 标签列表，问题需包含全部标签
+     * @param pageable 分页参数
+     * @return 检索结果
+     */
+    @GetMapping("/standard-questions")
+    public ResponseEntity<Map<String, Object>> searchStandardQuestions(
+            @RequestParam String keyword,
+            @RequestParam(required = false) List<String> tags,
+            @PageableDefault(size = 10) Pageable pageable) {
+        logger.info("接收到全文检索标准问题请求 - 关键词: {}, 标签: {}", keyword, tags);
+        try {
+            return ResponseEntity.ok(fullTextSearchService.searchStandardQuestions(keyword, tags, pageable));
+        } catch (IllegalArgumentException e) {
+            logger.warn("全文检索标准问题失败 - 参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * 全文检索原始问题，标题、内容或回答命中均可
+     *
+     * @param keyword 关键词，多个词用空格分隔
+     * @param tags 标签列表，问题需包含全部标签
+     * @param pageable 分页参数
+     * @return 检索结果
+     */
+    @GetMapping("/raw-questions")
+    public ResponseEntity<Map<String, Object>> searchRawQuestions(
+            @RequestParam String keyword,
+            @RequestParam(required = false) List<String> tags,
+            @PageableDefault(size = 10) Pageable pageable) {
+        logger.info("接收到全文检索原始问题请求 - 关键词: {}, 标签: {}", keyword, tags);
+        try {
+            return ResponseEntity.ok(fullTextSearchService.searchRawQuestions(keyword, tags, pageable));
+        } catch (IllegalArgumentException e) {
+            logger.warn("全文检索原始问题失败 - 参数错误: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse(e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> errorResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return response;
+    }
+}
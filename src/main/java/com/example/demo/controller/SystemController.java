@@ -0,0 +1,35 @@
+package com.example.demo.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.dto.ExecutorStatsDTO;
+import com.example.demo.manager.ExecutorRegistry;
+
+/**
+ * 系统运行状态控制器
+ */
+@RestController
+@RequestMapping("/system")
+public class SystemController {
+
+    private final ExecutorRegistry executorRegistry;
+
+    public SystemController(ExecutorRegistry executorRegistry) {
+        this.executorRegistry = executorRegistry;
+    }
+
+    /**
+     * 查看各类工作负载执行器的在途、排队、完成和拒绝任务数
+     *
+     * @return 执行器运行指标
+     */
+    @GetMapping("/executors")
+    public ResponseEntity<List<ExecutorStatsDTO>> getExecutorStats() {
+        return ResponseEntity.ok(executorRegistry.stats());
+    }
+}
@@ -2,6 +2,8 @@ package com.example.demo.dto;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class DatasetVersionDTO {
     
     private Long id;
@@ -13,6 +15,14 @@ public class DatasetVersionDTO {
     private String createdByUserName;
     private int questionCount;
     
+    // 本次创建、更新或克隆写入的问题映射统计，仅写操作返回
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer writtenMappingCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long writeElapsedMillis;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double rowsPerSecond;
+    
     public DatasetVersionDTO() {
     }
     
@@ -94,4 +104,28 @@ public class DatasetVersionDTO {
     public void setQuestionCount(int questionCount) {
         this.questionCount = questionCount;
     }
+    
+    public Integer getWrittenMappingCount() {
+        return writtenMappingCount;
+    }
+    
+    public void setWrittenMappingCount(Integer writtenMappingCount) {
+        this.writtenMappingCount = writtenMappingCount;
+    }
+    
+    public Long getWriteElapsedMillis() {
+        return writeElapsedMillis;
+    }
+    
+    public void setWriteElapsedMillis(Long writeElapsedMillis) {
+        this.writeElapsedMillis = writeElapsedMillis;
+    }
+    
+    public Double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    
+    public void setRowsPerSecond(Double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.example.demo.dto;
+
+/**
+ * 执行器运行指标
+ */
+public class ExecutorStatsDTO {
+    private String workload;             // 工作负载类别
+    private boolean virtualThreads;      // 是否使用虚拟线程
+    private int poolSize;                // 当前线程数，虚拟线程为在途任务数
+    private int maxConcurrency;          // 最大线程数或虚拟线程并发上限，0表示不限制
+    private int activeCount;             // 正在执行的任务数
+    private int queuedCount;             // 等待执行的任务数
+    private int queueCapacity;           // 等待队列容量
+    private long completedCount;         // 已完成的任务数
+    private long rejectedCount;          // 队列已满被拒绝或由调用方执行的任务数
+    private String rejectionPolicy;      // 队列已满时的处理策略
+
+    // Getters and Setters
+    public String getWorkload() {
+        return workload;
+    }
+
+    public void setWorkload(String workload) {
+        this.workload = workload;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public int getQueuedCount() {
+        return queuedCount;
+    }
+
+    public void setQueuedCount(int queuedCount) {
+        this.queuedCount = queuedCount;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public String getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    public void setRejectionPolicy(String rejectionPolicy) {
+        this.rejectionPolicy = rejectionPolicy;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全文检索命中结果
+ */
+public class FullTextSearchHitDTO {
+    private Long id;
+    private String title;              // 原始问题标题，标准问题为空
+    private String content;            // 标准问题文本或原始问题内容
+    private String questionType;       // 标准问题类型，原始问题为空
+    private double score;              // 相关度得分
+    private List<String> tags = new ArrayList<>();
+    private String highlightedTitle;
+    private String highlightedContent;
+    private String highlightedAnswer;  // 原始问题中命中的回答摘要
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public String getQuestionType() {
+        return questionType;
+    }
+
+    public void setQuestionType(String questionType) {
+        this.questionType = questionType;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public String getHighlightedTitle() {
+        return highlightedTitle;
+    }
+
+    public void setHighlightedTitle(String highlightedTitle) {
+        this.highlightedTitle = highlightedTitle;
+    }
+
+    public String getHighlightedContent() {
+        return highlightedContent;
+    }
+
+    public void setHighlightedContent(String highlightedContent) {
+        this.highlightedContent = highlightedContent;
+    }
+
+    public String getHighlightedAnswer() {
+        return highlightedAnswer;
+    }
+
+    public void setHighlightedAnswer(String highlightedAnswer) {
+        this.highlightedAnswer = highlightedAnswer;
+    }
+}
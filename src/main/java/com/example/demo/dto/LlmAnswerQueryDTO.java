@@ -26,7 +26,7 @@ public class LlmAnswerQueryDTO {
     private String tag;
 
     /**
-     * 页码（从0开始）
+     * 页码（从0开始），未缓存页起点时按偏移量定位，页码越大越慢，连续翻页应使用cursor
      */
     private Integer page = 0;
 
@@ -44,6 +44,16 @@ public class LlmAnswerQueryDTO {
      * 问题类型（SINGLE_CHOICE, MULTIPLE_CHOICE, SIMPLE_FACT, SUBJECTIVE）
      */
     private String questionType;
+
+    /**
+     * 翻页游标，为上一页返回的nextCursor，指定时忽略页码定位
+     */
+    private String cursor;
+
+    /**
+     * 是否返回完整回答内容，默认只返回摘要
+     */
+    private Boolean fullText = false;
     
     /**
      * 获取评测员ID
@@ -173,6 +183,38 @@ public class LlmAnswerQueryDTO {
         this.questionType = questionType;
     }
     
+    /**
+     * 获取翻页游标
+     * @return 翻页游标
+     */
+    public String getCursor() {
+        return cursor;
+    }
+    
+    /**
+     * 设置翻页游标
+     * @param cursor 翻页游标
+     */
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+    
+    /**
+     * 是否返回完整回答内容
+     * @return 是否返回完整回答内容
+     */
+    public Boolean getFullText() {
+        return fullText;
+    }
+    
+    /**
+     * 设置是否返回完整回答内容
+     * @param fullText 是否返回完整回答内容
+     */
+    public void setFullText(Boolean fullText) {
+        this.fullText = fullText;
+    }
+    
     @Override
     public String toString() {
         return "LlmAnswerQueryDTO{" +
@@ -184,6 +226,8 @@ public class LlmAnswerQueryDTO {
                 ", size=" + size +
                 ", batchId=" + batchId +
                 ", questionType='" + questionType + '\'' +
+                ", cursor='" + cursor + '\'' +
+                ", fullText=" + fullText +
                 '}';
     }
 } 
\ No newline at end of file
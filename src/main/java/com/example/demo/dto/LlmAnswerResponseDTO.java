@@ -28,6 +28,11 @@ public class LlmAnswerResponseDTO {
      */
     private String answerText;
 
+    /**
+     * 回答内容是否被截断为摘要
+     */
+    private Boolean answerTruncated;
+
     /**
      * 生成时间
      */
@@ -132,6 +137,22 @@ public class LlmAnswerResponseDTO {
         this.answerText = answerText;
     }
 
+    /**
+     * 回答内容是否被截断为摘要
+     * @return 回答内容是否被截断
+     */
+    public Boolean getAnswerTruncated() {
+        return answerTruncated;
+    }
+
+    /**
+     * 设置回答内容是否被截断为摘要
+     * @param answerTruncated 回答内容是否被截断
+     */
+    public void setAnswerTruncated(Boolean answerTruncated) {
+        this.answerTruncated = answerTruncated;
+    }
+
     /**
      * 获取生成时间
      * @return 生成时间
@@ -0,0 +1,91 @@
+package com.example.demo.dto;
+
+/**
+ * 模型回答生成结果，流式生成时附带首个Token耗时和生成速度
+ *
+ * 流式响应在收到部分内容后中断时，partial为true，text为已收到的部分，errorMessage为中断原因。
+ */
+public class ModelAnswerResult {
+
+    private String text;
+    private Long firstTokenMs;
+    private Long totalMs;
+    private Integer completionTokens;
+    private Double tokensPerSecond;
+    private boolean streamed;
+    private boolean partial;
+    private String errorMessage;
+
+    public ModelAnswerResult() {
+    }
+
+    public ModelAnswerResult(String text, Long totalMs) {
+        this.text = text;
+        this.totalMs = totalMs;
+    }
+
+    // Getters and Setters
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public Long getFirstTokenMs() {
+        return firstTokenMs;
+    }
+
+    public void setFirstTokenMs(Long firstTokenMs) {
+        this.firstTokenMs = firstTokenMs;
+    }
+
+    public Long getTotalMs() {
+        return totalMs;
+    }
+
+    public void setTotalMs(Long totalMs) {
+        this.totalMs = totalMs;
+    }
+
+    public Integer getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public void setCompletionTokens(Integer completionTokens) {
+        this.completionTokens = completionTokens;
+    }
+
+    public Double getTokensPerSecond() {
+        return tokensPerSecond;
+    }
+
+    public void setTokensPerSecond(Double tokensPerSecond) {
+        this.tokensPerSecond = tokensPerSecond;
+    }
+
+    public boolean isStreamed() {
+        return streamed;
+    }
+
+    public void setStreamed(boolean streamed) {
+        this.streamed = streamed;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.demo.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * 通用分页响应DTO
  * 
@@ -44,6 +46,12 @@ public class PageResponseDTO<T> {
      */
     private boolean last;
 
+    /**
+     * 下一页的游标，支持游标翻页的查询返回，没有下一页时为空
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     /**
      * 构造函数
      * 
@@ -174,4 +182,20 @@ public class PageResponseDTO<T> {
     public void setLast(boolean last) {
         this.last = last;
     }
+
+    /**
+     * 获取下一页的游标
+     * @return 下一页的游标
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * 设置下一页的游标
+     * @param nextCursor 下一页的游标
+     */
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 } 
\ No newline at end of file
@@ -32,6 +32,8 @@ public class WebSocketMessage {
         QUESTION_COMPLETED,
         // 问题处理失败
         QUESTION_FAILED,
+        // 回答流式生成增量
+        ANSWER_STREAMING,
         // 错误消息
         ERROR,
         // 系统通知
@@ -0,0 +1,169 @@
+package com.example.demo.entity.jdbc;
+
+import java.time.LocalDateTime;
+
+/**
+ * 回答生成工作单元实体类 - JDBC版本
+ * 对应数据库表: answer_generation_work_units
+ *
+ * 批次的每个运行按扁平索引（重复索引 * 问题数 + 问题索引）切分为若干区间，每个区间为一个工作单元，
+ * 各实例通过租约领取单元并处理，checkpointIndex之前的问题均已完成。
+ */
+public class AnswerGenerationWorkUnit {
+    // 表名常量
+    public static final String TABLE_NAME = "answer_generation_work_units";
+
+    // 列名常量
+    public static final String COLUMN_ID = "id";
+    public static final String COLUMN_BATCH_ID = "batch_id";
+    public static final String COLUMN_RUN_ID = "run_id";
+    public static final String COLUMN_LLM_MODEL_ID = "llm_model_id";
+    public static final String COLUMN_START_INDEX = "start_index";
+    public static final String COLUMN_END_INDEX = "end_index";
+    public static final String COLUMN_CHECKPOINT_INDEX = "checkpoint_index";
+    public static final String COLUMN_STATUS = "status";
+    public static final String COLUMN_LEASE_OWNER = "lease_owner";
+    public static final String COLUMN_LEASE_EXPIRES_AT = "lease_expires_at";
+    public static final String COLUMN_ATTEMPTS = "attempts";
+    public static final String COLUMN_COMPLETED_COUNT = "completed_count";
+    public static final String COLUMN_FAILED_COUNT = "failed_count";
+    public static final String COLUMN_ERROR_MESSAGE = "error_message";
+
+    private Long id;
+    private Long batchId;
+    private Long runId;
+    private Long llmModelId;
+    private int startIndex;
+    private int endIndex;
+    private int checkpointIndex;
+    private UnitStatus status = UnitStatus.PENDING;
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+    private int attempts;
+    private int completedCount;
+    private int failedCount;
+    private String errorMessage;
+
+    /**
+     * 工作单元状态
+     */
+    public enum UnitStatus {
+        PENDING,    // 等待领取
+        LEASED,     // 已被实例领取，租约到期未续约时可被回收
+        COMPLETED,  // 已完成
+        FAILED      // 多次处理失败
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(Long batchId) {
+        this.batchId = batchId;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+
+    public Long getLlmModelId() {
+        return llmModelId;
+    }
+
+    public void setLlmModelId(Long llmModelId) {
+        this.llmModelId = llmModelId;
+    }
+
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    public void setStartIndex(int startIndex) {
+        this.startIndex = startIndex;
+    }
+
+    public int getEndIndex() {
+        return endIndex;
+    }
+
+    public void setEndIndex(int endIndex) {
+        this.endIndex = endIndex;
+    }
+
+    public int getCheckpointIndex() {
+        return checkpointIndex;
+    }
+
+    public void setCheckpointIndex(int checkpointIndex) {
+        this.checkpointIndex = checkpointIndex;
+    }
+
+    public UnitStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(UnitStatus status) {
+        this.status = status;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(int completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
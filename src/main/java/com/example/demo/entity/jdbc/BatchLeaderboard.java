@@ -0,0 +1,79 @@
+package com.example.demo.entity.jdbc;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批次排行榜快照实体类 - JDBC版本
+ * 对应数据库表: batch_leaderboards
+ *
+ * 批次的评测每次写入都会递增dataVersion；snapshot是按snapshotVersion计算出的排行榜，
+ * 二者相等时快照反映了最新的评测数据。
+ */
+public class BatchLeaderboard {
+    // 表名常量
+    public static final String TABLE_NAME = "batch_leaderboards";
+
+    // 列名常量
+    public static final String COLUMN_BATCH_ID = "batch_id";
+    public static final String COLUMN_DATA_VERSION = "data_version";
+    public static final String COLUMN_SNAPSHOT_VERSION = "snapshot_version";
+    public static final String COLUMN_SNAPSHOT = "snapshot";
+    public static final String COLUMN_CALCULATED_AT = "calculated_at";
+
+    private Long batchId;
+    private long dataVersion;
+    private Long snapshotVersion;
+    private String snapshot;
+    private LocalDateTime calculatedAt;
+    // 快照距今的秒数，由数据库时间计算，不落库
+    private Long snapshotAgeSeconds;
+
+    // Getters and Setters
+    public Long getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(Long batchId) {
+        this.batchId = batchId;
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public void setDataVersion(long dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
+    public Long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public void setSnapshotVersion(Long snapshotVersion) {
+        this.snapshotVersion = snapshotVersion;
+    }
+
+    public String getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(String snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public LocalDateTime getCalculatedAt() {
+        return calculatedAt;
+    }
+
+    public void setCalculatedAt(LocalDateTime calculatedAt) {
+        this.calculatedAt = calculatedAt;
+    }
+
+    public Long getSnapshotAgeSeconds() {
+        return snapshotAgeSeconds;
+    }
+
+    public void setSnapshotAgeSeconds(Long snapshotAgeSeconds) {
+        this.snapshotAgeSeconds = snapshotAgeSeconds;
+    }
+}
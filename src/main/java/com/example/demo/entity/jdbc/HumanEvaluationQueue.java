@@ -0,0 +1,83 @@
+package com.example.demo.entity.jdbc;
+
+import java.time.LocalDateTime;
+
+/**
+ * 人工评测队列实体类 - JDBC版本
+ * 对应数据库表: human_evaluation_queues
+ *
+ * 记录一个批次对一个评测者生成的任务总数和已完成数，待评测数由二者相减得出，无需扫描任务。
+ */
+public class HumanEvaluationQueue {
+    // 表名常量
+    public static final String TABLE_NAME = "human_evaluation_queues";
+
+    // 列名常量
+    public static final String COLUMN_BATCH_ID = "batch_id";
+    public static final String COLUMN_EVALUATOR_ID = "evaluator_id";
+    public static final String COLUMN_TOTAL_COUNT = "total_count";
+    public static final String COLUMN_COMPLETED_COUNT = "completed_count";
+    public static final String COLUMN_SEALED = "sealed";
+    public static final String COLUMN_REFRESHED_AT = "refreshed_at";
+
+    private Long batchId;
+    private Long evaluatorId;
+    private int totalCount;
+    private int completedCount;
+    // 批次回答已全部生成，任务不再补充
+    private boolean sealed;
+    private LocalDateTime refreshedAt;
+
+    public int getPendingCount() {
+        return Math.max(0, totalCount - completedCount);
+    }
+
+    // Getters and Setters
+    public Long getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(Long batchId) {
+        this.batchId = batchId;
+    }
+
+    public Long getEvaluatorId() {
+        return evaluatorId;
+    }
+
+    public void setEvaluatorId(Long evaluatorId) {
+        this.evaluatorId = evaluatorId;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public int getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(int completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public boolean isSealed() {
+        return sealed;
+    }
+
+    public void setSealed(boolean sealed) {
+        this.sealed = sealed;
+    }
+
+    public LocalDateTime getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    public void setRefreshedAt(LocalDateTime refreshedAt) {
+        this.refreshedAt = refreshedAt;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.entity.jdbc;
+
+import java.time.LocalDateTime;
+
+/**
+ * 人工评测任务实体类 - JDBC版本
+ * 对应数据库表: human_evaluation_tasks
+ *
+ * 每个(回答, 评测者)对应一个任务，按批次和评测者一次性生成。评测人员按租约领取任务，
+ * 提交评测后任务完成；租约到期未提交的任务回到待领取状态。
+ */
+public class HumanEvaluationTask {
+    // 表名常量
+    public static final String TABLE_NAME = "human_evaluation_tasks";
+
+    // 列名常量
+    public static final String COLUMN_ID = "id";
+    public static final String COLUMN_BATCH_ID = "batch_id";
+    public static final String COLUMN_EVALUATOR_ID = "evaluator_id";
+    public static final String COLUMN_LLM_ANSWER_ID = "llm_answer_id";
+    public static final String COLUMN_MODEL_ID = "model_id";
+    public static final String COLUMN_QUESTION_ID = "question_id";
+    public static final String COLUMN_QUESTION_TYPE = "question_type";
+    public static final String COLUMN_STATUS = "status";
+    public static final String COLUMN_LEASE_OWNER = "lease_owner";
+    public static final String COLUMN_LEASE_EXPIRES_AT = "lease_expires_at";
+    public static final String COLUMN_EVALUATION_ID = "evaluation_id";
+
+    private Long id;
+    private Long batchId;
+    private Long evaluatorId;
+    private Long llmAnswerId;
+    private Long modelId;
+    private Long questionId;
+    private QuestionType questionType;
+    private TaskStatus status = TaskStatus.PENDING;
+    private Long leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+    private Long evaluationId;
+
+    /**
+     * 任务状态
+     */
+    public enum TaskStatus {
+        PENDING,    // 等待领取
+        LEASED,     // 已被评测人员领取，租约到期后回到等待领取
+        COMPLETED   // 评测已提交
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(Long batchId) {
+        this.batchId = batchId;
+    }
+
+    public Long getEvaluatorId() {
+        return evaluatorId;
+    }
+
+    public void setEvaluatorId(Long evaluatorId) {
+        this.evaluatorId = evaluatorId;
+    }
+
+    public Long getLlmAnswerId() {
+        return llmAnswerId;
+    }
+
+    public void setLlmAnswerId(Long llmAnswerId) {
+        this.llmAnswerId = llmAnswerId;
+    }
+
+    public Long getModelId() {
+        return modelId;
+    }
+
+    public void setModelId(Long modelId) {
+        this.modelId = modelId;
+    }
+
+    public Long getQuestionId() {
+        return questionId;
+    }
+
+    public void setQuestionId(Long questionId) {
+        this.questionId = questionId;
+    }
+
+    public QuestionType getQuestionType() {
+        return questionType;
+    }
+
+    public void setQuestionType(QuestionType questionType) {
+        this.questionType = questionType;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+
+    public Long getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(Long leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public Long getEvaluationId() {
+        return evaluationId;
+    }
+
+    public void setEvaluationId(Long evaluationId) {
+        this.evaluationId = evaluationId;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.entity.jdbc;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -22,6 +23,8 @@ public class LlmAnswer {
     public static final String COLUMN_RAW_MODEL_RESPONSE = "raw_model_response";
     public static final String COLUMN_OTHER_METADATA = "other_metadata";
     public static final String COLUMN_REPEAT_INDEX = "repeat_index";
+    public static final String COLUMN_FIRST_TOKEN_MS = "first_token_ms";
+    public static final String COLUMN_TOKENS_PER_SECOND = "tokens_per_second";
     
     private Long id;
     private ModelAnswerRun modelAnswerRun;
@@ -34,6 +37,8 @@ public class LlmAnswer {
     private String rawModelResponse;
     private String otherMetadata;
     private Integer repeatIndex = 0;
+    private Long firstTokenMs;
+    private BigDecimal tokensPerSecond;
 
     // 生成状态枚举
     public enum GenerationStatus {
@@ -129,4 +134,20 @@ public class LlmAnswer {
     public void setRepeatIndex(Integer repeatIndex) {
         this.repeatIndex = repeatIndex;
     }
-} 
\ No newline at end of file
+
+    public Long getFirstTokenMs() {
+        return firstTokenMs;
+    }
+
+    public void setFirstTokenMs(Long firstTokenMs) {
+        this.firstTokenMs = firstTokenMs;
+    }
+
+    public BigDecimal getTokensPerSecond() {
+        return tokensPerSecond;
+    }
+
+    public void setTokensPerSecond(BigDecimal tokensPerSecond) {
+        this.tokensPerSecond = tokensPerSecond;
+    }
+}
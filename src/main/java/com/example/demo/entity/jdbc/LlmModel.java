@@ -21,6 +21,11 @@ public class LlmModel {
     public static final String COLUMN_API_KEY = "api_key";
     public static final String COLUMN_API_TYPE = "api_type";
     public static final String COLUMN_MODEL_PARAMETERS = "model_parameters";
+    public static final String COLUMN_REQUESTS_PER_MINUTE = "requests_per_minute";
+    public static final String COLUMN_TOKENS_PER_MINUTE = "tokens_per_minute";
+    public static final String COLUMN_MAX_CONCURRENCY = "max_concurrency";
+    public static final String COLUMN_CONNECT_TIMEOUT_MS = "connect_timeout_ms";
+    public static final String COLUMN_READ_TIMEOUT_MS = "read_timeout_ms";
     public static final String COLUMN_CREATED_AT = "created_at";
     public static final String COLUMN_CREATED_BY_USER_ID = "created_by_user_id";
     public static final String COLUMN_CREATED_CHANGE_LOG_ID = "created_change_log_id";
@@ -35,6 +40,11 @@ public class LlmModel {
     private String apiKey;
     private String apiType;
     private Map<String, Object> modelParameters;
+    private Integer requestsPerMinute;
+    private Integer tokensPerMinute;
+    private Integer maxConcurrency;
+    private Integer connectTimeoutMs;
+    private Integer readTimeoutMs;
     private LocalDateTime createdAt = LocalDateTime.now();
     private User createdByUser;
     private ChangeLog createdChangeLog;
@@ -113,6 +123,46 @@ public class LlmModel {
         this.modelParameters = modelParameters;
     }
 
+    public Integer getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    public void setRequestsPerMinute(Integer requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    public Integer getTokensPerMinute() {
+        return tokensPerMinute;
+    }
+
+    public void setTokensPerMinute(Integer tokensPerMinute) {
+        this.tokensPerMinute = tokensPerMinute;
+    }
+
+    public Integer getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(Integer maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Integer getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(Integer connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public Integer getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public void setReadTimeoutMs(Integer readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
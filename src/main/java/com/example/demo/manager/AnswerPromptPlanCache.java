@@ -0,0 +1,329 @@
+package com.example.demo.manager;
+
+import com.example.demo.entity.jdbc.AnswerGenerationBatch;
+import com.example.demo.entity.jdbc.AnswerPromptAssemblyConfig;
+import com.example.demo.entity.jdbc.AnswerQuestionTypePrompt;
+import com.example.demo.entity.jdbc.AnswerTagPrompt;
+import com.example.demo.entity.jdbc.QuestionType;
+import com.example.demo.entity.jdbc.StandardQuestion;
+import com.example.demo.repository.jdbc.AnswerPromptAssemblyConfigRepository;
+import com.example.demo.repository.jdbc.AnswerQuestionTypePromptRepository;
+import com.example.demo.repository.jdbc.AnswerTagPromptRepository;
+import com.example.demo.repository.jdbc.DatasetQuestionMappingRepository;
+import com.example.demo.repository.jdbc.StandardQuestionTagsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 回答Prompt组装计划缓存
+ *
+ * 每个批次编译一份组装计划：组装配置的各段文本、标签到激活提示词的映射、各题型提示词，
+ * 以及数据集版本中问题的标签和映射ID，均在构建时批量加载。组装好的Prompt按问题缓存，
+ * 重复生成和保存回答时直接复用，单个问题的组装不再访问数据库。
+ *
+ * 标签提示词、题型提示词或回答组装配置变更时调用{@link #invalidateAll()}，之后的请求重新构建计划。
+ */
+@Component
+public class AnswerPromptPlanCache {
+    private static final Logger logger = LoggerFactory.getLogger(AnswerPromptPlanCache.class);
+
+    // 未配置组装配置时使用的默认系统提示词
+    private static final String DEFAULT_SYSTEM_PROMPT = "你是一个专业的医学AI助手，请基于专业医学知识回答以下问题：\n\n";
+
+    private final AnswerPromptAssemblyConfigRepository answerConfigRepository;
+    private final AnswerTagPromptRepository answerTagPromptRepository;
+    private final AnswerQuestionTypePromptRepository answerQuestionTypePromptRepository;
+    private final StandardQuestionTagsRepository standardQuestionTagsRepository;
+    private final DatasetQuestionMappingRepository datasetQuestionMappingRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, Plan> plans = new ConcurrentHashMap<>();
+
+    // 失效代数，计划构建期间发生失效时不缓存该计划
+    private final AtomicLong generation = new AtomicLong();
+
+    public AnswerPromptPlanCache(AnswerPromptAssemblyConfigRepository answerConfigRepository,
+                                 AnswerTagPromptRepository answerTagPromptRepository,
+                                 AnswerQuestionTypePromptRepository answerQuestionTypePromptRepository,
+                                 StandardQuestionTagsRepository standardQuestionTagsRepository,
+                                 DatasetQuestionMappingRepository datasetQuestionMappingRepository,
+                                 JdbcTemplate jdbcTemplate) {
+        this.answerConfigRepository = answerConfigRepository;
+        this.answerTagPromptRepository = answerTagPromptRepository;
+        this.answerQuestionTypePromptRepository = answerQuestionTypePromptRepository;
+        this.standardQuestionTagsRepository = standardQuestionTagsRepository;
+        this.datasetQuestionMappingRepository = datasetQuestionMappingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 获取批次的组装计划，不存在或已失效时重新构建
+     */
+    public Plan getPlan(AnswerGenerationBatch batch) {
+        Plan plan = plans.get(batch.getId());
+        if (plan != null) {
+            return plan;
+        }
+
+        long buildGeneration = generation.get();
+        Plan built = buildPlan(batch);
+        if (generation.get() == buildGeneration) {
+            Plan existing = plans.putIfAbsent(batch.getId(), built);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return built;
+    }
+
+    /**
+     * 移除批次的组装计划，批次处理结束后调用
+     */
+    public void evict(Long batchId) {
+        plans.remove(batchId);
+    }
+
+    /**
+     * 提示词或组装配置变更后使所有计划失效
+     *
+     * 在事务中调用时，提交后再失效一次，避免提交前重建的计划读到旧数据。
+     */
+    public void invalidateAll() {
+        clearPlans();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clearPlans();
+                }
+            });
+        }
+    }
+
+    private void clearPlans() {
+        generation.incrementAndGet();
+        plans.clear();
+        logger.info("回答Prompt组装计划已全部失效");
+    }
+
+    private Plan buildPlan(AnswerGenerationBatch batch) {
+        long startTime = System.currentTimeMillis();
+
+        // 组装配置：按ID重新加载，保证使用最新内容
+        AnswerPromptAssemblyConfig config = batch.getAnswerAssemblyConfig();
+        if (config != null && config.getId() != null) {
+            config = answerConfigRepository.findById(config.getId()).orElse(config);
+        }
+
+        // 数据集版本中各问题的标签和映射ID
+        Long datasetVersionId = batch.getDatasetVersion() != null ? batch.getDatasetVersion().getId() : null;
+        if (datasetVersionId == null) {
+            datasetVersionId = jdbcTemplate.queryForObject(
+                "SELECT dataset_version_id FROM answer_generation_batches WHERE id = ?",
+                Long.class, batch.getId());
+        }
+        Map<Long, List<Long>> questionTagIds = datasetVersionId != null
+            ? standardQuestionTagsRepository.findTagIdsByDatasetVersionId(datasetVersionId)
+            : Collections.emptyMap();
+        Map<Long, Long> mappingIds = datasetVersionId != null
+            ? datasetQuestionMappingRepository.findMappingIdsByDatasetVersionId(datasetVersionId)
+            : Collections.emptyMap();
+
+        // 标签到激活提示词的映射，查询结果已按优先级排序
+        Map<Long, List<AnswerTagPrompt>> tagPrompts = new HashMap<>();
+        for (AnswerTagPrompt prompt : answerTagPromptRepository.findAllActivePrompts()) {
+            if (prompt.getTag() != null && prompt.getTag().getId() != null) {
+                tagPrompts.computeIfAbsent(prompt.getTag().getId(), k -> new ArrayList<>()).add(prompt);
+            }
+        }
+
+        // 各题型提示词：优先使用批次预设，否则使用仓库中激活的提示词
+        Map<QuestionType, AnswerQuestionTypePrompt> typePrompts = new EnumMap<>(QuestionType.class);
+        for (QuestionType questionType : QuestionType.values()) {
+            AnswerQuestionTypePrompt prompt = resolveQuestionTypePrompt(batch, questionType);
+            if (prompt != null) {
+                typePrompts.put(questionType, prompt);
+            }
+        }
+
+        Plan plan = new Plan(batch.getId(), datasetVersionId, config, questionTagIds, mappingIds, tagPrompts, typePrompts);
+        logger.info("批次{}的Prompt组装计划构建完成: 组装配置ID={}, 问题数={}, 标签提示词数={}, 题型提示词数={}, 耗时={}毫秒",
+            batch.getId(), config != null ? config.getId() : "null", mappingIds.size(),
+            tagPrompts.values().stream().mapToInt(List::size).sum(), typePrompts.size(),
+            System.currentTimeMillis() - startTime);
+        return plan;
+    }
+
+    private AnswerQuestionTypePrompt resolveQuestionTypePrompt(AnswerGenerationBatch batch, QuestionType questionType) {
+        AnswerQuestionTypePrompt preset;
+        switch (questionType) {
+            case SINGLE_CHOICE:
+                preset = batch.getSingleChoicePrompt();
+                break;
+            case MULTIPLE_CHOICE:
+                preset = batch.getMultipleChoicePrompt();
+                break;
+            case SIMPLE_FACT:
+                preset = batch.getSimpleFactPrompt();
+                break;
+            case SUBJECTIVE:
+                preset = batch.getSubjectivePrompt();
+                break;
+            default:
+                return null;
+        }
+
+        if (preset != null) {
+            return preset.getId() != null
+                ? answerQuestionTypePromptRepository.findById(preset.getId()).orElse(preset)
+                : preset;
+        }
+
+        List<AnswerQuestionTypePrompt> prompts = answerQuestionTypePromptRepository
+            .findByQuestionTypeAndIsActiveTrueAndDeletedAtIsNull(questionType);
+        if (prompts.isEmpty()) {
+            return null;
+        }
+        logger.info("批次{}未设置{}题型提示词，使用仓库中的提示词：ID={}，名称={}",
+            batch.getId(), questionType, prompts.get(0).getId(), prompts.get(0).getName());
+        return prompts.get(0);
+    }
+
+    /**
+     * 单个批次编译后的Prompt组装计划，构建完成后只读，可被多个线程共享
+     */
+    public static class Plan {
+        private final Long batchId;
+        private final Long datasetVersionId;
+        private final AnswerPromptAssemblyConfig config;
+        private final Map<Long, List<Long>> questionTagIds;
+        private final Map<Long, Long> mappingIds;
+        private final Map<Long, List<AnswerTagPrompt>> tagPrompts;
+        private final Map<QuestionType, AnswerQuestionTypePrompt> typePrompts;
+
+        // 组装好的Prompt，按问题ID缓存
+        private final ConcurrentHashMap<Long, String> prompts = new ConcurrentHashMap<>();
+
+        Plan(Long batchId, Long datasetVersionId, AnswerPromptAssemblyConfig config,
+             Map<Long, List<Long>> questionTagIds, Map<Long, Long> mappingIds,
+             Map<Long, List<AnswerTagPrompt>> tagPrompts, Map<QuestionType, AnswerQuestionTypePrompt> typePrompts) {
+            this.batchId = batchId;
+            this.datasetVersionId = datasetVersionId;
+            this.config = config;
+            this.questionTagIds = questionTagIds;
+            this.mappingIds = mappingIds;
+            this.tagPrompts = tagPrompts;
+            this.typePrompts = typePrompts;
+        }
+
+        public Long getDatasetVersionId() {
+            return datasetVersionId;
+        }
+
+        /**
+         * 获取问题在数据集版本中的映射ID
+         */
+        public Long getMappingId(Long questionId) {
+            return mappingIds.get(questionId);
+        }
+
+        /**
+         * 获取问题的完整Prompt，同一问题只组装一次
+         */
+        public String getPrompt(StandardQuestion question) {
+            return prompts.computeIfAbsent(question.getId(), id -> assemble(question));
+        }
+
+        private String assemble(StandardQuestion question) {
+            StringBuilder promptBuilder = new StringBuilder();
+
+            if (config == null) {
+                logger.warn("批次{}未找到Prompt组装配置，使用默认系统提示词", batchId);
+                promptBuilder.append(DEFAULT_SYSTEM_PROMPT);
+                promptBuilder.append(question.getQuestionText());
+                return promptBuilder.toString();
+            }
+
+            // 添加系统提示词
+            if (config.getBaseSystemPrompt() != null && !config.getBaseSystemPrompt().trim().isEmpty()) {
+                promptBuilder.append(config.getBaseSystemPrompt()).append("\n\n");
+            }
+
+            // 收集问题各标签的提示词，按优先级排序
+            List<AnswerTagPrompt> questionTagPrompts = new ArrayList<>();
+            for (Long tagId : questionTagIds.getOrDefault(question.getId(), Collections.emptyList())) {
+                questionTagPrompts.addAll(tagPrompts.getOrDefault(tagId, Collections.emptyList()));
+            }
+
+            // 只有存在标签时才添加标签提示词部分
+            if (questionTagIds.containsKey(question.getId())) {
+                if (config.getTagPromptsSectionHeader() != null) {
+                    promptBuilder.append(config.getTagPromptsSectionHeader()).append("\n");
+                }
+
+                if (!questionTagPrompts.isEmpty()) {
+                    questionTagPrompts.sort(Comparator.comparing(AnswerTagPrompt::getPromptPriority));
+                    String separator = config.getTagPromptSeparator() != null ? config.getTagPromptSeparator() : "\n\n";
+                    for (int i = 0; i < questionTagPrompts.size(); i++) {
+                        if (i > 0) {
+                            promptBuilder.append(separator);
+                        }
+                        promptBuilder.append(questionTagPrompts.get(i).getPromptTemplate());
+                    }
+                    promptBuilder.append(config.getSectionSeparator() != null ? config.getSectionSeparator() : "\n\n");
+                }
+            }
+
+            // 添加题型提示词部分
+            AnswerQuestionTypePrompt questionTypePrompt = question.getQuestionType() != null
+                ? typePrompts.get(question.getQuestionType()) : null;
+            if (questionTypePrompt != null) {
+                if (config.getQuestionTypeSectionHeader() != null) {
+                    promptBuilder.append(config.getQuestionTypeSectionHeader()).append("\n");
+                }
+
+                promptBuilder.append(questionTypePrompt.getPromptTemplate());
+
+                // 添加格式说明
+                if (questionTypePrompt.getResponseFormatInstruction() != null &&
+                    !questionTypePrompt.getResponseFormatInstruction().trim().isEmpty()) {
+                    promptBuilder.append("\n\n").append(questionTypePrompt.getResponseFormatInstruction());
+                }
+
+                // 添加示例（可选）
+                if (questionTypePrompt.getResponseExample() != null &&
+                    !questionTypePrompt.getResponseExample().trim().isEmpty()) {
+                    promptBuilder.append("\n例如：").append(questionTypePrompt.getResponseExample());
+                }
+            } else {
+                logger.warn("找不到题型={}的提示词", question.getQuestionType());
+            }
+
+            // 添加最终指令
+            if (config.getFinalInstruction() != null && !config.getFinalInstruction().trim().isEmpty()) {
+                promptBuilder.append("\n\n").append(config.getFinalInstruction());
+            }
+
+            // 添加问题文本
+            promptBuilder.append("\n\n问题：").append(question.getQuestionText());
+
+            String fullPrompt = promptBuilder.toString();
+            logger.debug("组装完成，问题ID={}的prompt长度：{}", question.getId(), fullPrompt.length());
+            return fullPrompt;
+        }
+    }
+}
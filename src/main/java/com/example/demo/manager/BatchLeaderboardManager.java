@@ -0,0 +1,502 @@
+package com.example.demo.manager;
+
+import com.example.demo.entity.jdbc.BatchLeaderboard;
+import com.example.demo.repository.jdbc.BatchLeaderboardRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批次综合评分排行榜
+ *
+ * 一个批次所有模型的评分指标由一次分组查询得出，排行榜以JSON快照保存在batch_leaderboards中，
+ * 评测写入时递增批次的数据版本使快照过期。读取时先按主键读取版本，快照仍有效时直接使用，
+ * 本实例已解析过的同一快照不再重复读取和解析；快照过期时由一个线程重新计算并保存，供所有实例共用。
+ */
+@Component
+public class BatchLeaderboardManager {
+    private static final Logger logger = LoggerFactory.getLogger(BatchLeaderboardManager.class);
+
+    private static final String SQL_FIND_BATCH_INFO =
+            "SELECT agb.id, agb.name, agb.description, agb.creation_time, " +
+            "dv.name as dataset_name, dv.version_number as dataset_version " +
+            "FROM answer_generation_batches agb " +
+            "JOIN dataset_versions dv ON agb.dataset_version_id = dv.id " +
+            "WHERE agb.id = ?";
+
+    private static final String SQL_FIND_MODELS =
+            "SELECT DISTINCT lm.id, lm.name, lm.provider, lm.version " +
+            "FROM model_answer_runs mar " +
+            "JOIN llm_models lm ON mar.llm_model_id = lm.id " +
+            "WHERE mar.answer_generation_batch_id = ?";
+
+    private static final String OBJECTIVE_SCORED =
+            "e.evaluation_status = 'SUCCESS' AND sq.question_type IN ('SINGLE_CHOICE', 'MULTIPLE_CHOICE', 'SIMPLE_FACT')";
+
+    private static final String AI_SCORED =
+            "e.evaluation_status = 'SUCCESS' AND sq.question_type = 'SUBJECTIVE' AND ev.evaluator_type = 'AI_MODEL'";
+
+    private static final String HUMAN_SCORED =
+            "e.evaluation_status = 'SUCCESS' AND sq.question_type = 'SUBJECTIVE' AND ev.evaluator_type = 'HUMAN'";
+
+    // 从批次的运行出发左连接回答和评测，每个模型都有一行；按前缀拆分为客观题(obj_)、主观题AI评分(ai_)、
+    // 主观题人工评分(human_)、评测详情(detail_)和评测概览(ov_)。没有匹配行时SUM为NULL、COUNT为0，
+    // 与逐个模型单独查询时的结果一致，因此计数使用SUM(条件)而不是SUM(CASE ... ELSE 0)。
+    // 评测概览只统计有题目映射的回答，对应单独查询时与标准问题的内连接。
+    private static final String SQL_FIND_MODEL_METRICS =
+            "SELECT mar.llm_model_id AS model_id, " +
+            "COUNT(DISTINCT CASE WHEN " + OBJECTIVE_SCORED + " THEN e.llm_answer_id END) AS obj_total_answers, " +
+            "AVG(CASE WHEN " + OBJECTIVE_SCORED + " THEN e.normalized_score END) AS obj_average_score, " +
+            "MAX(CASE WHEN " + OBJECTIVE_SCORED + " THEN e.normalized_score END) AS obj_max_score, " +
+            "MIN(CASE WHEN " + OBJECTIVE_SCORED + " THEN e.normalized_score END) AS obj_min_score, " +
+            "SUM(CASE WHEN " + OBJECTIVE_SCORED + " THEN sq.question_type = 'SINGLE_CHOICE' END) AS obj_single_choice_count, " +
+            "SUM(CASE WHEN " + OBJECTIVE_SCORED + " THEN sq.question_type = 'MULTIPLE_CHOICE' END) AS obj_multiple_choice_count, " +
+            "SUM(CASE WHEN " + OBJECTIVE_SCORED + " THEN sq.question_type = 'SIMPLE_FACT' END) AS obj_simple_fact_count, " +
+            "AVG(CASE WHEN " + OBJECTIVE_SCORED + " AND sq.question_type = 'SINGLE_CHOICE' THEN e.normalized_score END) AS obj_single_choice_avg, " +
+            "AVG(CASE WHEN " + OBJECTIVE_SCORED + " AND sq.question_type = 'MULTIPLE_CHOICE' THEN e.normalized_score END) AS obj_multiple_choice_avg, " +
+            "AVG(CASE WHEN " + OBJECTIVE_SCORED + " AND sq.question_type = 'SIMPLE_FACT' THEN e.normalized_score END) AS obj_simple_fact_avg, " +
+            "COUNT(DISTINCT CASE WHEN " + AI_SCORED + " THEN e.llm_answer_id END) AS ai_total_answers, " +
+            "AVG(CASE WHEN " + AI_SCORED + " THEN e.overall_score END) AS ai_average_score, " +
+            "MAX(CASE WHEN " + AI_SCORED + " THEN e.overall_score END) AS ai_max_score, " +
+            "MIN(CASE WHEN " + AI_SCORED + " THEN e.overall_score END) AS ai_min_score, " +
+            "COUNT(DISTINCT CASE WHEN " + AI_SCORED + " THEN e.evaluator_id END) AS ai_evaluator_count, " +
+            "COUNT(DISTINCT CASE WHEN " + HUMAN_SCORED + " THEN e.llm_answer_id END) AS human_total_answers, " +
+            "AVG(CASE WHEN " + HUMAN_SCORED + " THEN e.overall_score END) AS human_average_score, " +
+            "MAX(CASE WHEN " + HUMAN_SCORED + " THEN e.overall_score END) AS human_max_score, " +
+            "MIN(CASE WHEN " + HUMAN_SCORED + " THEN e.overall_score END) AS human_min_score, " +
+            "COUNT(DISTINCT CASE WHEN " + HUMAN_SCORED + " THEN e.evaluator_id END) AS human_evaluator_count, " +
+            "COUNT(DISTINCT e.id) AS detail_total_evaluations, " +
+            "COUNT(DISTINCT e.llm_answer_id) AS detail_total_answers, " +
+            "COUNT(DISTINCT e.evaluator_id) AS detail_total_evaluators, " +
+            "SUM(e.evaluation_status = 'SUCCESS') AS detail_success_count, " +
+            "SUM(e.evaluation_status = 'FAILED') AS detail_failed_count, " +
+            "COUNT(DISTINCT CASE WHEN sq.id IS NOT NULL THEN la.id END) AS ov_total_answers, " +
+            "COUNT(DISTINCT CASE WHEN sq.id IS NOT NULL THEN e.id END) AS ov_total_evaluations, " +
+            "SUM(sq.question_type = 'SINGLE_CHOICE') AS ov_single_choice_count, " +
+            "SUM(sq.question_type = 'MULTIPLE_CHOICE') AS ov_multiple_choice_count, " +
+            "SUM(sq.question_type = 'SIMPLE_FACT') AS ov_simple_fact_count, " +
+            "SUM(sq.question_type = 'SUBJECTIVE') AS ov_subjective_count, " +
+            "SUM(CASE WHEN sq.id IS NOT NULL THEN ev.evaluator_type <=> 'AI_MODEL' END) AS ov_ai_evaluation_count, " +
+            "SUM(CASE WHEN sq.id IS NOT NULL THEN ev.evaluator_type <=> 'HUMAN' END) AS ov_human_evaluation_count " +
+            "FROM model_answer_runs mar " +
+            "LEFT JOIN llm_answers la ON la.model_answer_run_id = mar.id " +
+            "LEFT JOIN evaluations e ON e.llm_answer_id = la.id " +
+            "LEFT JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id " +
+            "LEFT JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
+            "LEFT JOIN evaluators ev ON e.evaluator_id = ev.id " +
+            "WHERE mar.answer_generation_batch_id = ? " +
+            "GROUP BY mar.llm_model_id";
+
+    private static final String SQL_FIND_CRITERIA_SCORES =
+            "SELECT mar.llm_model_id AS model_id, ev.evaluator_type, " +
+            "ed.criterion_name, AVG(ed.score) as average_score, COUNT(*) as count " +
+            "FROM evaluation_details ed " +
+            "JOIN evaluations e ON ed.evaluation_id = e.id " +
+            "JOIN llm_answers la ON e.llm_answer_id = la.id " +
+            "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
+            "JOIN evaluators ev ON e.evaluator_id = ev.id " +
+            "WHERE mar.answer_generation_batch_id = ? " +
+            "AND ev.evaluator_type IN ('AI_MODEL', 'HUMAN') " +
+            "AND e.evaluation_status = 'SUCCESS' " +
+            "GROUP BY mar.llm_model_id, ev.evaluator_type, ed.criterion_name " +
+            "ORDER BY ed.criterion_name";
+
+    // 评测者数在模型之间不能相加，按模型保存评测者ID，筛选模型后取并集
+    private static final String SQL_FIND_MODEL_EVALUATORS =
+            "SELECT DISTINCT mar.llm_model_id AS model_id, e.evaluator_id " +
+            "FROM evaluations e " +
+            "JOIN llm_answers la ON e.llm_answer_id = la.id " +
+            "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
+            "JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id " +
+            "JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
+            "WHERE mar.answer_generation_batch_id = ?";
+
+    private static final List<String> OVERVIEW_SUM_COLUMNS = List.of(
+            "single_choice_count", "multiple_choice_count", "simple_fact_count", "subjective_count",
+            "ai_evaluation_count", "human_evaluation_count");
+
+    @Value("${leaderboard.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @Value("${leaderboard.local-cache-max-entries:200}")
+    private int localCacheMaxEntries;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BatchLeaderboardRepository leaderboardRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader snapshotReader;
+
+    // 本实例已解析的快照，按批次ID缓存
+    private final ConcurrentHashMap<Long, CachedLeaderboard> leaderboards = new ConcurrentHashMap<>();
+
+    // 同一批次同时只由一个线程重新计算
+    private final ConcurrentHashMap<Long, Object> buildLocks = new ConcurrentHashMap<>();
+
+    public BatchLeaderboardManager(JdbcTemplate jdbcTemplate, BatchLeaderboardRepository leaderboardRepository,
+                                   ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaderboardRepository = leaderboardRepository;
+        this.objectMapper = objectMapper;
+        // 小数按BigDecimal读取，保留分数的精度和位数
+        this.snapshotReader = objectMapper.readerFor(Leaderboard.class)
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    }
+
+    /**
+     * 获取批次的排行榜
+     *
+     * @param batchId 批次ID
+     * @return 按综合评分降序排列的排行榜，不可修改
+     * @throws org.springframework.dao.EmptyResultDataAccessException 批次不存在时
+     */
+    public Leaderboard getLeaderboard(Long batchId) {
+        Leaderboard leaderboard = loadFresh(batchId);
+        if (leaderboard != null) {
+            return leaderboard;
+        }
+
+        Object lock = buildLocks.computeIfAbsent(batchId, k -> new Object());
+        synchronized (lock) {
+            // 等待期间其他线程或实例可能已经完成计算
+            leaderboard = loadFresh(batchId);
+            if (leaderboard != null) {
+                return leaderboard;
+            }
+
+            // 先读取版本再计算，计算期间写入的评测会使这次保存的快照立即过期
+            long dataVersion = leaderboardRepository.findStateByBatchId(batchId)
+                    .map(BatchLeaderboard::getDataVersion).orElse(0L);
+            long startTime = System.currentTimeMillis();
+            leaderboard = build(batchId);
+            leaderboardRepository.saveSnapshot(batchId, dataVersion, toJson(leaderboard));
+            logger.info("批次{}排行榜重新计算完成: 版本={}, 模型数={}, 耗时={}毫秒",
+                    batchId, dataVersion, leaderboard.getModels().size(), System.currentTimeMillis() - startTime);
+
+            Optional<BatchLeaderboard> saved = leaderboardRepository.findStateByBatchId(batchId);
+            if (saved.isPresent() && Objects.equals(saved.get().getSnapshotVersion(), dataVersion)) {
+                cache(batchId, new CachedLeaderboard(dataVersion, saved.get().getCalculatedAt(), leaderboard));
+            }
+            return leaderboard;
+        }
+    }
+
+    /**
+     * 快照有效时返回快照，本实例缓存的是同一快照时不再读取快照内容
+     */
+    private Leaderboard loadFresh(Long batchId) {
+        BatchLeaderboard state = leaderboardRepository.findStateByBatchId(batchId).orElse(null);
+        if (state == null || state.getSnapshotVersion() == null
+                || state.getSnapshotVersion() != state.getDataVersion()
+                || state.getSnapshotAgeSeconds() == null || state.getSnapshotAgeSeconds() >= maxAgeSeconds) {
+            return null;
+        }
+
+        long snapshotVersion = state.getSnapshotVersion();
+        CachedLeaderboard cached = leaderboards.get(batchId);
+        if (cached != null && cached.snapshotVersion == snapshotVersion
+                && Objects.equals(cached.calculatedAt, state.getCalculatedAt())) {
+            return cached.leaderboard;
+        }
+
+        Optional<String> snapshot = leaderboardRepository.findSnapshot(batchId, snapshotVersion);
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+        try {
+            Leaderboard leaderboard = snapshotReader.readValue(snapshot.get());
+            cache(batchId, new CachedLeaderboard(snapshotVersion, state.getCalculatedAt(), leaderboard));
+            return leaderboard;
+        } catch (JsonProcessingException e) {
+            logger.warn("批次{}排行榜快照解析失败，重新计算: {}", batchId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void cache(Long batchId, CachedLeaderboard cached) {
+        if (leaderboards.size() >= localCacheMaxEntries && !leaderboards.containsKey(batchId)) {
+            long expiredBefore = System.currentTimeMillis() - maxAgeSeconds * 1000;
+            leaderboards.values().removeIf(entry -> entry.loadedAt < expiredBefore);
+            if (leaderboards.size() >= localCacheMaxEntries) {
+                leaderboards.clear();
+            }
+            buildLocks.keySet().retainAll(leaderboards.keySet());
+        }
+        leaderboards.put(batchId, cached);
+    }
+
+    private String toJson(Leaderboard leaderboard) {
+        try {
+            return objectMapper.writeValueAsString(leaderboard);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("排行榜序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 计算批次所有模型的评分和排名，查询次数与模型数无关
+     */
+    private Leaderboard build(Long batchId) {
+        Map<String, Object> batchInfo = jdbcTemplate.queryForMap(SQL_FIND_BATCH_INFO, batchId);
+        List<Map<String, Object>> models = jdbcTemplate.queryForList(SQL_FIND_MODELS, batchId);
+
+        Map<Long, Map<String, Object>> metrics = new HashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(SQL_FIND_MODEL_METRICS, batchId)) {
+            metrics.put(((Number) row.get("model_id")).longValue(), row);
+        }
+
+        // 模型ID -> 评测者类型 -> 各评测标准的平均分
+        Map<Long, Map<String, List<Map<String, Object>>>> criteriaScores = new HashMap<>();
+        jdbcTemplate.query(SQL_FIND_CRITERIA_SCORES, (RowCallbackHandler) rs -> {
+            Map<String, Object> criterion = new LinkedHashMap<>();
+            criterion.put("criterion_name", rs.getString("criterion_name"));
+            criterion.put("average_score", rs.getBigDecimal("average_score"));
+            criterion.put("count", rs.getLong("count"));
+            criteriaScores.computeIfAbsent(rs.getLong("model_id"), k -> new HashMap<>())
+                    .computeIfAbsent(rs.getString("evaluator_type"), k -> new ArrayList<>())
+                    .add(criterion);
+        }, batchId);
+
+        Map<Long, List<Long>> modelEvaluatorIds = new HashMap<>();
+        jdbcTemplate.query(SQL_FIND_MODEL_EVALUATORS, (RowCallbackHandler) rs ->
+                modelEvaluatorIds.computeIfAbsent(rs.getLong("model_id"), k -> new ArrayList<>())
+                        .add(rs.getLong("evaluator_id")), batchId);
+
+        List<Map<String, Object>> modelScores = new ArrayList<>(models.size());
+        Map<Long, Map<String, Object>> modelOverviews = new HashMap<>();
+        for (Map<String, Object> model : models) {
+            Long modelId = ((Number) model.get("id")).longValue();
+            Map<String, Object> row = metrics.getOrDefault(modelId, Collections.emptyMap());
+            Map<String, List<Map<String, Object>>> criteria = criteriaScores.getOrDefault(modelId, Collections.emptyMap());
+
+            Map<String, Object> objectiveScores = section(row, "obj_");
+            Map<String, Object> subjectiveAiScores = section(row, "ai_");
+            subjectiveAiScores.put("criteriaScores", criteria.getOrDefault("AI_MODEL", Collections.emptyList()));
+            Map<String, Object> subjectiveHumanScores = section(row, "human_");
+            subjectiveHumanScores.put("criteriaScores", criteria.getOrDefault("HUMAN", Collections.emptyList()));
+
+            Map<String, Object> modelScore = new HashMap<>();
+            modelScore.put("objectiveScores", objectiveScores);
+            modelScore.put("subjectiveAiScores", subjectiveAiScores);
+            modelScore.put("subjectiveHumanScores", subjectiveHumanScores);
+            modelScore.put("overallScore", calculateOverallScore(objectiveScores, subjectiveAiScores, subjectiveHumanScores));
+            modelScore.put("detailStats", section(row, "detail_"));
+            modelScore.put("modelInfo", model);
+            modelScores.add(modelScore);
+
+            modelOverviews.put(modelId, section(row, "ov_"));
+        }
+
+        // 按综合评分降序排列
+        modelScores.sort((a, b) -> ((BigDecimal) b.get("overallScore")).compareTo((BigDecimal) a.get("overallScore")));
+
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.setBatchInfo(batchInfo);
+        leaderboard.setModels(models);
+        leaderboard.setModelScores(modelScores);
+        leaderboard.setModelOverviews(modelOverviews);
+        leaderboard.setModelEvaluatorIds(modelEvaluatorIds);
+        return leaderboard;
+    }
+
+    /**
+     * 取出指定前缀的列并去掉前缀
+     */
+    private static Map<String, Object> section(Map<String, Object> row, String prefix) {
+        Map<String, Object> section = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                section.put(entry.getKey().substring(prefix.length()), entry.getValue());
+            }
+        }
+        return section;
+    }
+
+    /**
+     * 综合评分为客观题、主观题AI评分、主观题人工评分中已有平均分的算术平均
+     */
+    private static BigDecimal calculateOverallScore(Map<String, Object> objectiveScores,
+                                                    Map<String, Object> subjectiveAiScores,
+                                                    Map<String, Object> subjectiveHumanScores) {
+        List<BigDecimal> scores = new ArrayList<>();
+        for (Map<String, Object> section : List.of(objectiveScores, subjectiveAiScores, subjectiveHumanScores)) {
+            Object averageScore = section.get("average_score");
+            if (averageScore != null) {
+                scores.add(new BigDecimal(averageScore.toString()));
+            }
+        }
+        if (scores.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal sum = scores.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        return sum.divide(new BigDecimal(scores.size()), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * 本实例缓存的快照及其版本
+     */
+    private static class CachedLeaderboard {
+        private final long snapshotVersion;
+        private final LocalDateTime calculatedAt;
+        private final Leaderboard leaderboard;
+        private final long loadedAt = System.currentTimeMillis();
+
+        CachedLeaderboard(long snapshotVersion, LocalDateTime calculatedAt, Leaderboard leaderboard) {
+            this.snapshotVersion = snapshotVersion;
+            this.calculatedAt = calculatedAt;
+            this.leaderboard = leaderboard;
+        }
+    }
+
+    /**
+     * 批次排行榜快照，以JSON保存
+     *
+     * 实例在多个请求间共享，按模型筛选的方法返回副本，调用方不应修改getter返回的内容。
+     */
+    public static class Leaderboard {
+        private Map<String, Object> batchInfo;
+        private List<Map<String, Object>> models;
+        // 按综合评分降序排列，不含排名
+        private List<Map<String, Object>> modelScores;
+        // 各模型的评测概览计数
+        private Map<Long, Map<String, Object>> modelOverviews;
+        // 各模型的评测者ID
+        private Map<Long, List<Long>> modelEvaluatorIds;
+
+        /**
+         * 筛选模型信息
+         *
+         * @param modelIds 模型ID，为null时返回全部模型
+         */
+        public List<Map<String, Object>> selectModels(Set<Long> modelIds) {
+            List<Map<String, Object>> selected = new ArrayList<>();
+            for (Map<String, Object> model : models) {
+                if (modelIds == null || modelIds.contains(((Number) model.get("id")).longValue())) {
+                    selected.add(model);
+                }
+            }
+            return selected;
+        }
+
+        /**
+         * 筛选模型评分并按筛选后的顺序添加排名
+         *
+         * @param modelIds 模型ID，为null时返回全部模型
+         */
+        public List<Map<String, Object>> selectModelScores(Set<Long> modelIds) {
+            List<Map<String, Object>> selected = new ArrayList<>();
+            for (Map<String, Object> modelScore : modelScores) {
+                Map<?, ?> modelInfo = (Map<?, ?>) modelScore.get("modelInfo");
+                if (modelIds == null || modelIds.contains(((Number) modelInfo.get("id")).longValue())) {
+                    Map<String, Object> ranked = new HashMap<>(modelScore);
+                    ranked.put("rank", selected.size() + 1);
+                    selected.add(ranked);
+                }
+            }
+            return selected;
+        }
+
+        /**
+         * 汇总所选模型的评测概览
+         *
+         * @param modelIds 模型ID，为null时汇总全部模型
+         */
+        public Map<String, Object> overview(Set<Long> modelIds) {
+            long totalModels = 0;
+            long totalAnswers = 0;
+            long totalEvaluations = 0;
+            Set<Long> evaluatorIds = new TreeSet<>();
+            Map<String, Long> sums = new HashMap<>();
+            for (Map.Entry<Long, Map<String, Object>> entry : modelOverviews.entrySet()) {
+                Map<String, Object> counts = entry.getValue();
+                long answers = toLong(counts.get("total_answers"));
+                // 与单独查询一致，只统计有回答的模型
+                if ((modelIds != null && !modelIds.contains(entry.getKey())) || answers == 0) {
+                    continue;
+                }
+                totalModels++;
+                totalAnswers += answers;
+                totalEvaluations += toLong(counts.get("total_evaluations"));
+                for (String column : OVERVIEW_SUM_COLUMNS) {
+                    sums.merge(column, toLong(counts.get(column)), Long::sum);
+                }
+                evaluatorIds.addAll(modelEvaluatorIds.getOrDefault(entry.getKey(), Collections.emptyList()));
+            }
+
+            Map<String, Object> overview = new LinkedHashMap<>();
+            overview.put("total_models", totalModels);
+            overview.put("total_answers", totalAnswers);
+            overview.put("total_evaluations", totalEvaluations);
+            overview.put("total_evaluators", (long) evaluatorIds.size());
+            for (String column : OVERVIEW_SUM_COLUMNS) {
+                overview.put(column, sums.get(column));
+            }
+            return overview;
+        }
+
+        private static long toLong(Object value) {
+            return value != null ? ((Number) value).longValue() : 0L;
+        }
+
+        public Map<String, Object> getBatchInfo() {
+            return batchInfo;
+        }
+
+        public void setBatchInfo(Map<String, Object> batchInfo) {
+            this.batchInfo = batchInfo;
+        }
+
+        public List<Map<String, Object>> getModels() {
+            return models;
+        }
+
+        public void setModels(List<Map<String, Object>> models) {
+            this.models = models;
+        }
+
+        public List<Map<String, Object>> getModelScores() {
+            return modelScores;
+        }
+
+        public void setModelScores(List<Map<String, Object>> modelScores) {
+            this.modelScores = modelScores;
+        }
+
+        public Map<Long, Map<String, Object>> getModelOverviews() {
+            return modelOverviews;
+        }
+
+        public void setModelOverviews(Map<Long, Map<String, Object>> modelOverviews) {
+            this.modelOverviews = modelOverviews;
+        }
+
+        public Map<Long, List<Long>> getModelEvaluatorIds() {
+            return modelEvaluatorIds;
+        }
+
+        public void setModelEvaluatorIds(Map<Long, List<Long>> modelEvaluatorIds) {
+            this.modelEvaluatorIds = modelEvaluatorIds;
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.example.demo.manager;
 
 import com.example.demo.entity.jdbc.AnswerGenerationBatch.BatchStatus;
 import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.BaseStatusListener;
+import org.redisson.client.codec.StringCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,8 +21,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+import jakarta.annotation.PostConstruct;
+
 @Component
 public class BatchStateManager {
     private static final Logger logger = LoggerFactory.getLogger(BatchStateManager.class);
@@ -32,6 +38,12 @@ public class BatchStateManager {
     private static final String BATCH_STATE_PREFIX = "batch:state:";
     private static final String BATCH_INTERRUPT_PREFIX = "batch:interrupt:";
     private static final String BATCH_LOCK_PREFIX = "batch:lock:";
+    // 中断标志变更的发布订阅频道，消息格式为"批次ID:true|false"
+    private static final String BATCH_INTERRUPT_CHANNEL = "batch:interrupt:events";
+
+    // 本地中断标志，由发布订阅消息更新，热路径检查不访问Redis
+    private final ConcurrentHashMap<Long, Boolean> localInterruptFlags = new ConcurrentHashMap<>();
+    private RTopic interruptTopic;
     
     // 定义允许的状态转换
     private static final Map<String, Set<String>> ALLOWED_TRANSITIONS = new HashMap<>();
@@ -82,6 +94,28 @@ public class BatchStateManager {
         this.redissonClient = redissonClient;
     }
     
+    /**
+     * 订阅中断标志变更频道，(重新)订阅成功时从Redis重新同步已知批次的本地标志，弥补断线期间丢失的消息
+     */
+    @PostConstruct
+    public void subscribeInterruptSignals() {
+        interruptTopic = redissonClient.getTopic(BATCH_INTERRUPT_CHANNEL, StringCodec.INSTANCE);
+        interruptTopic.addListener(String.class, (channel, message) -> onInterruptMessage(message));
+        interruptTopic.addListener(new BaseStatusListener() {
+            @Override
+            public void onSubscribe(String channel) {
+                logger.info("已订阅批次中断频道{}，重新同步本地中断标志", channel);
+                for (Long batchId : localInterruptFlags.keySet()) {
+                    try {
+                        applyInterruptFlag(batchId, readInterruptFlag(batchId));
+                    } catch (Exception e) {
+                        logger.error("同步批次{}中断标志失败", batchId, e);
+                    }
+                }
+            }
+        });
+    }
+
     @Autowired
     @Lazy
     public void setAnswerGenerationTask(com.example.demo.task.AnswerGenerationTask answerGenerationTask) {
@@ -308,6 +342,8 @@ public class BatchStateManager {
 
     /**
      * 设置中断标志
+     *
+     * 标志写入Redis作为持久状态，同时更新本地标志并发布到中断频道，其他实例收到消息后更新各自的本地标志。
      * @param batchId 批次ID
      * @param interrupted 是否中断
      */
@@ -315,19 +351,67 @@ public class BatchStateManager {
         String key = BATCH_INTERRUPT_PREFIX + batchId;
         redisTemplate.opsForValue().set(key, interrupted ? "true" : "false");
         redisTemplate.expire(key, Duration.ofHours(24));
+
+        applyInterruptFlag(batchId, interrupted);
+        try {
+            interruptTopic.publish(batchId + ":" + interrupted);
+        } catch (Exception e) {
+            logger.error("发布批次{}中断标志变更失败", batchId, e);
+        }
     }
 
     /**
      * 检查批次是否被标记为中断
+     *
+     * 读取本地标志，仅在本实例首次检查该批次时从Redis加载一次，之后由中断频道的消息更新。
      * @param batchId 批次ID
      * @return 是否中断
      */
     public boolean isInterrupted(Long batchId) {
-        String key = BATCH_INTERRUPT_PREFIX + batchId;
-        String value = redisTemplate.opsForValue().get(key);
+        Boolean flag = localInterruptFlags.get(batchId);
+        if (flag == null) {
+            flag = localInterruptFlags.computeIfAbsent(batchId, this::readInterruptFlag);
+        }
+        return flag;
+    }
+
+    private boolean readInterruptFlag(Long batchId) {
+        String value = redisTemplate.opsForValue().get(BATCH_INTERRUPT_PREFIX + batchId);
         return "true".equals(value);
     }
 
+    /**
+     * 处理中断频道的消息
+     */
+    private void onInterruptMessage(String message) {
+        int separator = message.indexOf(':');
+        if (separator <= 0) {
+            logger.warn("忽略格式错误的批次中断消息: {}", message);
+            return;
+        }
+        try {
+            Long batchId = Long.valueOf(message.substring(0, separator));
+            boolean interrupted = Boolean.parseBoolean(message.substring(separator + 1));
+            applyInterruptFlag(batchId, interrupted);
+        } catch (NumberFormatException e) {
+            logger.warn("忽略格式错误的批次中断消息: {}", message);
+        }
+    }
+
+    /**
+     * 更新本地中断标志，标志发生变化时通知本实例的回答生成任务
+     */
+    private void applyInterruptFlag(Long batchId, boolean interrupted) {
+        Boolean previous = localInterruptFlags.put(batchId, interrupted);
+        if (previous != null && previous == interrupted) {
+            return;
+        }
+        logger.info("批次{}本地中断标志更新为{}", batchId, interrupted);
+        if (answerGenerationTask != null) {
+            answerGenerationTask.onInterruptSignal(batchId, interrupted);
+        }
+    }
+
     /**
      * 同步批次状态
      * 确保Redis和数据库状态一致
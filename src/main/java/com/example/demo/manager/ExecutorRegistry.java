@@ -0,0 +1,346 @@
+package com.example.demo.manager;
+
+import com.example.demo.config.ExecutorProperties;
+import com.example.demo.dto.ExecutorStatsDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 执行器注册表
+ *
+ * 按工作负载类别统一创建和关闭执行器，替代各处自建的线程池：
+ * GENERATION回答生成、EVALUATION评测运行及评测调用、CONNECTIVITY模型连通性测试、
+ * SCORING客观题评分（CPU密集）、NOTIFICATION WebSocket消息推送、GENERAL其余@Async任务。
+ * 每个执行器记录在途、排队、完成和拒绝的任务数，通过/system/executors查看。
+ *
+ * 会等待自身提交的任务完成的类别（回答生成的工作单元、评测运行）不能限制并发数，否则可能互相等待而死锁。
+ */
+@Component
+public class ExecutorRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorRegistry.class);
+
+    /**
+     * 工作负载类别
+     */
+    public enum Workload {
+        GENERATION,
+        EVALUATION,
+        CONNECTIVITY,
+        SCORING,
+        NOTIFICATION,
+        GENERAL
+    }
+
+    private final Map<Workload, ManagedExecutor> executors = new EnumMap<>(Workload.class);
+
+    public ExecutorRegistry(ExecutorProperties properties) {
+        register(Workload.GENERATION, properties.getGeneration());
+        register(Workload.EVALUATION, properties.getEvaluation());
+        register(Workload.CONNECTIVITY, properties.getConnectivity());
+        register(Workload.SCORING, properties.getScoring());
+        register(Workload.NOTIFICATION, properties.getNotification());
+        register(Workload.GENERAL, properties.getGeneral());
+    }
+
+    private void register(Workload workload, ExecutorProperties.Pool pool) {
+        String threadPrefix = workload.name().toLowerCase() + "-";
+        ManagedExecutor executor = pool.isVirtualThreads()
+                ? new VirtualThreadExecutor(threadPrefix, pool)
+                : new PlatformExecutor(threadPrefix, pool);
+        executors.put(workload, executor);
+        logger.info("创建{}执行器: 虚拟线程={}, 并发上限={}, 队列容量={}, 拒绝策略={}", workload, pool.isVirtualThreads(),
+                pool.isVirtualThreads() ? pool.getMaxConcurrency() : pool.getMaxPoolSize(),
+                pool.getQueueCapacity(), pool.getRejectionPolicy());
+    }
+
+    /**
+     * 获取类别的执行器，执行器由注册表关闭，调用方不应关闭
+     */
+    public ExecutorService executor(Workload workload) {
+        return executors.get(workload).service();
+    }
+
+    /**
+     * 获取类别的平台线程池，供只接受ThreadPoolTaskExecutor的框架组件使用
+     *
+     * @return 类别配置为虚拟线程时为空
+     */
+    public Optional<ThreadPoolTaskExecutor> platformExecutor(Workload workload) {
+        ManagedExecutor executor = executors.get(workload);
+        if (executor instanceof PlatformExecutor) {
+            return Optional.of(((PlatformExecutor) executor).taskExecutor);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 类别可同时执行的任务数，用于切分并行任务
+     */
+    public int parallelism(Workload workload) {
+        return executors.get(workload).parallelism();
+    }
+
+    /**
+     * 各执行器的运行指标
+     */
+    public List<ExecutorStatsDTO> stats() {
+        List<ExecutorStatsDTO> stats = new ArrayList<>();
+        executors.forEach((workload, executor) -> {
+            ExecutorStatsDTO dto = executor.stats();
+            dto.setWorkload(workload.name());
+            stats.add(dto);
+        });
+        return stats;
+    }
+
+    /**
+     * 停止接收新任务，等待在途任务完成，超时后中断
+     */
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(executor -> executor.service().shutdown());
+        executors.forEach((workload, executor) -> {
+            try {
+                if (!executor.service().awaitTermination(executor.awaitTerminationSeconds(), TimeUnit.SECONDS)) {
+                    logger.warn("{}执行器未在{}秒内结束，中断在途任务", workload, executor.awaitTerminationSeconds());
+                    executor.service().shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.service().shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private interface ManagedExecutor {
+        ExecutorService service();
+
+        int parallelism();
+
+        int awaitTerminationSeconds();
+
+        ExecutorStatsDTO stats();
+    }
+
+    /**
+     * 平台线程池，队列已满时按配置的策略处理并计数
+     */
+    private static final class PlatformExecutor implements ManagedExecutor {
+        private final ThreadPoolTaskExecutor taskExecutor;
+        private final ExecutorProperties.Pool pool;
+        private final LongAdder rejected = new LongAdder();
+
+        PlatformExecutor(String threadPrefix, ExecutorProperties.Pool pool) {
+            this.pool = pool;
+            RejectedExecutionHandler policy = pool.getRejectionPolicy() == ExecutorProperties.RejectionPolicy.ABORT
+                    ? new ThreadPoolExecutor.AbortPolicy()
+                    : new ThreadPoolExecutor.CallerRunsPolicy();
+            taskExecutor = new ThreadPoolTaskExecutor();
+            taskExecutor.setCorePoolSize(pool.getCorePoolSize());
+            taskExecutor.setMaxPoolSize(Math.max(pool.getCorePoolSize(), pool.getMaxPoolSize()));
+            taskExecutor.setQueueCapacity(Math.max(0, pool.getQueueCapacity()));
+            taskExecutor.setKeepAliveSeconds(pool.getKeepAliveSeconds());
+            taskExecutor.setThreadNamePrefix(threadPrefix);
+            taskExecutor.setRejectedExecutionHandler((task, executor) -> {
+                rejected.increment();
+                logger.warn("{}执行器队列已满，按{}策略处理", threadPrefix, pool.getRejectionPolicy());
+                policy.rejectedExecution(task, executor);
+            });
+            taskExecutor.initialize();
+        }
+
+        @Override
+        public ExecutorService service() {
+            return taskExecutor.getThreadPoolExecutor();
+        }
+
+        @Override
+        public int parallelism() {
+            // 队列未满时只有核心线程在执行
+            return Math.max(1, taskExecutor.getCorePoolSize());
+        }
+
+        @Override
+        public int awaitTerminationSeconds() {
+            return pool.getAwaitTerminationSeconds();
+        }
+
+        @Override
+        public ExecutorStatsDTO stats() {
+            ThreadPoolExecutor executor = taskExecutor.getThreadPoolExecutor();
+            ExecutorStatsDTO dto = new ExecutorStatsDTO();
+            dto.setVirtualThreads(false);
+            dto.setPoolSize(executor.getPoolSize());
+            dto.setMaxConcurrency(executor.getMaximumPoolSize());
+            dto.setActiveCount(executor.getActiveCount());
+            dto.setQueuedCount(executor.getQueue().size());
+            dto.setQueueCapacity(Math.max(0, pool.getQueueCapacity()));
+            dto.setCompletedCount(executor.getCompletedTaskCount());
+            dto.setRejectedCount(rejected.sum());
+            dto.setRejectionPolicy(pool.getRejectionPolicy().name());
+            return dto;
+        }
+    }
+
+    /**
+     * 每个任务一个虚拟线程，配置了并发上限时任务先等待许可；等待的任务数达到队列容量后按配置的策略处理
+     *
+     * 提交时先原子地占用一个名额（执行中加等待许可，上限为并发上限加队列容量），超出时回退并按策略处理，
+     * 并发提交不会越过队列容量
+     */
+    private static final class VirtualThreadExecutor extends AbstractExecutorService implements ManagedExecutor {
+        private final ExecutorService threads;
+        private final ExecutorProperties.Pool pool;
+        private final Semaphore permits;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger waiting = new AtomicInteger();
+        // 已接收且未结束的任务数（等待许可加执行中），仅配置了并发上限时维护
+        private final AtomicInteger admitted = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        VirtualThreadExecutor(String threadPrefix, ExecutorProperties.Pool pool) {
+            this.pool = pool;
+            this.threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadPrefix, 0).factory());
+            this.permits = pool.getMaxConcurrency() > 0 ? new Semaphore(pool.getMaxConcurrency()) : null;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (permits != null && !reserve()) {
+                rejected.increment();
+                if (pool.getRejectionPolicy() == ExecutorProperties.RejectionPolicy.ABORT || threads.isShutdown()) {
+                    logger.warn("虚拟线程执行器等待任务已满，拒绝任务");
+                    throw new RejectedExecutionException("执行器等待任务已满");
+                }
+                command.run();
+                return;
+            }
+
+            if (permits != null) {
+                waiting.incrementAndGet();
+            }
+            try {
+                threads.execute(() -> run(command));
+            } catch (RejectedExecutionException e) {
+                if (permits != null) {
+                    waiting.decrementAndGet();
+                    admitted.decrementAndGet();
+                }
+                rejected.increment();
+                throw e;
+            }
+        }
+
+        /**
+         * 占用一个名额，超过并发上限加队列容量时回退
+         */
+        private boolean reserve() {
+            int limit = pool.getMaxConcurrency() + Math.max(0, pool.getQueueCapacity());
+            if (admitted.incrementAndGet() > limit) {
+                admitted.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void run(Runnable command) {
+            if (permits != null) {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    admitted.decrementAndGet();
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+            active.incrementAndGet();
+            try {
+                command.run();
+            } finally {
+                active.decrementAndGet();
+                completed.increment();
+                if (permits != null) {
+                    permits.release();
+                    admitted.decrementAndGet();
+                }
+            }
+        }
+
+        @Override
+        public ExecutorService service() {
+            return this;
+        }
+
+        @Override
+        public int parallelism() {
+            return permits != null ? pool.getMaxConcurrency() : Runtime.getRuntime().availableProcessors();
+        }
+
+        @Override
+        public int awaitTerminationSeconds() {
+            return pool.getAwaitTerminationSeconds();
+        }
+
+        @Override
+        public ExecutorStatsDTO stats() {
+            ExecutorStatsDTO dto = new ExecutorStatsDTO();
+            dto.setVirtualThreads(true);
+            dto.setPoolSize(active.get() + waiting.get());
+            dto.setMaxConcurrency(Math.max(0, pool.getMaxConcurrency()));
+            dto.setActiveCount(active.get());
+            dto.setQueuedCount(waiting.get());
+            dto.setQueueCapacity(permits != null ? Math.max(0, pool.getQueueCapacity()) : 0);
+            dto.setCompletedCount(completed.sum());
+            dto.setRejectedCount(rejected.sum());
+            dto.setRejectionPolicy(pool.getRejectionPolicy().name());
+            return dto;
+        }
+
+        @Override
+        public void shutdown() {
+            threads.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return threads.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return threads.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return threads.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return threads.awaitTermination(timeout, unit);
+        }
+    }
+}
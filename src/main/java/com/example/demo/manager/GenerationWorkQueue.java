@@ -0,0 +1,325 @@
+package com.example.demo.manager;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.jdbc.AnswerGenerationWorkUnit;
+import com.example.demo.entity.jdbc.AnswerGenerationWorkUnit.UnitStatus;
+import com.example.demo.entity.jdbc.ModelAnswerRun;
+import com.example.demo.repository.jdbc.AnswerGenerationWorkUnitRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * 回答生成分布式工作队列
+ *
+ * 批次启动时每个运行按扁平索引切分为固定大小的工作单元写入answer_generation_work_units，
+ * 各实例通过SELECT ... FOR UPDATE SKIP LOCKED领取单元并持有租约，定时心跳续约；
+ * 实例宕机后租约到期，单元由其他实例回收并从单元断点继续。增加实例即可水平扩展生成吞吐。
+ */
+@Component
+public class GenerationWorkQueue {
+    private static final Logger logger = LoggerFactory.getLogger(GenerationWorkQueue.class);
+
+    private final AnswerGenerationWorkUnitRepository workUnitRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    // 本实例标识，作为租约持有者写入工作单元，并记录在批次的processing_instance中
+    private final String instanceId;
+
+    // 每个工作单元包含的问题数（扁平索引）
+    @Value("${answer-generation.work-queue.unit-size:50}")
+    private int unitSize;
+
+    // 租约时长（秒），超过未续约的单元可被其他实例回收
+    @Value("${answer-generation.work-queue.lease-seconds:60}")
+    private int leaseSeconds;
+
+    // 单元处理出错的最大尝试次数，超过后标记为失败
+    @Value("${answer-generation.work-queue.max-attempts:3}")
+    private int maxAttempts;
+
+    // 本实例持有的租约
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    public GenerationWorkQueue(AnswerGenerationWorkUnitRepository workUnitRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.workUnitRepository = workUnitRepository;
+        this.transactionManager = transactionManager;
+        this.instanceId = resolveInstanceId();
+        logger.info("回答生成工作队列实例标识: {}", instanceId);
+    }
+
+    private static String resolveInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * 本实例持有的工作单元租约
+     */
+    public static final class Lease {
+        private final AnswerGenerationWorkUnit unit;
+        private final AtomicBoolean lost = new AtomicBoolean(false);
+
+        Lease(AnswerGenerationWorkUnit unit) {
+            this.unit = unit;
+        }
+
+        public AnswerGenerationWorkUnit getUnit() {
+            return unit;
+        }
+
+        /**
+         * 租约是否已被回收，回收后不应再派发单元中的问题
+         */
+        public boolean isLost() {
+            return lost.get();
+        }
+    }
+
+    /**
+     * 单元结束后运行和批次的完成情况
+     */
+    public static final class FinishResult {
+        private final boolean leaseLost;
+        private final boolean runFinished;
+        private final boolean runFailed;
+        private final boolean batchFinished;
+
+        FinishResult(boolean leaseLost, boolean runFinished, boolean runFailed, boolean batchFinished) {
+            this.leaseLost = leaseLost;
+            this.runFinished = runFinished;
+            this.runFailed = runFailed;
+            this.batchFinished = batchFinished;
+        }
+
+        public boolean isLeaseLost() {
+            return leaseLost;
+        }
+
+        /**
+         * 运行的所有单元均已结束
+         */
+        public boolean isRunFinished() {
+            return runFinished;
+        }
+
+        /**
+         * 运行存在失败的单元
+         */
+        public boolean isRunFailed() {
+            return runFailed;
+        }
+
+        /**
+         * 批次的所有单元均已结束，只有结束最后一个单元的实例会得到true
+         */
+        public boolean isBatchFinished() {
+            return batchFinished;
+        }
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * 为批次中未完成的运行创建工作单元，已存在的单元保持原有进度，失败的单元重置后重试
+     *
+     * @param batchId 批次ID
+     * @param runs 未完成的运行
+     * @param questionsPerRun 每个运行的问题数（问题数 * 重复次数）
+     * @return 批次中未结束的单元数
+     */
+    public int plan(Long batchId, List<ModelAnswerRun> runs, int questionsPerRun) {
+        int size = Math.max(1, unitSize);
+        List<AnswerGenerationWorkUnit> units = new ArrayList<>();
+        for (ModelAnswerRun run : runs) {
+            for (int start = 0; start < questionsPerRun; start += size) {
+                AnswerGenerationWorkUnit unit = new AnswerGenerationWorkUnit();
+                unit.setBatchId(batchId);
+                unit.setRunId(run.getId());
+                unit.setLlmModelId(run.getLlmModel().getId());
+                unit.setStartIndex(start);
+                unit.setEndIndex(Math.min(start + size, questionsPerRun));
+                unit.setCheckpointIndex(start);
+                units.add(unit);
+            }
+        }
+
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        return txTemplate.execute(status -> {
+            workUnitRepository.insertMissing(units);
+            int reset = workUnitRepository.resetFailed(batchId);
+            if (reset > 0) {
+                logger.info("批次{}有{}个失败的工作单元已重置，将重新处理", batchId, reset);
+            }
+            return workUnitRepository.countUnfinishedByBatch(batchId);
+        });
+    }
+
+    /**
+     * 领取一个可处理的工作单元，包括其他实例租约已过期的单元
+     *
+     * @param excludedModelIds 本实例正在处理的模型，同一模型的单元在本实例上依次处理，避免对同一提供商叠加并发
+     * @return 领取到的租约，没有可领取的单元时为空
+     */
+    public Optional<Lease> claim(Collection<Long> excludedModelIds) {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        Optional<AnswerGenerationWorkUnit> claimed = txTemplate.execute(
+                status -> workUnitRepository.claimNext(instanceId, leaseSeconds, excludedModelIds));
+        if (claimed == null || claimed.isEmpty()) {
+            return Optional.empty();
+        }
+
+        AnswerGenerationWorkUnit unit = claimed.get();
+        if (unit.getLeaseOwner() != null && !instanceId.equals(unit.getLeaseOwner())) {
+            logger.warn("回收实例{}租约已过期的工作单元{}: 运行={}, 区间=[{}, {}), 断点={}",
+                    unit.getLeaseOwner(), unit.getId(), unit.getRunId(), unit.getStartIndex(), unit.getEndIndex(),
+                    unit.getCheckpointIndex());
+        }
+        unit.setLeaseOwner(instanceId);
+        Lease lease = new Lease(unit);
+        leases.put(unit.getId(), lease);
+        logger.info("领取工作单元{}: 批次={}, 运行={}, 区间=[{}, {}), 断点={}, 第{}次尝试",
+                unit.getId(), unit.getBatchId(), unit.getRunId(), unit.getStartIndex(), unit.getEndIndex(),
+                unit.getCheckpointIndex(), unit.getAttempts());
+        return Optional.of(lease);
+    }
+
+    /**
+     * 推进单元断点并累加计数，需在写入回答的同一事务中调用
+     *
+     * @return 租约是否仍属于本实例，为false时调用方应回滚事务
+     */
+    public boolean saveCheckpoint(Lease lease, int checkpointIndex, int completedDelta, int failedDelta) {
+        int updated = workUnitRepository.saveCheckpoint(
+                lease.unit.getId(), instanceId, checkpointIndex, completedDelta, failedDelta);
+        if (updated == 0) {
+            markLost(lease);
+            return false;
+        }
+        lease.unit.setCheckpointIndex(checkpointIndex);
+        return true;
+    }
+
+    /**
+     * 本次出错后单元是否已用完尝试次数，用完时应标记为失败而不是释放
+     *
+     * 尝试次数只统计此前出错结束的处理，暂停和租约到期后的重新领取不计入
+     */
+    public boolean isExhausted(Lease lease) {
+        return lease.unit.getAttempts() + 1 >= Math.max(1, maxAttempts);
+    }
+
+    /**
+     * 释放租约，单元回到等待领取状态，断点已随回答写入
+     *
+     * @param errorMessage 本次处理的错误信息，暂停时为null
+     */
+    public void release(Lease lease, String errorMessage) {
+        leases.remove(lease.unit.getId());
+        try {
+            if (workUnitRepository.release(lease.unit.getId(), instanceId, errorMessage) == 0) {
+                lease.lost.set(true);
+                logger.warn("释放工作单元{}时租约已被回收", lease.unit.getId());
+            }
+        } catch (Exception e) {
+            logger.error("释放工作单元{}失败，租约到期后由其他实例回收", lease.unit.getId(), e);
+        }
+    }
+
+    /**
+     * 将单元标记为完成或失败，并在批次行锁内判断运行和批次是否全部结束
+     */
+    public FinishResult finish(Lease lease, UnitStatus status, String errorMessage) {
+        AnswerGenerationWorkUnit unit = lease.unit;
+        leases.remove(unit.getId());
+
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        FinishResult result = txTemplate.execute(tx -> {
+            // 同一批次的单元结束依次执行，保证只有一个实例看到运行或批次的最后一个单元结束
+            workUnitRepository.lockBatch(unit.getBatchId());
+            if (workUnitRepository.finish(unit.getId(), instanceId, status, errorMessage) == 0) {
+                return new FinishResult(true, false, false, false);
+            }
+
+            Map<UnitStatus, Integer> runCounts = workUnitRepository.countByRun(unit.getRunId());
+            int runUnfinished = runCounts.getOrDefault(UnitStatus.PENDING, 0) + runCounts.getOrDefault(UnitStatus.LEASED, 0);
+            boolean runFailed = runCounts.getOrDefault(UnitStatus.FAILED, 0) > 0;
+            boolean batchFinished = runUnfinished == 0 && workUnitRepository.countUnfinishedByBatch(unit.getBatchId()) == 0;
+            return new FinishResult(false, runUnfinished == 0, runFailed, batchFinished);
+        });
+
+        if (result.isLeaseLost()) {
+            lease.lost.set(true);
+            logger.warn("结束工作单元{}时租约已被回收", unit.getId());
+        } else {
+            logger.info("工作单元{}已结束: 状态={}, 运行{}全部结束={}, 批次{}全部结束={}",
+                    unit.getId(), status, unit.getRunId(), result.isRunFinished(), unit.getBatchId(), result.isBatchFinished());
+        }
+        return result;
+    }
+
+    /**
+     * 续约本实例持有的租约，续约失败的单元已被其他实例回收，标记后由处理线程停止派发
+     */
+    @Scheduled(fixedDelayString = "${answer-generation.work-queue.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Lease lease : new ArrayList<>(leases.values())) {
+            try {
+                if (workUnitRepository.renewLease(lease.unit.getId(), instanceId, leaseSeconds) == 0) {
+                    markLost(lease);
+                }
+            } catch (Exception e) {
+                logger.error("续约工作单元{}失败", lease.unit.getId(), e);
+            }
+        }
+    }
+
+    private void markLost(Lease lease) {
+        if (!lease.lost.getAndSet(true)) {
+            leases.remove(lease.unit.getId());
+            logger.warn("工作单元{}的租约已被回收，停止处理: 运行={}, 区间=[{}, {})",
+                    lease.unit.getId(), lease.unit.getRunId(), lease.unit.getStartIndex(), lease.unit.getEndIndex());
+        }
+    }
+
+    /**
+     * 实例关闭时释放持有的租约，其他实例无需等待租约到期即可领取
+     */
+    @PreDestroy
+    public void releaseAll() {
+        leases.values().forEach(lease -> lease.lost.set(true));
+        leases.clear();
+        try {
+            int released = workUnitRepository.releaseByOwner(instanceId);
+            if (released > 0) {
+                logger.info("实例关闭，已释放{}个工作单元的租约", released);
+            }
+        } catch (Exception e) {
+            logger.error("释放实例{}的租约失败，租约到期后由其他实例回收", instanceId, e);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.demo.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.jdbc.AnswerGenerationBatch.BatchStatus;
+import com.example.demo.entity.jdbc.HumanEvaluationQueue;
+import com.example.demo.entity.jdbc.HumanEvaluationTask;
+import com.example.demo.entity.jdbc.QuestionType;
+import com.example.demo.repository.jdbc.HumanEvaluationTaskRepository;
+
+/**
+ * 人工评测任务分发
+ *
+ * 批次对评测者的待评测回答首次访问时生成到human_evaluation_tasks，批次仍在生成回答时按间隔补充新回答。
+ * 评测人员通过SELECT ... FOR UPDATE SKIP LOCKED领取互不重叠的任务并持有租约，提交评测后任务完成，
+ * 租约到期未提交的任务由定时任务回收。待评测列表和计数只访问任务表和队列计数，不再随评测数增长而变慢。
+ */
+@Component
+public class HumanEvaluationDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(HumanEvaluationDispatcher.class);
+
+    private final HumanEvaluationTaskRepository taskRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    // 租约时长（秒），超过未提交的任务回到等待领取状态
+    @Value("${human-evaluation.queue.lease-seconds:900}")
+    private int leaseSeconds;
+
+    // 单次最多领取的任务数
+    @Value("${human-evaluation.queue.max-claim-size:50}")
+    private int maxClaimSize;
+
+    // 批次仍在生成回答时补充任务的间隔（秒）
+    @Value("${human-evaluation.queue.refresh-interval-seconds:30}")
+    private int refreshIntervalSeconds;
+
+    public HumanEvaluationDispatcher(HumanEvaluationTaskRepository taskRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * 领取结果
+     */
+    public static final class ClaimResult {
+        private final List<Long> taskIds;
+        private final int renewedCount;
+
+        ClaimResult(List<Long> taskIds, int renewedCount) {
+            this.taskIds = taskIds;
+            this.renewedCount = renewedCount;
+        }
+
+        /**
+         * 本次持有的任务，已持有的任务在前
+         */
+        public List<Long> getTaskIds() {
+            return taskIds;
+        }
+
+        /**
+         * 其中原已持有、本次续约的任务数
+         */
+        public int getRenewedCount() {
+            return renewedCount;
+        }
+    }
+
+    /**
+     * 确保批次对评测者的任务已生成，批次仍在生成回答时按间隔补充
+     *
+     * @return 队列计数
+     */
+    public HumanEvaluationQueue prepare(Long batchId, Long evaluatorId) {
+        if (taskRepository.needsRefresh(batchId, evaluatorId, refreshIntervalSeconds)) {
+            TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+            txTemplate.executeWithoutResult(status -> refresh(batchId, evaluatorId));
+        }
+        return taskRepository.findQueue(batchId, evaluatorId).orElseGet(() -> {
+            HumanEvaluationQueue queue = new HumanEvaluationQueue();
+            queue.setBatchId(batchId);
+            queue.setEvaluatorId(evaluatorId);
+            return queue;
+        });
+    }
+
+    /**
+     * 在队列行锁内生成任务，并发访问同一队列时只有一个请求执行，其余请求锁释放后直接使用结果
+     */
+    private void refresh(Long batchId, Long evaluatorId) {
+        if (!taskRepository.createAndLockQueue(batchId, evaluatorId, refreshIntervalSeconds)) {
+            return;
+        }
+        Optional<String> batchStatus = taskRepository.findBatchStatus(batchId);
+        if (batchStatus.isEmpty()) {
+            throw new IllegalArgumentException("批次不存在: " + batchId);
+        }
+        // 先读批次状态再生成任务，批次完成前写入的回答都会被本次生成覆盖，之后不再需要补充
+        boolean sealed = BatchStatus.COMPLETED.name().equals(batchStatus.get());
+        int inserted = taskRepository.insertMissingTasks(batchId, evaluatorId);
+        if (inserted > 0) {
+            taskRepository.recountQueue(batchId, evaluatorId, sealed);
+            logger.info("批次{}为评测者{}生成{}个人工评测任务, 已封闭={}", batchId, evaluatorId, inserted, sealed);
+        } else {
+            taskRepository.touchQueue(batchId, evaluatorId, sealed);
+        }
+    }
+
+    /**
+     * 为评测人员领取任务，先续约其仍持有的任务，不足部分领取等待中的任务
+     *
+     * @param userId 评测人员ID，作为租约持有者
+     * @param count 需要持有的任务数，超过单次上限时按上限领取
+     */
+    public ClaimResult claim(Long userId, Long evaluatorId, Long batchId,
+                             List<Long> modelIds, QuestionType questionType, int count) {
+        prepare(batchId, evaluatorId);
+        int limit = Math.max(1, Math.min(count, maxClaimSize));
+
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        ClaimResult result = txTemplate.execute(status -> {
+            List<Long> taskIds = new ArrayList<>();
+            for (HumanEvaluationTask task : taskRepository.lockLeasedBy(
+                    userId, batchId, evaluatorId, modelIds, questionType, limit)) {
+                taskIds.add(task.getId());
+            }
+            int renewed = taskIds.size();
+            if (taskIds.size() < limit) {
+                for (HumanEvaluationTask task : taskRepository.lockClaimable(
+                        batchId, evaluatorId, modelIds, questionType, limit - taskIds.size())) {
+                    taskIds.add(task.getId());
+                }
+            }
+            taskRepository.lease(taskIds, userId, leaseSeconds);
+            return new ClaimResult(taskIds, renewed);
+        });
+
+        logger.info("用户{}领取批次{}评测者{}的人工评测任务{}个，其中续约{}个",
+                userId, batchId, evaluatorId, result.getTaskIds().size(), result.getRenewedCount());
+        return result;
+    }
+
+    /**
+     * 释放评测人员持有的任务，只释放其本人的租约
+     *
+     * @return 释放的任务数
+     */
+    public int release(Long userId, List<Long> taskIds) {
+        if (taskIds == null || taskIds.isEmpty()) {
+            return 0;
+        }
+        int released = taskRepository.release(taskIds, userId);
+        logger.info("用户{}释放人工评测任务{}个", userId, released);
+        return released;
+    }
+
+    /**
+     * 评测提交后完成对应任务，需在保存评测的同一事务中调用
+     */
+    public void complete(Long llmAnswerId, Long evaluatorId, Long evaluationId) {
+        taskRepository.complete(llmAnswerId, evaluatorId, evaluationId);
+    }
+
+    /**
+     * 记录已创建但尚未提交的评测，任务仍可被领取
+     */
+    public void attachEvaluation(Long llmAnswerId, Long evaluatorId, Long evaluationId) {
+        taskRepository.attachEvaluation(llmAnswerId, evaluatorId, evaluationId);
+    }
+
+    /**
+     * 分页查询未完成的任务
+     */
+    public List<Map<String, Object>> findUnfinished(Long batchId, Long evaluatorId, List<Long> modelIds,
+                                                    QuestionType questionType, int page, int size) {
+        return taskRepository.findUnfinishedItems(batchId, evaluatorId, modelIds, questionType, size, (long) page * size);
+    }
+
+    /**
+     * 统计未完成的任务数，无筛选条件时直接使用队列计数
+     */
+    public long countUnfinished(HumanEvaluationQueue queue, List<Long> modelIds, QuestionType questionType) {
+        if ((modelIds == null || modelIds.isEmpty()) && questionType == null) {
+            return queue.getPendingCount();
+        }
+        return taskRepository.countUnfinished(queue.getBatchId(), queue.getEvaluatorId(), modelIds, questionType);
+    }
+
+    /**
+     * 按任务ID查询任务条目，顺序与ID列表一致
+     */
+    public List<Map<String, Object>> findItems(List<Long> taskIds) {
+        return taskRepository.findItemsByIds(taskIds);
+    }
+
+    /**
+     * 回收租约已到期的任务
+     */
+    @Scheduled(fixedDelayString = "${human-evaluation.queue.sweep-interval-ms:15000}")
+    public void releaseExpired() {
+        try {
+            int released = taskRepository.releaseExpired();
+            if (released > 0) {
+                logger.info("回收租约已到期的人工评测任务{}个", released);
+            }
+        } catch (Exception e) {
+            logger.error("回收到期的人工评测任务失败", e);
+        }
+    }
+}
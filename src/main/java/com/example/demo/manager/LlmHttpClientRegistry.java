@@ -0,0 +1,200 @@
+package com.example.demo.manager;
+
+import com.example.demo.entity.jdbc.LlmModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LLM HTTP客户端注册表
+ *
+ * 底层使用java.net.http.HttpClient：连接超时相同的模型共用一个客户端及其连接池，连接保持长连接复用，
+ * HTTPS端点通过ALPN协商HTTP/2，不支持时自动回落到HTTP/1.1。每个模型缓存一个RestTemplate，
+ * 超时取自模型表的CONNECT_TIMEOUT_MS/READ_TIMEOUT_MS，未配置时按模型名称推断读取超时。
+ */
+@Component
+public class LlmHttpClientRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(LlmHttpClientRegistry.class);
+
+    @Value("${llm.http.default-connect-timeout-ms:30000}")
+    private int defaultConnectTimeoutMs;
+
+    // 共享的底层客户端，键为"协议:连接超时"
+    private final ConcurrentHashMap<String, HttpClient> httpClients = new ConcurrentHashMap<>();
+
+    // 每个模型的客户端，键与限流器一致（API地址+模型名称）
+    private final ConcurrentHashMap<String, ModelClient> modelClients = new ConcurrentHashMap<>();
+
+    /**
+     * 获取模型的RestTemplate，模型超时配置变化时重建
+     */
+    public RestTemplate getRestTemplate(LlmModel model) {
+        String key = LlmRateLimitManager.keyOf(model);
+        int connectTimeoutMs = model.getConnectTimeoutMs() != null ? model.getConnectTimeoutMs() : defaultConnectTimeoutMs;
+        int readTimeoutMs = model.getReadTimeoutMs() != null ? model.getReadTimeoutMs() : inferReadTimeoutMs(model.getName());
+        return modelClients.compute(key, (k, existing) ->
+            existing != null && existing.matches(connectTimeoutMs, readTimeoutMs)
+                ? existing
+                : createModelClient(k, model.getApiUrl(), connectTimeoutMs, readTimeoutMs)
+        ).restTemplate;
+    }
+
+    /**
+     * 按API地址和模型名称获取RestTemplate，已有缓存时沿用其超时配置
+     */
+    public RestTemplate getRestTemplate(String apiUrl, String modelName) {
+        return modelClients.computeIfAbsent(LlmRateLimitManager.keyOf(apiUrl, modelName),
+            k -> createModelClient(k, apiUrl, defaultConnectTimeoutMs, inferReadTimeoutMs(modelName))
+        ).restTemplate;
+    }
+
+    /**
+     * 获取各模型客户端的超时配置和请求统计
+     *
+     * JDK HttpClient不公开连接池内部计数，这里按模型统计在途请求、累计请求、失败数和平均响应头耗时。
+     */
+    public List<Map<String, Object>> getStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Map.Entry<String, ModelClient> entry : modelClients.entrySet()) {
+            ModelClient client = entry.getValue();
+            long total = client.totalRequests.get();
+
+            Map<String, Object> item = new HashMap<>();
+            item.put("key", entry.getKey());
+            item.put("httpClient", client.httpClientKey);
+            item.put("connectTimeoutMs", client.connectTimeoutMs);
+            item.put("readTimeoutMs", client.readTimeoutMs);
+            item.put("activeRequests", client.activeRequests.get());
+            item.put("totalRequests", total);
+            item.put("errorResponses", client.errorResponses.get());
+            item.put("ioFailures", client.ioFailures.get());
+            item.put("avgLatencyMs", total > 0 ? client.totalLatencyMs.get() / total : 0);
+            stats.add(item);
+        }
+        return stats;
+    }
+
+    private ModelClient createModelClient(String key, String apiUrl, int connectTimeoutMs, int readTimeoutMs) {
+        boolean https = apiUrl != null && apiUrl.toLowerCase().startsWith("https");
+        // 明文HTTP不尝试h2c升级，部分推理服务不能正确处理带请求体的Upgrade请求
+        String httpClientKey = (https ? "h2" : "http1.1") + ":" + connectTimeoutMs;
+        HttpClient httpClient = httpClients.computeIfAbsent(httpClientKey, k -> HttpClient.newBuilder()
+            .version(https ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            .build());
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        ModelClient client = new ModelClient(httpClientKey, connectTimeoutMs, readTimeoutMs);
+        client.restTemplate = new RestTemplate(requestFactory);
+        client.restTemplate.getInterceptors().add((request, body, execution) -> {
+            client.activeRequests.incrementAndGet();
+            long start = System.currentTimeMillis();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                if (response.getStatusCode().isError()) {
+                    client.errorResponses.incrementAndGet();
+                }
+                return response;
+            } catch (IOException e) {
+                client.ioFailures.incrementAndGet();
+                throw e;
+            } finally {
+                client.activeRequests.decrementAndGet();
+                client.totalRequests.incrementAndGet();
+                client.totalLatencyMs.addAndGet(System.currentTimeMillis() - start);
+            }
+        });
+
+        logger.info("为模型 [{}] 创建HTTP客户端: 底层客户端={}, 连接超时={}毫秒, 读取超时={}毫秒",
+            key, httpClientKey, connectTimeoutMs, readTimeoutMs);
+        return client;
+    }
+
+    /**
+     * 模型表未配置读取超时时，按模型名称推断
+     */
+    static int inferReadTimeoutMs(String modelName) {
+        int readTimeoutSeconds = 1200;
+
+        if (modelName != null && !modelName.isEmpty()) {
+            String modelNameLower = modelName.toLowerCase();
+
+            // 思考类模型 - 最长超时时间
+            if (modelNameLower.contains("gpt-4-turbo") ||
+                modelNameLower.contains("gpt-4o") ||
+                modelNameLower.contains("claude-3-opus") ||
+                modelNameLower.contains("claude-3-sonnet") ||
+                modelNameLower.contains("gemini-pro") ||
+                modelNameLower.contains("llama-3") ||
+                modelNameLower.contains("mixtral") ||
+                modelNameLower.contains("qwen") ||
+                modelNameLower.contains("glm-4") ||
+                modelNameLower.contains("deepseek-r1") ||
+                modelNameLower.contains("grok")) {
+                readTimeoutSeconds = 6000;
+
+            // GPT-4系列其他模型
+            } else if (modelNameLower.contains("gpt-4")) {
+                readTimeoutSeconds = 3000;
+
+            // Claude系列其他模型
+            } else if (modelNameLower.contains("claude")) {
+                readTimeoutSeconds = 2400;
+
+            // 常规模型
+            } else if (modelNameLower.contains("gpt-3.5") ||
+                       modelNameLower.contains("chatglm") ||
+                       modelNameLower.contains("spark") ||
+                       modelNameLower.contains("ernie") ||
+                       modelNameLower.contains("baichuan") ||
+                       modelNameLower.contains("qwen-turbo")) {
+                readTimeoutSeconds = 1800;
+            }
+        }
+
+        return readTimeoutSeconds * 1000;
+    }
+
+    /**
+     * 单个模型的客户端及其统计
+     */
+    private static class ModelClient {
+        private final String httpClientKey;
+        private final int connectTimeoutMs;
+        private final int readTimeoutMs;
+        private RestTemplate restTemplate;
+
+        private final AtomicInteger activeRequests = new AtomicInteger();
+        private final AtomicLong totalRequests = new AtomicLong();
+        private final AtomicLong errorResponses = new AtomicLong();
+        private final AtomicLong ioFailures = new AtomicLong();
+        private final AtomicLong totalLatencyMs = new AtomicLong();
+
+        ModelClient(String httpClientKey, int connectTimeoutMs, int readTimeoutMs) {
+            this.httpClientKey = httpClientKey;
+            this.connectTimeoutMs = connectTimeoutMs;
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        boolean matches(int connectTimeoutMs, int readTimeoutMs) {
+            return this.connectTimeoutMs == connectTimeoutMs && this.readTimeoutMs == readTimeoutMs;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.demo.manager;
+
+import com.example.demo.entity.jdbc.LlmModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LLM API调用限流管理器
+ *
+ * 每个模型（按API地址+模型名称区分）一个限流器：请求数和Token数各使用一个按分钟补充的令牌桶，
+ * 并发上限采用AIMD方式调整——请求成功时加性增长，遇到429或5xx时乘性减半。
+ * 回答生成、AI评测和连通性测试共用同一组限流器。
+ */
+@Component
+public class LlmRateLimitManager {
+    private static final Logger logger = LoggerFactory.getLogger(LlmRateLimitManager.class);
+
+    @Value("${llm.rate-limit.default-requests-per-minute:60}")
+    private int defaultRequestsPerMinute;
+
+    @Value("${llm.rate-limit.default-tokens-per-minute:100000}")
+    private int defaultTokensPerMinute;
+
+    @Value("${llm.rate-limit.default-max-concurrency:8}")
+    private int defaultMaxConcurrency;
+
+    @Value("${llm.rate-limit.initial-concurrency:2}")
+    private int initialConcurrency;
+
+    @Value("${llm.rate-limit.throttle-cooldown-ms:5000}")
+    private long throttleCooldownMs;
+
+    @Value("${llm.rate-limit.acquire-timeout-ms:600000}")
+    private long acquireTimeoutMs;
+
+    private final ConcurrentHashMap<String, ModelLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * 请求结果，用于调整并发上限
+     */
+    public enum Outcome {
+        SUCCESS,        // 请求成功，并发上限加性增长
+        THROTTLED,      // 429，并发上限减半并进入冷却
+        SERVER_ERROR,   // 5xx，并发上限减半
+        NEUTRAL         // 网络异常或客户端错误，不调整
+    }
+
+    /**
+     * 生成限流器键
+     */
+    public static String keyOf(String apiUrl, String modelName) {
+        return (apiUrl != null ? apiUrl : "") + "#" + (modelName != null ? modelName : "");
+    }
+
+    /**
+     * 生成模型的限流器键
+     */
+    public static String keyOf(LlmModel model) {
+        return keyOf(model.getApiUrl(), model.getName());
+    }
+
+    /**
+     * 估算一次请求消耗的Token数：提示词按每2个字符1个Token估算，再加上最大输出Token数
+     */
+    public static int estimateTokens(String prompt, Object maxTokens) {
+        int promptTokens = prompt != null ? prompt.length() / 2 : 0;
+        int outputTokens = maxTokens instanceof Number ? ((Number) maxTokens).intValue() : 1000;
+        return Math.max(1, promptTokens + outputTokens);
+    }
+
+    /**
+     * 使用模型上配置的限额获取调用许可，未配置的限额使用默认值
+     */
+    public Permit acquire(LlmModel model, int estimatedTokens) {
+        ModelLimiter limiter = limiterFor(keyOf(model));
+        limiter.updateLimits(
+            valueOrDefault(model.getRequestsPerMinute(), defaultRequestsPerMinute),
+            valueOrDefault(model.getTokensPerMinute(), defaultTokensPerMinute),
+            valueOrDefault(model.getMaxConcurrency(), defaultMaxConcurrency));
+        return limiter.acquire(estimatedTokens);
+    }
+
+    /**
+     * 按API地址和模型名称获取调用许可，已有限流器时沿用其限额
+     */
+    public Permit acquire(String apiUrl, String modelName, int estimatedTokens) {
+        return limiterFor(keyOf(apiUrl, modelName)).acquire(estimatedTokens);
+    }
+
+    /**
+     * 获取模型当前的限流状态，模型尚未发起过调用时返回null
+     */
+    public Map<String, Object> getStats(LlmModel model) {
+        ModelLimiter limiter = limiters.get(keyOf(model));
+        return limiter != null ? limiter.snapshot() : null;
+    }
+
+    /**
+     * 获取所有限流器的当前状态
+     */
+    public List<Map<String, Object>> getAllStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (ModelLimiter limiter : limiters.values()) {
+            stats.add(limiter.snapshot());
+        }
+        return stats;
+    }
+
+    private ModelLimiter limiterFor(String key) {
+        return limiters.computeIfAbsent(key, k -> {
+            logger.info("创建模型限流器: {}, RPM={}, TPM={}, 最大并发={}",
+                k, defaultRequestsPerMinute, defaultTokensPerMinute, defaultMaxConcurrency);
+            return new ModelLimiter(k, defaultRequestsPerMinute, defaultTokensPerMinute,
+                defaultMaxConcurrency, initialConcurrency);
+        });
+    }
+
+    private static int valueOrDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * 调用许可，请求结束后通过complete/fail归还；未显式归还时close按NEUTRAL归还
+     */
+    public static class Permit implements AutoCloseable {
+        private final ModelLimiter limiter;
+        private boolean released;
+
+        private Permit(ModelLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        /**
+         * 按HTTP状态码归还许可
+         */
+        public void complete(int statusCode) {
+            if (statusCode == 429) {
+                release(Outcome.THROTTLED, 0);
+            } else if (statusCode >= 500) {
+                release(Outcome.SERVER_ERROR, 0);
+            } else if (statusCode >= 200 && statusCode < 300) {
+                release(Outcome.SUCCESS, 0);
+            } else {
+                release(Outcome.NEUTRAL, 0);
+            }
+        }
+
+        /**
+         * 按异常类型归还许可，并返回本次失败是否可以重试（429或5xx）
+         */
+        public boolean fail(Throwable error) {
+            Throwable cause = error;
+            while (cause != null && !(cause instanceof RestClientResponseException)) {
+                cause = cause.getCause();
+            }
+            if (cause == null) {
+                release(Outcome.NEUTRAL, 0);
+                return false;
+            }
+
+            RestClientResponseException responseError = (RestClientResponseException) cause;
+            int statusCode = responseError.getStatusCode().value();
+            if (statusCode == 429) {
+                long retryAfterMs = 0;
+                String retryAfter = responseError.getResponseHeaders() != null
+                    ? responseError.getResponseHeaders().getFirst("Retry-After") : null;
+                if (retryAfter != null) {
+                    try {
+                        retryAfterMs = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+                    } catch (NumberFormatException e) {
+                        // 忽略HTTP日期格式，使用默认冷却时间
+                    }
+                }
+                release(Outcome.THROTTLED, retryAfterMs);
+                return true;
+            }
+            if (statusCode >= 500) {
+                release(Outcome.SERVER_ERROR, 0);
+                return true;
+            }
+            release(Outcome.NEUTRAL, 0);
+            return false;
+        }
+
+        /**
+         * 按结果归还许可，重复调用只生效一次
+         */
+        public void release(Outcome outcome, long retryAfterMs) {
+            if (released) {
+                return;
+            }
+            released = true;
+            limiter.release(outcome, retryAfterMs);
+        }
+
+        @Override
+        public void close() {
+            release(Outcome.NEUTRAL, 0);
+        }
+    }
+
+    /**
+     * 单个模型的限流器
+     */
+    private class ModelLimiter {
+        private final String key;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+
+        private int requestsPerMinute;
+        private int tokensPerMinute;
+        private int maxConcurrency;
+
+        private double availableRequests;
+        private double availableTokens;
+        private long lastRefillNanos;
+
+        private double concurrencyLimit;
+        private int inFlight;
+        private int waiting;
+        private long cooldownUntilNanos;
+        private long lastDecreaseNanos;
+
+        private long successCount;
+        private long throttledCount;
+        private long serverErrorCount;
+
+        ModelLimiter(String key, int requestsPerMinute, int tokensPerMinute, int maxConcurrency, int initialConcurrency) {
+            this.key = key;
+            this.requestsPerMinute = requestsPerMinute;
+            this.tokensPerMinute = tokensPerMinute;
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+            this.availableRequests = requestsPerMinute;
+            this.availableTokens = tokensPerMinute;
+            this.lastRefillNanos = System.nanoTime();
+            // System.nanoTime()的原点不固定，时间点初始化为当前时刻而不是0
+            this.cooldownUntilNanos = lastRefillNanos;
+            this.lastDecreaseNanos = lastRefillNanos - TimeUnit.DAYS.toNanos(1);
+            this.concurrencyLimit = Math.max(1, Math.min(initialConcurrency, this.maxConcurrency));
+        }
+
+        void updateLimits(int requestsPerMinute, int tokensPerMinute, int maxConcurrency) {
+            lock.lock();
+            try {
+                if (this.requestsPerMinute == requestsPerMinute && this.tokensPerMinute == tokensPerMinute
+                        && this.maxConcurrency == maxConcurrency) {
+                    return;
+                }
+                logger.info("更新模型限流器限额: {}, RPM={}, TPM={}, 最大并发={}",
+                    key, requestsPerMinute, tokensPerMinute, maxConcurrency);
+                this.requestsPerMinute = requestsPerMinute;
+                this.tokensPerMinute = tokensPerMinute;
+                this.maxConcurrency = Math.max(1, maxConcurrency);
+                this.availableRequests = Math.min(availableRequests, requestsPerMinute);
+                this.availableTokens = Math.min(availableTokens, tokensPerMinute);
+                this.concurrencyLimit = Math.min(concurrencyLimit, this.maxConcurrency);
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Permit acquire(int estimatedTokens) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+            lock.lock();
+            waiting++;
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    refill(now);
+
+                    // 单次请求超过整个Token桶时按桶容量扣减，避免永远无法获取
+                    int neededTokens = tokensPerMinute > 0 ? Math.min(estimatedTokens, tokensPerMinute) : 0;
+
+                    long waitNanos;
+                    if (now - cooldownUntilNanos < 0) {
+                        waitNanos = cooldownUntilNanos - now;
+                    } else if (inFlight >= (int) concurrencyLimit) {
+                        waitNanos = Long.MAX_VALUE;
+                    } else if (requestsPerMinute > 0 && availableRequests < 1) {
+                        waitNanos = nanosToRefill(1 - availableRequests, requestsPerMinute);
+                    } else if (tokensPerMinute > 0 && availableTokens < neededTokens) {
+                        waitNanos = nanosToRefill(neededTokens - availableTokens, tokensPerMinute);
+                    } else {
+                        if (requestsPerMinute > 0) {
+                            availableRequests -= 1;
+                        }
+                        availableTokens -= neededTokens;
+                        inFlight++;
+                        return new Permit(this);
+                    }
+
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        throw new IllegalStateException("等待模型调用许可超时: " + key);
+                    }
+                    changed.awaitNanos(Math.min(waitNanos, remaining));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("等待模型调用许可时被中断: " + key, e);
+            } finally {
+                waiting--;
+                lock.unlock();
+            }
+        }
+
+        void release(Outcome outcome, long retryAfterMs) {
+            lock.lock();
+            try {
+                inFlight--;
+                long now = System.nanoTime();
+                switch (outcome) {
+                    case SUCCESS:
+                        successCount++;
+                        concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1.0 / concurrencyLimit);
+                        break;
+                    case THROTTLED:
+                        throttledCount++;
+                        long cooldownMs = retryAfterMs > 0 ? retryAfterMs : throttleCooldownMs;
+                        cooldownUntilNanos = Math.max(cooldownUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(cooldownMs));
+                        decrease(now);
+                        break;
+                    case SERVER_ERROR:
+                        serverErrorCount++;
+                        decrease(now);
+                        break;
+                    default:
+                        break;
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 并发上限减半；同一批并发请求集中失败时，一个冷却周期内只减一次
+         */
+        private void decrease(long now) {
+            if (now - lastDecreaseNanos < TimeUnit.MILLISECONDS.toNanos(throttleCooldownMs)) {
+                return;
+            }
+            lastDecreaseNanos = now;
+            double previous = concurrencyLimit;
+            concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+            logger.warn("模型{}调用受限，并发上限由{}降为{}", key, (int) previous, (int) concurrencyLimit);
+        }
+
+        private void refill(long now) {
+            double elapsedMinutes = (now - lastRefillNanos) / (double) TimeUnit.MINUTES.toNanos(1);
+            lastRefillNanos = now;
+            if (requestsPerMinute > 0) {
+                availableRequests = Math.min(requestsPerMinute, availableRequests + elapsedMinutes * requestsPerMinute);
+            }
+            if (tokensPerMinute > 0) {
+                availableTokens = Math.min(tokensPerMinute, availableTokens + elapsedMinutes * tokensPerMinute);
+            }
+        }
+
+        private long nanosToRefill(double missing, int perMinute) {
+            return Math.max(1, (long) (missing / perMinute * TimeUnit.MINUTES.toNanos(1)));
+        }
+
+        Map<String, Object> snapshot() {
+            lock.lock();
+            try {
+                refill(System.nanoTime());
+                Map<String, Object> stats = new HashMap<>();
+                stats.put("key", key);
+                stats.put("requestsPerMinute", requestsPerMinute);
+                stats.put("tokensPerMinute", tokensPerMinute);
+                stats.put("maxConcurrency", maxConcurrency);
+                stats.put("currentConcurrencyLimit", (int) concurrencyLimit);
+                stats.put("inFlight", inFlight);
+                stats.put("queueDepth", waiting);
+                stats.put("availableRequests", (int) availableRequests);
+                stats.put("availableTokens", (int) availableTokens);
+                stats.put("coolingDown", System.nanoTime() - cooldownUntilNanos < 0);
+                stats.put("successCount", successCount);
+                stats.put("throttledCount", throttledCount);
+                stats.put("serverErrorCount", serverErrorCount);
+                return stats;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.example.demo.manager;
+
+import com.example.demo.repository.jdbc.JdbcStreams;
+import com.example.demo.utils.TermTokenizer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 标签推荐TF-IDF索引
+ *
+ * 以已打标签的标准问题和原始问题为语料：每个问题分词后得到次线性词频向量并归一化，累加到其每个标签的质心；
+ * 标签名本身也作为该标签的一篇文档，没有关联问题的标签仍可按名称命中。发布时对质心乘以IDF、
+ * 每个标签保留权重最高的若干词并归一化，按词组织成倒排表（基本类型数组），查询时只遍历输入文本中
+ * 出现的词的倒排表，得到输入与各标签质心的余弦相似度。
+ *
+ * 标签关联写入并提交后增量累加到语料，稍后在后台重新发布索引；定时从数据库全量重建，
+ * 以反映标签删除、改名等增量无法表达的变化。
+ */
+@Component
+public class TagRecommendationIndex {
+    private static final Logger logger = LoggerFactory.getLogger(TagRecommendationIndex.class);
+
+    private static final String SQL_FIND_TAG_NAMES =
+            "SELECT tag_name FROM tags WHERE deleted_at IS NULL";
+
+    // 按问题排序，同一问题的多行连续出现，每个问题只分词一次
+    private static final String SQL_FIND_STANDARD_QUESTION_TAGS =
+            "SELECT sq.id AS question_id, sq.question_text AS text, t.tag_name " +
+            "FROM standard_question_tags sqt " +
+            "JOIN standard_questions sq ON sqt.standard_question_id = sq.id " +
+            "JOIN tags t ON sqt.tag_id = t.id " +
+            "WHERE sq.deleted_at IS NULL AND t.deleted_at IS NULL " +
+            "ORDER BY sq.id";
+
+    private static final String SQL_FIND_RAW_QUESTION_TAGS =
+            "SELECT rq.id AS question_id, CONCAT_WS(' ', rq.title, rq.content) AS text, t.tag_name " +
+            "FROM raw_question_tags rqt " +
+            "JOIN raw_questions rq ON rqt.raw_question_id = rq.id " +
+            "JOIN tags t ON rqt.tag_id = t.id " +
+            "WHERE t.deleted_at IS NULL " +
+            "ORDER BY rq.id";
+
+    private static final String STANDARD_PREFIX = "S";
+    private static final String RAW_PREFIX = "R";
+
+    @Value("${tag.recommendation.max-terms-per-tag:256}")
+    private int maxTermsPerTag;
+
+    @Value("${tag.recommendation.publish-delay-ms:2000}")
+    private long publishDelayMs;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 开启服务端游标的只读连接，用于全量读取问题文本
+    private final JdbcTemplate cursorJdbcTemplate;
+
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "tag-recommendation-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+
+    // 以下可变状态由this加锁保护
+    private Corpus corpus = new Corpus();
+    private boolean reloading;
+    private final List<Assignment> assignedDuringReload = new ArrayList<>();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public TagRecommendationIndex(JdbcTemplate jdbcTemplate,
+                                  @Qualifier("cursorJdbcTemplate") JdbcTemplate cursorJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorJdbcTemplate = cursorJdbcTemplate;
+    }
+
+    /**
+     * 推荐结果
+     */
+    public static class ScoredTag {
+        private final String tagName;
+        private final double score;
+
+        ScoredTag(String tagName, double score) {
+            this.tagName = tagName;
+            this.score = score;
+        }
+
+        public String getTagName() {
+            return tagName;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * 按与文本的相关度推荐标签
+     *
+     * @param text 问题文本
+     * @param excludedTags 不参与推荐的标签名，如问题已有的标签
+     * @param limit 最多返回的标签数
+     * @param minScore 最低相关度（余弦相似度，0到1）
+     * @return 按相关度降序排列的标签
+     */
+    public List<ScoredTag> recommend(String text, Collection<String> excludedTags, int limit, double minScore) {
+        return snapshot.recommend(text, excludedTags, limit, minScore);
+    }
+
+    /**
+     * 标准问题被打上标签后调用，事务提交后累加到语料
+     */
+    public void standardQuestionTagged(Long questionId, String questionText, String tagName) {
+        onAssigned(new Assignment(STANDARD_PREFIX + questionId, questionText, tagName));
+    }
+
+    /**
+     * 原始问题被打上标签后调用，事务提交后累加到语料
+     */
+    public void rawQuestionTagged(Long rawQuestionId, String title, String content, String tagName) {
+        String text = title == null ? content : (content == null ? title : title + " " + content);
+        onAssigned(new Assignment(RAW_PREFIX + rawQuestionId, text, tagName));
+    }
+
+    private void onAssigned(Assignment assignment) {
+        if (assignment.tagName == null || assignment.text == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(assignment);
+                }
+            });
+        } else {
+            apply(assignment);
+        }
+    }
+
+    private void apply(Assignment assignment) {
+        synchronized (this) {
+            corpus.add(assignment.documentKey, TermTokenizer.tokenize(assignment.text),
+                    Collections.singletonList(assignment.tagName));
+            if (reloading) {
+                assignedDuringReload.add(assignment);
+            }
+        }
+        schedulePublish();
+    }
+
+    /**
+     * 合并短时间内的多次增量，延迟后在后台线程重新发布一次索引
+     */
+    private void schedulePublish() {
+        if (publishScheduled.compareAndSet(false, true)) {
+            publisher.schedule(() -> {
+                publishScheduled.set(false);
+                try {
+                    publish();
+                } catch (Exception e) {
+                    logger.error("发布标签推荐索引失败", e);
+                }
+            }, publishDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void publish() {
+        Snapshot built;
+        synchronized (this) {
+            built = Snapshot.build(corpus, maxTermsPerTag);
+        }
+        snapshot = built;
+    }
+
+    /**
+     * 从数据库全量重建语料，启动时执行一次，之后定时执行
+     */
+    @Scheduled(initialDelayString = "${tag.recommendation.initial-delay-ms:0}",
+               fixedDelayString = "${tag.recommendation.reload-interval-ms:1800000}")
+    public void reload() {
+        long startTime = System.currentTimeMillis();
+        synchronized (this) {
+            reloading = true;
+            assignedDuringReload.clear();
+        }
+        try {
+            Corpus loaded = new Corpus();
+            for (String tagName : jdbcTemplate.queryForList(SQL_FIND_TAG_NAMES, String.class)) {
+                loaded.addTag(tagName);
+            }
+            int standardCount = loadDocuments(loaded, SQL_FIND_STANDARD_QUESTION_TAGS, STANDARD_PREFIX);
+            int rawCount = loadDocuments(loaded, SQL_FIND_RAW_QUESTION_TAGS, RAW_PREFIX);
+
+            synchronized (this) {
+                // 重建期间提交的标签关联可能不在查询结果中，重放一次，已计入的关联会被去重
+                for (Assignment assignment : assignedDuringReload) {
+                    loaded.add(assignment.documentKey, TermTokenizer.tokenize(assignment.text),
+                            Collections.singletonList(assignment.tagName));
+                }
+                corpus = loaded;
+            }
+            publish();
+            logger.info("标签推荐索引重建完成，标签{}个，标准问题{}个，原始问题{}个，词表{}个，耗时{}ms",
+                    loaded.tags.size(), standardCount, rawCount, loaded.termIds.size(),
+                    System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            logger.error("重建标签推荐索引失败，继续使用现有索引", e);
+        } finally {
+            synchronized (this) {
+                reloading = false;
+                assignedDuringReload.clear();
+            }
+        }
+    }
+
+    private int loadDocuments(Corpus target, String sql, String prefix) {
+        int[] documentCount = new int[1];
+        Object[] current = new Object[2];  // 当前问题ID、文本
+        List<String> currentTags = new ArrayList<>();
+        cursorJdbcTemplate.query(JdbcStreams.cursor(sql), (RowCallbackHandler) rs -> {
+            long questionId = rs.getLong("question_id");
+            if (current[0] != null && (Long) current[0] != questionId) {
+                target.add(prefix + current[0], TermTokenizer.tokenize((String) current[1]), currentTags);
+                currentTags.clear();
+                documentCount[0]++;
+            }
+            current[0] = questionId;
+            current[1] = rs.getString("text");
+            currentTags.add(rs.getString("tag_name"));
+        });
+        if (current[0] != null) {
+            target.add(prefix + current[0], TermTokenizer.tokenize((String) current[1]), currentTags);
+            documentCount[0]++;
+        }
+        return documentCount[0];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+    }
+
+    /**
+     * 一次标签关联
+     */
+    private static class Assignment {
+        private final String documentKey;
+        private final String text;
+        private final String tagName;
+
+        Assignment(String documentKey, String text, String tagName) {
+            this.documentKey = documentKey;
+            this.text = text;
+            this.tagName = tagName;
+        }
+    }
+
+    /**
+     * 可变语料：词表、文档频率和各标签质心的累加值
+     */
+    private static class Corpus {
+        private final Map<String, Integer> termIds = new HashMap<>();
+        private int[] documentFrequency = new int[1024];
+        private int documentCount;
+        private final Set<String> documentKeys = new HashSet<>();
+        private final Set<String> assignmentKeys = new HashSet<>();
+        private final Map<String, Centroid> tags = new LinkedHashMap<>();
+
+        Centroid addTag(String tagName) {
+            return tags.computeIfAbsent(tagName, name -> {
+                Centroid centroid = new Centroid();
+                // 标签名作为该标签的一篇文档
+                centroid.add(termVector(TermTokenizer.tokenize(name)));
+                return centroid;
+            });
+        }
+
+        void add(String documentKey, List<String> terms, Collection<String> tagNames) {
+            Map<Integer, Double> vector = null;
+            for (String tagName : tagNames) {
+                if (tagName == null || !assignmentKeys.add(documentKey + "#" + tagName)) {
+                    continue;
+                }
+                if (vector == null) {
+                    vector = termVector(terms);
+                    if (documentKeys.add(documentKey)) {
+                        documentCount++;
+                        for (Integer termId : vector.keySet()) {
+                            documentFrequency[termId]++;
+                        }
+                    }
+                }
+                addTag(tagName).add(vector);
+            }
+        }
+
+        /**
+         * 次线性词频（1+log tf）并做L2归一化，长文本不会主导质心
+         */
+        private Map<Integer, Double> termVector(List<String> terms) {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (String term : terms) {
+                counts.merge(termId(term), 1, Integer::sum);
+            }
+            Map<Integer, Double> vector = new HashMap<>(counts.size() * 2);
+            double norm = 0;
+            for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                double weight = 1 + Math.log(entry.getValue());
+                vector.put(entry.getKey(), weight);
+                norm += weight * weight;
+            }
+            if (norm > 0) {
+                double scale = 1 / Math.sqrt(norm);
+                vector.replaceAll((termId, weight) -> weight * scale);
+            }
+            return vector;
+        }
+
+        private int termId(String term) {
+            Integer id = termIds.get(term);
+            if (id == null) {
+                id = termIds.size();
+                termIds.put(term, id);
+                if (id >= documentFrequency.length) {
+                    documentFrequency = Arrays.copyOf(documentFrequency, documentFrequency.length * 2);
+                }
+            }
+            return id;
+        }
+    }
+
+    /**
+     * 标签质心：所属文档向量之和
+     */
+    private static class Centroid {
+        private final Map<Integer, Double> termSums = new HashMap<>();
+
+        void add(Map<Integer, Double> vector) {
+            for (Map.Entry<Integer, Double> entry : vector.entrySet()) {
+                termSums.merge(entry.getKey(), entry.getValue(), Double::sum);
+            }
+        }
+    }
+
+    /**
+     * 发布后的只读索引，查询只访问基本类型数组
+     */
+    private static class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new String[0], new HashMap<>(), new float[0],
+                new int[0][], new float[0][]);
+
+        private final String[] tagNames;
+        private final Map<String, Integer> termIds;
+        private final float[] idf;
+        private final int[][] postingTags;
+        private final float[][] postingWeights;
+
+        Snapshot(String[] tagNames, Map<String, Integer> termIds, float[] idf,
+                 int[][] postingTags, float[][] postingWeights) {
+            this.tagNames = tagNames;
+            this.termIds = termIds;
+            this.idf = idf;
+            this.postingTags = postingTags;
+            this.postingWeights = postingWeights;
+        }
+
+        static Snapshot build(Corpus corpus, int maxTermsPerTag) {
+            int termCount = corpus.termIds.size();
+            float[] idf = new float[termCount];
+            for (int termId = 0; termId < termCount; termId++) {
+                idf[termId] = (float) (Math.log((corpus.documentCount + 1.0) / (corpus.documentFrequency[termId] + 1.0)) + 1.0);
+            }
+
+            String[] tagNames = corpus.tags.keySet().toArray(new String[0]);
+            int[] postingSizes = new int[termCount];
+            int[][] tagTerms = new int[tagNames.length][];
+            float[][] tagWeights = new float[tagNames.length][];
+
+            for (int tagIndex = 0; tagIndex < tagNames.length; tagIndex++) {
+                Map<Integer, Double> termSums = corpus.tags.get(tagNames[tagIndex]).termSums;
+                int size = termSums.size();
+                int[] terms = new int[size];
+                double[] weights = new double[size];
+                int i = 0;
+                for (Map.Entry<Integer, Double> entry : termSums.entrySet()) {
+                    terms[i] = entry.getKey();
+                    weights[i] = entry.getValue() * idf[entry.getKey()];
+                    i++;
+                }
+
+                // 只保留权重最高的词
+                Integer[] order = new Integer[size];
+                for (i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, (a, b) -> Double.compare(weights[b], weights[a]));
+                int kept = Math.min(size, maxTermsPerTag);
+
+                double norm = 0;
+                for (i = 0; i < kept; i++) {
+                    norm += weights[order[i]] * weights[order[i]];
+                }
+                double scale = norm > 0 ? 1 / Math.sqrt(norm) : 0;
+
+                tagTerms[tagIndex] = new int[kept];
+                tagWeights[tagIndex] = new float[kept];
+                for (i = 0; i < kept; i++) {
+                    int termId = terms[order[i]];
+                    tagTerms[tagIndex][i] = termId;
+                    tagWeights[tagIndex][i] = (float) (weights[order[i]] * scale);
+                    postingSizes[termId]++;
+                }
+            }
+
+            int[][] postingTags = new int[termCount][];
+            float[][] postingWeights = new float[termCount][];
+            for (int termId = 0; termId < termCount; termId++) {
+                postingTags[termId] = new int[postingSizes[termId]];
+                postingWeights[termId] = new float[postingSizes[termId]];
+            }
+            int[] filled = new int[termCount];
+            for (int tagIndex = 0; tagIndex < tagNames.length; tagIndex++) {
+                for (int i = 0; i < tagTerms[tagIndex].length; i++) {
+                    int termId = tagTerms[tagIndex][i];
+                    postingTags[termId][filled[termId]] = tagIndex;
+                    postingWeights[termId][filled[termId]] = tagWeights[tagIndex][i];
+                    filled[termId]++;
+                }
+            }
+
+            return new Snapshot(tagNames, new HashMap<>(corpus.termIds), idf, postingTags, postingWeights);
+        }
+
+        List<ScoredTag> recommend(String text, Collection<String> excludedTags, int limit, double minScore) {
+            List<ScoredTag> result = new ArrayList<>();
+            if (tagNames.length == 0 || limit <= 0) {
+                return result;
+            }
+
+            // 输入文本的TF-IDF向量
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (String term : TermTokenizer.tokenize(text)) {
+                Integer termId = termIds.get(term);
+                if (termId != null) {
+                    counts.merge(termId, 1, Integer::sum);
+                }
+            }
+            if (counts.isEmpty()) {
+                return result;
+            }
+            double norm = 0;
+            for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                double weight = (1 + Math.log(entry.getValue())) * idf[entry.getKey()];
+                norm += weight * weight;
+            }
+            double scale = 1 / Math.sqrt(norm);
+
+            double[] scores = new double[tagNames.length];
+            for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                int termId = entry.getKey();
+                double queryWeight = (1 + Math.log(entry.getValue())) * idf[termId] * scale;
+                int[] tags = postingTags[termId];
+                float[] weights = postingWeights[termId];
+                for (int i = 0; i < tags.length; i++) {
+                    scores[tags[i]] += queryWeight * weights[i];
+                }
+            }
+
+            // 取前limit个
+            int[] top = new int[limit];
+            int topSize = 0;
+            for (int tagIndex = 0; tagIndex < scores.length; tagIndex++) {
+                double score = scores[tagIndex];
+                if (score < minScore || (topSize == limit && score <= scores[top[topSize - 1]])) {
+                    continue;
+                }
+                if (excludedTags != null && excludedTags.contains(tagNames[tagIndex])) {
+                    continue;
+                }
+                int position = topSize < limit ? topSize++ : limit - 1;
+                while (position > 0 && scores[top[position - 1]] < score) {
+                    top[position] = top[position - 1];
+                    position--;
+                }
+                top[position] = tagIndex;
+            }
+            for (int i = 0; i < topSize; i++) {
+                result.add(new ScoredTag(tagNames[top[i]], scores[top[i]]));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.demo.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entity.jdbc.AnswerGenerationWorkUnit;
+import com.example.demo.entity.jdbc.AnswerGenerationWorkUnit.UnitStatus;
+
+/**
+ * 回答生成工作单元仓库
+ *
+ * 租约到期时间使用数据库时间计算和比较，不依赖各实例的时钟。更新单元进度和状态的语句都带有
+ * lease_owner和status条件，租约被回收后原实例的写入不再生效，回答与单元断点在同一事务中写入，
+ * 保证同一问题不会被两个实例重复保存。
+ */
+@Repository
+public class AnswerGenerationWorkUnitRepository {
+
+    private static final String SQL_INSERT_IGNORE =
+            "INSERT IGNORE INTO answer_generation_work_units " +
+            "(batch_id, run_id, llm_model_id, start_index, end_index, checkpoint_index, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 'PENDING')";
+
+    // 只领取处理中批次的单元：等待领取的单元，或租约已过期的单元；被其他实例锁定的行直接跳过
+    private static final String SQL_FIND_CLAIMABLE =
+            "SELECT u.* FROM answer_generation_work_units u " +
+            "JOIN answer_generation_batches b ON b.id = u.batch_id " +
+            "WHERE b.status IN ('GENERATING_ANSWERS', 'RESUMING') " +
+            "AND (u.status = 'PENDING' OR (u.status = 'LEASED' AND u.lease_expires_at < NOW(3))) " +
+            "%s" +
+            "ORDER BY u.batch_id, u.start_index, u.run_id " +
+            "LIMIT 1 FOR UPDATE OF u SKIP LOCKED";
+
+    private static final String SQL_LEASE =
+            "UPDATE answer_generation_work_units SET status = 'LEASED', lease_owner = ?, " +
+            "lease_expires_at = DATE_ADD(NOW(3), INTERVAL ? SECOND) WHERE id = ?";
+
+    private static final String SQL_RENEW =
+            "UPDATE answer_generation_work_units SET lease_expires_at = DATE_ADD(NOW(3), INTERVAL ? SECOND) " +
+            "WHERE id = ? AND lease_owner = ? AND status = 'LEASED'";
+
+    private static final String SQL_SAVE_CHECKPOINT =
+            "UPDATE answer_generation_work_units SET checkpoint_index = ?, " +
+            "completed_count = completed_count + ?, failed_count = failed_count + ? " +
+            "WHERE id = ? AND lease_owner = ? AND status = 'LEASED'";
+
+    // 只有出错释放才计入尝试次数，暂停释放和实例宕机后的租约回收不计入
+    private static final String SQL_RELEASE =
+            "UPDATE answer_generation_work_units SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL, " +
+            "attempts = attempts + IF(? IS NULL, 0, 1), error_message = COALESCE(?, error_message) " +
+            "WHERE id = ? AND lease_owner = ? AND status = 'LEASED'";
+
+    private static final String SQL_FINISH =
+            "UPDATE answer_generation_work_units SET status = ?, lease_owner = NULL, lease_expires_at = NULL, " +
+            "attempts = attempts + IF(? = 'FAILED', 1, 0), error_message = ? " +
+            "WHERE id = ? AND lease_owner = ? AND status = 'LEASED'";
+
+    private static final String SQL_RELEASE_BY_OWNER =
+            "UPDATE answer_generation_work_units SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL " +
+            "WHERE lease_owner = ? AND status = 'LEASED'";
+
+    private static final String SQL_RESET_FAILED =
+            "UPDATE answer_generation_work_units SET status = 'PENDING', attempts = 0, error_message = NULL " +
+            "WHERE batch_id = ? AND status = 'FAILED'";
+
+    private static final String SQL_LOCK_BATCH =
+            "SELECT id FROM answer_generation_batches WHERE id = ? FOR UPDATE";
+
+    private static final String SQL_COUNT_BY_RUN =
+            "SELECT status, COUNT(*) AS unit_count FROM answer_generation_work_units WHERE run_id = ? GROUP BY status";
+
+    private static final String SQL_COUNT_UNFINISHED_BY_BATCH =
+            "SELECT COUNT(*) FROM answer_generation_work_units WHERE batch_id = ? AND status IN ('PENDING', 'LEASED')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AnswerGenerationWorkUnitRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 批量插入工作单元，(运行, 起始索引)已存在的单元保持不变，重复启动批次时不会重置进度
+     *
+     * @param units 工作单元列表
+     */
+    public void insertMissing(List<AnswerGenerationWorkUnit> units) {
+        if (units.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERT_IGNORE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AnswerGenerationWorkUnit unit = units.get(i);
+                ps.setLong(1, unit.getBatchId());
+                ps.setLong(2, unit.getRunId());
+                ps.setLong(3, unit.getLlmModelId());
+                ps.setInt(4, unit.getStartIndex());
+                ps.setInt(5, unit.getEndIndex());
+                ps.setInt(6, unit.getCheckpointIndex());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return units.size();
+            }
+        });
+    }
+
+    /**
+     * 领取一个可处理的工作单元并写入租约，需在事务中调用
+     *
+     * @param owner 领取实例标识
+     * @param leaseSeconds 租约时长（秒）
+     * @param excludedModelIds 不领取这些模型的单元
+     * @return 领取到的单元，没有可领取的单元时为空
+     */
+    public Optional<AnswerGenerationWorkUnit> claimNext(String owner, int leaseSeconds, Collection<Long> excludedModelIds) {
+        String modelFilter = excludedModelIds.isEmpty() ? ""
+                : "AND u.llm_model_id NOT IN (" + AssociationLoader.placeholders(excludedModelIds.size()) + ") ";
+        List<AnswerGenerationWorkUnit> units = jdbcTemplate.query(
+                String.format(SQL_FIND_CLAIMABLE, modelFilter), new WorkUnitRowMapper(), excludedModelIds.toArray());
+        if (units.isEmpty()) {
+            return Optional.empty();
+        }
+
+        AnswerGenerationWorkUnit unit = units.get(0);
+        jdbcTemplate.update(SQL_LEASE, owner, leaseSeconds, unit.getId());
+        unit.setStatus(UnitStatus.LEASED);
+        return Optional.of(unit);
+    }
+
+    /**
+     * 续约工作单元
+     *
+     * @return 更新行数，0表示租约已被回收
+     */
+    public int renewLease(Long id, String owner, int leaseSeconds) {
+        return jdbcTemplate.update(SQL_RENEW, leaseSeconds, id, owner);
+    }
+
+    /**
+     * 推进单元断点并累加计数，租约已不属于owner时不更新
+     *
+     * @return 更新行数，0表示租约已被回收
+     */
+    public int saveCheckpoint(Long id, String owner, int checkpointIndex, int completedDelta, int failedDelta) {
+        return jdbcTemplate.update(SQL_SAVE_CHECKPOINT, checkpointIndex, completedDelta, failedDelta, id, owner);
+    }
+
+    /**
+     * 释放租约，单元回到等待领取状态
+     *
+     * @param errorMessage 本次处理的错误信息，不为null时计入一次失败尝试；为null时保留原错误信息
+     * @return 更新行数，0表示租约已被回收
+     */
+    public int release(Long id, String owner, String errorMessage) {
+        return jdbcTemplate.update(SQL_RELEASE, errorMessage, errorMessage, id, owner);
+    }
+
+    /**
+     * 将单元标记为完成或失败，标记为失败时计入一次失败尝试
+     *
+     * @return 更新行数，0表示租约已被回收
+     */
+    public int finish(Long id, String owner, UnitStatus status, String errorMessage) {
+        return jdbcTemplate.update(SQL_FINISH, status.name(), status.name(), errorMessage, id, owner);
+    }
+
+    /**
+     * 释放实例持有的全部租约
+     *
+     * @return 释放的单元数
+     */
+    public int releaseByOwner(String owner) {
+        return jdbcTemplate.update(SQL_RELEASE_BY_OWNER, owner);
+    }
+
+    /**
+     * 将批次中失败的单元重置为等待领取，重新启动批次时重试
+     *
+     * @return 重置的单元数
+     */
+    public int resetFailed(Long batchId) {
+        return jdbcTemplate.update(SQL_RESET_FAILED, batchId);
+    }
+
+    /**
+     * 锁定批次行，串行化同一批次的单元结束处理，需在事务中调用
+     */
+    public void lockBatch(Long batchId) {
+        jdbcTemplate.queryForList(SQL_LOCK_BATCH, Long.class, batchId);
+    }
+
+    /**
+     * 统计运行的各状态单元数
+     */
+    public Map<UnitStatus, Integer> countByRun(Long runId) {
+        Map<UnitStatus, Integer> counts = new EnumMap<>(UnitStatus.class);
+        jdbcTemplate.query(SQL_COUNT_BY_RUN, (RowCallbackHandler) rs ->
+                counts.put(UnitStatus.valueOf(rs.getString("status")), rs.getInt("unit_count")), runId);
+        return counts;
+    }
+
+    /**
+     * 统计批次中未结束（等待领取或已领取）的单元数
+     */
+    public int countUnfinishedByBatch(Long batchId) {
+        Integer count = jdbcTemplate.queryForObject(SQL_COUNT_UNFINISHED_BY_BATCH, Integer.class, batchId);
+        return count != null ? count : 0;
+    }
+
+    private static class WorkUnitRowMapper implements RowMapper<AnswerGenerationWorkUnit> {
+        @Override
+        public AnswerGenerationWorkUnit mapRow(ResultSet rs, int rowNum) throws SQLException {
+            AnswerGenerationWorkUnit unit = new AnswerGenerationWorkUnit();
+            unit.setId(rs.getLong(AnswerGenerationWorkUnit.COLUMN_ID));
+            unit.setBatchId(rs.getLong(AnswerGenerationWorkUnit.COLUMN_BATCH_ID));
+            unit.setRunId(rs.getLong(AnswerGenerationWorkUnit.COLUMN_RUN_ID));
+            unit.setLlmModelId(rs.getLong(AnswerGenerationWorkUnit.COLUMN_LLM_MODEL_ID));
+            unit.setStartIndex(rs.getInt(AnswerGenerationWorkUnit.COLUMN_START_INDEX));
+            unit.setEndIndex(rs.getInt(AnswerGenerationWorkUnit.COLUMN_END_INDEX));
+            unit.setCheckpointIndex(rs.getInt(AnswerGenerationWorkUnit.COLUMN_CHECKPOINT_INDEX));
+            unit.setStatus(UnitStatus.valueOf(rs.getString(AnswerGenerationWorkUnit.COLUMN_STATUS)));
+            unit.setLeaseOwner(rs.getString(AnswerGenerationWorkUnit.COLUMN_LEASE_OWNER));
+            Timestamp leaseExpiresAt = rs.getTimestamp(AnswerGenerationWorkUnit.COLUMN_LEASE_EXPIRES_AT);
+            unit.setLeaseExpiresAt(leaseExpiresAt != null ? leaseExpiresAt.toLocalDateTime() : null);
+            unit.setAttempts(rs.getInt(AnswerGenerationWorkUnit.COLUMN_ATTEMPTS));
+            unit.setCompletedCount(rs.getInt(AnswerGenerationWorkUnit.COLUMN_COMPLETED_COUNT));
+            unit.setFailedCount(rs.getInt(AnswerGenerationWorkUnit.COLUMN_FAILED_COUNT));
+            unit.setErrorMessage(rs.getString(AnswerGenerationWorkUnit.COLUMN_ERROR_MESSAGE));
+            return unit;
+        }
+    }
+}
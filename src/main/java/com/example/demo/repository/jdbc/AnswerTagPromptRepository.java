@@ -484,6 +484,19 @@ public class AnswerTagPromptRepository {
         return jdbcTemplate.query(sql, (rs, rowNum) -> mapAnswerTagPrompt(rs), tagId);
     }
     
+    /**
+     * 查询所有激活状态的提示词
+     * 
+     * @return 激活状态的提示词列表，按优先级排序
+     */
+    public List<AnswerTagPrompt> findAllActivePrompts() {
+        String sql = "SELECT * FROM answer_tag_prompts " +
+                     "WHERE is_active = true AND deleted_at IS NULL " +
+                     "ORDER BY prompt_priority ASC";
+                     
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapAnswerTagPrompt(rs));
+    }
+    
     /**
      * 行映射器辅助方法
      */
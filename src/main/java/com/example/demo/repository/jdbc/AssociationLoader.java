@@ -0,0 +1,211 @@
+package com.example.demo.repository.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 关联对象批量加载器
+ *
+ * 行映射器只为关联对象生成仅含ID的占位对象，查询完成后由本类按类型收集ID，
+ * 通过WHERE ID IN (...)批量查询并替换占位对象，避免在mapRow中逐行调用findById。
+ * 各仓库在构造时注册自己实体的批量查询和关联解析方法；一次加载使用一个Context作为身份映射，
+ * 同一ID的实体在整个对象图中只查询一次。
+ */
+@Component
+public class AssociationLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssociationLoader.class);
+
+    // 单条IN查询的最大ID数
+    static final int MAX_IN_SIZE = 1000;
+
+    private final Map<Class<?>, Registration<?>> registrations = new ConcurrentHashMap<>();
+
+    /**
+     * 注册实体类型的加载方式
+     *
+     * @param type 实体类型
+     * @param idGetter 获取实体ID
+     * @param batchLoader 按ID列表查询实体，返回的关联对象为占位对象
+     * @param hydrator 解析实体自身的关联对象，没有关联时传null
+     */
+    public <T> void register(Class<T> type, Function<T, Long> idGetter,
+                             Function<List<Long>, List<T>> batchLoader,
+                             BiConsumer<List<T>, Context> hydrator) {
+        registrations.put(type, new Registration<>(idGetter, batchLoader, hydrator));
+    }
+
+    /**
+     * 按加载方式解析查询结果的关联对象
+     */
+    public <T> List<T> hydrate(Class<T> type, List<T> entities, FetchMode fetchMode) {
+        if (fetchMode == FetchMode.EAGER && !entities.isEmpty()) {
+            newContext().adopt(type, entities);
+        }
+        return entities;
+    }
+
+    /**
+     * 按加载方式解析单个查询结果的关联对象
+     */
+    public <T> Optional<T> hydrate(Class<T> type, Optional<T> entity, FetchMode fetchMode) {
+        entity.ifPresent(e -> hydrate(type, Collections.singletonList(e), fetchMode));
+        return entity;
+    }
+
+    /**
+     * 创建一次加载使用的上下文
+     */
+    public Context newContext() {
+        return new Context();
+    }
+
+    /**
+     * 将ID列表拆分为IN查询的占位符和参数
+     */
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Registration<T> registrationOf(Class<T> type) {
+        Registration<T> registration = (Registration<T>) registrations.get(type);
+        if (registration == null) {
+            throw new IllegalStateException("未注册关联加载的实体类型: " + type.getSimpleName());
+        }
+        return registration;
+    }
+
+    /**
+     * 一次加载的身份映射，非线程安全，只在单次查询调用内使用
+     */
+    public class Context {
+
+        // 类型 -> (ID -> 实体)，值为null表示已查询但不存在
+        private final Map<Class<?>, Map<Long, Object>> identityMap = new HashMap<>();
+        private int queryCount;
+
+        /**
+         * 登记已查询出的实体并解析其关联对象
+         */
+        public <T> void adopt(Class<T> type, List<T> entities) {
+            Registration<T> registration = registrationOf(type);
+            Map<Long, Object> loaded = identityMap.computeIfAbsent(type, k -> new HashMap<>());
+
+            // 同一实例可能在结果中出现多次（如按标签展开的行），只解析一次
+            Set<T> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<T> toHydrate = new ArrayList<>();
+            for (T entity : entities) {
+                if (entity != null && distinct.add(entity)) {
+                    loaded.putIfAbsent(registration.idGetter.apply(entity), entity);
+                    toHydrate.add(entity);
+                }
+            }
+            if (registration.hydrator != null) {
+                registration.hydrator.accept(toHydrate, this);
+            }
+            logger.debug("批量加载{}个{}的关联对象，查询{}次", toHydrate.size(), type.getSimpleName(), queryCount);
+        }
+
+        /**
+         * 按ID加载实体，身份映射中已有的直接返回，其余按批查询
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Map<Long, T> load(Class<T> type, Collection<Long> ids) {
+            Registration<T> registration = registrationOf(type);
+            Map<Long, Object> loaded = identityMap.computeIfAbsent(type, k -> new HashMap<>());
+
+            List<Long> missing = new ArrayList<>();
+            for (Long id : ids) {
+                if (id != null && !loaded.containsKey(id)) {
+                    missing.add(id);
+                }
+            }
+
+            List<T> fetched = new ArrayList<>();
+            for (int from = 0; from < missing.size(); from += MAX_IN_SIZE) {
+                List<Long> chunk = missing.subList(from, Math.min(from + MAX_IN_SIZE, missing.size()));
+                for (T entity : registration.batchLoader.apply(chunk)) {
+                    if (loaded.putIfAbsent(registration.idGetter.apply(entity), entity) == null) {
+                        fetched.add(entity);
+                    }
+                }
+                queryCount++;
+            }
+            // 不存在的ID也登记，避免重复查询
+            for (Long id : missing) {
+                loaded.putIfAbsent(id, null);
+            }
+
+            if (!fetched.isEmpty() && registration.hydrator != null) {
+                registration.hydrator.accept(fetched, this);
+            }
+            return (Map<Long, T>) (Map<Long, ?>) loaded;
+        }
+
+        /**
+         * 将一组对象中的关联占位对象替换为加载后的实体，不存在时置为null
+         *
+         * @param owners 持有关联的对象
+         * @param type 关联实体类型
+         * @param getter 获取关联占位对象
+         * @param setter 设置关联实体
+         */
+        public <O, T> void resolve(List<O> owners, Class<T> type, Function<O, T> getter, BiConsumer<O, T> setter) {
+            Function<T, Long> idGetter = registrationOf(type).idGetter;
+            Set<Long> ids = new LinkedHashSet<>();
+            for (O owner : owners) {
+                T stub = getter.apply(owner);
+                if (stub != null) {
+                    ids.add(idGetter.apply(stub));
+                }
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            Map<Long, T> loaded = load(type, ids);
+            for (O owner : owners) {
+                T stub = getter.apply(owner);
+                if (stub != null) {
+                    setter.accept(owner, loaded.get(idGetter.apply(stub)));
+                }
+            }
+        }
+    }
+
+    private static class Registration<T> {
+        private final Function<T, Long> idGetter;
+        private final Function<List<Long>, List<T>> batchLoader;
+        private final BiConsumer<List<T>, Context> hydrator;
+
+        Registration(Function<T, Long> idGetter, Function<List<Long>, List<T>> batchLoader,
+                     BiConsumer<List<T>, Context> hydrator) {
+            this.idGetter = idGetter;
+            this.batchLoader = batchLoader;
+            this.hydrator = hydrator;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.demo.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.entity.jdbc.BatchLeaderboard;
+
+/**
+ * 批次排行榜快照仓库
+ *
+ * 评测写入时递增所属批次的data_version，快照保存时记录计算所依据的版本。读取方先读版本再计算，
+ * 版本递增与评测在同一事务中提交，因此快照只可能被误判为过期，不会把旧数据当作最新数据。
+ */
+@Repository
+public class BatchLeaderboardRepository {
+
+    private static final String SQL_FIND_BATCH_IDS_BY_ANSWER_IDS =
+            "SELECT DISTINCT mar.answer_generation_batch_id FROM llm_answers la " +
+            "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
+            "WHERE la.id IN (%s)";
+
+    private static final String SQL_INCREMENT_VERSION =
+            "INSERT INTO batch_leaderboards (batch_id, data_version) VALUES (?, 1) " +
+            "ON DUPLICATE KEY UPDATE data_version = data_version + 1";
+
+    private static final String SQL_FIND_STATE =
+            "SELECT batch_id, data_version, snapshot_version, calculated_at, " +
+            "TIMESTAMPDIFF(SECOND, calculated_at, NOW(3)) AS snapshot_age_seconds " +
+            "FROM batch_leaderboards WHERE batch_id = ?";
+
+    private static final String SQL_FIND_SNAPSHOT =
+            "SELECT snapshot FROM batch_leaderboards WHERE batch_id = ? AND snapshot_version = ?";
+
+    // ON DUPLICATE KEY UPDATE按书写顺序赋值，snapshot_version最后更新，前面的条件比较的是原版本；
+    // 只接受不低于已有版本的快照，并发计算时较旧的结果不会覆盖较新的结果
+    private static final String SQL_SAVE_SNAPSHOT =
+            "INSERT INTO batch_leaderboards (batch_id, data_version, snapshot_version, snapshot, calculated_at) " +
+            "VALUES (?, ?, ?, ?, NOW(3)) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "snapshot = IF(COALESCE(snapshot_version, -1) <= VALUES(snapshot_version), VALUES(snapshot), snapshot), " +
+            "calculated_at = IF(COALESCE(snapshot_version, -1) <= VALUES(snapshot_version), VALUES(calculated_at), calculated_at), " +
+            "snapshot_version = GREATEST(COALESCE(snapshot_version, -1), VALUES(snapshot_version))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public BatchLeaderboardRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 标记回答所属批次的评测数据已变更
+     *
+     * 在事务中调用时，同一事务涉及的回答合并到提交前统一处理，版本行的锁只在提交前短暂持有。
+     *
+     * @param answerIds 评测所属的回答ID
+     */
+    @SuppressWarnings("unchecked")
+    public void markAnswersChanged(Collection<Long> answerIds) {
+        if (answerIds == null || answerIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            incrementVersions(answerIds);
+            return;
+        }
+
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> created = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    incrementVersions(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BatchLeaderboardRepository.this);
+                }
+            });
+            pending = created;
+        }
+        for (Long answerId : answerIds) {
+            if (answerId != null) {
+                pending.add(answerId);
+            }
+        }
+    }
+
+    /**
+     * 查询批次的版本状态，不读取快照内容
+     */
+    public Optional<BatchLeaderboard> findStateByBatchId(Long batchId) {
+        List<BatchLeaderboard> states = jdbcTemplate.query(SQL_FIND_STATE, (rs, rowNum) -> {
+            BatchLeaderboard state = new BatchLeaderboard();
+            state.setBatchId(rs.getLong(BatchLeaderboard.COLUMN_BATCH_ID));
+            state.setDataVersion(rs.getLong(BatchLeaderboard.COLUMN_DATA_VERSION));
+            long snapshotVersion = rs.getLong(BatchLeaderboard.COLUMN_SNAPSHOT_VERSION);
+            state.setSnapshotVersion(rs.wasNull() ? null : snapshotVersion);
+            Timestamp calculatedAt = rs.getTimestamp(BatchLeaderboard.COLUMN_CALCULATED_AT);
+            state.setCalculatedAt(calculatedAt != null ? calculatedAt.toLocalDateTime() : null);
+            long age = rs.getLong("snapshot_age_seconds");
+            state.setSnapshotAgeSeconds(rs.wasNull() ? null : age);
+            return state;
+        }, batchId);
+        return states.isEmpty() ? Optional.empty() : Optional.of(states.get(0));
+    }
+
+    /**
+     * 读取指定版本的快照内容
+     *
+     * @return 快照JSON，快照已被其他版本替换时为空
+     */
+    public Optional<String> findSnapshot(Long batchId, long snapshotVersion) {
+        List<String> snapshots = jdbcTemplate.queryForList(SQL_FIND_SNAPSHOT, String.class, batchId, snapshotVersion);
+        return snapshots.isEmpty() || snapshots.get(0) == null ? Optional.empty() : Optional.of(snapshots.get(0));
+    }
+
+    /**
+     * 保存按指定版本计算的快照，已有更高版本的快照时不覆盖，计算时间使用数据库时间
+     */
+    public void saveSnapshot(Long batchId, long snapshotVersion, String snapshot) {
+        jdbcTemplate.update(SQL_SAVE_SNAPSHOT, batchId, snapshotVersion, snapshotVersion, snapshot);
+    }
+
+    /**
+     * 递增回答所属批次的数据版本，批次ID排序后更新，并发事务按相同顺序加锁
+     */
+    private void incrementVersions(Collection<Long> answerIds) {
+        List<Long> ids = new ArrayList<>(answerIds);
+        Set<Long> batchIds = new TreeSet<>();
+        for (int from = 0; from < ids.size(); from += AssociationLoader.MAX_IN_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + AssociationLoader.MAX_IN_SIZE, ids.size()));
+            String sql = String.format(SQL_FIND_BATCH_IDS_BY_ANSWER_IDS, AssociationLoader.placeholders(chunk.size()));
+            batchIds.addAll(jdbcTemplate.queryForList(sql, Long.class, chunk.toArray()));
+        }
+        if (batchIds.isEmpty()) {
+            return;
+        }
+
+        List<Long> sortedBatchIds = new ArrayList<>(batchIds);
+        jdbcTemplate.batchUpdate(SQL_INCREMENT_VERSION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, sortedBatchIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return sortedBatchIds.size();
+            }
+        });
+    }
+}
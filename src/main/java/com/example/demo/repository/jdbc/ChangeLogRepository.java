@@ -18,6 +18,8 @@ import org.springframework.stereotype.Repository;
 
 import com.example.demo.entity.jdbc.ChangeLog;
 import com.example.demo.entity.jdbc.ChangeType;
+import com.example.demo.entity.jdbc.StandardQuestion;
+import com.example.demo.entity.jdbc.User;
 
 /**
  * 基于JDBC的变更日志仓库实现
@@ -28,8 +30,7 @@ public class ChangeLogRepository {
     private static final Logger logger = LoggerFactory.getLogger(ChangeLogRepository.class);
 
     private final JdbcTemplate jdbcTemplate;
-    private final UserRepository userRepository;
-    private final StandardQuestionRepository standardQuestionRepository;
+    private final AssociationLoader associationLoader;
 
     private static final String SQL_INSERT = 
             "INSERT INTO CHANGE_LOG (COMMIT_MESSAGE, CHANGE_TIME, CHANGED_BY_USER_ID, ASSOCIATED_STANDARD_QUESTION_ID, CHANGE_TYPE) " +
@@ -67,11 +68,18 @@ public class ChangeLogRepository {
     private static final String SQL_FIND_ALL = 
             "SELECT * FROM CHANGE_LOG ORDER BY CHANGE_TIME DESC";
 
+    private static final String SQL_FIND_BY_IDS = 
+            "SELECT * FROM CHANGE_LOG WHERE id IN (%s)";
+
     @Autowired
-    public ChangeLogRepository(JdbcTemplate jdbcTemplate, UserRepository userRepository, StandardQuestionRepository standardQuestionRepository) {
+    public ChangeLogRepository(JdbcTemplate jdbcTemplate, AssociationLoader associationLoader) {
         this.jdbcTemplate = jdbcTemplate;
-        this.userRepository = userRepository;
-        this.standardQuestionRepository = standardQuestionRepository;
+        this.associationLoader = associationLoader;
+        associationLoader.register(ChangeLog.class, ChangeLog::getId, this::findByIds, (changeLogs, context) -> {
+            context.resolve(changeLogs, User.class, ChangeLog::getUser, ChangeLog::setUser);
+            context.resolve(changeLogs, StandardQuestion.class,
+                ChangeLog::getAssociatedStandardQuestion, ChangeLog::setAssociatedStandardQuestion);
+        });
     }
 
     /**
@@ -158,26 +166,26 @@ public class ChangeLogRepository {
     public Optional<ChangeLog> findById(Long id) {
         try {
             ChangeLog changeLog = jdbcTemplate.queryForObject(SQL_FIND_BY_ID, new ChangeLogRowMapper(), id);
-            return Optional.ofNullable(changeLog);
+            return associationLoader.hydrate(ChangeLog.class, Optional.ofNullable(changeLog), FetchMode.EAGER);
         } catch (Exception e) {
             return Optional.empty();
         }
     }
 
     public List<ChangeLog> findByAnswerId(Long answerId) {
-        return jdbcTemplate.query(SQL_FIND_BY_ANSWER_ID, new ChangeLogRowMapper(), answerId, answerId, answerId);
+        return hydrate(jdbcTemplate.query(SQL_FIND_BY_ANSWER_ID, new ChangeLogRowMapper(), answerId, answerId, answerId));
     }
 
     public ChangeLog findRootVersionByAnswerId(Long answerId) {
         try {
-            return jdbcTemplate.queryForObject(SQL_FIND_ROOT_VERSION, new ChangeLogRowMapper(), answerId, answerId, answerId);
+            return hydrate(jdbcTemplate.queryForObject(SQL_FIND_ROOT_VERSION, new ChangeLogRowMapper(), answerId, answerId, answerId));
         } catch (Exception e) {
             return null;
         }
     }
 
     public List<ChangeLog> findChildVersions(Long changeLogId) {
-        return jdbcTemplate.query(SQL_FIND_CHILD_VERSIONS, new ChangeLogRowMapper(), changeLogId);
+        return hydrate(jdbcTemplate.query(SQL_FIND_CHILD_VERSIONS, new ChangeLogRowMapper(), changeLogId));
     }
 
     /**
@@ -192,7 +200,7 @@ public class ChangeLogRepository {
                 + "ORDER BY cl.CHANGE_TIME DESC";
         
         try {
-            return jdbcTemplate.query(sql, new Object[]{versionId, versionId}, new ChangeLogRowMapper());
+            return hydrate(jdbcTemplate.query(sql, new Object[]{versionId, versionId}, new ChangeLogRowMapper()));
         } catch (Exception e) {
             logger.error("查询更新版本失败", e);
             return Collections.emptyList();
@@ -207,7 +215,7 @@ public class ChangeLogRepository {
     public ChangeLog findByAssociatedStandardQuestionId(Long standardQuestionId) {
         String sql = "SELECT * FROM CHANGE_LOG WHERE ASSOCIATED_STANDARD_QUESTION_ID = ? ORDER BY CHANGE_TIME DESC LIMIT 1";
         try {
-            return jdbcTemplate.queryForObject(sql, new ChangeLogRowMapper(), standardQuestionId);
+            return hydrate(jdbcTemplate.queryForObject(sql, new ChangeLogRowMapper(), standardQuestionId));
         } catch (EmptyResultDataAccessException e) {
             return null;
         }
@@ -219,7 +227,7 @@ public class ChangeLogRepository {
      */
     public List<ChangeLog> findAll() {
         try {
-            return jdbcTemplate.query(SQL_FIND_ALL, new ChangeLogRowMapper());
+            return hydrate(jdbcTemplate.query(SQL_FIND_ALL, new ChangeLogRowMapper()));
         } catch (Exception e) {
             logger.error("查询所有变更日志失败", e);
             return Collections.emptyList();
@@ -235,6 +243,31 @@ public class ChangeLogRepository {
         jdbcTemplate.update(sql, id);
     }
 
+    /**
+     * 根据ID列表批量查找变更日志，关联对象只包含ID
+     *
+     * @param ids 变更日志ID列表
+     * @return 变更日志列表
+     */
+    private List<ChangeLog> findByIds(List<Long> ids) {
+        String sql = String.format(SQL_FIND_BY_IDS, AssociationLoader.placeholders(ids.size()));
+        return jdbcTemplate.query(sql, new ChangeLogRowMapper(), ids.toArray());
+    }
+
+    /**
+     * 批量加载查询结果中的用户和关联标准问题
+     */
+    private List<ChangeLog> hydrate(List<ChangeLog> changeLogs) {
+        return associationLoader.hydrate(ChangeLog.class, changeLogs, FetchMode.EAGER);
+    }
+
+    private ChangeLog hydrate(ChangeLog changeLog) {
+        if (changeLog != null) {
+            hydrate(Collections.singletonList(changeLog));
+        }
+        return changeLog;
+    }
+
     /**
      * 变更日志行映射器
      */
@@ -263,14 +296,17 @@ public class ChangeLogRepository {
             // 设置用户
             Long userId = rs.getLong("CHANGED_BY_USER_ID");
             if (!rs.wasNull()) {
-                userRepository.findById(userId).ifPresent(user -> changeLog.setUser(user));
+                User user = new User();
+                user.setId(userId);
+                changeLog.setUser(user);
             }
             
             // 设置关联的标准问题
             Long standardQuestionId = rs.getLong("ASSOCIATED_STANDARD_QUESTION_ID");
             if (!rs.wasNull()) {
-                standardQuestionRepository.findById(standardQuestionId)
-                    .ifPresent(question -> changeLog.setAssociatedStandardQuestion(question));
+                StandardQuestion question = new StandardQuestion();
+                question.setId(standardQuestionId);
+                changeLog.setAssociatedStandardQuestion(question);
             }
             
             return changeLog;
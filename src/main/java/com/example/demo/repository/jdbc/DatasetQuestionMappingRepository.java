@@ -7,19 +7,26 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.entity.jdbc.ChangeLog;
 import com.example.demo.entity.jdbc.DatasetQuestionMapping;
 import com.example.demo.entity.jdbc.DatasetVersion;
+import com.example.demo.entity.jdbc.StandardQuestion;
+import com.example.demo.entity.jdbc.User;
 
 /**
  * 基于JDBC的数据集问题映射仓库实现
@@ -28,16 +35,24 @@ import com.example.demo.entity.jdbc.DatasetVersion;
 public class DatasetQuestionMappingRepository {
 
     private final JdbcTemplate jdbcTemplate;
-    private final DatasetVersionRepository datasetVersionRepository;
-    private final StandardQuestionRepository standardQuestionRepository;
-    private final UserRepository userRepository;
-    private final ChangeLogRepository changeLogRepository;
+    private final AssociationLoader associationLoader;
 
     private static final String SQL_INSERT = 
             "INSERT INTO DATASET_QUESTION_MAPPING (DATASET_VERSION_ID, STANDARD_QUESTION_ID, " +
             "ORDER_IN_DATASET, CREATED_AT, CREATED_BY_USER_ID, CREATED_CHANGE_LOG_ID) " +
             "VALUES (?, ?, ?, ?, ?, ?)";
     
+    private static final String SQL_INSERT_IGNORE = 
+            "INSERT IGNORE INTO DATASET_QUESTION_MAPPING (DATASET_VERSION_ID, STANDARD_QUESTION_ID, " +
+            "ORDER_IN_DATASET, CREATED_AT, CREATED_BY_USER_ID) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    
+    private static final String SQL_COPY_FROM_DATASET_VERSION = 
+            "INSERT INTO DATASET_QUESTION_MAPPING (DATASET_VERSION_ID, STANDARD_QUESTION_ID, " +
+            "ORDER_IN_DATASET, CREATED_AT, CREATED_BY_USER_ID) " +
+            "SELECT ?, STANDARD_QUESTION_ID, ORDER_IN_DATASET, ?, ? " +
+            "FROM DATASET_QUESTION_MAPPING WHERE DATASET_VERSION_ID=? ORDER BY ORDER_IN_DATASET";
+    
     private static final String SQL_UPDATE = 
             "UPDATE DATASET_QUESTION_MAPPING SET DATASET_VERSION_ID=?, STANDARD_QUESTION_ID=?, " +
             "ORDER_IN_DATASET=?, CREATED_AT=?, CREATED_BY_USER_ID=?, CREATED_CHANGE_LOG_ID=? " +
@@ -66,18 +81,26 @@ public class DatasetQuestionMappingRepository {
     
     private static final String SQL_DELETE = 
             "DELETE FROM DATASET_QUESTION_MAPPING WHERE ID=?";
+    
+    private static final String SQL_FIND_BY_IDS = 
+            "SELECT * FROM DATASET_QUESTION_MAPPING WHERE ID IN (%s)";
 
     @Autowired
     public DatasetQuestionMappingRepository(JdbcTemplate jdbcTemplate,
-                                              DatasetVersionRepository datasetVersionRepository,
-                                              StandardQuestionRepository standardQuestionRepository,
-                                              UserRepository userRepository,
-                                              ChangeLogRepository changeLogRepository) {
+                                              AssociationLoader associationLoader) {
         this.jdbcTemplate = jdbcTemplate;
-        this.datasetVersionRepository = datasetVersionRepository;
-        this.standardQuestionRepository = standardQuestionRepository;
-        this.userRepository = userRepository;
-        this.changeLogRepository = changeLogRepository;
+        this.associationLoader = associationLoader;
+        associationLoader.register(DatasetQuestionMapping.class, DatasetQuestionMapping::getId, this::findByIds,
+            (mappings, context) -> {
+                context.resolve(mappings, DatasetVersion.class,
+                    DatasetQuestionMapping::getDatasetVersion, DatasetQuestionMapping::setDatasetVersion);
+                context.resolve(mappings, StandardQuestion.class,
+                    DatasetQuestionMapping::getStandardQuestion, DatasetQuestionMapping::setStandardQuestion);
+                context.resolve(mappings, User.class,
+                    DatasetQuestionMapping::getCreatedByUser, DatasetQuestionMapping::setCreatedByUser);
+                context.resolve(mappings, ChangeLog.class,
+                    DatasetQuestionMapping::getCreatedChangeLog, DatasetQuestionMapping::setCreatedChangeLog);
+            });
     }
 
     /**
@@ -201,6 +224,68 @@ public class DatasetQuestionMappingRepository {
         return datasetQuestionMapping;
     }
 
+    /**
+     * 批量添加问题到数据集版本，按给定顺序从起始顺序号开始编号
+     *
+     * 使用JDBC批处理，配合连接参数rewriteBatchedStatements=true合并为多值INSERT；
+     * 已在数据集中的问题由唯一键(DATASET_VERSION_ID, STANDARD_QUESTION_ID)忽略。
+     *
+     * @param datasetVersionId 数据集版本ID
+     * @param standardQuestionIds 标准问题ID列表
+     * @param startOrder 起始顺序号
+     * @param createdByUserId 创建者用户ID
+     * @return 写入的映射数，驱动不返回单条结果时按请求数计
+     */
+    public int insertIgnoreBatch(Long datasetVersionId, List<Long> standardQuestionIds, int startOrder,
+                                 Long createdByUserId) {
+        if (standardQuestionIds.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(SQL_INSERT_IGNORE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, datasetVersionId);
+                ps.setLong(2, standardQuestionIds.get(i));
+                ps.setInt(3, startOrder + i);
+                ps.setTimestamp(4, now);
+                if (createdByUserId != null) {
+                    ps.setLong(5, createdByUserId);
+                } else {
+                    ps.setNull(5, Types.BIGINT);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return standardQuestionIds.size();
+            }
+        });
+        
+        int inserted = 0;
+        for (int count : counts) {
+            inserted += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return inserted;
+    }
+
+    /**
+     * 将源数据集版本的全部问题映射复制到目标版本，保持原有顺序，单条INSERT ... SELECT完成
+     *
+     * @param sourceDatasetVersionId 源数据集版本ID
+     * @param targetDatasetVersionId 目标数据集版本ID
+     * @param createdByUserId 创建者用户ID
+     * @return 复制的映射数
+     */
+    public int copyFromDatasetVersion(Long sourceDatasetVersionId, Long targetDatasetVersionId, Long createdByUserId) {
+        return jdbcTemplate.update(SQL_COPY_FROM_DATASET_VERSION,
+            targetDatasetVersionId,
+            Timestamp.valueOf(LocalDateTime.now()),
+            createdByUserId,
+            sourceDatasetVersionId
+        );
+    }
+
     /**
      * 根据ID查找数据集问题映射
      *
@@ -214,7 +299,8 @@ public class DatasetQuestionMappingRepository {
                 new DatasetQuestionMappingRowMapper(), 
                 id
             );
-            return Optional.ofNullable(datasetQuestionMapping);
+            return associationLoader.hydrate(DatasetQuestionMapping.class,
+                Optional.ofNullable(datasetQuestionMapping), FetchMode.EAGER);
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
@@ -227,11 +313,7 @@ public class DatasetQuestionMappingRepository {
      * @return 数据集问题映射列表
      */
     public List<DatasetQuestionMapping> findByDatasetVersionOrderByOrderInDataset(DatasetVersion datasetVersion) {
-        return jdbcTemplate.query(
-            SQL_FIND_BY_DATASET_VERSION_ID_ORDER_BY_ORDER, 
-            new DatasetQuestionMappingRowMapper(), 
-            datasetVersion.getId()
-        );
+        return findByDatasetVersionId(datasetVersion.getId(), FetchMode.EAGER);
     }
 
     /**
@@ -241,11 +323,39 @@ public class DatasetQuestionMappingRepository {
      * @return 数据集问题映射列表
      */
     public List<DatasetQuestionMapping> findByDatasetVersionId(Long datasetVersionId) {
-        return jdbcTemplate.query(
+        return findByDatasetVersionId(datasetVersionId, FetchMode.EAGER);
+    }
+
+    /**
+     * 根据数据集版本ID查找所有问题映射，按顺序排序，并按指定方式加载关联对象
+     *
+     * @param datasetVersionId 数据集版本ID
+     * @param fetchMode 关联对象加载方式，LAZY时数据集版本、标准问题等只包含ID
+     * @return 数据集问题映射列表
+     */
+    public List<DatasetQuestionMapping> findByDatasetVersionId(Long datasetVersionId, FetchMode fetchMode) {
+        List<DatasetQuestionMapping> mappings = jdbcTemplate.query(
             SQL_FIND_BY_DATASET_VERSION_ID_ORDER_BY_ORDER, 
             new DatasetQuestionMappingRowMapper(), 
             datasetVersionId
         );
+        return associationLoader.hydrate(DatasetQuestionMapping.class, mappings, fetchMode);
+    }
+
+    /**
+     * 查找数据集版本中标准问题ID到映射ID的对应关系
+     *
+     * @param datasetVersionId 数据集版本ID
+     * @return 标准问题ID到映射ID的映射
+     */
+    public Map<Long, Long> findMappingIdsByDatasetVersionId(Long datasetVersionId) {
+        Map<Long, Long> mappingIds = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT id, standard_question_id FROM dataset_question_mapping WHERE dataset_version_id = ?",
+            (RowCallbackHandler) rs -> mappingIds.put(rs.getLong("standard_question_id"), rs.getLong("id")),
+            datasetVersionId
+        );
+        return mappingIds;
     }
 
     /**
@@ -257,11 +367,26 @@ public class DatasetQuestionMappingRepository {
      * @return 数据集问题映射列表
      */
     public List<DatasetQuestionMapping> findByDatasetVersionIdPageable(Long datasetVersionId, int limit, int offset) {
-        return jdbcTemplate.query(
+        return findByDatasetVersionIdPageable(datasetVersionId, limit, offset, FetchMode.EAGER);
+    }
+
+    /**
+     * 根据数据集版本ID分页查找问题映射，并按指定方式加载关联对象
+     *
+     * @param datasetVersionId 数据集版本ID
+     * @param limit 每页记录数
+     * @param offset 偏移量
+     * @param fetchMode 关联对象加载方式
+     * @return 数据集问题映射列表
+     */
+    public List<DatasetQuestionMapping> findByDatasetVersionIdPageable(Long datasetVersionId, int limit, int offset,
+                                                                       FetchMode fetchMode) {
+        List<DatasetQuestionMapping> mappings = jdbcTemplate.query(
             SQL_FIND_BY_DATASET_VERSION_ID_PAGEABLE, 
             new DatasetQuestionMappingRowMapper(), 
             datasetVersionId, limit, offset
         );
+        return associationLoader.hydrate(DatasetQuestionMapping.class, mappings, fetchMode);
     }
 
     /**
@@ -316,7 +441,8 @@ public class DatasetQuestionMappingRepository {
      * @return 所有数据集问题映射列表
      */
     public List<DatasetQuestionMapping> findAll() {
-        return jdbcTemplate.query(SQL_FIND_ALL, new DatasetQuestionMappingRowMapper());
+        return associationLoader.hydrate(DatasetQuestionMapping.class,
+            jdbcTemplate.query(SQL_FIND_ALL, new DatasetQuestionMappingRowMapper()), FetchMode.EAGER);
     }
 
     /**
@@ -344,6 +470,17 @@ public class DatasetQuestionMappingRepository {
         return count != null && count > 0;
     }
 
+    /**
+     * 根据ID列表批量查找数据集问题映射，关联对象只包含ID
+     *
+     * @param ids 映射ID列表
+     * @return 数据集问题映射列表
+     */
+    private List<DatasetQuestionMapping> findByIds(List<Long> ids) {
+        String sql = String.format(SQL_FIND_BY_IDS, AssociationLoader.placeholders(ids.size()));
+        return jdbcTemplate.query(sql, new DatasetQuestionMappingRowMapper(), ids.toArray());
+    }
+
     /**
      * 数据集问题映射行映射器
      */
@@ -370,29 +507,33 @@ public class DatasetQuestionMappingRepository {
             // 获取并设置数据集版本
             Long datasetVersionId = rs.getLong("DATASET_VERSION_ID");
             if (!rs.wasNull()) {
-                datasetVersionRepository.findById(datasetVersionId)
-                    .ifPresent(datasetQuestionMapping::setDatasetVersion);
+                DatasetVersion datasetVersion = new DatasetVersion();
+                datasetVersion.setId(datasetVersionId);
+                datasetQuestionMapping.setDatasetVersion(datasetVersion);
             }
             
             // 获取并设置标准问题
             Long standardQuestionId = rs.getLong("STANDARD_QUESTION_ID");
             if (!rs.wasNull()) {
-                standardQuestionRepository.findById(standardQuestionId)
-                    .ifPresent(datasetQuestionMapping::setStandardQuestion);
+                StandardQuestion standardQuestion = new StandardQuestion();
+                standardQuestion.setId(standardQuestionId);
+                datasetQuestionMapping.setStandardQuestion(standardQuestion);
             }
             
             // 获取并设置创建者用户
             Long createdByUserId = rs.getLong("CREATED_BY_USER_ID");
             if (!rs.wasNull()) {
-                userRepository.findById(createdByUserId)
-                    .ifPresent(datasetQuestionMapping::setCreatedByUser);
+                User createdByUser = new User();
+                createdByUser.setId(createdByUserId);
+                datasetQuestionMapping.setCreatedByUser(createdByUser);
             }
             
             // 获取并设置创建变更日志
             Long createdChangeLogId = rs.getLong("CREATED_CHANGE_LOG_ID");
             if (!rs.wasNull()) {
-                changeLogRepository.findById(createdChangeLogId)
-                    .ifPresent(datasetQuestionMapping::setCreatedChangeLog);
+                ChangeLog createdChangeLog = new ChangeLog();
+                createdChangeLog.setId(createdChangeLogId);
+                datasetQuestionMapping.setCreatedChangeLog(createdChangeLog);
             }
             
             return datasetQuestionMapping;
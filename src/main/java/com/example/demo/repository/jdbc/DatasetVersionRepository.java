@@ -31,8 +31,7 @@ import java.util.Optional;
 public class DatasetVersionRepository {
 
     private final JdbcTemplate jdbcTemplate;
-    private final UserRepository userRepository;
-    private final ChangeLogRepository changeLogRepository;
+    private final AssociationLoader associationLoader;
 
     private static final String SQL_INSERT = 
             "INSERT INTO DATASET_VERSIONS (VERSION_NUMBER, NAME, DESCRIPTION, CREATION_TIME, " +
@@ -82,14 +81,19 @@ public class DatasetVersionRepository {
     
     private static final String SQL_DELETE = 
             "DELETE FROM DATASET_VERSIONS WHERE ID=?";
+    
+    private static final String SQL_FIND_BY_IDS = 
+            "SELECT * FROM DATASET_VERSIONS WHERE ID IN (%s)";
 
     @Autowired
     public DatasetVersionRepository(JdbcTemplate jdbcTemplate, 
-                                      UserRepository userRepository,
-                                      ChangeLogRepository changeLogRepository) {
+                                      AssociationLoader associationLoader) {
         this.jdbcTemplate = jdbcTemplate;
-        this.userRepository = userRepository;
-        this.changeLogRepository = changeLogRepository;
+        this.associationLoader = associationLoader;
+        associationLoader.register(DatasetVersion.class, DatasetVersion::getId, this::findByIds, (versions, context) -> {
+            context.resolve(versions, User.class, DatasetVersion::getCreatedByUser, DatasetVersion::setCreatedByUser);
+            context.resolve(versions, ChangeLog.class, DatasetVersion::getCreatedChangeLog, DatasetVersion::setCreatedChangeLog);
+        });
     }
 
     /**
@@ -232,7 +236,7 @@ public class DatasetVersionRepository {
                 new DatasetVersionRowMapper(), 
                 id
             );
-            return Optional.ofNullable(datasetVersion);
+            return associationLoader.hydrate(DatasetVersion.class, Optional.ofNullable(datasetVersion), FetchMode.EAGER);
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
@@ -251,7 +255,7 @@ public class DatasetVersionRepository {
                 new DatasetVersionRowMapper(), 
                 versionNumber
             );
-            return Optional.ofNullable(datasetVersion);
+            return associationLoader.hydrate(DatasetVersion.class, Optional.ofNullable(datasetVersion), FetchMode.EAGER);
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
@@ -265,11 +269,11 @@ public class DatasetVersionRepository {
      */
     public List<DatasetVersion> findByNameContaining(String name) {
         String searchPattern = "%" + name + "%";
-        return jdbcTemplate.query(
+        return hydrate(jdbcTemplate.query(
                 SQL_FIND_BY_NAME_CONTAINING,
                 new Object[]{searchPattern, Integer.MAX_VALUE, 0},
                 new DatasetVersionRowMapper()
-        );
+        ));
     }
 
     /**
@@ -296,7 +300,7 @@ public class DatasetVersionRepository {
             pageable.getOffset()
         );
         
-        return new PageImpl<>(content, pageable, total != null ? total : 0);
+        return new PageImpl<>(hydrate(content), pageable, total != null ? total : 0);
     }
 
     /**
@@ -320,7 +324,7 @@ public class DatasetVersionRepository {
             pageable.getOffset()
         );
         
-        return new PageImpl<>(content, pageable, total != null ? total : 0);
+        return new PageImpl<>(hydrate(content), pageable, total != null ? total : 0);
     }
 
     /**
@@ -344,7 +348,7 @@ public class DatasetVersionRepository {
             pageable.getOffset()
         );
         
-        return new PageImpl<>(content, pageable, total != null ? total : 0);
+        return new PageImpl<>(hydrate(content), pageable, total != null ? total : 0);
     }
 
     /**
@@ -383,11 +387,11 @@ public class DatasetVersionRepository {
      * @return 未删除的数据集版本列表
      */
     public List<DatasetVersion> findAllActiveVersions() {
-        return jdbcTemplate.query(
+        return hydrate(jdbcTemplate.query(
                 SQL_FIND_BY_DELETED_AT_IS_NULL,
                 new Object[]{Integer.MAX_VALUE, 0},
                 new DatasetVersionRowMapper()
-        );
+        ));
     }
 
     /**
@@ -404,6 +408,24 @@ public class DatasetVersionRepository {
         }
     }
 
+    /**
+     * 根据ID列表批量查找数据集版本，关联对象只包含ID
+     *
+     * @param ids 数据集版本ID列表
+     * @return 数据集版本列表
+     */
+    private List<DatasetVersion> findByIds(List<Long> ids) {
+        String sql = String.format(SQL_FIND_BY_IDS, AssociationLoader.placeholders(ids.size()));
+        return jdbcTemplate.query(sql, new DatasetVersionRowMapper(), ids.toArray());
+    }
+
+    /**
+     * 批量加载查询结果中的创建者和创建变更日志
+     */
+    private List<DatasetVersion> hydrate(List<DatasetVersion> versions) {
+        return associationLoader.hydrate(DatasetVersion.class, versions, FetchMode.EAGER);
+    }
+
     /**
      * 数据集版本行映射器
      */
@@ -432,12 +454,18 @@ public class DatasetVersionRepository {
             
             // 获取创建者用户
             Long createdByUserId = rs.getLong("CREATED_BY_USER_ID");
-            userRepository.findById(createdByUserId).ifPresent(datasetVersion::setCreatedByUser);
+            if (!rs.wasNull()) {
+                User createdByUser = new User();
+                createdByUser.setId(createdByUserId);
+                datasetVersion.setCreatedByUser(createdByUser);
+            }
             
             // 获取创建变更日志
             Long createdChangeLogId = rs.getLong("CREATED_CHANGE_LOG_ID");
             if (!rs.wasNull()) {
-                changeLogRepository.findById(createdChangeLogId).ifPresent(datasetVersion::setCreatedChangeLog);
+                ChangeLog createdChangeLog = new ChangeLog();
+                createdChangeLog.setId(createdChangeLogId);
+                datasetVersion.setCreatedChangeLog(createdChangeLog);
             }
             
             return datasetVersion;
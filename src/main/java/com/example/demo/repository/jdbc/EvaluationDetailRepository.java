@@ -5,6 +5,7 @@ import com.example.demo.entity.jdbc.EvaluationCriterion;
 import com.example.demo.entity.jdbc.EvaluationDetail;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -93,6 +94,50 @@ public class EvaluationDetailRepository {
         return details;
     }
 
+    /**
+     * 批量插入评测详情，不回填ID，用于批量评测时与评测记录一起写入
+     *
+     * @param details 评测详情列表，均须关联已保存的评测
+     */
+    public void insertBatch(List<EvaluationDetail> details) {
+        if (details.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                EvaluationDetail detail = details.get(i);
+                if (detail.getEvaluation() == null || detail.getEvaluation().getId() == null) {
+                    throw new IllegalArgumentException("评测详情必须关联一个评测");
+                }
+                ps.setLong(1, detail.getEvaluation().getId());
+                if (detail.getCriterion() != null && detail.getCriterion().getId() != null) {
+                    ps.setLong(2, detail.getCriterion().getId());
+                } else {
+                    ps.setNull(2, java.sql.Types.BIGINT);
+                }
+                ps.setString(3, detail.getCriterionName());
+                if (detail.getScore() != null) {
+                    ps.setBigDecimal(4, detail.getScore());
+                } else {
+                    ps.setNull(4, java.sql.Types.DECIMAL);
+                }
+                if (detail.getComments() != null) {
+                    ps.setString(5, detail.getComments());
+                } else {
+                    ps.setNull(5, java.sql.Types.VARCHAR);
+                }
+                LocalDateTime createdAt = detail.getCreatedAt() != null ? detail.getCreatedAt() : LocalDateTime.now();
+                ps.setTimestamp(6, Timestamp.valueOf(createdAt));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return details.size();
+            }
+        });
+    }
+
     /**
      * 插入新评测详?
      *
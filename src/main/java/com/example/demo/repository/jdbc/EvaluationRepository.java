@@ -1,5 +1,6 @@
 package com.example.demo.repository.jdbc;
 
+import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -7,15 +8,19 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -39,6 +44,8 @@ public class EvaluationRepository {
     private final JdbcTemplate jdbcTemplate;
     private final UserRepository UserRepository;
     private final ObjectMapper objectMapper;
+    private final ModelBatchScoreRepository modelBatchScoreRepository;
+    private final BatchLeaderboardRepository batchLeaderboardRepository;
 
     private static final String SQL_INSERT = 
             "INSERT INTO evaluations (llm_answer_id, evaluator_id, evaluation_run_id, evaluation_type, overall_score, " +
@@ -56,6 +63,9 @@ public class EvaluationRepository {
     
     private static final String SQL_DELETE = "DELETE FROM evaluations WHERE id=?";
     
+    private static final String SQL_FIND_SCORE_STATE_BY_ID = 
+            "SELECT llm_answer_id, evaluation_status, normalized_score, score_type FROM evaluations WHERE id=?";
+    
     private static final String SQL_FIND_BY_ID = 
             "SELECT * FROM evaluations WHERE id=?";
     
@@ -71,6 +81,17 @@ public class EvaluationRepository {
     private static final String SQL_FIND_ANSWER_IDS_BY_EVALUATOR_ID = 
             "SELECT llm_answer_id FROM evaluations WHERE evaluator_id=?";
     
+    private static final String SQL_COUNT_EVALUATED_ANSWERS_BY_EVALUATOR_ID_AND_MODEL_ANSWER_RUN_ID = 
+            "SELECT COUNT(DISTINCT e.llm_answer_id) FROM evaluations e " +
+            "JOIN llm_answers a ON e.llm_answer_id = a.id " +
+            "WHERE e.evaluator_id=? AND a.model_answer_run_id=?";
+    
+    private static final String SQL_FIND_SCORES_BY_EVALUATOR_ID_AND_ANSWER_GENERATION_BATCH_ID = 
+            "SELECT e.llm_answer_id, COALESCE(e.raw_score, e.overall_score) AS score FROM evaluations e " +
+            "JOIN llm_answers la ON e.llm_answer_id = la.id " +
+            "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
+            "WHERE e.evaluator_id=? AND mar.answer_generation_batch_id=?";
+    
     private static final String SQL_COUNT_BY_EVALUATOR_ID_AND_LLM_ANSWER_IN_LIST = 
             "SELECT COUNT(*) FROM evaluations WHERE evaluator_id=? AND llm_answer_id IN (%s)";
     
@@ -136,10 +157,14 @@ public class EvaluationRepository {
             "AND (? IS NULL OR sq.question_type = ?)";
 
     @Autowired
-    public EvaluationRepository(JdbcTemplate jdbcTemplate, UserRepository UserRepository, ObjectMapper objectMapper) {
+    public EvaluationRepository(JdbcTemplate jdbcTemplate, UserRepository UserRepository, ObjectMapper objectMapper,
+                                ModelBatchScoreRepository modelBatchScoreRepository,
+                                BatchLeaderboardRepository batchLeaderboardRepository) {
         this.jdbcTemplate = jdbcTemplate;
         this.UserRepository = UserRepository;
         this.objectMapper = objectMapper;
+        this.modelBatchScoreRepository = modelBatchScoreRepository;
+        this.batchLeaderboardRepository = batchLeaderboardRepository;
     }
 
     /**
@@ -171,138 +196,7 @@ public class EvaluationRepository {
 
         jdbcTemplate.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS);
-            
-            // 设置LLM回答ID
-            ps.setLong(1, evaluation.getLlmAnswer().getId());
-            
-            // 设置评测者ID
-            ps.setLong(2, evaluation.getEvaluator().getId());
-            
-            // 设置评测运行ID
-            if (evaluation.getEvaluationRun() != null && evaluation.getEvaluationRun().getId() != null) {
-                ps.setLong(3, evaluation.getEvaluationRun().getId());
-            } else {
-                ps.setNull(3, Types.BIGINT);
-            }
-            
-            // 设置评测类型
-            ps.setString(4, evaluation.getEvaluationType().name());
-            
-            // 设置总体分数
-            if (evaluation.getScore() != null) {
-                ps.setBigDecimal(5, evaluation.getScore());
-            } else {
-                ps.setNull(5, Types.DECIMAL);
-            }
-            
-            // 设置评测时间
-            ps.setTimestamp(6, Timestamp.valueOf(evaluation.getEvaluationTime()));
-            
-            // 设置评测状态
-            ps.setString(7, evaluation.getStatus().name());
-            
-            // 设置错误消息
-            if (evaluation.getErrorMessage() != null) {
-                ps.setString(8, evaluation.getErrorMessage());
-            } else {
-                ps.setNull(8, Types.VARCHAR);
-            }
-            
-            // 设置评测结果(JSON)
-            if (evaluation.getEvaluationResults() != null) {
-                try {
-                    ps.setString(9, objectMapper.writeValueAsString(evaluation.getEvaluationResults()));
-                } catch (JsonProcessingException e) {
-                    ps.setString(9, "{}");
-                }
-            } else {
-                ps.setString(9, "{}");
-            }
-            
-            // 设置使用的提示词
-            if (evaluation.getPromptUsed() != null) {
-                ps.setString(10, evaluation.getPromptUsed());
-            } else {
-                ps.setNull(10, Types.VARCHAR);
-            }
-            
-            // 设置评论
-            if (evaluation.getComments() != null) {
-                ps.setString(11, evaluation.getComments());
-            } else {
-                ps.setNull(11, Types.VARCHAR);
-            }
-            
-            // 设置原始评测响应
-            if (evaluation.getRawEvaluatorResponse() != null) {
-                ps.setString(12, evaluation.getRawEvaluatorResponse());
-            } else {
-                ps.setNull(12, Types.VARCHAR);
-            }
-            
-            // 设置创建用户ID
-            if (evaluation.getCreatedByUser() != null && evaluation.getCreatedByUser().getId() != null) {
-                ps.setLong(13, evaluation.getCreatedByUser().getId());
-            } else {
-                ps.setNull(13, Types.BIGINT);
-            }
-            
-            // 设置创建变更日志ID
-            if (evaluation.getCreatedChangeLog() != null && evaluation.getCreatedChangeLog().getId() != null) {
-                ps.setLong(14, evaluation.getCreatedChangeLog().getId());
-            } else {
-                ps.setNull(14, Types.BIGINT);
-            }
-            
-            // 设置创建时间
-            if (evaluation.getCreationTime() != null) {
-                ps.setTimestamp(15, Timestamp.valueOf(evaluation.getCreationTime()));
-            } else {
-                ps.setNull(15, Types.TIMESTAMP);
-            }
-            
-            // 设置完成时间
-            if (evaluation.getCompletionTime() != null) {
-                ps.setTimestamp(16, Timestamp.valueOf(evaluation.getCompletionTime()));
-            } else {
-                ps.setNull(16, Types.TIMESTAMP);
-            }
-            
-            // 设置原始分数
-            if (evaluation.getRawScore() != null) {
-                ps.setBigDecimal(17, evaluation.getRawScore());
-            } else {
-                ps.setNull(17, Types.DECIMAL);
-            }
-            
-            // 设置标准化分数
-            if (evaluation.getNormalizedScore() != null) {
-                ps.setBigDecimal(18, evaluation.getNormalizedScore());
-            } else {
-                ps.setNull(18, Types.DECIMAL);
-            }
-            
-            // 设置加权分数
-            if (evaluation.getWeightedScore() != null) {
-                ps.setBigDecimal(19, evaluation.getWeightedScore());
-            } else {
-                ps.setNull(19, Types.DECIMAL);
-            }
-            
-            // 设置分数类型
-            if (evaluation.getScoreType() != null) {
-                ps.setString(20, evaluation.getScoreType());
-            } else {
-                ps.setNull(20, Types.VARCHAR);
-            }
-            
-            // 设置打分方法
-            if (evaluation.getScoringMethod() != null) {
-                ps.setString(21, evaluation.getScoringMethod());
-            } else {
-                ps.setNull(21, Types.VARCHAR);
-            }
-            
+            setInsertParameters(ps, evaluation);
             return ps;
         }, keyHolder);
 
@@ -310,9 +204,178 @@ public class EvaluationRepository {
         if (key != null) {
             evaluation.setId(key.longValue());
         }
+        modelBatchScoreRepository.accumulate(Collections.singletonList(evaluation));
+        batchLeaderboardRepository.markAnswersChanged(answerIdsOf(Collections.singletonList(evaluation)));
         return evaluation;
     }
 
+    /**
+     * 批量插入评测
+     *
+     * 使用JDBC批处理，配合连接参数rewriteBatchedStatements=true合并为多值INSERT，不回填生成的ID。
+     *
+     * @param evaluations 评测对象列表
+     */
+    public void insertBatch(List<Evaluation> evaluations) {
+        if (evaluations.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Evaluation evaluation = evaluations.get(i);
+                if (evaluation.getEvaluationTime() == null) {
+                    evaluation.setEvaluationTime(LocalDateTime.now());
+                }
+                setInsertParameters(ps, evaluation);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return evaluations.size();
+            }
+        });
+        modelBatchScoreRepository.accumulate(evaluations);
+        batchLeaderboardRepository.markAnswersChanged(answerIdsOf(evaluations));
+    }
+
+    /**
+     * 设置插入语句的参数
+     */
+    private void setInsertParameters(PreparedStatement ps, Evaluation evaluation) throws SQLException {
+        
+        // 设置LLM回答ID
+        ps.setLong(1, evaluation.getLlmAnswer().getId());
+        
+        // 设置评测者ID
+        ps.setLong(2, evaluation.getEvaluator().getId());
+        
+        // 设置评测运行ID
+        if (evaluation.getEvaluationRun() != null && evaluation.getEvaluationRun().getId() != null) {
+            ps.setLong(3, evaluation.getEvaluationRun().getId());
+        } else {
+            ps.setNull(3, Types.BIGINT);
+        }
+        
+        // 设置评测类型
+        ps.setString(4, evaluation.getEvaluationType().name());
+        
+        // 设置总体分数
+        if (evaluation.getScore() != null) {
+            ps.setBigDecimal(5, evaluation.getScore());
+        } else {
+            ps.setNull(5, Types.DECIMAL);
+        }
+        
+        // 设置评测时间
+        ps.setTimestamp(6, Timestamp.valueOf(evaluation.getEvaluationTime()));
+        
+        // 设置评测状态
+        ps.setString(7, evaluation.getStatus().name());
+        
+        // 设置错误消息
+        if (evaluation.getErrorMessage() != null) {
+            ps.setString(8, evaluation.getErrorMessage());
+        } else {
+            ps.setNull(8, Types.VARCHAR);
+        }
+        
+        // 设置评测结果(JSON)
+        if (evaluation.getEvaluationResults() != null) {
+            try {
+                ps.setString(9, objectMapper.writeValueAsString(evaluation.getEvaluationResults()));
+            } catch (JsonProcessingException e) {
+                ps.setString(9, "{}");
+            }
+        } else {
+            ps.setString(9, "{}");
+        }
+        
+        // 设置使用的提示词
+        if (evaluation.getPromptUsed() != null) {
+            ps.setString(10, evaluation.getPromptUsed());
+        } else {
+            ps.setNull(10, Types.VARCHAR);
+        }
+        
+        // 设置评论
+        if (evaluation.getComments() != null) {
+            ps.setString(11, evaluation.getComments());
+        } else {
+            ps.setNull(11, Types.VARCHAR);
+        }
+        
+        // 设置原始评测响应
+        if (evaluation.getRawEvaluatorResponse() != null) {
+            ps.setString(12, evaluation.getRawEvaluatorResponse());
+        } else {
+            ps.setNull(12, Types.VARCHAR);
+        }
+        
+        // 设置创建用户ID
+        if (evaluation.getCreatedByUser() != null && evaluation.getCreatedByUser().getId() != null) {
+            ps.setLong(13, evaluation.getCreatedByUser().getId());
+        } else {
+            ps.setNull(13, Types.BIGINT);
+        }
+        
+        // 设置创建变更日志ID
+        if (evaluation.getCreatedChangeLog() != null && evaluation.getCreatedChangeLog().getId() != null) {
+            ps.setLong(14, evaluation.getCreatedChangeLog().getId());
+        } else {
+            ps.setNull(14, Types.BIGINT);
+        }
+        
+        // 设置创建时间
+        if (evaluation.getCreationTime() != null) {
+            ps.setTimestamp(15, Timestamp.valueOf(evaluation.getCreationTime()));
+        } else {
+            ps.setNull(15, Types.TIMESTAMP);
+        }
+        
+        // 设置完成时间
+        if (evaluation.getCompletionTime() != null) {
+            ps.setTimestamp(16, Timestamp.valueOf(evaluation.getCompletionTime()));
+        } else {
+            ps.setNull(16, Types.TIMESTAMP);
+        }
+        
+        // 设置原始分数
+        if (evaluation.getRawScore() != null) {
+            ps.setBigDecimal(17, evaluation.getRawScore());
+        } else {
+            ps.setNull(17, Types.DECIMAL);
+        }
+        
+        // 设置标准化分数
+        if (evaluation.getNormalizedScore() != null) {
+            ps.setBigDecimal(18, evaluation.getNormalizedScore());
+        } else {
+            ps.setNull(18, Types.DECIMAL);
+        }
+        
+        // 设置加权分数
+        if (evaluation.getWeightedScore() != null) {
+            ps.setBigDecimal(19, evaluation.getWeightedScore());
+        } else {
+            ps.setNull(19, Types.DECIMAL);
+        }
+        
+        // 设置分数类型
+        if (evaluation.getScoreType() != null) {
+            ps.setString(20, evaluation.getScoreType());
+        } else {
+            ps.setNull(20, Types.VARCHAR);
+        }
+        
+        // 设置打分方法
+        if (evaluation.getScoringMethod() != null) {
+            ps.setString(21, evaluation.getScoringMethod());
+        } else {
+            ps.setNull(21, Types.VARCHAR);
+        }
+    }
+
     /**
      * 更新评测
      *
@@ -320,6 +383,9 @@ public class EvaluationRepository {
      * @return 更新后的评测对象
      */
     private Evaluation update(Evaluation evaluation) {
+        // 覆盖前的评分状态，用于增量维护模型批次评分
+        Evaluation previous = findScoreStateById(evaluation.getId());
+        
         String evaluationResultsJson;
         try {
             evaluationResultsJson = evaluation.getEvaluationResults() != null ?
@@ -352,9 +418,64 @@ public class EvaluationRepository {
                 evaluation.getScoringMethod(),
                 evaluation.getId());
 
+        if (!sameScore(previous, evaluation)) {
+            modelBatchScoreRepository.deduct(Collections.singletonList(previous));
+            modelBatchScoreRepository.accumulate(Collections.singletonList(evaluation));
+        }
+        // 失败数、评测者数等统计与分数无关，任何更新都使排行榜失效
+        List<Evaluation> touched = previous != null ? List.of(previous, evaluation) : List.of(evaluation);
+        batchLeaderboardRepository.markAnswersChanged(answerIdsOf(touched));
         return evaluation;
     }
 
+    /**
+     * 收集评测所属的回答ID
+     */
+    private static List<Long> answerIdsOf(List<Evaluation> evaluations) {
+        List<Long> answerIds = new ArrayList<>(evaluations.size());
+        for (Evaluation evaluation : evaluations) {
+            if (evaluation != null && evaluation.getLlmAnswer() != null && evaluation.getLlmAnswer().getId() != null) {
+                answerIds.add(evaluation.getLlmAnswer().getId());
+            }
+        }
+        return answerIds;
+    }
+
+    /**
+     * 查询评测当前计分相关的字段
+     */
+    private Evaluation findScoreStateById(Long id) {
+        List<Evaluation> states = jdbcTemplate.query(SQL_FIND_SCORE_STATE_BY_ID, (rs, rowNum) -> {
+            Evaluation state = new Evaluation();
+            state.setId(id);
+            LlmAnswer llmAnswer = new LlmAnswer();
+            llmAnswer.setId(rs.getLong("llm_answer_id"));
+            state.setLlmAnswer(llmAnswer);
+            String statusStr = rs.getString("evaluation_status");
+            if (statusStr != null) {
+                state.setStatus(Evaluation.EvaluationStatus.valueOf(statusStr));
+            }
+            state.setNormalizedScore(rs.getBigDecimal("normalized_score"));
+            state.setScoreType(rs.getString("score_type"));
+            return state;
+        }, id);
+        return states.isEmpty() ? null : states.get(0);
+    }
+
+    /**
+     * 判断更新前后对模型批次评分的贡献是否相同
+     */
+    private static boolean sameScore(Evaluation previous, Evaluation current) {
+        boolean previousScored = ModelBatchScoreRepository.isScored(previous);
+        boolean currentScored = ModelBatchScoreRepository.isScored(current);
+        if (!previousScored || !currentScored) {
+            return previousScored == currentScored;
+        }
+        return previous.getLlmAnswer().getId().equals(current.getLlmAnswer().getId())
+                && previous.getNormalizedScore().compareTo(current.getNormalizedScore()) == 0
+                && Objects.equals(previous.getScoreType(), current.getScoreType());
+    }
+
     /**
      * 根据ID查找评测
      *
@@ -426,6 +547,64 @@ public class EvaluationRepository {
         );
     }
 
+    /**
+     * 统计评测者在模型回答运行中已评测的回答数量
+     *
+     * @param evaluatorId 评测者ID
+     * @param modelAnswerRunId 模型回答运行ID
+     * @return 已评测的回答数量
+     */
+    public int countEvaluatedAnswersByEvaluatorIdAndModelAnswerRunId(Long evaluatorId, Long modelAnswerRunId) {
+        Integer count = jdbcTemplate.queryForObject(
+                SQL_COUNT_EVALUATED_ANSWERS_BY_EVALUATOR_ID_AND_MODEL_ANSWER_RUN_ID,
+                Integer.class,
+                evaluatorId, modelAnswerRunId
+        );
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 查询评测者在回答生成批次下已有评测的分数
+     *
+     * @param evaluatorId 评测者ID
+     * @param batchId 回答生成批次ID
+     * @return 回答ID到分数的映射，未记录分数时值为null
+     */
+    public Map<Long, BigDecimal> findScoresByEvaluatorIdAndAnswerGenerationBatchId(Long evaluatorId, Long batchId) {
+        Map<Long, BigDecimal> scores = new HashMap<>();
+        jdbcTemplate.query(
+                SQL_FIND_SCORES_BY_EVALUATOR_ID_AND_ANSWER_GENERATION_BATCH_ID,
+                (RowCallbackHandler) rs -> scores.put(rs.getLong("llm_answer_id"), rs.getBigDecimal("score")),
+                evaluatorId, batchId
+        );
+        return scores;
+    }
+
+    /**
+     * 按评测者和回答查询评测ID，批量写入后用于关联评测详情
+     *
+     * @param evaluatorId 评测者ID
+     * @param llmAnswerIds 回答ID列表
+     * @return 回答ID到评测ID的映射
+     */
+    public Map<Long, Long> findIdsByEvaluatorIdAndLlmAnswerIds(Long evaluatorId, List<Long> llmAnswerIds) {
+        Map<Long, Long> ids = new HashMap<>();
+        for (int from = 0; from < llmAnswerIds.size(); from += AssociationLoader.MAX_IN_SIZE) {
+            List<Long> chunk = llmAnswerIds.subList(from, Math.min(from + AssociationLoader.MAX_IN_SIZE, llmAnswerIds.size()));
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = evaluatorId;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+            jdbcTemplate.query(
+                    "SELECT id, llm_answer_id FROM evaluations WHERE evaluator_id = ? AND llm_answer_id IN (" +
+                    AssociationLoader.placeholders(chunk.size()) + ")",
+                    (RowCallbackHandler) rs -> ids.put(rs.getLong("llm_answer_id"), rs.getLong("id")),
+                    args);
+        }
+        return ids;
+    }
+
     /**
      * 根据评测者ID和回答ID列表统计评测数量
      *
@@ -827,6 +1006,7 @@ public class EvaluationRepository {
 
     /**
      * 批量删除评测记录
+     * 按数据库中删除前的评分状态扣减模型批次评分，不使用调用方传入对象上的分数
      * 
      * @param evaluations 要删除的评测列表
      */
@@ -835,11 +1015,18 @@ public class EvaluationRepository {
             return;
         }
         
+        List<Evaluation> deleted = new ArrayList<>(evaluations.size());
         for (Evaluation evaluation : evaluations) {
-            if (evaluation.getId() != null) {
-                jdbcTemplate.update(SQL_DELETE, evaluation.getId());
+            if (evaluation.getId() == null) {
+                continue;
+            }
+            Evaluation previous = findScoreStateById(evaluation.getId());
+            if (previous != null && jdbcTemplate.update(SQL_DELETE, evaluation.getId()) > 0) {
+                deleted.add(previous);
             }
         }
+        modelBatchScoreRepository.deduct(deleted);
+        batchLeaderboardRepository.markAnswersChanged(answerIdsOf(deleted));
     }
     
     /**
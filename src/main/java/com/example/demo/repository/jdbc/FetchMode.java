@@ -0,0 +1,16 @@
+package com.example.demo.repository.jdbc;
+
+/**
+ * 关联对象的加载方式
+ */
+public enum FetchMode {
+    /**
+     * 关联对象只保留ID，由调用方按需加载
+     */
+    LAZY,
+
+    /**
+     * 查询后按ID批量加载关联对象
+     */
+    EAGER
+}
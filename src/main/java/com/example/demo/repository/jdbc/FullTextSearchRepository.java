@@ -0,0 +1,281 @@
+package com.example.demo.repository.jdbc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.dto.FullTextSearchHitDTO;
+
+/**
+ * 基于MySQL ngram全文索引的问题检索仓库
+ *
+ * 索引定义见create_tables.sql，InnoDB在插入、更新和删除时自动维护全文索引，不需要单独的重建任务。
+ * 查询参数booleanQuery为布尔模式查询串，由FullTextQuery.toBooleanQuery生成。
+ */
+@Repository
+public class FullTextSearchRepository {
+
+    // 原始问题标题和内容命中的权重高于回答命中
+    private static final double RAW_QUESTION_MATCH_WEIGHT = 2.0;
+
+    private static final String SQL_MATCH_STANDARD_QUESTION =
+            "MATCH(sq.question_text) AGAINST(? IN BOOLEAN MODE)";
+
+    // 原始问题ID及其最高得分，标题/内容与回答的命中合并
+    private static final String SQL_RAW_QUESTION_HITS =
+            "SELECT hit.id, MAX(hit.score) AS score FROM (" +
+            "  SELECT rq.ID AS id, MATCH(rq.TITLE, rq.CONTENT) AGAINST(? IN BOOLEAN MODE) * ? AS score " +
+            "  FROM RAW_QUESTIONS rq WHERE MATCH(rq.TITLE, rq.CONTENT) AGAINST(? IN BOOLEAN MODE) " +
+            "  UNION ALL " +
+            "  SELECT ra.RAW_QUESTION_ID AS id, MATCH(ra.CONTENT) AGAINST(? IN BOOLEAN MODE) AS score " +
+            "  FROM RAW_ANSWERS ra WHERE MATCH(ra.CONTENT) AGAINST(? IN BOOLEAN MODE)" +
+            ") hit GROUP BY hit.id";
+
+    private static final String SQL_FIND_STANDARD_QUESTION_TAGS =
+            "SELECT sqt.standard_question_id, t.tag_name FROM standard_question_tags sqt " +
+            "JOIN tags t ON sqt.tag_id = t.id WHERE sqt.standard_question_id IN (%s)";
+
+    private static final String SQL_FIND_RAW_QUESTION_TAGS =
+            "SELECT qt.RAW_QUESTION_ID, t.TAG_NAME FROM RAW_QUESTION_TAGS qt " +
+            "JOIN TAGS t ON qt.TAG_ID = t.ID WHERE qt.RAW_QUESTION_ID IN (%s)";
+
+    private static final String SQL_FIND_MATCHED_RAW_ANSWERS =
+            "SELECT ra.RAW_QUESTION_ID, ra.CONTENT, MATCH(ra.CONTENT) AGAINST(? IN BOOLEAN MODE) AS score " +
+            "FROM RAW_ANSWERS ra WHERE ra.RAW_QUESTION_ID IN (%s) AND MATCH(ra.CONTENT) AGAINST(? IN BOOLEAN MODE) " +
+            "ORDER BY score DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public FullTextSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 检索标准问题，按相关度降序排列
+     *
+     * @param booleanQuery 布尔模式查询串
+     * @param tagNames 标签名列表，问题需包含全部标签
+     * @param offset 偏移量
+     * @param limit 返回数量
+     * @return 命中结果（包含标签）
+     */
+    public List<FullTextSearchHitDTO> searchStandardQuestions(String booleanQuery, List<String> tagNames, long offset, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(booleanQuery);
+        StringBuilder sql = new StringBuilder("SELECT sq.id, sq.question_text, sq.question_type, ")
+                .append(SQL_MATCH_STANDARD_QUESTION).append(" AS score FROM standard_questions sq");
+        appendStandardQuestionConditions(sql, params, booleanQuery, tagNames);
+        sql.append(" ORDER BY score DESC, sq.id DESC LIMIT ? OFFSET ?");
+        params.add(limit);
+        params.add(offset);
+
+        List<FullTextSearchHitDTO> hits = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            FullTextSearchHitDTO hit = new FullTextSearchHitDTO();
+            hit.setId(rs.getLong("id"));
+            hit.setContent(rs.getString("question_text"));
+            hit.setQuestionType(rs.getString("question_type"));
+            hit.setScore(rs.getDouble("score"));
+            return hit;
+        }, params.toArray());
+        attachTags(hits, SQL_FIND_STANDARD_QUESTION_TAGS);
+        return hits;
+    }
+
+    /**
+     * 统计命中的标准问题数量
+     */
+    public long countStandardQuestions(String booleanQuery, List<String> tagNames) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM standard_questions sq");
+        appendStandardQuestionConditions(sql, params, booleanQuery, tagNames);
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 统计命中的标准问题的标签分布
+     *
+     * @param booleanQuery 布尔模式查询串
+     * @param tagNames 已选择的标签
+     * @param limit 返回的标签数
+     * @return 标签名到问题数的映射，按问题数降序
+     */
+    public Map<String, Long> findStandardQuestionTagFacets(String booleanQuery, List<String> tagNames, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT t.tag_name, COUNT(*) AS question_count FROM standard_questions sq ")
+                .append("JOIN standard_question_tags facet_sqt ON facet_sqt.standard_question_id = sq.id ")
+                .append("JOIN tags t ON facet_sqt.tag_id = t.id");
+        appendStandardQuestionConditions(sql, params, booleanQuery, tagNames);
+        sql.append(" GROUP BY t.tag_name ORDER BY question_count DESC LIMIT ?");
+        params.add(limit);
+        return queryFacets(sql.toString(), params);
+    }
+
+    /**
+     * 检索原始问题，标题、内容或任一回答命中即可，按相关度降序排列
+     *
+     * @param booleanQuery 布尔模式查询串
+     * @param tagNames 标签名列表，问题需包含全部标签
+     * @param offset 偏移量
+     * @param limit 返回数量
+     * @return 命中结果（包含标签）
+     */
+    public List<FullTextSearchHitDTO> searchRawQuestions(String booleanQuery, List<String> tagNames, long offset, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT rq.ID, rq.TITLE, rq.CONTENT, m.score FROM (")
+                .append(SQL_RAW_QUESTION_HITS).append(") m JOIN RAW_QUESTIONS rq ON rq.ID = m.id");
+        appendRawQuestionConditions(sql, params, booleanQuery, tagNames);
+        sql.append(" ORDER BY m.score DESC, rq.ID DESC LIMIT ? OFFSET ?");
+        params.add(limit);
+        params.add(offset);
+
+        List<FullTextSearchHitDTO> hits = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            FullTextSearchHitDTO hit = new FullTextSearchHitDTO();
+            hit.setId(rs.getLong("ID"));
+            hit.setTitle(rs.getString("TITLE"));
+            hit.setContent(rs.getString("CONTENT"));
+            hit.setScore(rs.getDouble("score"));
+            return hit;
+        }, params.toArray());
+        attachTags(hits, SQL_FIND_RAW_QUESTION_TAGS);
+        return hits;
+    }
+
+    /**
+     * 统计命中的原始问题数量
+     */
+    public long countRawQuestions(String booleanQuery, List<String> tagNames) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM (")
+                .append(SQL_RAW_QUESTION_HITS).append(") m");
+        appendRawQuestionConditions(sql, params, booleanQuery, tagNames);
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
+        return count != null ? count : 0;
+    }
+
+    /**
+     * 统计命中的原始问题的标签分布
+     */
+    public Map<String, Long> findRawQuestionTagFacets(String booleanQuery, List<String> tagNames, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT t.TAG_NAME, COUNT(*) AS question_count FROM (")
+                .append(SQL_RAW_QUESTION_HITS).append(") m ")
+                .append("JOIN RAW_QUESTION_TAGS facet_qt ON facet_qt.RAW_QUESTION_ID = m.id ")
+                .append("JOIN TAGS t ON facet_qt.TAG_ID = t.ID");
+        appendRawQuestionConditions(sql, params, booleanQuery, tagNames);
+        sql.append(" GROUP BY t.TAG_NAME ORDER BY question_count DESC LIMIT ?");
+        params.add(limit);
+        return queryFacets(sql.toString(), params);
+    }
+
+    /**
+     * 查找每个原始问题中相关度最高的命中回答
+     *
+     * @param booleanQuery 布尔模式查询串
+     * @param rawQuestionIds 原始问题ID列表
+     * @return 原始问题ID到回答内容的映射
+     */
+    public Map<Long, String> findBestMatchedRawAnswers(String booleanQuery, List<Long> rawQuestionIds) {
+        Map<Long, String> answers = new HashMap<>();
+        if (rawQuestionIds.isEmpty()) {
+            return answers;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(booleanQuery);
+        params.addAll(rawQuestionIds);
+        params.add(booleanQuery);
+        String sql = String.format(SQL_FIND_MATCHED_RAW_ANSWERS, AssociationLoader.placeholders(rawQuestionIds.size()));
+        // 结果按得分降序，每个问题只保留第一条
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                answers.putIfAbsent(rs.getLong("RAW_QUESTION_ID"), rs.getString("CONTENT")), params.toArray());
+        return answers;
+    }
+
+    /**
+     * 拼接标准问题的全文匹配、未删除和标签全匹配条件
+     */
+    private void appendStandardQuestionConditions(StringBuilder sql, List<Object> params, String booleanQuery,
+                                                  List<String> tagNames) {
+        sql.append(" WHERE ").append(SQL_MATCH_STANDARD_QUESTION).append(" AND sq.deleted_at IS NULL");
+        params.add(booleanQuery);
+        Set<String> tags = distinctTags(tagNames);
+        if (!tags.isEmpty()) {
+            sql.append(" AND sq.id IN (SELECT sqt.standard_question_id FROM standard_question_tags sqt ")
+               .append("JOIN tags tf ON sqt.tag_id = tf.id WHERE LOWER(tf.tag_name) IN (")
+               .append(AssociationLoader.placeholders(tags.size()))
+               .append(") GROUP BY sqt.standard_question_id HAVING COUNT(DISTINCT LOWER(tf.tag_name)) = ?)");
+            params.addAll(tags);
+            params.add(tags.size());
+        }
+    }
+
+    /**
+     * 添加原始问题命中子查询的参数，并拼接标签全匹配条件
+     */
+    private void appendRawQuestionConditions(StringBuilder sql, List<Object> params, String booleanQuery,
+                                             List<String> tagNames) {
+        // 命中子查询位于SQL开头，其参数排在最前
+        params.add(booleanQuery);
+        params.add(RAW_QUESTION_MATCH_WEIGHT);
+        params.add(booleanQuery);
+        params.add(booleanQuery);
+        params.add(booleanQuery);
+        Set<String> tags = distinctTags(tagNames);
+        if (!tags.isEmpty()) {
+            sql.append(" WHERE m.id IN (SELECT qt.RAW_QUESTION_ID FROM RAW_QUESTION_TAGS qt ")
+               .append("JOIN TAGS tf ON qt.TAG_ID = tf.ID WHERE LOWER(tf.TAG_NAME) IN (")
+               .append(AssociationLoader.placeholders(tags.size()))
+               .append(") GROUP BY qt.RAW_QUESTION_ID HAVING COUNT(DISTINCT LOWER(tf.TAG_NAME)) = ?)");
+            params.addAll(tags);
+            params.add(tags.size());
+        }
+    }
+
+    private Set<String> distinctTags(List<String> tagNames) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (tagNames != null) {
+            for (String tagName : tagNames) {
+                if (tagName != null && !tagName.trim().isEmpty()) {
+                    tags.add(tagName.trim().toLowerCase());
+                }
+            }
+        }
+        return tags;
+    }
+
+    private Map<String, Long> queryFacets(String sql, List<Object> params) {
+        Map<String, Long> facets = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> facets.put(rs.getString(1), rs.getLong(2)), params.toArray());
+        return facets;
+    }
+
+    /**
+     * 批量查询命中结果的标签
+     */
+    private void attachTags(List<FullTextSearchHitDTO> hits, String sqlTemplate) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        Map<Long, FullTextSearchHitDTO> hitsById = new HashMap<>();
+        for (FullTextSearchHitDTO hit : hits) {
+            hitsById.put(hit.getId(), hit);
+        }
+        String sql = String.format(sqlTemplate, AssociationLoader.placeholders(hitsById.size()));
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            FullTextSearchHitDTO hit = hitsById.get(rs.getLong(1));
+            if (hit != null) {
+                hit.getTags().add(rs.getString(2));
+            }
+        }, hitsById.keySet().toArray());
+    }
+}
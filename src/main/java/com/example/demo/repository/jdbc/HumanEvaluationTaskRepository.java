@@ -0,0 +1,414 @@
+package com.example.demo.repository.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entity.jdbc.HumanEvaluationQueue;
+import com.example.demo.entity.jdbc.HumanEvaluationTask;
+import com.example.demo.entity.jdbc.HumanEvaluationTask.TaskStatus;
+import com.example.demo.entity.jdbc.QuestionType;
+
+/**
+ * 人工评测任务仓库
+ *
+ * 任务按(批次, 评测者)生成一次，之后领取、列表和计数都只访问任务表的索引，不再关联评测表判断是否已评测。
+ * 租约到期时间使用数据库时间计算和比较，不依赖各实例的时钟。
+ */
+@Repository
+public class HumanEvaluationTaskRepository {
+
+    private static final String SQL_FIND_QUEUE =
+            "SELECT * FROM human_evaluation_queues WHERE batch_id = ? AND evaluator_id = ?";
+
+    // 队列不存在、尚未生成任务，或批次仍在生成回答且距上次补充已超过间隔时需要补充任务
+    private static final String SQL_NEEDS_REFRESH =
+            "SELECT (refreshed_at IS NULL OR (sealed = 0 AND refreshed_at < DATE_SUB(NOW(3), INTERVAL ? SECOND))) " +
+            "FROM human_evaluation_queues WHERE batch_id = ? AND evaluator_id = ?";
+
+    private static final String SQL_CREATE_QUEUE =
+            "INSERT IGNORE INTO human_evaluation_queues (batch_id, evaluator_id) VALUES (?, ?)";
+
+    private static final String SQL_LOCK_QUEUE = SQL_NEEDS_REFRESH + " FOR UPDATE";
+
+    private static final String SQL_FIND_BATCH_STATUS =
+            "SELECT status FROM answer_generation_batches WHERE id = ?";
+
+    // 已存在的(评测者, 回答)保持不变；已有评测且不是进行中状态的回答直接记为完成
+    private static final String SQL_INSERT_MISSING_TASKS =
+            "INSERT IGNORE INTO human_evaluation_tasks " +
+            "(batch_id, evaluator_id, llm_answer_id, model_id, question_id, question_type, status, evaluation_id) " +
+            "SELECT mar.answer_generation_batch_id, ?, la.id, mar.llm_model_id, sq.id, sq.question_type, " +
+            "CASE WHEN e.id IS NULL OR e.evaluation_status IN ('PENDING', 'PROCESSING') THEN 'PENDING' ELSE 'COMPLETED' END, " +
+            "e.id " +
+            "FROM model_answer_runs mar " +
+            "JOIN llm_answers la ON la.model_answer_run_id = mar.id " +
+            "JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id " +
+            "JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
+            "LEFT JOIN evaluations e ON e.llm_answer_id = la.id AND e.evaluator_id = ? " +
+            "WHERE mar.answer_generation_batch_id = ?";
+
+    private static final String SQL_RECOUNT_QUEUE =
+            "UPDATE human_evaluation_queues SET " +
+            "total_count = (SELECT COUNT(*) FROM human_evaluation_tasks WHERE batch_id = ? AND evaluator_id = ?), " +
+            "completed_count = (SELECT COUNT(*) FROM human_evaluation_tasks " +
+            "WHERE batch_id = ? AND evaluator_id = ? AND status = 'COMPLETED'), " +
+            "sealed = ?, refreshed_at = NOW(3) " +
+            "WHERE batch_id = ? AND evaluator_id = ?";
+
+    private static final String SQL_TOUCH_QUEUE =
+            "UPDATE human_evaluation_queues SET sealed = ?, refreshed_at = NOW(3) WHERE batch_id = ? AND evaluator_id = ?";
+
+    // 按问题、模型的顺序领取，与待评测列表的顺序一致
+    private static final String SQL_FIND_TASKS =
+            "SELECT * FROM human_evaluation_tasks t WHERE t.batch_id = ? AND t.evaluator_id = ? %s" +
+            "ORDER BY t.question_id, t.model_id, t.id LIMIT ?";
+
+    private static final String SQL_LEASE =
+            "UPDATE human_evaluation_tasks SET status = 'LEASED', lease_owner = ?, " +
+            "lease_expires_at = DATE_ADD(NOW(3), INTERVAL ? SECOND) " +
+            "WHERE id IN (%s) AND (status = 'PENDING' OR (status = 'LEASED' AND lease_owner = ?))";
+
+    private static final String SQL_RELEASE =
+            "UPDATE human_evaluation_tasks SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL " +
+            "WHERE id IN (%s) AND lease_owner = ? AND status = 'LEASED'";
+
+    private static final String SQL_RELEASE_EXPIRED =
+            "UPDATE human_evaluation_tasks SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL " +
+            "WHERE status = 'LEASED' AND lease_expires_at < NOW(3)";
+
+    private static final String SQL_COMPLETE =
+            "UPDATE human_evaluation_tasks SET status = 'COMPLETED', lease_owner = NULL, lease_expires_at = NULL, " +
+            "evaluation_id = ? WHERE llm_answer_id = ? AND evaluator_id = ? AND status <> 'COMPLETED'";
+
+    private static final String SQL_FIND_BATCH_ID_BY_ANSWER =
+            "SELECT batch_id FROM human_evaluation_tasks WHERE llm_answer_id = ? AND evaluator_id = ?";
+
+    private static final String SQL_INCREMENT_COMPLETED =
+            "UPDATE human_evaluation_queues SET completed_count = completed_count + 1 WHERE batch_id = ? AND evaluator_id = ?";
+
+    private static final String SQL_ATTACH_EVALUATION =
+            "UPDATE human_evaluation_tasks SET evaluation_id = ? WHERE llm_answer_id = ? AND evaluator_id = ?";
+
+    private static final String SQL_SELECT_ITEMS =
+            "SELECT t.id AS task_id, t.status AS task_status, t.lease_owner, t.lease_expires_at, t.evaluation_id, " +
+            "la.id as answer_id, la.answer_text, mar.id as run_id, lm.id as model_id, lm.name as model_name, " +
+            "sq.id as question_id, sq.question_text, sq.question_type, sq.difficulty as difficulty_level " +
+            "FROM human_evaluation_tasks t " +
+            "JOIN llm_answers la ON t.llm_answer_id = la.id " +
+            "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
+            "JOIN llm_models lm ON mar.llm_model_id = lm.id " +
+            "JOIN standard_questions sq ON t.question_id = sq.id ";
+
+    private static final String SQL_COUNT_UNFINISHED =
+            "SELECT COUNT(*) FROM human_evaluation_tasks t " +
+            "WHERE t.batch_id = ? AND t.evaluator_id = ? AND t.status <> 'COMPLETED' %s";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public HumanEvaluationTaskRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 查询批次对评测者的任务队列
+     */
+    public Optional<HumanEvaluationQueue> findQueue(Long batchId, Long evaluatorId) {
+        List<HumanEvaluationQueue> queues = jdbcTemplate.query(SQL_FIND_QUEUE, new QueueRowMapper(), batchId, evaluatorId);
+        return queues.isEmpty() ? Optional.empty() : Optional.of(queues.get(0));
+    }
+
+    /**
+     * 判断队列是否需要生成或补充任务，队列不存在时为true
+     */
+    public boolean needsRefresh(Long batchId, Long evaluatorId, int refreshSeconds) {
+        List<Boolean> results = jdbcTemplate.queryForList(SQL_NEEDS_REFRESH, Boolean.class, refreshSeconds, batchId, evaluatorId);
+        return results.isEmpty() || Boolean.TRUE.equals(results.get(0));
+    }
+
+    /**
+     * 创建队列（已存在时不变）并锁定，串行化同一队列的任务生成，需在事务中调用
+     *
+     * @return 锁定后是否仍需要生成或补充任务
+     */
+    public boolean createAndLockQueue(Long batchId, Long evaluatorId, int refreshSeconds) {
+        jdbcTemplate.update(SQL_CREATE_QUEUE, batchId, evaluatorId);
+        List<Boolean> results = jdbcTemplate.queryForList(SQL_LOCK_QUEUE, Boolean.class, refreshSeconds, batchId, evaluatorId);
+        return !results.isEmpty() && Boolean.TRUE.equals(results.get(0));
+    }
+
+    /**
+     * 查询批次状态，批次不存在时为空
+     */
+    public Optional<String> findBatchStatus(Long batchId) {
+        List<String> statuses = jdbcTemplate.queryForList(SQL_FIND_BATCH_STATUS, String.class, batchId);
+        return statuses.isEmpty() ? Optional.empty() : Optional.ofNullable(statuses.get(0));
+    }
+
+    /**
+     * 为批次中还没有任务的回答生成评测者的任务
+     *
+     * @return 新生成的任务数
+     */
+    public int insertMissingTasks(Long batchId, Long evaluatorId) {
+        return jdbcTemplate.update(SQL_INSERT_MISSING_TASKS, evaluatorId, evaluatorId, batchId);
+    }
+
+    /**
+     * 按任务表重新统计队列计数，并记录补充时间
+     *
+     * @param sealed 批次回答是否已全部生成，之后不再补充任务
+     */
+    public void recountQueue(Long batchId, Long evaluatorId, boolean sealed) {
+        jdbcTemplate.update(SQL_RECOUNT_QUEUE, batchId, evaluatorId, batchId, evaluatorId, sealed, batchId, evaluatorId);
+    }
+
+    /**
+     * 没有新任务时只记录补充时间
+     */
+    public void touchQueue(Long batchId, Long evaluatorId, boolean sealed) {
+        jdbcTemplate.update(SQL_TOUCH_QUEUE, sealed, batchId, evaluatorId);
+    }
+
+    /**
+     * 锁定owner在队列中持有的任务，需在事务中调用
+     */
+    public List<HumanEvaluationTask> lockLeasedBy(Long owner, Long batchId, Long evaluatorId,
+                                                  List<Long> modelIds, QuestionType questionType, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(batchId);
+        params.add(evaluatorId);
+        StringBuilder conditions = new StringBuilder("AND t.status = 'LEASED' AND t.lease_owner = ? ");
+        params.add(owner);
+        appendFilters(conditions, params, modelIds, questionType);
+        params.add(limit);
+        return jdbcTemplate.query(String.format(SQL_FIND_TASKS, conditions) + " FOR UPDATE",
+                new TaskRowMapper(), params.toArray());
+    }
+
+    /**
+     * 锁定等待领取的任务，被其他评测人员同时领取而锁定的行直接跳过，需在事务中调用
+     */
+    public List<HumanEvaluationTask> lockClaimable(Long batchId, Long evaluatorId,
+                                                   List<Long> modelIds, QuestionType questionType, int limit) {
+        List<Object> params = new ArrayList<>();
+        params.add(batchId);
+        params.add(evaluatorId);
+        StringBuilder conditions = new StringBuilder("AND t.status = 'PENDING' ");
+        appendFilters(conditions, params, modelIds, questionType);
+        params.add(limit);
+        return jdbcTemplate.query(String.format(SQL_FIND_TASKS, conditions) + " FOR UPDATE SKIP LOCKED",
+                new TaskRowMapper(), params.toArray());
+    }
+
+    /**
+     * 将任务租给owner，owner已持有的任务续约
+     *
+     * @return 更新行数
+     */
+    public int lease(Collection<Long> taskIds, Long owner, int leaseSeconds) {
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(owner);
+        params.add(leaseSeconds);
+        params.addAll(taskIds);
+        params.add(owner);
+        String sql = String.format(SQL_LEASE, AssociationLoader.placeholders(taskIds.size()));
+        return jdbcTemplate.update(sql, params.toArray());
+    }
+
+    /**
+     * 释放owner持有的任务，任务回到等待领取状态
+     *
+     * @return 释放的任务数
+     */
+    public int release(Collection<Long> taskIds, Long owner) {
+        if (taskIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>(taskIds);
+        params.add(owner);
+        String sql = String.format(SQL_RELEASE, AssociationLoader.placeholders(taskIds.size()));
+        return jdbcTemplate.update(sql, params.toArray());
+    }
+
+    /**
+     * 回收租约已到期的任务
+     *
+     * @return 回收的任务数
+     */
+    public int releaseExpired() {
+        return jdbcTemplate.update(SQL_RELEASE_EXPIRED);
+    }
+
+    /**
+     * 将回答对评测者的任务标记为完成，任务由未完成变为完成时累加队列的完成数；
+     * 已完成的任务重新提交时只更新评测ID
+     *
+     * @return 任务是否由未完成变为完成
+     */
+    public boolean complete(Long llmAnswerId, Long evaluatorId, Long evaluationId) {
+        if (jdbcTemplate.update(SQL_COMPLETE, evaluationId, llmAnswerId, evaluatorId) == 0) {
+            jdbcTemplate.update(SQL_ATTACH_EVALUATION, evaluationId, llmAnswerId, evaluatorId);
+            return false;
+        }
+        List<Long> batchIds = jdbcTemplate.queryForList(SQL_FIND_BATCH_ID_BY_ANSWER, Long.class, llmAnswerId, evaluatorId);
+        if (!batchIds.isEmpty()) {
+            jdbcTemplate.update(SQL_INCREMENT_COMPLETED, batchIds.get(0), evaluatorId);
+        }
+        return true;
+    }
+
+    /**
+     * 记录回答对评测者的评测ID，不改变任务状态
+     */
+    public void attachEvaluation(Long llmAnswerId, Long evaluatorId, Long evaluationId) {
+        jdbcTemplate.update(SQL_ATTACH_EVALUATION, evaluationId, llmAnswerId, evaluatorId);
+    }
+
+    /**
+     * 分页查询未完成的任务及其回答、问题信息
+     */
+    public List<Map<String, Object>> findUnfinishedItems(Long batchId, Long evaluatorId, List<Long> modelIds,
+                                                         QuestionType questionType, int limit, long offset) {
+        List<Object> params = new ArrayList<>();
+        params.add(batchId);
+        params.add(evaluatorId);
+        StringBuilder sql = new StringBuilder(SQL_SELECT_ITEMS)
+                .append("WHERE t.batch_id = ? AND t.evaluator_id = ? AND t.status <> 'COMPLETED' ");
+        appendFilters(sql, params, modelIds, questionType);
+        sql.append("ORDER BY t.question_id, t.model_id, t.id LIMIT ? OFFSET ?");
+        params.add(limit);
+        params.add(offset);
+        return jdbcTemplate.query(sql.toString(), new ItemRowMapper(), params.toArray());
+    }
+
+    /**
+     * 按任务ID查询任务及其回答、问题信息，结果按ID列表的顺序返回
+     */
+    public List<Map<String, Object>> findItemsByIds(List<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Map<String, Object>> itemsById = new HashMap<>();
+        for (int from = 0; from < taskIds.size(); from += AssociationLoader.MAX_IN_SIZE) {
+            List<Long> chunk = taskIds.subList(from, Math.min(from + AssociationLoader.MAX_IN_SIZE, taskIds.size()));
+            String sql = SQL_SELECT_ITEMS + "WHERE t.id IN (" + AssociationLoader.placeholders(chunk.size()) + ")";
+            for (Map<String, Object> item : jdbcTemplate.query(sql, new ItemRowMapper(), chunk.toArray())) {
+                itemsById.put((Long) item.get("taskId"), item);
+            }
+        }
+        List<Map<String, Object>> items = new ArrayList<>(taskIds.size());
+        for (Long taskId : taskIds) {
+            Map<String, Object> item = itemsById.get(taskId);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * 按筛选条件统计未完成的任务数，无筛选条件时应使用队列计数
+     */
+    public long countUnfinished(Long batchId, Long evaluatorId, List<Long> modelIds, QuestionType questionType) {
+        List<Object> params = new ArrayList<>();
+        params.add(batchId);
+        params.add(evaluatorId);
+        StringBuilder conditions = new StringBuilder();
+        appendFilters(conditions, params, modelIds, questionType);
+        Long count = jdbcTemplate.queryForObject(String.format(SQL_COUNT_UNFINISHED, conditions), Long.class, params.toArray());
+        return count != null ? count : 0L;
+    }
+
+    private static void appendFilters(StringBuilder sql, List<Object> params, List<Long> modelIds, QuestionType questionType) {
+        if (modelIds != null && !modelIds.isEmpty()) {
+            sql.append("AND t.model_id IN (").append(AssociationLoader.placeholders(modelIds.size())).append(") ");
+            params.addAll(modelIds);
+        }
+        if (questionType != null) {
+            sql.append("AND t.question_type = ? ");
+            params.add(questionType.name());
+        }
+    }
+
+    private static class QueueRowMapper implements RowMapper<HumanEvaluationQueue> {
+        @Override
+        public HumanEvaluationQueue mapRow(ResultSet rs, int rowNum) throws SQLException {
+            HumanEvaluationQueue queue = new HumanEvaluationQueue();
+            queue.setBatchId(rs.getLong(HumanEvaluationQueue.COLUMN_BATCH_ID));
+            queue.setEvaluatorId(rs.getLong(HumanEvaluationQueue.COLUMN_EVALUATOR_ID));
+            queue.setTotalCount(rs.getInt(HumanEvaluationQueue.COLUMN_TOTAL_COUNT));
+            queue.setCompletedCount(rs.getInt(HumanEvaluationQueue.COLUMN_COMPLETED_COUNT));
+            queue.setSealed(rs.getBoolean(HumanEvaluationQueue.COLUMN_SEALED));
+            Timestamp refreshedAt = rs.getTimestamp(HumanEvaluationQueue.COLUMN_REFRESHED_AT);
+            queue.setRefreshedAt(refreshedAt != null ? refreshedAt.toLocalDateTime() : null);
+            return queue;
+        }
+    }
+
+    private static class TaskRowMapper implements RowMapper<HumanEvaluationTask> {
+        @Override
+        public HumanEvaluationTask mapRow(ResultSet rs, int rowNum) throws SQLException {
+            HumanEvaluationTask task = new HumanEvaluationTask();
+            task.setId(rs.getLong(HumanEvaluationTask.COLUMN_ID));
+            task.setBatchId(rs.getLong(HumanEvaluationTask.COLUMN_BATCH_ID));
+            task.setEvaluatorId(rs.getLong(HumanEvaluationTask.COLUMN_EVALUATOR_ID));
+            task.setLlmAnswerId(rs.getLong(HumanEvaluationTask.COLUMN_LLM_ANSWER_ID));
+            task.setModelId(rs.getLong(HumanEvaluationTask.COLUMN_MODEL_ID));
+            task.setQuestionId(rs.getLong(HumanEvaluationTask.COLUMN_QUESTION_ID));
+            task.setQuestionType(QuestionType.valueOf(rs.getString(HumanEvaluationTask.COLUMN_QUESTION_TYPE)));
+            task.setStatus(TaskStatus.valueOf(rs.getString(HumanEvaluationTask.COLUMN_STATUS)));
+            long leaseOwner = rs.getLong(HumanEvaluationTask.COLUMN_LEASE_OWNER);
+            task.setLeaseOwner(rs.wasNull() ? null : leaseOwner);
+            Timestamp leaseExpiresAt = rs.getTimestamp(HumanEvaluationTask.COLUMN_LEASE_EXPIRES_AT);
+            task.setLeaseExpiresAt(leaseExpiresAt != null ? leaseExpiresAt.toLocalDateTime() : null);
+            long evaluationId = rs.getLong(HumanEvaluationTask.COLUMN_EVALUATION_ID);
+            task.setEvaluationId(rs.wasNull() ? null : evaluationId);
+            return task;
+        }
+    }
+
+    /**
+     * 待评测条目，字段与原待评测回答列表一致，另附任务信息
+     */
+    private static class ItemRowMapper implements RowMapper<Map<String, Object>> {
+        @Override
+        public Map<String, Object> mapRow(ResultSet rs, int rowNum) throws SQLException {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("taskId", rs.getLong("task_id"));
+            result.put("taskStatus", rs.getString("task_status"));
+            long leaseOwner = rs.getLong("lease_owner");
+            result.put("leaseOwner", rs.wasNull() ? null : leaseOwner);
+            Timestamp leaseExpiresAt = rs.getTimestamp("lease_expires_at");
+            result.put("leaseExpiresAt", leaseExpiresAt != null ? leaseExpiresAt.toLocalDateTime() : null);
+            long evaluationId = rs.getLong("evaluation_id");
+            result.put("evaluationId", rs.wasNull() ? null : evaluationId);
+            result.put("answerId", rs.getLong("answer_id"));
+            result.put("answerText", rs.getString("answer_text"));
+            result.put("runId", rs.getLong("run_id"));
+            result.put("modelId", rs.getLong("model_id"));
+            result.put("modelName", rs.getString("model_name"));
+            result.put("questionId", rs.getLong("question_id"));
+            result.put("questionText", rs.getString("question_text"));
+            result.put("questionType", rs.getString("question_type"));
+            result.put("difficultyLevel", rs.getString("difficulty_level"));
+            return result;
+        }
+    }
+}
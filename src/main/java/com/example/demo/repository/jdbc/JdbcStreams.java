@@ -0,0 +1,41 @@
+package com.example.demo.repository.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+/**
+ * 流式查询工具类
+ *
+ * 整批次、整运行的查询结果可能有上百万行，一次性映射为List会占用大量堆内存。
+ * 这里创建的语句设置了fetchSize，配合MySQL连接参数useCursorFetch=true使用服务端游标，
+ * 驱动每次只取回一批行；调用方通过RowCallbackHandler逐行处理，或使用JdbcTemplate.queryForStream
+ * 得到Stream（使用完必须关闭以释放连接）。useCursorFetch只在cursorJdbcTemplate的连接池上开启（见JdbcConfig），
+ * 在主JdbcTemplate上执行时驱动会读取全部结果，仍能正确执行。
+ */
+public final class JdbcStreams {
+
+    // 服务端游标每次取回的行数
+    public static final int FETCH_SIZE = 1000;
+
+    private JdbcStreams() {
+    }
+
+    /**
+     * 创建使用服务端游标分批取回结果的只读语句
+     *
+     * @param sql 查询SQL
+     * @param args 查询参数
+     * @return 语句创建器
+     */
+    public static PreparedStatementCreator cursor(String sql, Object... args) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            new ArgumentPreparedStatementSetter(args).setValues(ps);
+            return ps;
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.repository.jdbc;
+
+/**
+ * LLM回答查询的列投影
+ *
+ * answer_text、prompt_used、raw_model_response和other_metadata是大文本列，
+ * 只需要ID或问题关联的调用方应使用较窄的投影，需要文本时再通过
+ * {@link LlmAnswerRepository#loadLargeText(java.util.List)}按需批量加载。
+ */
+public enum LlmAnswerProjection {
+    /**
+     * 只查询回答ID
+     */
+    ID_ONLY("a.id"),
+
+    /**
+     * 查询除大文本列以外的所有列
+     */
+    SUMMARY("a.id, a.model_answer_run_id, a.dataset_question_mapping_id, a.generation_status, " +
+            "a.error_message, a.generation_time, a.repeat_index, a.first_token_ms, a.tokens_per_second"),
+
+    /**
+     * 查询所有列
+     */
+    FULL("a.*");
+
+    // 以a为llm_answers表别名的列清单
+    private final String columns;
+
+    LlmAnswerProjection(String columns) {
+        this.columns = columns;
+    }
+
+    String columns() {
+        return columns;
+    }
+}
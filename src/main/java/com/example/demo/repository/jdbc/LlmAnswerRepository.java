@@ -8,16 +8,25 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -26,6 +35,7 @@ import org.springframework.stereotype.Repository;
 import com.example.demo.entity.jdbc.DatasetQuestionMapping;
 import com.example.demo.entity.jdbc.LlmAnswer;
 import com.example.demo.entity.jdbc.ModelAnswerRun;
+import com.example.demo.entity.jdbc.QuestionType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -34,24 +44,30 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Repository
 public class LlmAnswerRepository {
 
+    private static final Logger logger = LoggerFactory.getLogger(LlmAnswerRepository.class);
+
     private final JdbcTemplate jdbcTemplate;
+    // 开启服务端游标的只读连接，仅用于流式查询
+    private final JdbcTemplate cursorJdbcTemplate;
     private final ObjectMapper objectMapper;
 
     private static final String SQL_INSERT = 
             "INSERT INTO llm_answers (model_answer_run_id, dataset_question_mapping_id, answer_text, " +
-            "generation_status, error_message, generation_time, prompt_used, raw_model_response, other_metadata, repeat_index) " +
-            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            "generation_status, error_message, generation_time, prompt_used, raw_model_response, other_metadata, repeat_index, " +
+            "first_token_ms, tokens_per_second) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
     
     private static final String SQL_UPDATE = 
             "UPDATE llm_answers SET model_answer_run_id=?, dataset_question_mapping_id=?, answer_text=?, " +
-            "generation_status=?, error_message=?, generation_time=?, prompt_used=?, raw_model_response=?, other_metadata=?, repeat_index=? " +
+            "generation_status=?, error_message=?, generation_time=?, prompt_used=?, raw_model_response=?, other_metadata=?, repeat_index=?, " +
+            "first_token_ms=?, tokens_per_second=? " +
             "WHERE id=?";
     
     private static final String SQL_FIND_BY_ID = 
             "SELECT * FROM llm_answers WHERE id=?";
     
     private static final String SQL_FIND_BY_MODEL_ANSWER_RUN_ID = 
-            "SELECT * FROM llm_answers WHERE model_answer_run_id=?";
+            "SELECT %s FROM llm_answers a WHERE a.model_answer_run_id=? ORDER BY a.id";
     
     private static final String SQL_FIND_BY_ID_WITH_QUESTION = 
             "SELECT a.*, dqm.id as dqm_id, dqm.standard_question_id as sq_id, " +
@@ -62,7 +78,7 @@ public class LlmAnswerRepository {
             "WHERE a.id=?";
     
     private static final String SQL_FIND_BY_MODEL_ANSWER_RUN_ID_WITH_QUESTIONS = 
-            "SELECT a.*, dqm.id as dqm_id, dqm.standard_question_id as sq_id, " +
+            "SELECT %s, dqm.id as dqm_id, dqm.standard_question_id as sq_id, " +
             "sq.question_text, sq.question_type " +
             "FROM llm_answers a " +
             "LEFT JOIN dataset_question_mapping dqm ON a.dataset_question_mapping_id = dqm.id " +
@@ -82,18 +98,42 @@ public class LlmAnswerRepository {
             "SELECT COUNT(*) FROM llm_answers WHERE model_answer_run_id=?";
     
     private static final String SQL_FIND_BY_BATCH_ID = 
-            "SELECT a.* FROM llm_answers a " +
+            "SELECT %s FROM llm_answers a " +
+            "JOIN model_answer_runs mar ON a.model_answer_run_id = mar.id " +
+            "WHERE mar.answer_generation_batch_id=?";
+
+    private static final String SQL_FIND_BY_BATCH_ID_WITH_QUESTIONS = 
+            "SELECT %s, dqm.id as dqm_id, dqm.standard_question_id as sq_id, " +
+            "sq.question_text, sq.question_type " +
+            "FROM llm_answers a " +
             "JOIN model_answer_runs mar ON a.model_answer_run_id = mar.id " +
+            "LEFT JOIN dataset_question_mapping dqm ON a.dataset_question_mapping_id = dqm.id " +
+            "LEFT JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
             "WHERE mar.answer_generation_batch_id=?";
     
     private static final String SQL_FIND_BY_MODEL_ANSWER_RUN_ID_AND_ID_GREATER_THAN = 
             "SELECT * FROM llm_answers WHERE model_answer_run_id=? AND id>? ORDER BY id";
     
     private static final String SQL_FIND_ALL = 
-            "SELECT * FROM llm_answers";
+            "SELECT %s FROM llm_answers a";
 
     private static final String SQL_FIND_BY_IDS = 
-            "SELECT * FROM llm_answers WHERE id IN (%s)";
+            "SELECT %s FROM llm_answers a WHERE a.id IN (%s)";
+
+    // 反连接评测表，配合评测表(llm_answer_id, evaluator_id)唯一索引使用
+    private static final String SQL_FIND_UNEVALUATED_IDS_BY_MODEL_ANSWER_RUN_ID = 
+            "SELECT a.id FROM llm_answers a " +
+            "LEFT JOIN evaluations e ON e.llm_answer_id = a.id AND e.evaluator_id = ? " +
+            "WHERE a.model_answer_run_id = ? AND a.id > ? AND e.id IS NULL " +
+            "ORDER BY a.id LIMIT ?";
+
+    private static final String SQL_COUNT_UNEVALUATED_BY_MODEL_ANSWER_RUN_ID = 
+            "SELECT COUNT(*) FROM llm_answers a " +
+            "LEFT JOIN evaluations e ON e.llm_answer_id = a.id AND e.evaluator_id = ? " +
+            "WHERE a.model_answer_run_id = ? AND e.id IS NULL";
+
+    private static final String SQL_FIND_LARGE_TEXT_BY_IDS = 
+            "SELECT id, answer_text, prompt_used, raw_model_response, other_metadata FROM llm_answers WHERE id IN (%s)";
 
     private static final String SQL_FIND_OBJECTIVE_ANSWERS_WITH_EVALUATIONS = 
             "SELECT la.id as answer_id, la.answer_text, mar.id as run_id, lm.id as model_id, lm.name as model_name, " +
@@ -148,35 +188,6 @@ public class LlmAnswerRepository {
             "AND sq.question_type = 'SUBJECTIVE' " +
             "AND (? IS NULL OR lm.id IN (%s))";
             
-    private static final String SQL_FIND_PENDING_ANSWERS_FOR_HUMAN_EVALUATION = 
-            "SELECT la.id as answer_id, la.answer_text, mar.id as run_id, lm.id as model_id, lm.name as model_name, " +
-            "sq.id as question_id, sq.question_text, sq.question_type, sq.difficulty as difficulty_level " +
-            "FROM llm_answers la " +
-            "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
-            "JOIN llm_models lm ON mar.llm_model_id = lm.id " +
-            "JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id " +
-            "JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
-            "LEFT JOIN evaluations e ON la.id = e.llm_answer_id AND e.evaluator_id IN (%s) " +
-            "WHERE mar.answer_generation_batch_id = ? " +
-            "AND e.id IS NULL " +
-            "AND (? IS NULL OR lm.id IN (%s)) " +
-            "AND (? IS NULL OR sq.question_type = ?) " +
-            "ORDER BY sq.id, lm.id " +
-            "LIMIT ? OFFSET ?";
-            
-    private static final String SQL_COUNT_PENDING_ANSWERS_FOR_HUMAN_EVALUATION = 
-            "SELECT COUNT(*) " +
-            "FROM llm_answers la " +
-            "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
-            "JOIN llm_models lm ON mar.llm_model_id = lm.id " +
-            "JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id " +
-            "JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
-            "LEFT JOIN evaluations e ON la.id = e.llm_answer_id AND e.evaluator_id IN (%s) " +
-            "WHERE mar.answer_generation_batch_id = ? " +
-            "AND e.id IS NULL " +
-            "AND (? IS NULL OR lm.id IN (%s)) " +
-            "AND (? IS NULL OR sq.question_type = ?)";
-
     private static final String SQL_FIND_SUBJECTIVE_ANSWERS_WITH_ALL_EVALUATIONS = 
             "SELECT la.id as answer_id, la.answer_text, mar.id as run_id, lm.id as model_id, lm.name as model_name, " +
             "sq.id as question_id, sq.question_text, sq.question_type, " +
@@ -209,8 +220,10 @@ public class LlmAnswerRepository {
             "AND (? IS NULL OR lm.id IN (%s))";
 
     @Autowired
-    public LlmAnswerRepository(JdbcTemplate jdbcTemplate) {
+    public LlmAnswerRepository(JdbcTemplate jdbcTemplate,
+                               @Qualifier("cursorJdbcTemplate") JdbcTemplate cursorJdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.cursorJdbcTemplate = cursorJdbcTemplate;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -239,61 +252,7 @@ public class LlmAnswerRepository {
 
         jdbcTemplate.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS);
-            
-            // 设置模型回答运行ID
-            ps.setLong(1, llmAnswer.getModelAnswerRun().getId());
-            
-            // 设置数据集问题映射ID
-            ps.setLong(2, llmAnswer.getDatasetQuestionMapping().getId());
-            
-            // 设置回答文本
-            if (llmAnswer.getAnswerText() != null) {
-                ps.setString(3, llmAnswer.getAnswerText());
-            } else {
-                ps.setNull(3, java.sql.Types.VARCHAR);
-            }
-            
-            // 设置生成状态
-            ps.setString(4, llmAnswer.getGenerationStatus().name());
-            
-            // 设置错误信息
-            if (llmAnswer.getErrorMessage() != null) {
-                ps.setString(5, llmAnswer.getErrorMessage());
-            } else {
-                ps.setNull(5, java.sql.Types.VARCHAR);
-            }
-            
-            // 设置生成时间
-            if (llmAnswer.getGenerationTime() != null) {
-                ps.setTimestamp(6, Timestamp.valueOf(llmAnswer.getGenerationTime()));
-            } else {
-                ps.setNull(6, java.sql.Types.TIMESTAMP);
-            }
-            
-            // 设置使用的提示词
-            if (llmAnswer.getPromptUsed() != null) {
-                ps.setString(7, llmAnswer.getPromptUsed());
-            } else {
-                ps.setNull(7, java.sql.Types.VARCHAR);
-            }
-            
-            // 设置原始模型响应
-            if (llmAnswer.getRawModelResponse() != null) {
-                ps.setString(8, llmAnswer.getRawModelResponse());
-            } else {
-                ps.setNull(8, java.sql.Types.VARCHAR);
-            }
-            
-            // 设置其他元数据
-            if (llmAnswer.getOtherMetadata() != null) {
-                ps.setString(9, llmAnswer.getOtherMetadata());
-            } else {
-                ps.setString(9, "{}");
-            }
-            
-            // 设置重复索引
-            ps.setInt(10, llmAnswer.getRepeatIndex() != null ? llmAnswer.getRepeatIndex() : 0);
-            
+            setInsertParameters(ps, llmAnswer);
             return ps;
         }, keyHolder);
 
@@ -304,6 +263,93 @@ public class LlmAnswerRepository {
         return llmAnswer;
     }
 
+    /**
+     * 批量插入LLM回答
+     *
+     * 使用JDBC批处理，配合连接参数rewriteBatchedStatements=true合并为多值INSERT，不回填生成的ID。
+     *
+     * @param llmAnswers LLM回答对象列表
+     */
+    public void insertBatch(List<LlmAnswer> llmAnswers) {
+        if (llmAnswers.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                setInsertParameters(ps, llmAnswers.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return llmAnswers.size();
+            }
+        });
+    }
+
+    /**
+     * 设置插入语句的参数
+     */
+    private void setInsertParameters(PreparedStatement ps, LlmAnswer llmAnswer) throws SQLException {
+        // 设置模型回答运行ID
+        ps.setLong(1, llmAnswer.getModelAnswerRun().getId());
+        
+        // 设置数据集问题映射ID
+        ps.setLong(2, llmAnswer.getDatasetQuestionMapping().getId());
+        
+        // 设置回答文本
+        if (llmAnswer.getAnswerText() != null) {
+            ps.setString(3, llmAnswer.getAnswerText());
+        } else {
+            ps.setNull(3, java.sql.Types.VARCHAR);
+        }
+        
+        // 设置生成状态
+        ps.setString(4, llmAnswer.getGenerationStatus().name());
+        
+        // 设置错误信息
+        if (llmAnswer.getErrorMessage() != null) {
+            ps.setString(5, llmAnswer.getErrorMessage());
+        } else {
+            ps.setNull(5, java.sql.Types.VARCHAR);
+        }
+        
+        // 设置生成时间
+        if (llmAnswer.getGenerationTime() != null) {
+            ps.setTimestamp(6, Timestamp.valueOf(llmAnswer.getGenerationTime()));
+        } else {
+            ps.setNull(6, java.sql.Types.TIMESTAMP);
+        }
+        
+        // 设置使用的提示词
+        if (llmAnswer.getPromptUsed() != null) {
+            ps.setString(7, llmAnswer.getPromptUsed());
+        } else {
+            ps.setNull(7, java.sql.Types.VARCHAR);
+        }
+        
+        // 设置原始模型响应
+        if (llmAnswer.getRawModelResponse() != null) {
+            ps.setString(8, llmAnswer.getRawModelResponse());
+        } else {
+            ps.setNull(8, java.sql.Types.VARCHAR);
+        }
+        
+        // 设置其他元数据
+        if (llmAnswer.getOtherMetadata() != null) {
+            ps.setString(9, llmAnswer.getOtherMetadata());
+        } else {
+            ps.setString(9, "{}");
+        }
+        
+        // 设置重复索引
+        ps.setInt(10, llmAnswer.getRepeatIndex() != null ? llmAnswer.getRepeatIndex() : 0);
+        
+        // 设置流式生成指标
+        ps.setObject(11, llmAnswer.getFirstTokenMs(), java.sql.Types.BIGINT);
+        ps.setBigDecimal(12, llmAnswer.getTokensPerSecond());
+    }
+
     /**
      * 更新LLM回答
      *
@@ -322,6 +368,8 @@ public class LlmAnswerRepository {
                 llmAnswer.getRawModelResponse(),
                 llmAnswer.getOtherMetadata() != null ? llmAnswer.getOtherMetadata() : "{}",
                 llmAnswer.getRepeatIndex(),
+                llmAnswer.getFirstTokenMs(),
+                llmAnswer.getTokensPerSecond(),
                 llmAnswer.getId());
 
         return llmAnswer;
@@ -376,10 +424,35 @@ public class LlmAnswerRepository {
      * @return 回答列表
      */
     public List<LlmAnswer> findByModelAnswerRunId(Long modelAnswerRunId) {
+        return findByModelAnswerRunId(modelAnswerRunId, LlmAnswerProjection.FULL);
+    }
+
+    /**
+     * 根据运行ID按投影查找回答，按ID升序
+     *
+     * @param modelAnswerRunId 运行ID
+     * @param projection 列投影
+     * @return 回答列表，未查询的列为null
+     */
+    public List<LlmAnswer> findByModelAnswerRunId(Long modelAnswerRunId, LlmAnswerProjection projection) {
         return jdbcTemplate.query(
-                SQL_FIND_BY_MODEL_ANSWER_RUN_ID,
-                new Object[]{modelAnswerRunId},
-                new LlmAnswerRowMapper()
+                String.format(SQL_FIND_BY_MODEL_ANSWER_RUN_ID, projection.columns()),
+                new LlmAnswerRowMapper(projection),
+                modelAnswerRunId
+        );
+    }
+
+    /**
+     * 根据运行ID查找回答ID，按ID升序
+     *
+     * @param modelAnswerRunId 运行ID
+     * @return 回答ID列表
+     */
+    public List<Long> findIdsByModelAnswerRunId(Long modelAnswerRunId) {
+        return jdbcTemplate.queryForList(
+                String.format(SQL_FIND_BY_MODEL_ANSWER_RUN_ID, LlmAnswerProjection.ID_ONLY.columns()),
+                Long.class,
+                modelAnswerRunId
         );
     }
     
@@ -390,20 +463,32 @@ public class LlmAnswerRepository {
      * @return 回答列表，包含预加载的问题
      */
     public List<LlmAnswer> findByModelAnswerRunIdWithQuestions(Long modelAnswerRunId) {
-        System.out.println("执行findByModelAnswerRunIdWithQuestions查询，modelAnswerRunId=" + modelAnswerRunId + ", SQL=" + SQL_FIND_BY_MODEL_ANSWER_RUN_ID_WITH_QUESTIONS);
+        return findByModelAnswerRunIdWithQuestions(modelAnswerRunId, LlmAnswerProjection.FULL);
+    }
+
+    /**
+     * 根据运行ID按投影查找回答，同时预加载问题
+     *
+     * @param modelAnswerRunId 运行ID
+     * @param projection 回答列投影
+     * @return 回答列表，包含预加载的问题
+     */
+    public List<LlmAnswer> findByModelAnswerRunIdWithQuestions(Long modelAnswerRunId, LlmAnswerProjection projection) {
+        String sql = String.format(SQL_FIND_BY_MODEL_ANSWER_RUN_ID_WITH_QUESTIONS, projection.columns());
+        logger.debug("执行findByModelAnswerRunIdWithQuestions查询，modelAnswerRunId={}, SQL={}", modelAnswerRunId, sql);
         
         List<LlmAnswer> answers = jdbcTemplate.query(
-                SQL_FIND_BY_MODEL_ANSWER_RUN_ID_WITH_QUESTIONS,
-                new Object[]{modelAnswerRunId},
-                new LlmAnswerWithFullQuestionRowMapper()
+                sql,
+                new LlmAnswerWithFullQuestionRowMapper(projection),
+                modelAnswerRunId
         );
         
         // 记录找到的回答和它们的问题状态
         for (LlmAnswer answer : answers) {
             if (answer.getDatasetQuestionMapping() == null) {
-                System.out.println("回答ID: " + answer.getId() + " 的dataset_question_mapping为null");
+                logger.debug("回答ID: {} 的dataset_question_mapping为null", answer.getId());
             } else if (answer.getDatasetQuestionMapping().getStandardQuestion() == null) {
-                System.out.println("回答ID: " + answer.getId() + " 的standard_question为null");
+                logger.debug("回答ID: {} 的standard_question为null", answer.getId());
             }
         }
         
@@ -475,6 +560,90 @@ public class LlmAnswerRepository {
         return count != null ? count : 0;
     }
     
+    /**
+     * 按ID游标分页查询运行中尚未被评测者评测的回答，只包含回答ID
+     *
+     * @param modelAnswerRunId 运行ID
+     * @param evaluatorId 评测者ID
+     * @param afterId 上一页最后一个回答ID，首页传null
+     * @param limit 每页数量
+     * @return 按ID升序的回答列表
+     */
+    public List<LlmAnswer> findUnevaluatedByModelAnswerRunId(Long modelAnswerRunId, Long evaluatorId, Long afterId, int limit) {
+        return jdbcTemplate.query(
+                SQL_FIND_UNEVALUATED_IDS_BY_MODEL_ANSWER_RUN_ID,
+                new LlmAnswerRowMapper(LlmAnswerProjection.ID_ONLY),
+                evaluatorId, modelAnswerRunId, afterId != null ? afterId : 0L, limit
+        );
+    }
+    
+    /**
+     * 统计运行中尚未被评测者评测的回答数量
+     *
+     * @param modelAnswerRunId 运行ID
+     * @param evaluatorId 评测者ID
+     * @return 未评测回答数量
+     */
+    public int countUnevaluatedByModelAnswerRunId(Long modelAnswerRunId, Long evaluatorId) {
+        Integer count = jdbcTemplate.queryForObject(
+                SQL_COUNT_UNEVALUATED_BY_MODEL_ANSWER_RUN_ID,
+                Integer.class,
+                evaluatorId, modelAnswerRunId
+        );
+        return count != null ? count : 0;
+    }
+    
+    /**
+     * 查询运行中已成功生成回答的问题及其重复索引，用于断点恢复时跳过已完成的问题
+     *
+     * @param runId 运行ID
+     * @return 标准问题ID到已完成重复索引集合的映射
+     */
+    public Map<Long, Set<Integer>> findAnsweredQuestionRepeats(Long runId) {
+        Map<Long, Set<Integer>> answered = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT dqm.standard_question_id, a.repeat_index FROM llm_answers a " +
+                "JOIN dataset_question_mapping dqm ON a.dataset_question_mapping_id = dqm.id " +
+                "WHERE a.model_answer_run_id = ? AND a.generation_status = 'SUCCESS'",
+                (RowCallbackHandler) rs -> {
+                    answered.computeIfAbsent(rs.getLong("standard_question_id"), k -> new HashSet<>())
+                            .add(rs.getInt("repeat_index"));
+                },
+                runId);
+        return answered;
+    }
+
+    /**
+     * 查询运行中指定问题已成功生成回答的重复索引，工作单元恢复时只查询单元覆盖的问题
+     *
+     * @param runId 运行ID
+     * @param questionIds 标准问题ID
+     * @return 标准问题ID到已完成重复索引集合的映射
+     */
+    public Map<Long, Set<Integer>> findAnsweredQuestionRepeats(Long runId, Collection<Long> questionIds) {
+        Map<Long, Set<Integer>> answered = new HashMap<>();
+        List<Long> ids = new ArrayList<>(questionIds);
+        for (int from = 0; from < ids.size(); from += AssociationLoader.MAX_IN_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + AssociationLoader.MAX_IN_SIZE, ids.size()));
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = runId;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+            jdbcTemplate.query(
+                    "SELECT dqm.standard_question_id, a.repeat_index FROM llm_answers a " +
+                    "JOIN dataset_question_mapping dqm ON a.dataset_question_mapping_id = dqm.id " +
+                    "WHERE a.model_answer_run_id = ? AND a.generation_status = 'SUCCESS' " +
+                    "AND dqm.standard_question_id IN (" + AssociationLoader.placeholders(chunk.size()) + ")",
+                    (RowCallbackHandler) rs -> {
+                        answered.computeIfAbsent(rs.getLong("standard_question_id"), k -> new HashSet<>())
+                                .add(rs.getInt("repeat_index"));
+                    },
+                    args);
+        }
+        return answered;
+    }
+
     /**
      * 按批次ID查找所有回答
      *
@@ -482,10 +651,21 @@ public class LlmAnswerRepository {
      * @return 回答列表
      */
     public List<LlmAnswer> findByBatchId(Long batchId) {
+        return findByBatchId(batchId, LlmAnswerProjection.FULL);
+    }
+
+    /**
+     * 按批次ID和投影查找所有回答
+     *
+     * @param batchId 批次ID
+     * @param projection 列投影
+     * @return 回答列表，未查询的列为null
+     */
+    public List<LlmAnswer> findByBatchId(Long batchId, LlmAnswerProjection projection) {
         return jdbcTemplate.query(
-                SQL_FIND_BY_BATCH_ID,
-                new Object[]{batchId},
-                new LlmAnswerRowMapper()
+                String.format(SQL_FIND_BY_BATCH_ID, projection.columns()),
+                new LlmAnswerRowMapper(projection),
+                batchId
         );
     }
 
@@ -496,34 +676,68 @@ public class LlmAnswerRepository {
      * @return 回答列表，包含预加载的问题
      */
     public List<LlmAnswer> findByBatchIdWithQuestions(Long batchId) {
-        String sql = "SELECT a.*, dqm.id as dqm_id, dqm.standard_question_id as sq_id, " +
-                     "sq.question_text, sq.question_type " +
-                     "FROM llm_answers a " +
-                     "JOIN model_answer_runs mar ON a.model_answer_run_id = mar.id " +
-                     "LEFT JOIN dataset_question_mapping dqm ON a.dataset_question_mapping_id = dqm.id " +
-                     "LEFT JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
-                     "WHERE mar.answer_generation_batch_id=?";
+        return findByBatchIdWithQuestions(batchId, LlmAnswerProjection.FULL);
+    }
+
+    /**
+     * 按批次ID和投影查找所有回答，同时预加载问题
+     *
+     * @param batchId 批次ID
+     * @param projection 回答列投影
+     * @return 回答列表，包含预加载的问题
+     */
+    public List<LlmAnswer> findByBatchIdWithQuestions(Long batchId, LlmAnswerProjection projection) {
+        String sql = String.format(SQL_FIND_BY_BATCH_ID_WITH_QUESTIONS, projection.columns());
         
-        System.out.println("执行findByBatchIdWithQuestions查询，batchId=" + batchId + ", SQL=" + sql);
+        logger.debug("执行findByBatchIdWithQuestions查询，batchId={}, SQL={}", batchId, sql);
         
         List<LlmAnswer> answers = jdbcTemplate.query(
                 sql,
-                new Object[]{batchId},
-                new LlmAnswerWithFullQuestionRowMapper()
+                new LlmAnswerWithFullQuestionRowMapper(projection),
+                batchId
         );
         
         // 记录找到的回答和它们的问题状态
         for (LlmAnswer answer : answers) {
             if (answer.getDatasetQuestionMapping() == null) {
-                System.out.println("回答ID: " + answer.getId() + " 的dataset_question_mapping为null");
+                logger.debug("回答ID: {} 的dataset_question_mapping为null", answer.getId());
             } else if (answer.getDatasetQuestionMapping().getStandardQuestion() == null) {
-                System.out.println("回答ID: " + answer.getId() + " 的standard_question为null");
+                logger.debug("回答ID: {} 的standard_question为null", answer.getId());
             }
         }
         
         return answers;
     }
     
+    /**
+     * 流式查询批次中指定题型的回答，同时预加载问题
+     *
+     * 使用服务端游标逐批取回，内存占用不随批次回答数增长；返回的Stream持有流式查询连接池的连接，
+     * 不参与调用方的事务，调用方必须使用try-with-resources关闭。
+     *
+     * @param batchId 批次ID
+     * @param projection 回答列投影
+     * @param questionTypes 题型
+     * @return 回答流，包含预加载的问题
+     */
+    public Stream<LlmAnswer> streamByBatchIdWithQuestions(Long batchId, LlmAnswerProjection projection,
+                                                          Collection<QuestionType> questionTypes) {
+        if (questionTypes == null || questionTypes.isEmpty()) {
+            return Stream.empty();
+        }
+        
+        String sql = String.format(SQL_FIND_BY_BATCH_ID_WITH_QUESTIONS, projection.columns()) +
+                " AND sq.question_type IN (" + AssociationLoader.placeholders(questionTypes.size()) + ")";
+        List<Object> params = new ArrayList<>(questionTypes.size() + 1);
+        params.add(batchId);
+        for (QuestionType type : questionTypes) {
+            params.add(type.name());
+        }
+        return cursorJdbcTemplate.queryForStream(
+                JdbcStreams.cursor(sql, params.toArray()),
+                new LlmAnswerWithFullQuestionRowMapper(projection));
+    }
+    
     /**
      * 根据模型回答运行ID和回答ID查询大于指定ID的回答列表
      *
@@ -545,7 +759,17 @@ public class LlmAnswerRepository {
      * @return LLM回答列表
      */
     public List<LlmAnswer> findAll() {
-        return jdbcTemplate.query(SQL_FIND_ALL, new LlmAnswerRowMapper());
+        return findAll(LlmAnswerProjection.FULL);
+    }
+
+    /**
+     * 按投影查找所有LLM回答
+     *
+     * @param projection 列投影
+     * @return LLM回答列表，未查询的列为null
+     */
+    public List<LlmAnswer> findAll(LlmAnswerProjection projection) {
+        return jdbcTemplate.query(String.format(SQL_FIND_ALL, projection.columns()), new LlmAnswerRowMapper(projection));
     }
 
     /**
@@ -555,22 +779,59 @@ public class LlmAnswerRepository {
      * @return LLM回答列表
      */
     public List<LlmAnswer> findAllById(List<Long> ids) {
+        return findAllById(ids, LlmAnswerProjection.FULL);
+    }
+
+    /**
+     * 根据ID列表按投影查找LLM回答，ID较多时分批查询
+     *
+     * @param ids LLM回答ID列表
+     * @param projection 列投影
+     * @return LLM回答列表，未查询的列为null
+     */
+    public List<LlmAnswer> findAllById(List<Long> ids, LlmAnswerProjection projection) {
         if (ids == null || ids.isEmpty()) {
             return List.of();
         }
         
-        // 构建IN子句的占位符
-        String placeholders = String.join(",", ids.stream()
-                .map(id -> "?")
-                .collect(Collectors.toList()));
-        
-        // 构建完整的SQL查询
-        String sql = String.format(SQL_FIND_BY_IDS, placeholders);
-        
-        // 将ID列表转换为Object数组
-        Object[] params = ids.toArray();
+        List<LlmAnswer> answers = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += AssociationLoader.MAX_IN_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + AssociationLoader.MAX_IN_SIZE, ids.size()));
+            String sql = String.format(SQL_FIND_BY_IDS, projection.columns(),
+                    AssociationLoader.placeholders(chunk.size()));
+            answers.addAll(jdbcTemplate.query(sql, new LlmAnswerRowMapper(projection), chunk.toArray()));
+        }
+        return answers;
+    }
+
+    /**
+     * 为按较窄投影查询的回答批量加载大文本列（回答文本、提示词、原始响应和元数据）
+     *
+     * @param answers 回答列表，直接在原对象上填充
+     * @return 传入的回答列表
+     */
+    public List<LlmAnswer> loadLargeText(List<LlmAnswer> answers) {
+        if (answers == null || answers.isEmpty()) {
+            return answers;
+        }
         
-        return jdbcTemplate.query(sql, params, new LlmAnswerRowMapper());
+        Map<Long, List<LlmAnswer>> answersById = new HashMap<>();
+        for (LlmAnswer answer : answers) {
+            answersById.computeIfAbsent(answer.getId(), k -> new ArrayList<>()).add(answer);
+        }
+        List<Long> ids = new ArrayList<>(answersById.keySet());
+        for (int from = 0; from < ids.size(); from += AssociationLoader.MAX_IN_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + AssociationLoader.MAX_IN_SIZE, ids.size()));
+            jdbcTemplate.query(
+                    String.format(SQL_FIND_LARGE_TEXT_BY_IDS, AssociationLoader.placeholders(chunk.size())),
+                    (RowCallbackHandler) rs -> {
+                        for (LlmAnswer answer : answersById.get(rs.getLong("id"))) {
+                            mapLargeText(rs, answer);
+                        }
+                    },
+                    chunk.toArray());
+        }
+        return answers;
     }
 
     /**
@@ -621,10 +882,23 @@ public class LlmAnswerRepository {
      * LLM回答行映射器
      */
     private class LlmAnswerRowMapper implements RowMapper<LlmAnswer> {
+        private final LlmAnswerProjection projection;
+
+        LlmAnswerRowMapper() {
+            this(LlmAnswerProjection.FULL);
+        }
+
+        LlmAnswerRowMapper(LlmAnswerProjection projection) {
+            this.projection = projection;
+        }
+
         @Override
         public LlmAnswer mapRow(ResultSet rs, int rowNum) throws SQLException {
             LlmAnswer llmAnswer = new LlmAnswer();
             llmAnswer.setId(rs.getLong("id"));
+            if (projection == LlmAnswerProjection.ID_ONLY) {
+                return llmAnswer;
+            }
             
             // 设置模型回答运行
             Long modelAnswerRunId = rs.getLong("model_answer_run_id");
@@ -642,9 +916,6 @@ public class LlmAnswerRepository {
                 llmAnswer.setDatasetQuestionMapping(datasetQuestionMapping);
             }
             
-            // 设置回答文本
-            llmAnswer.setAnswerText(rs.getString("answer_text"));
-            
             // 设置生成状态
             String generationStatusStr = rs.getString("generation_status");
             if (generationStatusStr != null) {
@@ -660,21 +931,30 @@ public class LlmAnswerRepository {
                 llmAnswer.setGenerationTime(generationTime.toLocalDateTime());
             }
             
-            // 设置使用的提示词
-            llmAnswer.setPromptUsed(rs.getString("prompt_used"));
-            
-            // 设置原始模型响应
-            llmAnswer.setRawModelResponse(rs.getString("raw_model_response"));
-            
-            // 设置其他元数据
-            llmAnswer.setOtherMetadata(rs.getString("other_metadata"));
-            
             // 设置重复索引
             llmAnswer.setRepeatIndex(rs.getInt("repeat_index"));
             
+            // 设置流式生成指标
+            llmAnswer.setFirstTokenMs(rs.getObject("first_token_ms", Long.class));
+            llmAnswer.setTokensPerSecond(rs.getBigDecimal("tokens_per_second"));
+            
+            if (projection == LlmAnswerProjection.FULL) {
+                mapLargeText(rs, llmAnswer);
+            }
+            
             return llmAnswer;
         }
     }
+
+    /**
+     * 填充回答的大文本列
+     */
+    private static void mapLargeText(ResultSet rs, LlmAnswer llmAnswer) throws SQLException {
+        llmAnswer.setAnswerText(rs.getString("answer_text"));
+        llmAnswer.setPromptUsed(rs.getString("prompt_used"));
+        llmAnswer.setRawModelResponse(rs.getString("raw_model_response"));
+        llmAnswer.setOtherMetadata(rs.getString("other_metadata"));
+    }
     
     /**
      * 带问题的LLM回答行映射器
@@ -708,6 +988,14 @@ public class LlmAnswerRepository {
      * 带完整问题信息的LLM回答行映射器
      */
     private class LlmAnswerWithFullQuestionRowMapper extends LlmAnswerRowMapper {
+        LlmAnswerWithFullQuestionRowMapper() {
+            super();
+        }
+
+        LlmAnswerWithFullQuestionRowMapper(LlmAnswerProjection projection) {
+            super(projection);
+        }
+
         @Override
         public LlmAnswer mapRow(ResultSet rs, int rowNum) throws SQLException {
             // 首先获取基本的LLM回答对象
@@ -717,14 +1005,14 @@ public class LlmAnswerRepository {
                 // 检查dqm_id是否为空
                 Long dqmId = rs.getLong("dqm_id");
                 if (rs.wasNull()) {
-                    System.out.println("回答ID: " + llmAnswer.getId() + ", dqm_id为空");
+                    logger.debug("回答ID: {}, dqm_id为空", llmAnswer.getId());
                     return llmAnswer; // 如果dataset_question_mapping_id为空，直接返回
                 }
                 
                 // 检查sq_id是否为空
                 Long sqId = rs.getLong("sq_id");
                 if (rs.wasNull()) {
-                    System.out.println("回答ID: " + llmAnswer.getId() + ", sq_id为空");
+                    logger.debug("回答ID: {}, sq_id为空", llmAnswer.getId());
                     // 创建DatasetQuestionMapping，但不包含StandardQuestion
                     DatasetQuestionMapping dqm = new DatasetQuestionMapping();
                     dqm.setId(dqmId);
@@ -745,7 +1033,7 @@ public class LlmAnswerRepository {
                 if (questionText != null) {
                     sq.setQuestionText(questionText);
                 } else {
-                    System.out.println("回答ID: " + llmAnswer.getId() + ", question_text为空");
+                    logger.debug("回答ID: {}, question_text为空", llmAnswer.getId());
                 }
                 
                 // 处理问题类型
@@ -754,12 +1042,12 @@ public class LlmAnswerRepository {
                     try {
                         sq.setQuestionType(com.example.demo.entity.jdbc.QuestionType.valueOf(questionTypeStr));
                     } catch (IllegalArgumentException e) {
-                        System.out.println("回答ID: " + llmAnswer.getId() + ", 问题类型转换错误: " + questionTypeStr);
+                        logger.debug("回答ID: {}, 问题类型转换错误: {}", llmAnswer.getId(), questionTypeStr);
                         // 如果问题类型无效，设置为默认类型
                         sq.setQuestionType(com.example.demo.entity.jdbc.QuestionType.SUBJECTIVE);
                     }
                 } else {
-                    System.out.println("回答ID: " + llmAnswer.getId() + ", question_type为空");
+                    logger.debug("回答ID: {}, question_type为空", llmAnswer.getId());
                     sq.setQuestionType(com.example.demo.entity.jdbc.QuestionType.SUBJECTIVE);
                 }
                 
@@ -1043,140 +1331,6 @@ public class LlmAnswerRepository {
         return jdbcTemplate.queryForObject(sql, params.toArray(), Long.class);
     }
     
-    /**
-     * 获取待人工评测的回答
-     *
-     * @param evaluatorIds 评测者ID列表
-     * @param batchId 批次ID
-     * @param modelIds 模型ID列表，如果为null则查询所有模型
-     * @param questionType 问题类型，如果为null则查询所有类型
-     * @param pageable 分页信息
-     * @return 包含待评测回答信息的Map列表
-     */
-    public List<Map<String, Object>> findPendingAnswersForHumanEvaluation(
-            List<Long> evaluatorIds, Long batchId, List<Long> modelIds, 
-            com.example.demo.entity.jdbc.QuestionType questionType, 
-            org.springframework.data.domain.Pageable pageable) {
-        
-        String evaluatorInClause = String.join(",", Collections.nCopies(evaluatorIds.size(), "?"));
-        String sql;
-        Object[] params;
-        
-        if (modelIds != null && !modelIds.isEmpty()) {
-            // 有模型ID列表，使用 IN 子句
-            String modelInClause = String.join(",", Collections.nCopies(modelIds.size(), "?"));
-            sql = String.format(SQL_FIND_PENDING_ANSWERS_FOR_HUMAN_EVALUATION, evaluatorInClause, modelInClause);
-            
-            params = new Object[evaluatorIds.size() + modelIds.size() + 6];
-            
-            int paramIndex = 0;
-            for (Long evaluatorId : evaluatorIds) {
-                params[paramIndex++] = evaluatorId;
-            }
-            
-            params[paramIndex++] = batchId;
-            params[paramIndex++] = 1; // 非空标志
-            
-            for (Long modelId : modelIds) {
-                params[paramIndex++] = modelId;
-            }
-            
-            params[paramIndex++] = questionType == null ? null : 1; // 非空标志
-            params[paramIndex++] = questionType == null ? null : questionType.name();
-            params[paramIndex++] = pageable.getPageSize();
-            params[paramIndex++] = pageable.getOffset();
-        } else {
-            // 没有模型ID列表，不使用 IN 子句
-            sql = String.format(SQL_FIND_PENDING_ANSWERS_FOR_HUMAN_EVALUATION, evaluatorInClause, "");
-            
-            params = new Object[evaluatorIds.size() + 5];
-            
-            int paramIndex = 0;
-            for (Long evaluatorId : evaluatorIds) {
-                params[paramIndex++] = evaluatorId;
-            }
-            
-            params[paramIndex++] = batchId;
-            params[paramIndex++] = null;
-            params[paramIndex++] = questionType == null ? null : 1; // 非空标志
-            params[paramIndex++] = questionType == null ? null : questionType.name();
-            params[paramIndex++] = pageable.getPageSize();
-            params[paramIndex++] = pageable.getOffset();
-        }
-        
-        return jdbcTemplate.query(sql, params, (rs, rowNum) -> {
-            Map<String, Object> result = new HashMap<>();
-            result.put("answerId", rs.getLong("answer_id"));
-            result.put("answerText", rs.getString("answer_text"));
-            result.put("runId", rs.getLong("run_id"));
-            result.put("modelId", rs.getLong("model_id"));
-            result.put("modelName", rs.getString("model_name"));
-            result.put("questionId", rs.getLong("question_id"));
-            result.put("questionText", rs.getString("question_text"));
-            result.put("questionType", rs.getString("question_type"));
-            result.put("difficultyLevel", rs.getString("difficulty_level"));
-            return result;
-        });
-    }
-    
-    /**
-     * 统计待人工评测的回答总数
-     *
-     * @param evaluatorIds 评测者ID列表
-     * @param batchId 批次ID
-     * @param modelIds 模型ID列表，如果为null则查询所有模型
-     * @param questionType 问题类型，如果为null则查询所有类型
-     * @return 总记录数
-     */
-    public long countPendingAnswersForHumanEvaluation(
-            List<Long> evaluatorIds, Long batchId, List<Long> modelIds, 
-            com.example.demo.entity.jdbc.QuestionType questionType) {
-        
-        String evaluatorInClause = String.join(",", Collections.nCopies(evaluatorIds.size(), "?"));
-        String sql;
-        Object[] params;
-        
-        if (modelIds != null && !modelIds.isEmpty()) {
-            // 有模型ID列表，使用 IN 子句
-            String modelInClause = String.join(",", Collections.nCopies(modelIds.size(), "?"));
-            sql = String.format(SQL_COUNT_PENDING_ANSWERS_FOR_HUMAN_EVALUATION, evaluatorInClause, modelInClause);
-            
-            params = new Object[evaluatorIds.size() + modelIds.size() + 4];
-            
-            int paramIndex = 0;
-            for (Long evaluatorId : evaluatorIds) {
-                params[paramIndex++] = evaluatorId;
-            }
-            
-            params[paramIndex++] = batchId;
-            params[paramIndex++] = 1; // 非空标志
-            
-            for (Long modelId : modelIds) {
-                params[paramIndex++] = modelId;
-            }
-            
-            params[paramIndex++] = questionType == null ? null : 1; // 非空标志
-            params[paramIndex++] = questionType == null ? null : questionType.name();
-        } else {
-            // 没有模型ID列表，不使用 IN 子句
-            sql = String.format(SQL_COUNT_PENDING_ANSWERS_FOR_HUMAN_EVALUATION, evaluatorInClause, "");
-            
-            params = new Object[evaluatorIds.size() + 3];
-            
-            int paramIndex = 0;
-            for (Long evaluatorId : evaluatorIds) {
-                params[paramIndex++] = evaluatorId;
-            }
-            
-            params[paramIndex++] = batchId;
-            params[paramIndex++] = null;
-            params[paramIndex++] = questionType == null ? null : 1; // 非空标志
-            params[paramIndex++] = questionType == null ? null : questionType.name();
-        }
-        
-        return jdbcTemplate.queryForObject(sql, params, Long.class);
-    }
-
     /**
      * 获取主观题回答及其所有评测员的评测结果
      *
@@ -35,11 +35,13 @@ public class LlmModelRepository {
     private final ObjectMapper objectMapper;
 
     private static final String SQL_INSERT = 
-            "INSERT INTO llm_models (name, provider, version, description, api_url, api_key, api_type, model_parameters, created_at, created_by_user_id, created_change_log_id, deleted_at) " +
-            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            "INSERT INTO llm_models (name, provider, version, description, api_url, api_key, api_type, model_parameters, created_at, created_by_user_id, created_change_log_id, deleted_at, " +
+            "requests_per_minute, tokens_per_minute, max_concurrency, connect_timeout_ms, read_timeout_ms) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
     
     private static final String SQL_UPDATE = 
-            "UPDATE llm_models SET name=?, provider=?, version=?, description=?, api_url=?, api_key=?, api_type=?, model_parameters=?, created_by_user_id=?, created_change_log_id=?, deleted_at=? " +
+            "UPDATE llm_models SET name=?, provider=?, version=?, description=?, api_url=?, api_key=?, api_type=?, model_parameters=?, created_by_user_id=?, created_change_log_id=?, deleted_at=?, " +
+            "requests_per_minute=?, tokens_per_minute=?, max_concurrency=?, connect_timeout_ms=?, read_timeout_ms=? " +
             "WHERE id=?";
     
     private static final String SQL_FIND_BY_ID = 
@@ -145,6 +147,15 @@ public class LlmModelRepository {
                 ps.setNull(12, java.sql.Types.TIMESTAMP);
             }
             
+            // 设置调用限额
+            ps.setObject(13, model.getRequestsPerMinute(), java.sql.Types.INTEGER);
+            ps.setObject(14, model.getTokensPerMinute(), java.sql.Types.INTEGER);
+            ps.setObject(15, model.getMaxConcurrency(), java.sql.Types.INTEGER);
+            
+            // 设置超时配置
+            ps.setObject(16, model.getConnectTimeoutMs(), java.sql.Types.INTEGER);
+            ps.setObject(17, model.getReadTimeoutMs(), java.sql.Types.INTEGER);
+            
             return ps;
         }, keyHolder);
 
@@ -182,6 +193,11 @@ public class LlmModelRepository {
                 model.getCreatedByUser() != null ? model.getCreatedByUser().getId() : null,
                 model.getCreatedChangeLog() != null ? model.getCreatedChangeLog().getId() : null,
                 model.getDeletedAt() != null ? Timestamp.valueOf(model.getDeletedAt()) : null,
+                model.getRequestsPerMinute(),
+                model.getTokensPerMinute(),
+                model.getMaxConcurrency(),
+                model.getConnectTimeoutMs(),
+                model.getReadTimeoutMs(),
                 model.getId());
 
         return model;
@@ -320,6 +336,15 @@ public class LlmModelRepository {
                 model.setModelParameters(new HashMap<>());
             }
             
+            // 调用限额，为空表示使用默认值
+            model.setRequestsPerMinute(rs.getObject("requests_per_minute", Integer.class));
+            model.setTokensPerMinute(rs.getObject("tokens_per_minute", Integer.class));
+            model.setMaxConcurrency(rs.getObject("max_concurrency", Integer.class));
+            
+            // 超时配置，为空表示使用默认值
+            model.setConnectTimeoutMs(rs.getObject("connect_timeout_ms", Integer.class));
+            model.setReadTimeoutMs(rs.getObject("read_timeout_ms", Integer.class));
+            
             // 设置时间
             Timestamp createdAt = rs.getTimestamp("created_at");
             if (createdAt != null) {
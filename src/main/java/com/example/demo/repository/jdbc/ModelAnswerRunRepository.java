@@ -57,8 +57,26 @@ public class ModelAnswerRunRepository {
             "pause_time=?, pause_reason=?, total_questions_count=?, completed_questions_count=?, " +
             "failed_questions_count=?, failed_questions_ids=? " +
             "WHERE id=?";
-    
-    private static final String SQL_FIND_BY_ID = 
+
+    private static final String SQL_UPDATE_PROGRESS =
+            "UPDATE model_answer_runs SET completed_questions_count=?, failed_questions_count=?, failed_questions_ids=?, " +
+            "progress_percentage=?, last_processed_question_id=?, last_processed_question_index=?, last_activity_time=? " +
+            "WHERE id=?";
+
+    // 单表UPDATE按书写顺序赋值，进度百分比使用累加后的完成数
+    private static final String SQL_INCREMENT_PROGRESS =
+            "UPDATE model_answer_runs SET completed_questions_count=completed_questions_count+?, " +
+            "failed_questions_count=failed_questions_count+?, " +
+            "failed_questions_ids=JSON_MERGE_PRESERVE(COALESCE(failed_questions_ids, JSON_ARRAY()), CAST(? AS JSON)), " +
+            "progress_percentage=LEAST(100, ROUND(completed_questions_count * 100 / ?, 2)), last_activity_time=? " +
+            "WHERE id=?";
+
+    private static final String SQL_UPDATE_STATUS =
+            "UPDATE model_answer_runs SET status=?, error_message=COALESCE(?, error_message), " +
+            "progress_percentage=CASE WHEN ?='COMPLETED' THEN 100 ELSE progress_percentage END, last_activity_time=? " +
+            "WHERE id=?";
+
+    private static final String SQL_FIND_BY_ID =
             "SELECT * FROM model_answer_runs WHERE id=?";
     
     private static final String SQL_FIND_BY_BATCH_ID = 
@@ -447,6 +465,73 @@ public class ModelAnswerRunRepository {
         return modelAnswerRun;
     }
 
+    /**
+     * 仅更新运行的进度与断点字段，避免并发处理时整行覆盖其他字段
+     *
+     * @param modelAnswerRun 模型回答运行对象（使用其中的进度、断点和失败问题字段）
+     */
+    public void updateProgress(ModelAnswerRun modelAnswerRun) {
+        String failedIdsJson = "[]";
+        if (modelAnswerRun.getFailedQuestionsIds() != null) {
+            try {
+                failedIdsJson = new ObjectMapper().writeValueAsString(modelAnswerRun.getFailedQuestionsIds());
+            } catch (Exception e) {
+                failedIdsJson = "[]";
+            }
+        }
+
+        jdbcTemplate.update(SQL_UPDATE_PROGRESS,
+                modelAnswerRun.getCompletedQuestionsCount(),
+                modelAnswerRun.getFailedQuestionsCount(),
+                failedIdsJson,
+                modelAnswerRun.getProgressPercentage(),
+                modelAnswerRun.getLastProcessedQuestionId(),
+                modelAnswerRun.getLastProcessedQuestionIndex(),
+                modelAnswerRun.getLastActivityTime() != null ?
+                        Timestamp.valueOf(modelAnswerRun.getLastActivityTime()) : Timestamp.valueOf(LocalDateTime.now()),
+                modelAnswerRun.getId());
+    }
+
+    /**
+     * 累加运行的完成数和失败数并追加失败问题ID，多个实例同时处理同一运行的不同工作单元时不会互相覆盖
+     *
+     * @param runId 运行ID
+     * @param completedDelta 新增完成数
+     * @param failedDelta 新增失败数
+     * @param failedQuestionIds 新增失败的问题ID
+     * @param totalQuestions 运行的总问题数，用于计算进度百分比
+     * @return 累加后的完成数
+     */
+    public int incrementProgress(Long runId, int completedDelta, int failedDelta, List<Long> failedQuestionIds,
+                                 int totalQuestions) {
+        String failedIdsJson = "[]";
+        if (failedQuestionIds != null && !failedQuestionIds.isEmpty()) {
+            try {
+                failedIdsJson = new ObjectMapper().writeValueAsString(failedQuestionIds);
+            } catch (Exception e) {
+                failedIdsJson = "[]";
+            }
+        }
+
+        jdbcTemplate.update(SQL_INCREMENT_PROGRESS, completedDelta, failedDelta, failedIdsJson,
+                Math.max(1, totalQuestions), Timestamp.valueOf(LocalDateTime.now()), runId);
+        Integer completed = jdbcTemplate.queryForObject(
+                "SELECT completed_questions_count FROM model_answer_runs WHERE id=?", Integer.class, runId);
+        return completed != null ? completed : 0;
+    }
+
+    /**
+     * 仅更新运行状态和错误信息，不覆盖由工作单元累加的进度字段
+     *
+     * @param runId 运行ID
+     * @param status 新状态
+     * @param errorMessage 错误信息，为null时保留原值
+     */
+    public void updateStatus(Long runId, RunStatus status, String errorMessage) {
+        jdbcTemplate.update(SQL_UPDATE_STATUS, status.name(), errorMessage, status.name(),
+                Timestamp.valueOf(LocalDateTime.now()), runId);
+    }
+
     /**
      * 根据ID查找模型回答运行
      *
@@ -0,0 +1,297 @@
+package com.example.demo.repository.jdbc;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entity.jdbc.Evaluation;
+
+/**
+ * 模型批次评分增量维护仓库
+ *
+ * 评测保存时把成功评测的标准化分数累加到model_batch_scores中评测者为空的汇总行：
+ * 综合评分OVERALL、客观题OBJECTIVE和各评分维度，每项同时维护对应重复索引和-1（所有重复索引）两行。
+ * 行中保存分数累计和score_sum与计数，平均分由二者得出，排名无需全量重算即可保持最新。
+ * 移除分数时无法还原最高分、最低分，二者在下一次全量计算时校正；
+ * 主观题按评测者的统计依赖评测者是否完成全部评测，只在全量计算时生成。
+ */
+@Repository
+public class ModelBatchScoreRepository {
+
+    // 不作为评分维度单独统计的评分类型
+    public static final List<String> AGGREGATE_SCORE_TYPES = List.of("OVERALL", "OBJECTIVE", "SUBJECTIVE");
+
+    // 计入客观题评分的题型
+    public static final List<String> OBJECTIVE_QUESTION_TYPES = List.of("SINGLE_CHOICE", "MULTIPLE_CHOICE");
+
+    // 所有重复索引汇总行使用的重复索引
+    public static final int ALL_REPEATS = -1;
+
+    private static final String SQL_FIND_ANSWER_CONTEXTS =
+            "SELECT la.id, mar.answer_generation_batch_id, mar.llm_model_id, la.repeat_index, sq.question_type " +
+            "FROM llm_answers la " +
+            "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
+            "LEFT JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id " +
+            "LEFT JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
+            "WHERE la.id IN (%s)";
+
+    // ON DUPLICATE KEY UPDATE按书写顺序赋值，平均分使用已累加后的score_sum和scored_answers
+    private static final String SQL_ACCUMULATE =
+            "INSERT INTO model_batch_scores (batch_id, model_id, evaluator_id, score_type, average_score, " +
+            "total_answers, scored_answers, score_sum, max_score, min_score, repeat_index, created_by_user_id) " +
+            "VALUES (?, ?, NULL, ?, ?, ?, ?, ?, ?, ?, ?, 1) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "score_sum = COALESCE(score_sum, 0) + VALUES(score_sum), " +
+            "scored_answers = scored_answers + VALUES(scored_answers), " +
+            "total_answers = total_answers + VALUES(total_answers), " +
+            "average_score = score_sum / scored_answers, " +
+            "max_score = GREATEST(COALESCE(max_score, VALUES(max_score)), VALUES(max_score)), " +
+            "min_score = LEAST(COALESCE(min_score, VALUES(min_score)), VALUES(min_score))";
+
+    private static final String SQL_DEDUCT =
+            "UPDATE model_batch_scores SET " +
+            "score_sum = GREATEST(COALESCE(score_sum, 0) - ?, 0), " +
+            "scored_answers = GREATEST(scored_answers - ?, 0), " +
+            "total_answers = GREATEST(total_answers - ?, 0), " +
+            "average_score = CASE WHEN scored_answers > 0 THEN score_sum / scored_answers ELSE 0 END " +
+            "WHERE batch_id = ? AND model_id = ? AND evaluator_id IS NULL AND score_type = ? AND repeat_index = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ModelBatchScoreRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 将成功评测的分数累加到所属批次和模型的汇总行
+     *
+     * @param evaluations 已保存的评测，非成功状态或没有标准化分数的评测被忽略
+     */
+    public void accumulate(List<Evaluation> evaluations) {
+        Map<ScoreKey, ScoreDelta> deltas = collectDeltas(evaluations);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<ScoreKey, ScoreDelta>> entries = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(SQL_ACCUMULATE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ScoreKey key = entries.get(i).getKey();
+                ScoreDelta delta = entries.get(i).getValue();
+                ps.setLong(1, key.batchId);
+                ps.setLong(2, key.modelId);
+                ps.setString(3, key.scoreType);
+                ps.setBigDecimal(4, delta.sum.divide(BigDecimal.valueOf(delta.count), 2, RoundingMode.HALF_UP));
+                ps.setInt(5, delta.count);
+                ps.setInt(6, delta.count);
+                ps.setBigDecimal(7, delta.sum);
+                ps.setBigDecimal(8, delta.max);
+                ps.setBigDecimal(9, delta.min);
+                ps.setInt(10, key.repeatIndex);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    /**
+     * 从所属批次和模型的汇总行中扣除评测原有的分数
+     *
+     * @param evaluations 被覆盖或删除前的评测，非成功状态或没有标准化分数的评测被忽略
+     */
+    public void deduct(List<Evaluation> evaluations) {
+        Map<ScoreKey, ScoreDelta> deltas = collectDeltas(evaluations);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<ScoreKey, ScoreDelta>> entries = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(SQL_DEDUCT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ScoreKey key = entries.get(i).getKey();
+                ScoreDelta delta = entries.get(i).getValue();
+                ps.setBigDecimal(1, delta.sum);
+                ps.setInt(2, delta.count);
+                ps.setInt(3, delta.count);
+                ps.setLong(4, key.batchId);
+                ps.setLong(5, key.modelId);
+                ps.setString(6, key.scoreType);
+                ps.setInt(7, key.repeatIndex);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    /**
+     * 判断评测是否计入模型批次评分
+     */
+    public static boolean isScored(Evaluation evaluation) {
+        return evaluation != null
+                && evaluation.getStatus() == Evaluation.EvaluationStatus.SUCCESS
+                && evaluation.getNormalizedScore() != null
+                && evaluation.getLlmAnswer() != null
+                && evaluation.getLlmAnswer().getId() != null;
+    }
+
+    /**
+     * 按汇总行合并评测分数，键有序以便并发更新时按相同顺序加锁
+     */
+    private Map<ScoreKey, ScoreDelta> collectDeltas(List<Evaluation> evaluations) {
+        Map<ScoreKey, ScoreDelta> deltas = new TreeMap<>();
+        if (evaluations == null || evaluations.isEmpty()) {
+            return deltas;
+        }
+
+        List<Evaluation> scored = new ArrayList<>();
+        List<Long> answerIds = new ArrayList<>();
+        for (Evaluation evaluation : evaluations) {
+            if (isScored(evaluation)) {
+                scored.add(evaluation);
+                answerIds.add(evaluation.getLlmAnswer().getId());
+            }
+        }
+        if (scored.isEmpty()) {
+            return deltas;
+        }
+
+        Map<Long, AnswerContext> contexts = findAnswerContexts(answerIds);
+        for (Evaluation evaluation : scored) {
+            AnswerContext context = contexts.get(evaluation.getLlmAnswer().getId());
+            if (context == null) {
+                continue;
+            }
+            BigDecimal score = evaluation.getNormalizedScore();
+            List<String> scoreTypes = new ArrayList<>(3);
+            scoreTypes.add("OVERALL");
+            if (context.questionType != null && OBJECTIVE_QUESTION_TYPES.contains(context.questionType)) {
+                scoreTypes.add("OBJECTIVE");
+            }
+            String dimension = evaluation.getScoreType();
+            if (dimension != null && !AGGREGATE_SCORE_TYPES.contains(dimension)) {
+                scoreTypes.add(dimension);
+            }
+            for (String scoreType : scoreTypes) {
+                deltas.computeIfAbsent(new ScoreKey(context.batchId, context.modelId, scoreType, context.repeatIndex),
+                        k -> new ScoreDelta()).add(score);
+                deltas.computeIfAbsent(new ScoreKey(context.batchId, context.modelId, scoreType, ALL_REPEATS),
+                        k -> new ScoreDelta()).add(score);
+            }
+        }
+        return deltas;
+    }
+
+    private Map<Long, AnswerContext> findAnswerContexts(List<Long> answerIds) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(answerIds));
+        Map<Long, AnswerContext> contexts = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += AssociationLoader.MAX_IN_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + AssociationLoader.MAX_IN_SIZE, distinctIds.size()));
+            String sql = String.format(SQL_FIND_ANSWER_CONTEXTS, AssociationLoader.placeholders(chunk.size()));
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                AnswerContext context = new AnswerContext();
+                context.batchId = rs.getLong("answer_generation_batch_id");
+                context.modelId = rs.getLong("llm_model_id");
+                context.repeatIndex = rs.getInt("repeat_index");
+                context.questionType = rs.getString("question_type");
+                contexts.put(rs.getLong("id"), context);
+            }, chunk.toArray());
+        }
+        return contexts;
+    }
+
+    /**
+     * 回答所属的批次、模型、重复索引和题型
+     */
+    private static class AnswerContext {
+        private long batchId;
+        private long modelId;
+        private int repeatIndex;
+        private String questionType;
+    }
+
+    /**
+     * 汇总行的键，与唯一键UK_MODEL_BATCH_SCORES中评测者为空的行对应
+     */
+    private static class ScoreKey implements Comparable<ScoreKey> {
+        private final long batchId;
+        private final long modelId;
+        private final String scoreType;
+        private final int repeatIndex;
+
+        ScoreKey(long batchId, long modelId, String scoreType, int repeatIndex) {
+            this.batchId = batchId;
+            this.modelId = modelId;
+            this.scoreType = scoreType;
+            this.repeatIndex = repeatIndex;
+        }
+
+        @Override
+        public int compareTo(ScoreKey other) {
+            int result = Long.compare(batchId, other.batchId);
+            if (result == 0) {
+                result = Long.compare(modelId, other.modelId);
+            }
+            if (result == 0) {
+                result = scoreType.compareTo(other.scoreType);
+            }
+            if (result == 0) {
+                result = Integer.compare(repeatIndex, other.repeatIndex);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ScoreKey)) {
+                return false;
+            }
+            return compareTo((ScoreKey) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(batchId, modelId, scoreType, repeatIndex);
+        }
+    }
+
+    /**
+     * 一个汇总行上待累加的分数
+     */
+    private static class ScoreDelta {
+        private int count;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private BigDecimal max;
+        private BigDecimal min;
+
+        void add(BigDecimal score) {
+            count++;
+            sum = sum.add(score);
+            max = max == null || score.compareTo(max) > 0 ? score : max;
+            min = min == null || score.compareTo(min) < 0 ? score : min;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.springframework.stereotype.Repository;
 
 import com.example.demo.entity.jdbc.RawAnswer;
 import com.example.demo.entity.jdbc.RawQuestion;
+import com.example.demo.utils.FullTextQuery;
 
 /**
  * 基于JDBC的原始问题仓库实?
@@ -76,6 +77,12 @@ public class RawQuestionRepository {
     private static final String SQL_COUNT_BY_TITLE_OR_CONTENT = 
             "SELECT COUNT(*) FROM RAW_QUESTIONS WHERE LOWER(TITLE) LIKE LOWER(?) OR LOWER(CONTENT) LIKE LOWER(?)";
     
+    private static final String SQL_FIND_BY_FULLTEXT = 
+            "SELECT * FROM RAW_QUESTIONS WHERE MATCH(TITLE, CONTENT) AGAINST(? IN BOOLEAN MODE) ORDER BY ID DESC";
+    
+    private static final String SQL_COUNT_BY_FULLTEXT = 
+            "SELECT COUNT(*) FROM RAW_QUESTIONS WHERE MATCH(TITLE, CONTENT) AGAINST(? IN BOOLEAN MODE)";
+    
     private static final String SQL_FIND_BY_TAG_NAMES = 
             "SELECT DISTINCT rq.* FROM RAW_QUESTIONS rq " +
             "JOIN RAW_QUESTION_TAGS qt ON rq.ID = qt.RAW_QUESTION_ID " +
@@ -416,6 +423,11 @@ public class RawQuestionRepository {
      */
     public Page<RawQuestion> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(
             String titleKeyword, String contentKeyword, Pageable pageable) {
+        // 标题和内容使用同一关键词时走全文索引
+        if (titleKeyword != null && titleKeyword.equals(contentKeyword) && FullTextQuery.isIndexable(titleKeyword)) {
+            return findByFullText(titleKeyword, pageable);
+        }
+        
         // 添加通配符用于模糊查?
         String titleLikePattern = "%" + titleKeyword + "%";
         String contentLikePattern = "%" + contentKeyword + "%";
@@ -428,16 +440,52 @@ public class RawQuestionRepository {
             contentLikePattern
         );
         
-        // 查询数据
-        List<RawQuestion> content = jdbcTemplate.query(
-            SQL_FIND_BY_TITLE_OR_CONTENT,
-            new RawQuestionRowMapper(),
-            titleLikePattern,
-            contentLikePattern,
-            pageable.getPageSize(),
-            pageable.getOffset()
-        );
+        // 查询数据，高级搜索会以不分页方式调用
+        List<RawQuestion> content;
+        if (pageable.isUnpaged()) {
+            content = jdbcTemplate.query(
+                SQL_FIND_BY_TITLE_OR_CONTENT.replace(" LIMIT ? OFFSET ?", ""),
+                new RawQuestionRowMapper(),
+                titleLikePattern,
+                contentLikePattern
+            );
+        } else {
+            content = jdbcTemplate.query(
+                SQL_FIND_BY_TITLE_OR_CONTENT,
+                new RawQuestionRowMapper(),
+                titleLikePattern,
+                contentLikePattern,
+                pageable.getPageSize(),
+                pageable.getOffset()
+            );
+        }
+        
+        return new PageImpl<>(content, pageable, total != null ? total : 0);
+    }
+
+    /**
+     * 使用全文索引按标题和内容检索，按ID降序排列
+     *
+     * @param keyword 关键词，每个词都不短于ngram长度
+     * @param pageable 分页参数
+     * @return 分页结果
+     */
+    private Page<RawQuestion> findByFullText(String keyword, Pageable pageable) {
+        String booleanQuery = FullTextQuery.toBooleanQuery(keyword);
+        Integer total = jdbcTemplate.queryForObject(SQL_COUNT_BY_FULLTEXT, Integer.class, booleanQuery);
         
+        List<RawQuestion> content;
+        if (pageable.isUnpaged()) {
+            content = jdbcTemplate.query(SQL_FIND_BY_FULLTEXT, new RawQuestionRowMapper(), booleanQuery);
+        } else {
+            content = jdbcTemplate.query(
+                SQL_FIND_BY_FULLTEXT + " LIMIT ? OFFSET ?",
+                new RawQuestionRowMapper(),
+                booleanQuery,
+                pageable.getPageSize(),
+                pageable.getOffset()
+            );
+        }
         return new PageImpl<>(content, pageable, total != null ? total : 0);
     }
 
@@ -7,10 +7,15 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +37,8 @@ import com.example.demo.entity.jdbc.RawQuestion;
 import com.example.demo.entity.jdbc.StandardQuestion;
 import com.example.demo.entity.jdbc.StandardQuestionTag;
 import com.example.demo.entity.jdbc.Tag;
+import com.example.demo.entity.jdbc.User;
+import com.example.demo.utils.FullTextQuery;
 
 /**
  * 基于JDBC的标准问题仓库实现
@@ -42,8 +49,8 @@ public class StandardQuestionRepository {
     private static final Logger logger = LoggerFactory.getLogger(StandardQuestionRepository.class);
     
     private final JdbcTemplate jdbcTemplate;
-    private final UserRepository userRepository;
     private final StandardQuestionTagRepository standardQuestionTagRepository;
+    private final AssociationLoader associationLoader;
 
     private static final String SQL_INSERT = 
             "INSERT INTO standard_questions (original_raw_question_id, question_text, question_type, difficulty, " +
@@ -116,6 +123,10 @@ public class StandardQuestionRepository {
             "SELECT * FROM standard_questions " +
             "WHERE question_text LIKE ? AND deleted_at IS NULL";
     
+    private static final String SQL_FIND_BY_QUESTION_TEXT_FULLTEXT = 
+            "SELECT * FROM standard_questions " +
+            "WHERE MATCH(question_text) AGAINST(? IN BOOLEAN MODE) AND deleted_at IS NULL";
+    
     private static final String SQL_FIND_LATEST_VERSIONS = 
             "SELECT sq.*, t.id as tag_id, t.tag_name, t.tag_type " +
             "FROM standard_questions sq " +
@@ -134,16 +145,51 @@ public class StandardQuestionRepository {
             "  WHERE child.parent_standard_question_id = sq.id AND child.deleted_at IS NULL" +
             ") AND sq.deleted_at IS NULL";
     
+    private static final String SQL_FIND_EXISTING_IDS = 
+            "SELECT id FROM standard_questions WHERE id IN (%s) AND deleted_at IS NULL";
+    
+    private static final String SQL_FIND_BY_IDS = 
+            "SELECT sq.*, t.id as tag_id, t.tag_name, t.tag_type " +
+            "FROM standard_questions sq " +
+            "LEFT JOIN standard_question_tags sqt ON sq.id = sqt.standard_question_id " +
+            "LEFT JOIN tags t ON sqt.tag_id = t.id " +
+            "WHERE sq.id IN (%s) AND sq.deleted_at IS NULL";
+    
+    // 问题存在与其类型对应的标准答案
+    private static final String SQL_HAS_STANDARD_ANSWER_CONDITION = 
+            "((sq.question_type IN ('SINGLE_CHOICE', 'MULTIPLE_CHOICE') AND EXISTS " +
+            "(SELECT 1 FROM standard_objective_answers soa WHERE soa.standard_question_id = sq.id)) " +
+            "OR (sq.question_type = 'SIMPLE_FACT' AND EXISTS " +
+            "(SELECT 1 FROM standard_simple_answers ssa WHERE ssa.standard_question_id = sq.id)) " +
+            "OR (sq.question_type = 'SUBJECTIVE' AND EXISTS " +
+            "(SELECT 1 FROM standard_subjective_answers ssua WHERE ssua.standard_question_id = sq.id)))";
+    
+    // 问题没有未删除的子版本，即版本树的叶子节点
+    private static final String SQL_IS_LATEST_VERSION_CONDITION = 
+            "NOT EXISTS (SELECT 1 FROM standard_questions child " +
+            "WHERE child.parent_standard_question_id = sq.id AND child.deleted_at IS NULL)";
+    
+    private static final String SQL_FIND_IDS_WITH_STANDARD_ANSWERS = 
+            "SELECT sq.id FROM standard_questions sq WHERE sq.id IN (%s) AND " + SQL_HAS_STANDARD_ANSWER_CONDITION;
+    
+    private static final String SQL_FIND_IDS_WITH_CHILDREN = 
+            "SELECT DISTINCT parent_standard_question_id FROM standard_questions " +
+            "WHERE parent_standard_question_id IN (%s) AND deleted_at IS NULL";
+    
     private static final String SQL_FIND_BY_IDS_WITH_DATASET_MAPPINGS = 
             "SELECT DISTINCT sq.* FROM standard_questions sq " +
             "JOIN dataset_question_mapping dqm ON sq.id = dqm.standard_question_id " +
             "WHERE sq.id IN (%s) AND sq.deleted_at IS NULL";
 
     @Autowired
-    public StandardQuestionRepository(JdbcTemplate jdbcTemplate, UserRepository userRepository, StandardQuestionTagRepository standardQuestionTagRepository) {
+    public StandardQuestionRepository(JdbcTemplate jdbcTemplate, StandardQuestionTagRepository standardQuestionTagRepository,
+                                      AssociationLoader associationLoader) {
         this.jdbcTemplate = jdbcTemplate;
-        this.userRepository = userRepository;
         this.standardQuestionTagRepository = standardQuestionTagRepository;
+        this.associationLoader = associationLoader;
+        associationLoader.register(StandardQuestion.class, StandardQuestion::getId, this::findByIdsWithoutAssociations,
+            (questions, context) -> context.resolve(questions, User.class,
+                StandardQuestion::getCreatedByUser, StandardQuestion::setCreatedByUser));
     }
 
     /**
@@ -263,7 +309,7 @@ public class StandardQuestionRepository {
     public Optional<StandardQuestion> findById(Long id) {
         try {
             List<StandardQuestion> results = jdbcTemplate.query(SQL_FIND_BY_ID, new Object[]{id}, new StandardQuestionRowMapper());
-            return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+            return results.isEmpty() ? Optional.empty() : Optional.of(hydrate(results).get(0));
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
@@ -275,7 +321,7 @@ public class StandardQuestionRepository {
      * @return 标准问题列表
      */
     public List<StandardQuestion> findAll() {
-        return jdbcTemplate.query(SQL_FIND_ALL, new StandardQuestionRowMapper());
+        return hydrate(jdbcTemplate.query(SQL_FIND_ALL, new StandardQuestionRowMapper()));
     }
     
     /**
@@ -292,7 +338,7 @@ public class StandardQuestionRepository {
         );
         
         Integer count = jdbcTemplate.queryForObject(SQL_COUNT_ALL, Integer.class);
-        return new PageImpl<>(questions, pageable, count != null ? count : 0);
+        return new PageImpl<>(hydrate(questions), pageable, count != null ? count : 0);
     }
     
     /**
@@ -328,7 +374,7 @@ public class StandardQuestionRepository {
                     new Object[]{rawQuestionId},
                     new StandardQuestionRowMapperWithoutTags()
             );
-            return Optional.ofNullable(question);
+            return associationLoader.hydrate(StandardQuestion.class, Optional.ofNullable(question), FetchMode.EAGER);
         } catch (EmptyResultDataAccessException e) {
             return Optional.empty();
         }
@@ -341,11 +387,11 @@ public class StandardQuestionRepository {
      * @return 标准问题列表
      */
     public List<StandardQuestion> findByParentStandardQuestionId(Long parentId) {
-        return jdbcTemplate.query(
+        return hydrate(jdbcTemplate.query(
                 SQL_FIND_BY_PARENT_STANDARD_QUESTION_ID,
                 new Object[]{parentId},
                 new StandardQuestionRowMapperWithoutTags()
-        );
+        ));
     }
     
     /**
@@ -355,11 +401,11 @@ public class StandardQuestionRepository {
      * @return 标准问题列表
      */
     public List<StandardQuestion> findByOriginalRawQuestionId(Long rawQuestionId) {
-        return jdbcTemplate.query(
+        return hydrate(jdbcTemplate.query(
                 SQL_FIND_BY_ORIGINAL_RAW_QUESTION_ID,
                 new Object[]{rawQuestionId},
                 new StandardQuestionRowMapperWithoutTags()
-        );
+        ));
     }
     
     /**
@@ -369,11 +415,23 @@ public class StandardQuestionRepository {
      * @return 标准问题列表
      */
     public List<StandardQuestion> findByDatasetVersionId(Long datasetVersionId) {
-        return jdbcTemplate.query(
+        return findByDatasetVersionId(datasetVersionId, FetchMode.EAGER);
+    }
+    
+    /**
+     * 根据数据集版本ID查找标准问题，按指定方式加载关联对象
+     *
+     * @param datasetVersionId 数据集版本ID
+     * @param fetchMode 关联对象加载方式，LAZY时创建者只包含ID
+     * @return 标准问题列表
+     */
+    public List<StandardQuestion> findByDatasetVersionId(Long datasetVersionId, FetchMode fetchMode) {
+        List<StandardQuestion> questions = jdbcTemplate.query(
                 SQL_FIND_BY_DATASET_VERSION_ID,
                 new Object[]{datasetVersionId},
                 new StandardQuestionRowMapperWithoutTags()
         );
+        return associationLoader.hydrate(StandardQuestion.class, questions, fetchMode);
     }
     
     /**
@@ -383,11 +441,11 @@ public class StandardQuestionRepository {
      * @return 标准问题列表
      */
     public List<StandardQuestion> findByDatasetVersionIdWithTags(Long datasetVersionId) {
-        return jdbcTemplate.query(
+        return hydrate(jdbcTemplate.query(
                 SQL_FIND_BY_DATASET_VERSION_ID_WITH_TAGS,
                 new Object[]{datasetVersionId},
                 new StandardQuestionRowMapper()
-        );
+        ));
     }
     
     /**
@@ -397,11 +455,18 @@ public class StandardQuestionRepository {
      * @return 标准问题列表
      */
     public List<StandardQuestion> findByQuestionTextContaining(String questionText) {
-        return jdbcTemplate.query(
+        if (FullTextQuery.isIndexable(questionText)) {
+            return hydrate(jdbcTemplate.query(
+                    SQL_FIND_BY_QUESTION_TEXT_FULLTEXT,
+                    new StandardQuestionRowMapperWithoutTags(),
+                    FullTextQuery.toBooleanQuery(questionText)
+            ));
+        }
+        return hydrate(jdbcTemplate.query(
                 SQL_FIND_BY_QUESTION_TEXT_CONTAINING,
                 new Object[]{"%" + questionText + "%"},
                 new StandardQuestionRowMapperWithoutTags()
-        );
+        ));
     }
     
     /**
@@ -418,7 +483,7 @@ public class StandardQuestionRepository {
         );
         
         Integer count = jdbcTemplate.queryForObject(SQL_COUNT_LATEST_VERSIONS, Integer.class);
-        return new PageImpl<>(questions, pageable, count != null ? count : 0);
+        return new PageImpl<>(hydrate(questions), pageable, count != null ? count : 0);
     }
     
     /**
@@ -442,7 +507,28 @@ public class StandardQuestionRepository {
         }
         
         String sql = String.format(SQL_FIND_BY_IDS_WITH_DATASET_MAPPINGS, placeholders.toString());
-        return jdbcTemplate.query(sql, questionIds.toArray(), new StandardQuestionRowMapperWithoutTags());
+        return hydrate(jdbcTemplate.query(sql, questionIds.toArray(), new StandardQuestionRowMapperWithoutTags()));
+    }
+
+    /**
+     * 从给定ID中筛选出存在且未删除的标准问题ID
+     *
+     * @param questionIds 问题ID集合
+     * @return 存在的问题ID集合
+     */
+    public Set<Long> findExistingIds(Collection<Long> questionIds) {
+        Set<Long> existingIds = new HashSet<>();
+        if (questionIds == null || questionIds.isEmpty()) {
+            return existingIds;
+        }
+        
+        List<Long> ids = new ArrayList<>(questionIds);
+        for (int from = 0; from < ids.size(); from += AssociationLoader.MAX_IN_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + AssociationLoader.MAX_IN_SIZE, ids.size()));
+            String sql = String.format(SQL_FIND_EXISTING_IDS, AssociationLoader.placeholders(chunk.size()));
+            existingIds.addAll(jdbcTemplate.queryForList(sql, Long.class, chunk.toArray()));
+        }
+        return existingIds;
     }
 
     /**
@@ -486,7 +572,134 @@ public class StandardQuestionRepository {
         params[tagNames.size()] = tagNames.size();
         
         // 执行查询
-        return jdbcTemplate.query(sql.toString(), params, new StandardQuestionRowMapperWithoutTags());
+        return hydrate(jdbcTemplate.query(sql.toString(), params, new StandardQuestionRowMapperWithoutTags()));
+    }
+
+    /**
+     * 按条件搜索标准问题，过滤、排序和分页都在数据库中完成
+     *
+     * 结果按ID升序排列。afterId不为空时使用键集分页（id > afterId），忽略offset；
+     * 先在子查询中取出当前页的问题ID，再关联标签，查询代价只与页大小有关。
+     *
+     * @param tagNames 标签名列表，问题需包含全部标签
+     * @param keyword 问题文本关键词
+     * @param onlyLatest 是否只返回最新版本（没有子版本的问题）
+     * @param onlyWithStandardAnswers 是否只返回有标准答案的问题
+     * @param afterId 上一页最后一个问题ID
+     * @param offset 偏移量，afterId不为空时忽略
+     * @param limit 返回数量
+     * @return 标准问题列表（包含标签）
+     */
+    public List<StandardQuestion> search(List<String> tagNames, String keyword, boolean onlyLatest,
+                                         boolean onlyWithStandardAnswers, Long afterId, long offset, int limit) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder idQuery = new StringBuilder("SELECT sq.id FROM standard_questions sq WHERE sq.deleted_at IS NULL");
+        appendSearchConditions(idQuery, params, tagNames, keyword, onlyLatest, onlyWithStandardAnswers);
+        if (afterId != null) {
+            idQuery.append(" AND sq.id > ?");
+            params.add(afterId);
+        }
+        idQuery.append(" ORDER BY sq.id LIMIT ?");
+        params.add(limit);
+        if (afterId == null && offset > 0) {
+            idQuery.append(" OFFSET ?");
+            params.add(offset);
+        }
+        
+        String sql = "SELECT sq.*, t.id as tag_id, t.tag_name, t.tag_type " +
+                "FROM (" + idQuery + ") page " +
+                "JOIN standard_questions sq ON sq.id = page.id " +
+                "LEFT JOIN standard_question_tags sqt ON sq.id = sqt.standard_question_id " +
+                "LEFT JOIN tags t ON sqt.tag_id = t.id " +
+                "ORDER BY sq.id";
+        
+        // 按标签展开的多行映射为同一实例，这里去重
+        List<StandardQuestion> questions = jdbcTemplate.query(sql, new StandardQuestionRowMapper(), params.toArray())
+                .stream().distinct().collect(Collectors.toList());
+        return associationLoader.hydrate(StandardQuestion.class, questions, FetchMode.LAZY);
+    }
+    
+    /**
+     * 统计符合搜索条件的标准问题数量
+     *
+     * @param tagNames 标签名列表，问题需包含全部标签
+     * @param keyword 问题文本关键词
+     * @param onlyLatest 是否只统计最新版本
+     * @param onlyWithStandardAnswers 是否只统计有标准答案的问题
+     * @return 问题数量
+     */
+    public long countSearch(List<String> tagNames, String keyword, boolean onlyLatest, boolean onlyWithStandardAnswers) {
+        List<Object> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM standard_questions sq WHERE sq.deleted_at IS NULL");
+        appendSearchConditions(sql, params, tagNames, keyword, onlyLatest, onlyWithStandardAnswers);
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
+        return count != null ? count : 0;
+    }
+    
+    /**
+     * 在给定的问题ID中查找有标准答案的问题
+     *
+     * @param questionIds 问题ID列表
+     * @return 有标准答案的问题ID集合
+     */
+    public Set<Long> findIdsWithStandardAnswers(List<Long> questionIds) {
+        if (questionIds == null || questionIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        String sql = String.format(SQL_FIND_IDS_WITH_STANDARD_ANSWERS, AssociationLoader.placeholders(questionIds.size()));
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, questionIds.toArray()));
+    }
+    
+    /**
+     * 在给定的问题ID中查找存在未删除子版本的问题
+     *
+     * @param questionIds 问题ID列表
+     * @return 有子版本的问题ID集合
+     */
+    public Set<Long> findIdsWithChildren(List<Long> questionIds) {
+        if (questionIds == null || questionIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        String sql = String.format(SQL_FIND_IDS_WITH_CHILDREN, AssociationLoader.placeholders(questionIds.size()));
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Long.class, questionIds.toArray()));
+    }
+    
+    /**
+     * 拼接搜索条件：标签全匹配、关键词、最新版本和有标准答案
+     */
+    private void appendSearchConditions(StringBuilder sql, List<Object> params, List<String> tagNames, String keyword,
+                                        boolean onlyLatest, boolean onlyWithStandardAnswers) {
+        if (tagNames != null) {
+            // 标签名不区分大小写，去重后才能与HAVING COUNT比较
+            Set<String> distinctTags = new LinkedHashSet<>();
+            for (String tagName : tagNames) {
+                if (tagName != null && !tagName.trim().isEmpty()) {
+                    distinctTags.add(tagName.trim().toLowerCase());
+                }
+            }
+            if (!distinctTags.isEmpty()) {
+                sql.append(" AND sq.id IN (SELECT sqt.standard_question_id FROM standard_question_tags sqt ")
+                   .append("JOIN tags t ON sqt.tag_id = t.id WHERE LOWER(t.tag_name) IN (")
+                   .append(AssociationLoader.placeholders(distinctTags.size()))
+                   .append(") GROUP BY sqt.standard_question_id HAVING COUNT(DISTINCT LOWER(t.tag_name)) = ?)");
+                params.addAll(distinctTags);
+                params.add(distinctTags.size());
+            }
+        }
+        if (FullTextQuery.isIndexable(keyword)) {
+            sql.append(" AND MATCH(sq.question_text) AGAINST(? IN BOOLEAN MODE)");
+            params.add(FullTextQuery.toBooleanQuery(keyword));
+        } else if (keyword != null && !keyword.trim().isEmpty()) {
+            // 单字关键词无法命中ngram索引，回退到LIKE
+            sql.append(" AND sq.question_text LIKE ?");
+            params.add("%" + keyword + "%");
+        }
+        if (onlyLatest) {
+            sql.append(" AND ").append(SQL_IS_LATEST_VERSION_CONDITION);
+        }
+        if (onlyWithStandardAnswers) {
+            sql.append(" AND ").append(SQL_HAS_STANDARD_ANSWER_CONDITION);
+        }
     }
 
     /**
@@ -495,14 +708,14 @@ public class StandardQuestionRepository {
      * @return 最新版本的标准问题列表
      */
     public List<StandardQuestion> findAllLatestVersions() {
-        return jdbcTemplate.query(
+        return hydrate(jdbcTemplate.query(
             "SELECT sq.* FROM standard_questions sq " +
             "WHERE NOT EXISTS (" +
             "  SELECT 1 FROM standard_questions child " +
             "  WHERE child.parent_standard_question_id = sq.id AND child.deleted_at IS NULL" +
             ") AND sq.deleted_at IS NULL",
             new StandardQuestionRowMapperWithoutTags()
-        );
+        ));
     }
 
     /**
@@ -526,6 +739,26 @@ public class StandardQuestionRepository {
         return count != null && count > 0;
     }
 
+    /**
+     * 根据ID列表批量查找未删除的标准问题（包含标签），创建者只包含ID
+     *
+     * @param ids 标准问题ID列表
+     * @return 标准问题列表
+     */
+    private List<StandardQuestion> findByIdsWithoutAssociations(List<Long> ids) {
+        String sql = String.format(SQL_FIND_BY_IDS, AssociationLoader.placeholders(ids.size()));
+        // 按标签展开的多行映射为同一实例，这里去重
+        return jdbcTemplate.query(sql, new StandardQuestionRowMapper(), ids.toArray())
+                .stream().distinct().collect(Collectors.toList());
+    }
+    
+    /**
+     * 批量加载查询结果中的创建者
+     */
+    private List<StandardQuestion> hydrate(List<StandardQuestion> questions) {
+        return associationLoader.hydrate(StandardQuestion.class, questions, FetchMode.EAGER);
+    }
+
     /**
      * 标准问题行映射器（不包含标签信息）
      */
@@ -575,7 +808,9 @@ public class StandardQuestionRepository {
                 // 设置创建者用户
                 Long createdByUserId = rs.getLong("created_by_user_id");
                 if (!rs.wasNull()) {
-                    userRepository.findById(createdByUserId).ifPresent(user -> newQuestion.setCreatedByUser(user));
+                    User createdByUser = new User();
+                    createdByUser.setId(createdByUserId);
+                    newQuestion.setCreatedByUser(createdByUser);
                 }
                 
                 // 修改处理父标准问题的方式，确保设置正确的父ID
@@ -656,7 +891,9 @@ public class StandardQuestionRepository {
                 // 设置创建者用户
                 Long createdByUserId = rs.getLong("created_by_user_id");
                 if (!rs.wasNull()) {
-                    userRepository.findById(createdByUserId).ifPresent(user -> newQuestion.setCreatedByUser(user));
+                    User createdByUser = new User();
+                    createdByUser.setId(createdByUserId);
+                    newQuestion.setCreatedByUser(createdByUser);
                 }
                 
                 // 修改处理父标准问题的方式，确保设置正确的父ID
@@ -743,6 +980,7 @@ public class StandardQuestionRepository {
                 questionMap.put(question.getId(), question);
             }
             
+            hydrate(results);
             return Optional.ofNullable(questionMap.get(questionId));
         } catch (Exception e) {
             logger.error("查询标准问题及其父问题失败 - 问题ID: {}", questionId, e);
@@ -792,7 +1030,7 @@ public class StandardQuestionRepository {
             "SELECT vt.* FROM version_tree vt";
         
         try {
-            return jdbcTemplate.query(sql, new Object[]{questionId}, new StandardQuestionRowMapperWithoutTags());
+            return hydrate(jdbcTemplate.query(sql, new Object[]{questionId}, new StandardQuestionRowMapperWithoutTags()));
         } catch (Exception e) {
             logger.error("使用递归SQL查询版本树失败 - 问题ID: {}", questionId, e);
             return new ArrayList<>();
@@ -2,9 +2,13 @@ package com.example.demo.repository.jdbc;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.example.demo.entity.jdbc.Tag;
 
@@ -35,4 +39,24 @@ public class StandardQuestionTagsRepository {
             return tag;
         }, questionId);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 查询数据集版本中所有问题关联的标签ID
+     * 
+     * @param datasetVersionId 数据集版本ID
+     * @return 标准问题ID到标签ID列表的映射
+     */
+    public Map<Long, List<Long>> findTagIdsByDatasetVersionId(Long datasetVersionId) {
+        String sql = "SELECT sqt.standard_question_id, sqt.tag_id FROM standard_question_tags sqt " +
+                     "JOIN dataset_question_mapping dqm ON dqm.standard_question_id = sqt.standard_question_id " +
+                     "JOIN tags t ON t.id = sqt.tag_id " +
+                     "WHERE dqm.dataset_version_id = ? AND t.deleted_at IS NULL";
+        
+        Map<Long, List<Long>> tagIds = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> 
+            tagIds.computeIfAbsent(rs.getLong("standard_question_id"), k -> new ArrayList<>())
+                  .add(rs.getLong("tag_id")),
+            datasetVersionId);
+        return tagIds;
+    }
+}
@@ -49,6 +49,12 @@ public class StandardSimpleAnswerRepository {
     private static final String SQL_FIND_BY_STANDARD_QUESTION_ID_AND_DELETED_AT_IS_NULL = 
             "SELECT * FROM standard_simple_answers WHERE standard_question_id=? AND deleted_at IS NULL";
     
+    private static final String SQL_FIND_ACTIVE_BY_ANSWER_GENERATION_BATCH_ID = 
+            "SELECT a.* FROM standard_simple_answers a " +
+            "JOIN dataset_question_mapping dqm ON a.standard_question_id = dqm.standard_question_id " +
+            "JOIN answer_generation_batches agb ON dqm.dataset_version_id = agb.dataset_version_id " +
+            "WHERE agb.id=? AND a.deleted_at IS NULL";
+    
     private static final String SQL_SOFT_DELETE = 
             "UPDATE standard_simple_answers SET deleted_at=? WHERE id=?";
     
@@ -207,6 +213,16 @@ public class StandardSimpleAnswerRepository {
         }
     }
     
+    /**
+     * 查找回答生成批次所用数据集版本中所有未删除的简单事实题答案
+     *
+     * @param batchId 回答生成批次ID
+     * @return 标准简单事实题答案列表
+     */
+    public List<StandardSimpleAnswer> findActiveByAnswerGenerationBatchId(Long batchId) {
+        return jdbcTemplate.query(SQL_FIND_ACTIVE_BY_ANSWER_GENERATION_BATCH_ID, new StandardSimpleAnswerRowMapper(), batchId);
+    }
+    
     /**
      * 软删除标准简单事实题答案
      *
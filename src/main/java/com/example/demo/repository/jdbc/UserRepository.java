@@ -19,6 +19,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -71,9 +72,13 @@ public class UserRepository {
     private static final String SQL_EXISTS_BY_ID = 
             "SELECT COUNT(*) FROM users WHERE id=? AND deleted_at IS NULL";
 
+    private static final String SQL_FIND_BY_IDS = 
+            "SELECT * FROM users WHERE id IN (%s) AND deleted_at IS NULL";
+
     @Autowired
-    public UserRepository(JdbcTemplate jdbcTemplate) {
+    public UserRepository(JdbcTemplate jdbcTemplate, AssociationLoader associationLoader) {
         this.jdbcTemplate = jdbcTemplate;
+        associationLoader.register(User.class, User::getId, this::findByIds, null);
     }
 
     /**
@@ -158,6 +163,20 @@ public class UserRepository {
         }
     }
 
+    /**
+     * 根据ID列表批量查找用户
+     *
+     * @param ids 用户ID列表
+     * @return 用户列表，不存在或已删除的ID不返回
+     */
+    public List<User> findByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String sql = String.format(SQL_FIND_BY_IDS, AssociationLoader.placeholders(ids.size()));
+        return jdbcTemplate.query(sql, new UserRowMapper(), ids.toArray());
+    }
+
     /**
      * 根据用户名查找用户
      *
@@ -396,7 +396,29 @@ public interface EvaluationService {
      * @return 待评测回答列表
      */
     Map<String, Object> getPendingHumanEvaluations(Long userId, Long evaluatorId, Long batchId, List<Long> modelIds, String questionType, int page, int size);
-    
+
+    /**
+     * 领取人工评测任务，同一批次的评测人员领取到的任务互不重叠
+     *
+     * @param userId 用户ID，作为任务租约持有者
+     * @param evaluatorId 评测者ID
+     * @param batchId 批次ID
+     * @param modelIds 模型ID列表
+     * @param questionType 问题类型
+     * @param count 领取数量，包括已持有的任务
+     * @return 领取到的任务列表
+     */
+    Map<String, Object> claimHumanEvaluationTasks(Long userId, Long evaluatorId, Long batchId, List<Long> modelIds, String questionType, int count);
+
+    /**
+     * 释放已领取但不再评测的人工评测任务
+     *
+     * @param userId 用户ID
+     * @param taskIds 任务ID列表
+     * @return 释放结果
+     */
+    Map<String, Object> releaseHumanEvaluationTasks(Long userId, List<Long> taskIds);
+
     /**
      * 获取用户已评测的回答列表
      * 
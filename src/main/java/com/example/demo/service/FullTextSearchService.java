@@ -0,0 +1,30 @@
+package com.example.demo.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Pageable;
+
+/**
+ * 问题全文检索服务接口
+ */
+public interface FullTextSearchService {
+
+    /**
+     * 全文检索标准问题
+     * @param keyword 关键词，多个词用空格分隔，需全部命中
+     * @param tags 标签列表，问题需包含全部标签
+     * @param pageable 分页参数
+     * @return 检索结果，包含高亮后的命中列表、总数和标签分布
+     */
+    Map<String, Object> searchStandardQuestions(String keyword, List<String> tags, Pageable pageable);
+
+    /**
+     * 全文检索原始问题，标题、内容或回答命中均可
+     * @param keyword 关键词，多个词用空格分隔，需全部命中
+     * @param tags 标签列表，问题需包含全部标签
+     * @param pageable 分页参数
+     * @return 检索结果，包含高亮后的命中列表、总数和标签分布
+     */
+    Map<String, Object> searchRawQuestions(String keyword, List<String> tags, Pageable pageable);
+}
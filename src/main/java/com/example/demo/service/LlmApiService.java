@@ -1,7 +1,9 @@
 package com.example.demo.service;
 
 import java.util.Map;
+import java.util.function.Consumer;
 
+import com.example.demo.dto.ModelAnswerResult;
 import com.example.demo.entity.jdbc.LlmModel;
 
 /**
@@ -42,6 +44,26 @@ public interface LlmApiService {
      */
     String generateModelAnswer(LlmModel model, String prompt, Map<String, Object> contextVariables);
     
+    /**
+     * 判断模型是否支持流式生成（OpenAI兼容接口且已启用流式）
+     * 
+     * @param model LLM模型
+     * @return 是否支持流式生成
+     */
+    boolean supportsStreaming(LlmModel model);
+    
+    /**
+     * 以流式方式使用LLM模型生成回答
+     * 
+     * @param model LLM模型
+     * @param prompt 提示词
+     * @param contextVariables 上下文变量
+     * @param onVisibleText 接收已过滤思考过程的增量文本，可为null
+     * @return 生成结果，包含首个Token耗时和生成速度；收到部分内容后中断时返回isPartial()为true的部分结果
+     */
+    ModelAnswerResult generateModelAnswerStreaming(LlmModel model, String prompt, Map<String, Object> contextVariables,
+                                                   Consumer<String> onVisibleText);
+    
     /**
      * 测试模型连通性
      * 
@@ -159,4 +159,19 @@ public interface StandardQuestionService {
      * @return 搜索结果，包含问题列表和额外信息
      */
     Map<String, Object> searchQuestions(List<String> tags, String keyword, Long userId, Boolean onlyLatest, Boolean onlyWithStandardAnswers, Pageable pageable);
+
+    /**
+     * 搜索标准问题，支持键集分页
+     * @param tags 标签列表
+     * @param keyword 关键词
+     * @param userId 当前用户ID，用于判断用户是否已回答
+     * @param onlyLatest 是否只返回叶子节点（最新版本，没有子问题的版本）
+     * @param onlyWithStandardAnswers 是否只返回有标准答案的问题
+     * @param afterId 上一页最后一个问题ID，不为空时按ID继续翻页并忽略页码
+     * @param includeTotal 是否统计总数
+     * @param pageable 分页参数
+     * @return 搜索结果，包含问题列表和额外信息
+     */
+    Map<String, Object> searchQuestions(List<String> tags, String keyword, Long userId, Boolean onlyLatest, Boolean onlyWithStandardAnswers,
+                                        Long afterId, boolean includeTotal, Pageable pageable);
 } 
\ No newline at end of file
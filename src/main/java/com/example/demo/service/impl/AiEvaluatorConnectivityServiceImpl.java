@@ -15,10 +15,10 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import com.example.demo.entity.jdbc.Evaluator;
 import com.example.demo.entity.jdbc.LlmModel;
+import com.example.demo.manager.LlmHttpClientRegistry;
 import com.example.demo.repository.jdbc.EvaluatorRepository;
 import com.example.demo.repository.jdbc.LlmModelRepository;
 import com.example.demo.service.AiEvaluatorConnectivityService;
@@ -33,7 +33,7 @@ public class AiEvaluatorConnectivityServiceImpl implements AiEvaluatorConnectivi
     
     private final EvaluatorRepository evaluatorRepository;
     private final LlmModelRepository llmModelRepository;
-    private final RestTemplate restTemplate;
+    private final LlmHttpClientRegistry llmHttpClientRegistry;
     
     // 用于测试的简单提示词
     private static final String TEST_PROMPT = "请用一句话回答：今天天气怎么样？";
@@ -42,10 +42,10 @@ public class AiEvaluatorConnectivityServiceImpl implements AiEvaluatorConnectivi
     public AiEvaluatorConnectivityServiceImpl(
             EvaluatorRepository evaluatorRepository,
             LlmModelRepository llmModelRepository,
-            RestTemplate restTemplate) {
+            LlmHttpClientRegistry llmHttpClientRegistry) {
         this.evaluatorRepository = evaluatorRepository;
         this.llmModelRepository = llmModelRepository;
-        this.restTemplate = restTemplate;
+        this.llmHttpClientRegistry = llmHttpClientRegistry;
     }
     
     @Override
@@ -160,7 +160,9 @@ public class AiEvaluatorConnectivityServiceImpl implements AiEvaluatorConnectivi
             
             Instant start = Instant.now();
             
-            ResponseEntity<Map> response = restTemplate.postForEntity(apiUrl, request, Map.class);
+            // 使用评测员模型自身的客户端，测试结果反映实际评测时的连接和超时配置
+            ResponseEntity<Map> response = llmHttpClientRegistry.getRestTemplate(llmModel)
+                    .postForEntity(apiUrl, request, Map.class);
             
             Instant end = Instant.now();
             long responseTimeMs = Duration.between(start, end).toMillis();
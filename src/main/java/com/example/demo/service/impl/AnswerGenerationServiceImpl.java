@@ -6,10 +6,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -19,9 +17,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.TransactionDefinition;
-import org.springframework.transaction.TransactionStatus;
-import org.springframework.transaction.support.DefaultTransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.demo.dto.AnswerGenerationBatchDTO;
@@ -39,6 +34,7 @@ import com.example.demo.entity.jdbc.QuestionType;
 import com.example.demo.entity.jdbc.User;
 import com.example.demo.exception.EntityNotFoundException;
 import com.example.demo.manager.BatchStateManager;
+import com.example.demo.manager.ExecutorRegistry;
 import com.example.demo.repository.jdbc.AnswerGenerationBatchRepository;
 import com.example.demo.repository.jdbc.AnswerPromptAssemblyConfigRepository;
 import com.example.demo.repository.jdbc.AnswerQuestionTypePromptRepository;
@@ -71,6 +67,7 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
     private final JdbcTemplate jdbcTemplate;
     private final PlatformTransactionManager transactionManager;
     private final BatchStateManager batchStateManager;
+    private final ExecutorRegistry executorRegistry;
     private final ExecutorService taskExecutor;
     
     @Autowired
@@ -88,7 +85,8 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
             LlmApiService llmApiService,
             JdbcTemplate jdbcTemplate,
             PlatformTransactionManager transactionManager,
-            BatchStateManager batchStateManager) {
+            BatchStateManager batchStateManager,
+            ExecutorRegistry executorRegistry) {
         this.batchRepository = batchRepository;
         this.runRepository = runRepository;
         this.datasetVersionRepository = datasetVersionRepository;
@@ -103,7 +101,8 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
         this.jdbcTemplate = jdbcTemplate;
         this.transactionManager = transactionManager;
         this.batchStateManager = batchStateManager;
-        this.taskExecutor = Executors.newFixedThreadPool(5);
+        this.executorRegistry = executorRegistry;
+        this.taskExecutor = executorRegistry.executor(ExecutorRegistry.Workload.GENERATION);
     }
     
     // 实现接口方法
@@ -344,25 +343,16 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
     }
     
     /**
-     * 在新事务中启动批次处理任务
+     * 启动批次处理任务
+     *
+     * 批次内的运行和问题由多个工作线程并发处理，各自使用短事务；这里不再用外层事务包裹，
+     * 否则外层事务持有的批次和运行行锁会阻塞工作线程的更新。
      */
     public void startBatchProcessingTask(Long batchId) {
-        // 创建新的事务定义，指定传播行为为REQUIRES_NEW
-        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
-        def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
-        
-        // 获取事务状态
-        TransactionStatus status = transactionManager.getTransaction(def);
-        
         try {
             // 启动批次处理
             answerGenerationTask.startBatchAnswerGeneration(batchId);
-            
-            // 提交事务
-            transactionManager.commit(status);
         } catch (Exception e) {
-            // 回滚事务
-            transactionManager.rollback(status);
             logger.error("批次{}处理任务失败", batchId, e);
             
             try {
@@ -623,20 +613,18 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
                 return;
             }
             
-            // 使用乐观锁和处理实例标记，确保只有一个进程能处理该批次
-            String processingInstance = UUID.randomUUID().toString();
+            // 以PAUSED状态为条件更新，确保只有一个进程发起恢复；恢复后各实例通过工作单元的租约分担处理
             int updated = jdbcTemplate.update(
-                "UPDATE answer_generation_batches SET status = 'GENERATING_ANSWERS', last_activity_time = ?, " +
-                "processing_instance = ? WHERE id = ? AND status = 'PAUSED' AND " + 
-                "(processing_instance IS NULL OR processing_instance = '')",
-                LocalDateTime.now(), processingInstance, batchId);
+                "UPDATE answer_generation_batches SET status = 'GENERATING_ANSWERS', last_activity_time = ? " +
+                "WHERE id = ? AND status = 'PAUSED'",
+                LocalDateTime.now(), batchId);
                 
             if (updated == 0) {
-                logger.info("批次{}数据库状态更新失败，可能已被其他进程处理，但中断标志已清除", batchId);
+                logger.info("批次{}数据库状态更新失败，可能已被其他进程恢复，但中断标志已清除", batchId);
                 return;
             }
             
-            logger.info("批次{}状态已更新为GENERATING_ANSWERS并获取处理权", batchId);
+            logger.info("批次{}状态已更新为GENERATING_ANSWERS", batchId);
             
             // 更新所有PAUSED状态的运行为GENERATING_ANSWERS
             jdbcTemplate.update(
@@ -651,33 +639,15 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
             notificationData.put("resumeTime", LocalDateTime.now());
             webSocketService.sendBatchMessage(batchId, MessageType.STATUS_CHANGE, notificationData);
             
-            try {
-                // 启动一个新线程执行批次处理任务
-                taskExecutor.submit(() -> {
-                    try {
-                        answerGenerationTask.startBatchAnswerGeneration(batchId);
-                        logger.info("批次{}处理任务完成", batchId);
-                    } catch (Exception e) {
-                        logger.error("批次{}处理任务执行失败: {}", batchId, e.getMessage(), e);
-                    } finally {
-                        // 任务结束后清除处理标记
-                        try {
-                            jdbcTemplate.update(
-                                "UPDATE answer_generation_batches SET processing_instance = NULL WHERE id = ? AND processing_instance = ?",
-                                batchId, processingInstance);
-                            logger.info("批次{}处理完成，已清除处理标记", batchId);
-                        } catch (Exception ex) {
-                            logger.error("清除批次{}处理标记时出错", batchId, ex);
-                        }
-                    }
-                });
-            } catch (Exception e) {
-                // 如果无法提交任务，清除处理标记
-                jdbcTemplate.update(
-                    "UPDATE answer_generation_batches SET processing_instance = NULL WHERE id = ? AND processing_instance = ?",
-                    batchId, processingInstance);
-                throw e;
-            }
+            // 在生成执行器上创建工作单元并开始领取，处理标记在批次的所有单元结束后清除
+            taskExecutor.submit(() -> {
+                try {
+                    answerGenerationTask.startBatchAnswerGeneration(batchId);
+                    logger.info("批次{}处理任务已启动", batchId);
+                } catch (Exception e) {
+                    logger.error("批次{}处理任务执行失败: {}", batchId, e.getMessage(), e);
+                }
+            });
             
         } catch (Exception e) {
             logger.error("强制恢复批次{}失败: {}", batchId, e.getMessage(), e);
@@ -705,8 +675,8 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
         int passedCount = 0;
         int failedCount = 0;
         
-        // 创建线程池并行测试所有模型
-        ExecutorService executor = Executors.newFixedThreadPool(Math.min(allModels.size(), 5));
+        // 在连通性测试执行器上并行测试所有模型
+        ExecutorService executor = executorRegistry.executor(ExecutorRegistry.Workload.CONNECTIVITY);
         List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
         
         // 提交所有测试任务
@@ -774,17 +744,6 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
             }
         }
         
-        // 关闭线程池
-        executor.shutdown();
-        try {
-            if (!executor.awaitTermination(120, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
-        
         // 组装最终结果
         long testDuration = System.currentTimeMillis() - startTime;
         result.put("success", true);
@@ -879,8 +838,8 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
         int passedCount = 0;
         int failedCount = 0;
         
-        // 创建线程池并行测试所有模型
-        ExecutorService executor = Executors.newFixedThreadPool(Math.min(models.size(), 5));
+        // 在连通性测试执行器上并行测试所有模型
+        ExecutorService executor = executorRegistry.executor(ExecutorRegistry.Workload.CONNECTIVITY);
         List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
         
         // 提交所有测试任务
@@ -963,17 +922,6 @@ public class AnswerGenerationServiceImpl implements AnswerGenerationService {
             }
         }
         
-        // 关闭线程池
-        executor.shutdown();
-        try {
-            if (!executor.awaitTermination(120, TimeUnit.SECONDS)) {
-                executor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executor.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
-        
         // 组装最终结果
         long testDuration = System.currentTimeMillis() - startTime;
         result.put("success", true);
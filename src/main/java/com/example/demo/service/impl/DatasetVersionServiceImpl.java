@@ -5,27 +5,33 @@ import com.example.demo.dto.DatasetVersionDTO;
 import com.example.demo.dto.UpdateDatasetVersionRequest;
 import com.example.demo.entity.jdbc.DatasetQuestionMapping;
 import com.example.demo.entity.jdbc.DatasetVersion;
-import com.example.demo.entity.jdbc.StandardQuestion;
 import com.example.demo.entity.jdbc.User;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.exception.BadRequestException;
 import com.example.demo.repository.jdbc.DatasetQuestionMappingRepository;
 import com.example.demo.repository.jdbc.DatasetVersionRepository;
+import com.example.demo.repository.jdbc.FetchMode;
 import com.example.demo.repository.jdbc.StandardQuestionRepository;
 import com.example.demo.repository.jdbc.UserRepository;
 import com.example.demo.service.DatasetVersionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class DatasetVersionServiceImpl implements DatasetVersionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DatasetVersionServiceImpl.class);
+
     @Autowired
     private DatasetVersionRepository datasetVersionRepository;
     
@@ -62,12 +68,14 @@ public class DatasetVersionServiceImpl implements DatasetVersionService {
         datasetVersion = datasetVersionRepository.save(datasetVersion);
         
         // 如果提供了标准问题ID列表，添加到数据集中
+        long startNanos = System.nanoTime();
+        int written = 0;
         if (request.getStandardQuestionIds() != null && !request.getStandardQuestionIds().isEmpty()) {
-            addQuestionsToDataset(datasetVersion, request.getStandardQuestionIds(), userId);
+            written = addQuestionsToDataset(datasetVersion, request.getStandardQuestionIds(), user);
         }
         
         // 构建并返回DTO
-        return convertToDTO(datasetVersion);
+        return withWriteStats(convertToDTO(datasetVersion), written, startNanos);
     }
     
     @Override
@@ -90,8 +98,12 @@ public class DatasetVersionServiceImpl implements DatasetVersionService {
         datasetVersion = datasetVersionRepository.save(datasetVersion);
         
         // 处理问题的添加
+        long startNanos = System.nanoTime();
+        int written = 0;
         if (request.getStandardQuestionsToAdd() != null && !request.getStandardQuestionsToAdd().isEmpty()) {
-            addQuestionsToDataset(datasetVersion, request.getStandardQuestionsToAdd(), userId);
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+            written = addQuestionsToDataset(datasetVersion, request.getStandardQuestionsToAdd(), user);
         }
         
         // 处理问题的移除
@@ -100,7 +112,7 @@ public class DatasetVersionServiceImpl implements DatasetVersionService {
         }
         
         // 构建并返回DTO
-        return convertToDTO(datasetVersion);
+        return withWriteStats(convertToDTO(datasetVersion), written, startNanos);
     }
     
     @Override
@@ -165,61 +177,56 @@ public class DatasetVersionServiceImpl implements DatasetVersionService {
         // 保存新版本
         newVersion = datasetVersionRepository.save(newVersion);
         
-        // 复制问题映射
-        List<DatasetQuestionMapping> sourceMappings = 
-                mappingRepository.findByDatasetVersionOrderByOrderInDataset(sourceVersion);
-        
-        for (DatasetQuestionMapping sourceMapping : sourceMappings) {
-            DatasetQuestionMapping newMapping = new DatasetQuestionMapping();
-            newMapping.setDatasetVersion(newVersion);
-            newMapping.setStandardQuestion(sourceMapping.getStandardQuestion());
-            newMapping.setOrderInDataset(sourceMapping.getOrderInDataset());
-            newMapping.setCreatedByUser(user);
-            newMapping.setCreatedAt(LocalDateTime.now());
-            
-            mappingRepository.save(newMapping);
-        }
+        // 复制问题映射，由数据库一次INSERT ... SELECT完成
+        long startNanos = System.nanoTime();
+        int copied = mappingRepository.copyFromDatasetVersion(sourceVersion.getId(), newVersion.getId(), user.getId());
         
         // 返回新版本的DTO
-        return convertToDTO(newVersion);
+        DatasetVersionDTO dto = withWriteStats(convertToDTO(newVersion), copied, startNanos);
+        logger.info("克隆数据集版本{}为{}，复制{}条问题映射，耗时{}ms", 
+                sourceId, newVersion.getId(), copied, dto.getWriteElapsedMillis());
+        return dto;
     }
     
-    // 辅助方法 - 添加问题到数据集
-    private void addQuestionsToDataset(DatasetVersion datasetVersion, List<Long> questionIds, Long userId) {
-        // 获取用户信息
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+    // 辅助方法 - 添加问题到数据集，返回写入的映射数
+    private int addQuestionsToDataset(DatasetVersion datasetVersion, List<Long> questionIds, User user) {
+        // 去重并保持请求顺序，跳过已在数据集中的问题
+        Set<Long> newQuestionIds = new LinkedHashSet<>(questionIds);
+        newQuestionIds.remove(null);
+        newQuestionIds.removeAll(mappingRepository.findMappingIdsByDatasetVersionId(datasetVersion.getId()).keySet());
+        if (newQuestionIds.isEmpty()) {
+            return 0;
+        }
+        
+        // 检查问题是否存在
+        Set<Long> existingIds = standardQuestionRepository.findExistingIds(newQuestionIds);
+        for (Long questionId : newQuestionIds) {
+            if (!existingIds.contains(questionId)) {
+                throw new ResourceNotFoundException("StandardQuestion", "id", questionId);
+            }
+        }
         
         // 获取数据集中的最大顺序号
         Integer maxOrder = mappingRepository.findMaxOrderInDataset(datasetVersion.getId());
         int nextOrder = (maxOrder != null) ? maxOrder + 1 : 1;
         
-        for (Long questionId : questionIds) {
-            // 检查问题是否已经在数据集中
-            if (mappingRepository.existsByDatasetVersionIdAndStandardQuestionId(datasetVersion.getId(), questionId)) {
-                continue; // 跳过已存在的问题
-            }
-            
-            // 检查问题是否存在
-            StandardQuestion question = standardQuestionRepository.findById(questionId)
-                    .orElseThrow(() -> new ResourceNotFoundException("StandardQuestion", "id", questionId));
-            
-            // 创建新的映射
-            DatasetQuestionMapping mapping = new DatasetQuestionMapping();
-            mapping.setDatasetVersion(datasetVersion);
-            mapping.setStandardQuestion(question);
-            mapping.setOrderInDataset(nextOrder++);
-            mapping.setCreatedByUser(user);
-            mapping.setCreatedAt(LocalDateTime.now());
-            
-            mappingRepository.save(mapping);
-        }
+        return mappingRepository.insertIgnoreBatch(datasetVersion.getId(), new ArrayList<>(newQuestionIds), 
+                nextOrder, user.getId());
+    }
+    
+    // 辅助方法 - 在DTO中附带本次写入映射的数量和速率
+    private DatasetVersionDTO withWriteStats(DatasetVersionDTO dto, int written, long startNanos) {
+        long elapsedNanos = Math.max(System.nanoTime() - startNanos, 1);
+        dto.setWrittenMappingCount(written);
+        dto.setWriteElapsedMillis(elapsedNanos / 1_000_000);
+        dto.setRowsPerSecond(written * 1_000_000_000.0 / elapsedNanos);
+        return dto;
     }
     
     // 辅助方法 - 从数据集中移除问题
     private void removeQuestionsFromDataset(Long datasetVersionId, List<Long> questionIds) {
         for (Long questionId : questionIds) {
-            List<DatasetQuestionMapping> mappings = mappingRepository.findByDatasetVersionId(datasetVersionId);
+            List<DatasetQuestionMapping> mappings = mappingRepository.findByDatasetVersionId(datasetVersionId, FetchMode.LAZY);
             
             for (DatasetQuestionMapping mapping : mappings) {
                 if (mapping.getStandardQuestion().getId().equals(questionId)) {
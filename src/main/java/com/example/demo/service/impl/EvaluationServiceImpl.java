@@ -12,17 +12,24 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
@@ -44,8 +51,10 @@ import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import com.example.demo.dto.Option;
@@ -60,6 +69,7 @@ import com.example.demo.entity.jdbc.EvaluationSubjectivePrompt;
 import com.example.demo.entity.jdbc.EvaluationTagPrompt;
 import com.example.demo.entity.jdbc.EvaluationType;
 import com.example.demo.entity.jdbc.Evaluator;
+import com.example.demo.entity.jdbc.HumanEvaluationQueue;
 import com.example.demo.entity.jdbc.LlmAnswer;
 import com.example.demo.entity.jdbc.LlmModel;
 import com.example.demo.entity.jdbc.ModelAnswerRun;
@@ -71,6 +81,12 @@ import com.example.demo.entity.jdbc.StandardSubjectiveAnswer;
 import com.example.demo.entity.jdbc.Tag;
 import com.example.demo.entity.jdbc.User;
 import com.example.demo.exception.EntityNotFoundException;
+import com.example.demo.manager.BatchLeaderboardManager;
+import com.example.demo.manager.ExecutorRegistry;
+import com.example.demo.manager.HumanEvaluationDispatcher;
+import com.example.demo.manager.LlmHttpClientRegistry;
+import com.example.demo.manager.LlmRateLimitManager;
+import com.example.demo.repository.jdbc.BatchLeaderboardRepository;
 import com.example.demo.repository.jdbc.EvaluationCriterionRepository;
 import com.example.demo.repository.jdbc.EvaluationDetailRepository;
 import com.example.demo.repository.jdbc.EvaluationPromptAssemblyConfigRepository;
@@ -80,6 +96,7 @@ import com.example.demo.repository.jdbc.EvaluationSubjectivePromptRepository;
 import com.example.demo.repository.jdbc.EvaluationTagPromptRepository;
 import com.example.demo.repository.jdbc.EvaluatorRepository;
 import com.example.demo.repository.jdbc.LlmAnswerRepository;
+import com.example.demo.repository.jdbc.LlmAnswerProjection;
 import com.example.demo.repository.jdbc.LlmModelRepository;
 import com.example.demo.repository.jdbc.ModelAnswerRunRepository;
 import com.example.demo.repository.jdbc.StandardObjectiveAnswerRepository;
@@ -88,6 +105,7 @@ import com.example.demo.repository.jdbc.StandardSimpleAnswerRepository;
 import com.example.demo.repository.jdbc.StandardSubjectiveAnswerRepository;
 import com.example.demo.repository.jdbc.UserRepository;
 import com.example.demo.service.EvaluationService;
+import com.example.demo.utils.TextMetrics;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -116,8 +134,10 @@ public class EvaluationServiceImpl implements EvaluationService {
     // 不再需要AnswerScoreRepository
     private final LlmModelRepository llmModelRepository;
     
-    // 线程池用于异步执行评测任务
-    private final ExecutorService evaluationExecutor = Executors.newFixedThreadPool(5);
+    // 评测运行任务和主观题评测调用共用EVALUATION执行器，单次评测运行的在途调用数由信号量控制
+    private final ExecutorRegistry executorRegistry;
+    private final ExecutorService evaluationExecutor;
+    private final ExecutorService subjectiveEvaluationExecutor;
     
     // AI服务配置
     @Value("${ai.service.url:}")
@@ -129,13 +149,43 @@ public class EvaluationServiceImpl implements EvaluationService {
     @Value("${ai.service.model:}")
     private String aiServiceModel;
     
-    private final RestTemplate restTemplate;
+    // 客观题批量评测配置
+    @Value("${evaluation.objective.parallelism:0}")
+    private int objectiveScoringParallelism;
+    
+    @Value("${evaluation.objective.insert-batch-size:500}")
+    private int objectiveInsertBatchSize;
+    
+    // 主观题AI评测配置
+    @Value("${evaluation.subjective.default-concurrency:4}")
+    private int subjectiveDefaultConcurrency;
+    
+    @Value("${evaluation.subjective.max-concurrency:16}")
+    private int subjectiveMaxConcurrency;
+    
+    @Value("${evaluation.subjective.progress-batch-size:10}")
+    private int subjectiveProgressBatchSize;
+    
+    // 按模型缓存的HTTP客户端，评测调用使用模型自身的超时配置
+    private final LlmHttpClientRegistry llmHttpClientRegistry;
     
     // 添加Redis相关依赖
     private final RedisTemplate<String, String> redisTemplate;
     private final RedissonClient redissonClient;
     private final JdbcTemplate jdbcTemplate;
     
+    // 模型调用限流
+    private final LlmRateLimitManager rateLimitManager;
+    
+    // 批次综合评分排行榜
+    private final BatchLeaderboardManager batchLeaderboardManager;
+    private final BatchLeaderboardRepository batchLeaderboardRepository;
+    
+    // 人工评测任务分发
+    private final HumanEvaluationDispatcher humanEvaluationDispatcher;
+    
+    private final PlatformTransactionManager transactionManager;
+    
     @Autowired
     public EvaluationServiceImpl(
             EvaluationRepository evaluationRepository,
@@ -154,10 +204,16 @@ public class EvaluationServiceImpl implements EvaluationService {
             StandardQuestionRepository standardQuestionRepository,
             StandardSubjectiveAnswerRepository standardSubjectiveAnswerRepository,
             LlmModelRepository llmModelRepository,
-            RestTemplate restTemplate,
+            LlmHttpClientRegistry llmHttpClientRegistry,
             RedisTemplate<String, String> redisTemplate,
             RedissonClient redissonClient,
-            JdbcTemplate jdbcTemplate) {
+            JdbcTemplate jdbcTemplate,
+            LlmRateLimitManager rateLimitManager,
+            ExecutorRegistry executorRegistry,
+            BatchLeaderboardManager batchLeaderboardManager,
+            BatchLeaderboardRepository batchLeaderboardRepository,
+            HumanEvaluationDispatcher humanEvaluationDispatcher,
+            PlatformTransactionManager transactionManager) {
         this.evaluationRepository = evaluationRepository;
         this.evaluatorRepository = evaluatorRepository;
         this.userRepository = userRepository;
@@ -174,10 +230,18 @@ public class EvaluationServiceImpl implements EvaluationService {
         this.standardQuestionRepository = standardQuestionRepository;
         this.standardSubjectiveAnswerRepository = standardSubjectiveAnswerRepository;
         this.llmModelRepository = llmModelRepository;
-        this.restTemplate = restTemplate;
+        this.llmHttpClientRegistry = llmHttpClientRegistry;
         this.redisTemplate = redisTemplate;
         this.redissonClient = redissonClient;
         this.jdbcTemplate = jdbcTemplate;
+        this.rateLimitManager = rateLimitManager;
+        this.executorRegistry = executorRegistry;
+        this.batchLeaderboardManager = batchLeaderboardManager;
+        this.batchLeaderboardRepository = batchLeaderboardRepository;
+        this.humanEvaluationDispatcher = humanEvaluationDispatcher;
+        this.transactionManager = transactionManager;
+        this.evaluationExecutor = executorRegistry.executor(ExecutorRegistry.Workload.EVALUATION);
+        this.subjectiveEvaluationExecutor = executorRegistry.executor(ExecutorRegistry.Workload.EVALUATION);
         this.objectMapper = new ObjectMapper();
         objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     }
@@ -854,9 +918,23 @@ public class EvaluationServiceImpl implements EvaluationService {
                 logger.error("打印请求内容失败: {}", e.getMessage());
             }
             
-            try {
+            // 获取模型调用许可，与回答生成共用同一模型的限额
+            int estimatedTokens = LlmRateLimitManager.estimateTokens(prompt, 2000);
+            try (LlmRateLimitManager.Permit permit = llmModel != null
+                    ? rateLimitManager.acquire(llmModel, estimatedTokens)
+                    : rateLimitManager.acquire(apiUrl, model, estimatedTokens)) {
                 logger.info("正在向AI服务发送请求: {}", apiUrl);
-                ResponseEntity<Map> response = restTemplate.postForEntity(apiUrl, request, Map.class);
+                ResponseEntity<Map> response;
+                try {
+                    RestTemplate client = llmModel != null
+                            ? llmHttpClientRegistry.getRestTemplate(llmModel)
+                            : llmHttpClientRegistry.getRestTemplate(apiUrl, model);
+                    response = client.postForEntity(apiUrl, request, Map.class);
+                    permit.complete(response.getStatusCode().value());
+                } catch (Exception e) {
+                    permit.fail(e);
+                    throw e;
+                }
                 
                 // 处理响应
                 if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
@@ -1028,9 +1106,23 @@ public class EvaluationServiceImpl implements EvaluationService {
                 logger.error("打印请求内容失败: {}", e.getMessage());
             }
             
-            try {
+            // 获取模型调用许可，与回答生成共用同一模型的限额
+            int estimatedTokens = LlmRateLimitManager.estimateTokens(prompt, 2000);
+            try (LlmRateLimitManager.Permit permit = llmModel != null
+                    ? rateLimitManager.acquire(llmModel, estimatedTokens)
+                    : rateLimitManager.acquire(apiUrl, model, estimatedTokens)) {
                 logger.info("发送请求到: {}", apiUrl);
-                ResponseEntity<Map> response = restTemplate.postForEntity(apiUrl, request, Map.class);
+                ResponseEntity<Map> response;
+                try {
+                    RestTemplate client = llmModel != null
+                            ? llmHttpClientRegistry.getRestTemplate(llmModel)
+                            : llmHttpClientRegistry.getRestTemplate(apiUrl, model);
+                    response = client.postForEntity(apiUrl, request, Map.class);
+                    permit.complete(response.getStatusCode().value());
+                } catch (Exception e) {
+                    permit.fail(e);
+                    throw e;
+                }
                 
                 if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                     Map responseBody = response.getBody();
@@ -1170,7 +1262,7 @@ public class EvaluationServiceImpl implements EvaluationService {
     
     @Override
     public BigDecimal calculateBleuScore(String candidateText, String referenceText) {
-        logger.info("计算BLEU分数，候选文本长度: {}, 参考文本长度: {}", 
+        logger.debug("计算BLEU分数，候选文本长度: {}, 参考文本长度: {}", 
                 candidateText != null ? candidateText.length() : 0, 
                 referenceText != null ? referenceText.length() : 0);
         
@@ -1181,14 +1273,9 @@ public class EvaluationServiceImpl implements EvaluationService {
                 return BigDecimal.ZERO;
             }
             
-            // 中文文本处理：标准化处理，移除所有空白字符、标点符号并转为小写
-            String processedCandidate = candidateText.toLowerCase()
-                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "") // 移除标点符号
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", ""); // 移除常见的答案前缀
-                
-            String processedReference = referenceText.toLowerCase()
-                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "") // 移除标点符号
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", ""); // 移除常见的答案前缀
+            // 中文文本处理：标准化处理，移除所有空白字符、标点符号、常见的答案前缀并转为小写
+            String processedCandidate = TextMetrics.normalize(candidateText);
+            String processedReference = TextMetrics.normalize(referenceText);
             
             // 如果任一处理后的文本为空，返回0分
             if (processedCandidate.isEmpty() || processedReference.isEmpty()) {
@@ -1196,53 +1283,11 @@ public class EvaluationServiceImpl implements EvaluationService {
                 return BigDecimal.ZERO;
             }
             
-            // 对于中文短文本，我们使用字符级别的匹配计算
-            // 将字符串转换为字符数组
-            char[] candidateChars = processedCandidate.toCharArray();
-            char[] referenceChars = processedReference.toCharArray();
-            
-            // 计算字符匹配数
-            Map<Character, Integer> refCharCount = new HashMap<>();
-            
-            // 统计参考文本中的字符频率
-            for (char c : referenceChars) {
-                refCharCount.put(c, refCharCount.getOrDefault(c, 0) + 1);
-            }
-            
-            // 计算匹配数
-            int matchCount = 0;
-            Map<Character, Integer> candidateCharCount = new HashMap<>();
-            for (char c : candidateChars) {
-                candidateCharCount.put(c, candidateCharCount.getOrDefault(c, 0) + 1);
-            }
-            
-            // 计算共同字符的最小出现次数
-            for (Map.Entry<Character, Integer> entry : candidateCharCount.entrySet()) {
-                char c = entry.getKey();
-                int count = entry.getValue();
-                if (refCharCount.containsKey(c)) {
-                    matchCount += Math.min(count, refCharCount.get(c));
-                }
-            }
-            
-            // 计算精确率
-            double precision = (double) matchCount / candidateChars.length;
-            
-            // 字符级别的匹配率作为BLEU分数
-            double bleuScore = precision;
-            
-            // 四舍五入到2位小数
-            BigDecimal result = new BigDecimal(bleuScore).setScale(2, RoundingMode.HALF_UP);
-            
-            // 确保结果在0-1范围内
-            if (result.compareTo(BigDecimal.ZERO) < 0) {
-                result = BigDecimal.ZERO;
-            } else if (result.compareTo(BigDecimal.ONE) > 0) {
-                result = BigDecimal.ONE;
-            }
+            // 对于中文文本，使用字符级别的1-4元n-gram
+            BigDecimal result = toMetricScore(TextMetrics.bleu(processedCandidate, processedReference));
             
-            logger.info("BLEU分数计算结果: {}, 原始文本1: {}, 处理后: {}, 原始文本2: {}, 处理后: {}", 
-                result, candidateText, processedCandidate, referenceText, processedReference);
+            logger.debug("BLEU分数计算结果: {}, 处理后文本长度: {} / {}", 
+                result, processedCandidate.length(), processedReference.length());
             return result;
             
         } catch (Exception e) {
@@ -1311,7 +1356,7 @@ public class EvaluationServiceImpl implements EvaluationService {
     }
     
     @Override
-    @Async
+    @Async("evaluationExecutor")
     public CompletableFuture<Void> startEvaluationRun(Long evaluationRunId) {
         logger.info("开始评测运行，评测运行ID: {}", evaluationRunId);
         
@@ -1358,24 +1403,21 @@ public class EvaluationServiceImpl implements EvaluationService {
                 // 获取用户ID
                 Long userId = evaluationRun.getCreatedBy();
                 
-                // 获取已生成的LLM回答
-                List<LlmAnswer> llmAnswers = llmAnswerRepository.findByModelAnswerRunId(modelAnswerRun.getId());
+                // 统计尚未被该评测者评测的回答，待评测回答按ID游标分批查询
+                int unevaluatedCount = llmAnswerRepository.countUnevaluatedByModelAnswerRunId(
+                        modelAnswerRun.getId(), evaluator.getId());
                 
-                // 过滤出未评测的回答
-                List<LlmAnswer> unevaluatedAnswers = llmAnswers.stream()
-                        .filter(answer -> !evaluationRepository.existsByLlmAnswerIdAndEvaluationRunId(
-                                answer.getId(), evaluationRunId))
-                        .collect(Collectors.toList());
-                
-                logger.info("开始评测运行，总回答数: {}，未评测回答数: {}", llmAnswers.size(), unevaluatedAnswers.size());
+                logger.info("开始评测运行，未评测回答数: {}", unevaluatedCount);
                 
                 // 更新总回答数
-                evaluationRun.setTotalAnswersCount(unevaluatedAnswers.size());
+                evaluationRun.setTotalAnswersCount(unevaluatedCount);
                 evaluationRunRepository.save(evaluationRun);
                 
                 // 批量处理未评测的回答
                 int batchSize = evaluationRun.getBatchSize() != null ? evaluationRun.getBatchSize() : 10;
-                for (int i = 0; i < unevaluatedAnswers.size(); i += batchSize) {
+                int processedCount = 0;
+                Long afterId = null;
+                while (true) {
                     // 检查是否应该中断处理
                     if (shouldInterruptEvaluation(evaluationRunId)) {
                         logger.info("检测到评测运行{}的中断信号，停止处理", evaluationRunId);
@@ -1398,30 +1440,35 @@ public class EvaluationServiceImpl implements EvaluationService {
                     }
                     
                     // 获取当前批次的回答
-                    int endIndex = Math.min(i + batchSize, unevaluatedAnswers.size());
-                    List<LlmAnswer> batchAnswers = unevaluatedAnswers.subList(i, endIndex);
+                    List<Long> batchAnswerIds = llmAnswerRepository.findUnevaluatedByModelAnswerRunId(
+                            modelAnswerRun.getId(), evaluator.getId(), afterId, batchSize).stream()
+                            .map(LlmAnswer::getId)
+                            .collect(Collectors.toList());
+                    if (batchAnswerIds.isEmpty()) {
+                        break;
+                    }
+                    List<LlmAnswer> batchAnswers = llmAnswerRepository.findAllById(batchAnswerIds);
                     
                     // 批量评测
                     evaluateAnswers(batchAnswers, evaluator.getId(), userId);
                     
-                    // 更新最后处理的回答ID
-                    if (!batchAnswers.isEmpty()) {
-                        LlmAnswer lastAnswer = batchAnswers.get(batchAnswers.size() - 1);
-                        evaluationRun.setLastProcessedAnswerId(lastAnswer.getId());
-                    }
+                    // 更新最后处理的回答ID，评测失败的回答也不在本次运行中重复查询
+                    afterId = batchAnswerIds.get(batchAnswerIds.size() - 1);
+                    evaluationRun.setLastProcessedAnswerId(afterId);
                     
                     // 更新进度
-                    int processedCount = i + batchAnswers.size();
+                    processedCount += batchAnswerIds.size();
+                    int totalCount = Math.max(unevaluatedCount, processedCount);
                     BigDecimal progress = new BigDecimal(processedCount)
                             .multiply(new BigDecimal(100))
-                            .divide(new BigDecimal(unevaluatedAnswers.size()), 2, RoundingMode.HALF_UP);
+                            .divide(new BigDecimal(totalCount), 2, RoundingMode.HALF_UP);
                     
                     evaluationRun.setProgressPercentage(progress);
                     evaluationRun.setCompletedAnswersCount(processedCount);
                     evaluationRun.setLastActivityTime(LocalDateTime.now());
                     evaluationRunRepository.save(evaluationRun);
                     
-                    logger.info("评测运行进度: {}/{}", processedCount, unevaluatedAnswers.size());
+                    logger.info("评测运行进度: {}/{}", processedCount, totalCount);
                 }
                 
                 // 所有回答评测完成，更新状态为已完成
@@ -1769,13 +1816,13 @@ public class EvaluationServiceImpl implements EvaluationService {
             result.put("comments", isCorrect ? "答案正确" : "答案错误，正确答案是: " + correctAnswer);
             
             // 打印答案到日志，方便人工判断
-            logger.info("\n========== 单选题评测结果 ==========");
-            logger.info("原始大模型答案: {}", answerText);
-            logger.info("处理后大模型答案: {}", studentAnswer);
-            logger.info("原始标准答案: {}", correctOptionIds);
-            logger.info("处理后标准答案: {}", correctAnswer);
-            logger.info("评测结果: {}", (isCorrect ? "正确" : "错误"));
-            logger.info("===================================");
+            logger.debug("\n========== 单选题评测结果 ==========");
+            logger.debug("原始大模型答案: {}", answerText);
+            logger.debug("处理后大模型答案: {}", studentAnswer);
+            logger.debug("原始标准答案: {}", correctOptionIds);
+            logger.debug("处理后标准答案: {}", correctAnswer);
+            logger.debug("评测结果: {}", (isCorrect ? "正确" : "错误"));
+            logger.debug("===================================");
             
             return result;
             
@@ -1789,7 +1836,7 @@ public class EvaluationServiceImpl implements EvaluationService {
     
     @Override
     public Map<String, Object> evaluateMultipleChoice(String answerText, String correctIds, String options) {
-        logger.info("开始评测多选题回答，回答文本长度: {}", answerText != null ? answerText.length() : 0);
+        logger.debug("开始评测多选题回答，回答文本长度: {}", answerText != null ? answerText.length() : 0);
         
         Map<String, Object> result = new HashMap<>();
         
@@ -1907,29 +1954,29 @@ public class EvaluationServiceImpl implements EvaluationService {
                 result.put("comments", comments.toString());
                 
                 // 打印答案到日志，方便人工判断
-                logger.info("\n========== 多选题评测结果 ==========");
-                logger.info("原始大模型答案: {}", originalStudentAnswer);
-                logger.info("处理后大模型答案: {}", String.join("、", studentChoices));
-                logger.info("原始标准答案: {}", correctIds);
-                logger.info("处理后标准答案: {}", String.join("、", correctIdSet));
-                logger.info("正确选择: {}", (correctChoices.isEmpty() ? "无" : String.join("、", correctChoices)));
-                logger.info("错误选择: {}", (wrongChoices.isEmpty() ? "无" : String.join("、", wrongChoices)));
-                logger.info("漏选项目: {}", (missedChoices.isEmpty() ? "无" : String.join("、", missedChoices)));
-                logger.info("评测得分: {}", result.get("score"));
-                logger.info("===================================");
+                logger.debug("\n========== 多选题评测结果 ==========");
+                logger.debug("原始大模型答案: {}", originalStudentAnswer);
+                logger.debug("处理后大模型答案: {}", String.join("、", studentChoices));
+                logger.debug("原始标准答案: {}", correctIds);
+                logger.debug("处理后标准答案: {}", String.join("、", correctIdSet));
+                logger.debug("正确选择: {}", (correctChoices.isEmpty() ? "无" : String.join("、", correctChoices)));
+                logger.debug("错误选择: {}", (wrongChoices.isEmpty() ? "无" : String.join("、", wrongChoices)));
+                logger.debug("漏选项目: {}", (missedChoices.isEmpty() ? "无" : String.join("、", missedChoices)));
+                logger.debug("评测得分: {}", result.get("score"));
+                logger.debug("===================================");
                 
             } else {
                 result.put("score", BigDecimal.ZERO);
                 result.put("comments", "未能从回答中识别出明确的选择。正确答案是选项：" + String.join("、", correctIdSet));
                 
                 // 打印答案到日志，方便人工判断
-                logger.info("\n========== 多选题评测结果 ==========");
-                logger.info("原始大模型答案: {}", originalStudentAnswer);
-                logger.info("未能从回答中识别出明确的选择");
-                logger.info("原始标准答案: {}", correctIds);
-                logger.info("处理后标准答案: {}", String.join("、", correctIdSet));
-                logger.info("评测得分: 0");
-                logger.info("===================================");
+                logger.debug("\n========== 多选题评测结果 ==========");
+                logger.debug("原始大模型答案: {}", originalStudentAnswer);
+                logger.debug("未能从回答中识别出明确的选择");
+                logger.debug("原始标准答案: {}", correctIds);
+                logger.debug("处理后标准答案: {}", String.join("、", correctIdSet));
+                logger.debug("评测得分: 0");
+                logger.debug("===================================");
             }
             
             // 添加评测详情
@@ -1950,11 +1997,11 @@ public class EvaluationServiceImpl implements EvaluationService {
             result.put("comments", "评测过程发生错误：" + e.getMessage());
             
             // 打印错误信息到日志
-            logger.info("\n========== 多选题评测错误 ==========");
-            logger.info("大模型原始答案: {}", answerText);
-            logger.info("标准答案: {}", correctIds);
-            logger.info("评测错误: {}", e.getMessage());
-            logger.info("===================================");
+            logger.debug("\n========== 多选题评测错误 ==========");
+            logger.debug("大模型原始答案: {}", answerText);
+            logger.debug("标准答案: {}", correctIds);
+            logger.debug("评测错误: {}", e.getMessage());
+            logger.debug("===================================");
         }
         
         return result;
@@ -1962,7 +2009,7 @@ public class EvaluationServiceImpl implements EvaluationService {
     
     @Override
     public Map<String, Object> evaluateSimpleFact(String answerText, String standardAnswer, String alternativeAnswers) {
-        logger.info("开始评测简单事实题回答，回答文本长度: {}", answerText != null ? answerText.length() : 0);
+        logger.debug("开始评测简单事实题回答，回答文本长度: {}", answerText != null ? answerText.length() : 0);
         
         Map<String, Object> result = new HashMap<>();
         
@@ -2048,32 +2095,27 @@ public class EvaluationServiceImpl implements EvaluationService {
             result.put("comments", comments.toString());
             
             // 打印答案到日志，方便人工判断
-            logger.info("\n========== 简单事实题评测结果 ==========");
-            logger.info("原始大模型答案: {}", originalAnswerText);
-            logger.info("原始标准答案: {}", originalStandardAnswer);
+            logger.debug("\n========== 简单事实题评测结果 ==========");
+            logger.debug("原始大模型答案: {}", originalAnswerText);
+            logger.debug("原始标准答案: {}", originalStandardAnswer);
             
             // 获取标准化处理后的文本（通过再次调用计算函数）
-            String processedAnswerText = originalAnswerText.toLowerCase()
-                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "")
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", "");
-            
-            String processedStandardAnswer = originalStandardAnswer.toLowerCase()
-                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "")
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", "");
+            String processedAnswerText = TextMetrics.normalize(originalAnswerText);
+            String processedStandardAnswer = TextMetrics.normalize(originalStandardAnswer);
             
-            logger.info("处理后大模型答案: {}", processedAnswerText);
-            logger.info("处理后标准答案: {}", processedStandardAnswer);
+            logger.debug("处理后大模型答案: {}", processedAnswerText);
+            logger.debug("处理后标准答案: {}", processedStandardAnswer);
             
             if (!alternatives.isEmpty()) {
-                logger.info("备选答案: {}", alternatives);
-                logger.info("最佳匹配答案: {}", bestMatchAnswer);
+                logger.debug("备选答案: {}", alternatives);
+                logger.debug("最佳匹配答案: {}", bestMatchAnswer);
             }
-            logger.info("BERT相似度: {}", bertScore.multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP));
-            logger.info("文本相似度: {}", maxSimilarity.multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP));
-            logger.info("ROUGE分数: {}", rougeScore.multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP));
-            logger.info("BLEU分数: {}", bleuScore.multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP));
-            logger.info("最终得分: {}", finalScore);
-            logger.info("=====================================");
+            logger.debug("BERT相似度: {}", bertScore.multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP));
+            logger.debug("文本相似度: {}", maxSimilarity.multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP));
+            logger.debug("ROUGE分数: {}", rougeScore.multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP));
+            logger.debug("BLEU分数: {}", bleuScore.multiply(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP));
+            logger.debug("最终得分: {}", finalScore);
+            logger.debug("=====================================");
             
             // 添加评测详情
             List<Map<String, Object>> criteriaScores = new ArrayList<>();
@@ -2114,11 +2156,11 @@ public class EvaluationServiceImpl implements EvaluationService {
             result.put("comments", "评测过程发生错误：" + e.getMessage());
             
             // 打印错误信息到日志
-            logger.info("\n========== 简单事实题评测错误 ==========");
-            logger.info("大模型原始答案: {}", answerText);
-            logger.info("标准答案: {}", standardAnswer);
-            logger.info("评测错误: {}", e.getMessage());
-            logger.info("=====================================");
+            logger.debug("\n========== 简单事实题评测错误 ==========");
+            logger.debug("大模型原始答案: {}", answerText);
+            logger.debug("标准答案: {}", standardAnswer);
+            logger.debug("评测错误: {}", e.getMessage());
+            logger.debug("=====================================");
         }
         
         return result;
@@ -2126,7 +2168,7 @@ public class EvaluationServiceImpl implements EvaluationService {
     
     @Override
     public BigDecimal calculateTextSimilarity(String text1, String text2) {
-        logger.info("计算文本相似度，文本1长度: {}, 文本2长度: {}", 
+        logger.debug("计算文本相似度，文本1长度: {}, 文本2长度: {}", 
                 text1 != null ? text1.length() : 0, 
                 text2 != null ? text2.length() : 0);
         
@@ -2137,14 +2179,9 @@ public class EvaluationServiceImpl implements EvaluationService {
                 return BigDecimal.ZERO;
             }
             
-            // 中文文本处理：移除所有空白字符、标点符号并转为小写
-            String processedText1 = text1.toLowerCase()
-                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "") // 移除标点符号
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", ""); // 移除常见的答案前缀
-            
-            String processedText2 = text2.toLowerCase()
-                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "") // 移除标点符号
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", ""); // 移除常见的答案前缀
+            // 中文文本处理：移除所有空白字符、标点符号、常见的答案前缀并转为小写
+            String processedText1 = TextMetrics.normalize(text1);
+            String processedText2 = TextMetrics.normalize(text2);
             
             // 如果任一处理后的文本为空，返回0分
             if (processedText1.isEmpty() || processedText2.isEmpty()) {
@@ -2152,26 +2189,11 @@ public class EvaluationServiceImpl implements EvaluationService {
                 return BigDecimal.ZERO;
             }
             
-            // 直接字符级比较
-            // 对于短文本如简单事实题答案，使用编辑距离(Levenshtein距离)计算相似度
-            int distance = calculateLevenshteinDistance(processedText1, processedText2);
-            int maxLength = Math.max(processedText1.length(), processedText2.length());
-            
-            // 计算相似度：1 - 标准化编辑距离
-            double similarity = 1.0 - ((double) distance / maxLength);
+            // 对于短文本如简单事实题答案，使用编辑距离(Levenshtein距离)计算相似度：1 - 标准化编辑距离
+            BigDecimal result = toMetricScore(TextMetrics.editSimilarity(processedText1, processedText2));
             
-            // 转换为BigDecimal并四舍五入到2位小数
-            BigDecimal result = new BigDecimal(similarity).setScale(2, RoundingMode.HALF_UP);
-            
-            // 确保结果在0-1范围内
-            if (result.compareTo(BigDecimal.ZERO) < 0) {
-                result = BigDecimal.ZERO;
-            } else if (result.compareTo(BigDecimal.ONE) > 0) {
-                result = BigDecimal.ONE;
-            }
-            
-            logger.info("文本相似度计算结果: {}, 原始文本1: {}, 处理后: {}, 原始文本2: {}, 处理后: {}", 
-                result, text1, processedText1, text2, processedText2);
+            logger.debug("文本相似度计算结果: {}, 处理后文本长度: {} / {}", 
+                result, processedText1.length(), processedText2.length());
             return result;
             
         } catch (Exception e) {
@@ -2181,39 +2203,21 @@ public class EvaluationServiceImpl implements EvaluationService {
     }
     
     /**
-     * 计算两个字符串之间的编辑距离(Levenshtein距离)
-     * 
-     * @param s1 第一个字符串
-     * @param s2 第二个字符串
-     * @return 编辑距离
+     * 将0-1之间的指标值转换为两位小数的分数，并限制在0-1范围内
      */
-    private int calculateLevenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-        
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
-        }
-        
-        for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
+    private BigDecimal toMetricScore(double value) {
+        if (Double.isNaN(value) || value <= 0) {
+            return BigDecimal.ZERO.setScale(2);
         }
-        
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                int cost = (s1.charAt(i - 1) == s2.charAt(j - 1)) ? 0 : 1;
-                dp[i][j] = Math.min(
-                    Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                    dp[i - 1][j - 1] + cost
-                );
-            }
+        if (value >= 1) {
+            return BigDecimal.ONE.setScale(2);
         }
-        
-        return dp[s1.length()][s2.length()];
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
     }
     
     @Override
     public BigDecimal calculateRougeScore(String candidateText, String referenceText) {
-        logger.info("计算ROUGE分数，候选文本长度: {}, 参考文本长度: {}", 
+        logger.debug("计算ROUGE分数，候选文本长度: {}, 参考文本长度: {}", 
                 candidateText != null ? candidateText.length() : 0, 
                 referenceText != null ? referenceText.length() : 0);
         
@@ -2224,14 +2228,9 @@ public class EvaluationServiceImpl implements EvaluationService {
                 return BigDecimal.ZERO;
             }
             
-            // 中文文本处理：标准化处理，移除所有空白字符、标点符号并转为小写
-            String processedCandidate = candidateText.toLowerCase()
-                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "") // 移除标点符号
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", ""); // 移除常见的答案前缀
-                
-            String processedReference = referenceText.toLowerCase()
-                .replaceAll("[\\s:：,，.。!！?？;；()（）\\[\\]【】\"'\"]", "") // 移除标点符号
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", ""); // 移除常见的答案前缀
+            // 中文文本处理：标准化处理，移除所有空白字符、标点符号、常见的答案前缀并转为小写
+            String processedCandidate = TextMetrics.normalize(candidateText);
+            String processedReference = TextMetrics.normalize(referenceText);
             
             // 如果任一处理后的文本为空，返回0分
             if (processedCandidate.isEmpty() || processedReference.isEmpty()) {
@@ -2239,42 +2238,11 @@ public class EvaluationServiceImpl implements EvaluationService {
                 return BigDecimal.ZERO;
             }
             
-            // 对于中文文本，我们使用字符级别的分析
-            // 将字符串转换为字符集合
-            Set<Character> candidateChars = processedCandidate.chars()
-                .mapToObj(c -> (char) c)
-                .collect(Collectors.toSet());
-            
-            Set<Character> referenceChars = processedReference.chars()
-                .mapToObj(c -> (char) c)
-                .collect(Collectors.toSet());
-            
-            // 计算重叠的字符数
-            Set<Character> overlap = new HashSet<>(candidateChars);
-            overlap.retainAll(referenceChars);
-            
-            // 计算召回率和精确率
-            double recall = (double) overlap.size() / referenceChars.size();
-            double precision = (double) overlap.size() / candidateChars.size();
-            
-            // 计算F1分数
-            double f1Score = 0.0;
-            if (precision + recall > 0) {
-                f1Score = 2 * precision * recall / (precision + recall);
-            }
-            
-            // 转换为BigDecimal并四舍五入到2位小数
-            BigDecimal result = new BigDecimal(f1Score).setScale(2, RoundingMode.HALF_UP);
-            
-            // 确保结果在0-1范围内
-            if (result.compareTo(BigDecimal.ZERO) < 0) {
-                result = BigDecimal.ZERO;
-            } else if (result.compareTo(BigDecimal.ONE) > 0) {
-                result = BigDecimal.ONE;
-            }
+            // 对于中文文本，使用字符级别最长公共子序列计算ROUGE-L F1分数
+            BigDecimal result = toMetricScore(TextMetrics.rougeL(processedCandidate, processedReference));
             
-            logger.info("ROUGE分数计算结果: {}, 原始文本1: {}, 处理后: {}, 原始文本2: {}, 处理后: {}", 
-                result, candidateText, processedCandidate, referenceText, processedReference);
+            logger.debug("ROUGE分数计算结果: {}, 处理后文本长度: {} / {}", 
+                result, processedCandidate.length(), processedReference.length());
             return result;
             
         } catch (Exception e) {
@@ -2325,6 +2293,7 @@ public class EvaluationServiceImpl implements EvaluationService {
             
             // 保存评测记录
             evaluation = evaluationRepository.save(evaluation);
+            humanEvaluationDispatcher.attachEvaluation(llmAnswerId, evaluatorId, evaluation.getId());
             
             logger.info("人工评测记录创建成功，评测ID: {}", evaluation.getId());
             return evaluation;
@@ -2431,6 +2400,7 @@ public class EvaluationServiceImpl implements EvaluationService {
             evaluation.setScoreType(scoreType);
             evaluation.setScoringMethod("HUMAN");
             evaluation = evaluationRepository.save(evaluation);
+            humanEvaluationDispatcher.complete(llmAnswer.getId(), evaluator.getId(), evaluation.getId());
             
             logger.info("成功保存人工评测分数记录，评测ID: {}, 回答ID: {}, 评测者ID: {}", 
                     evaluation.getId(), llmAnswer.getId(), evaluator.getId());
@@ -2694,65 +2664,10 @@ public class EvaluationServiceImpl implements EvaluationService {
             Evaluator evaluator = evaluatorRepository.findById(evaluatorId)
                     .orElseThrow(() -> new EntityNotFoundException("找不到指定的评测者: " + evaluatorId));
             
-            // 获取所有回答 - 使用JOIN FETCH主动加载问题
-            List<LlmAnswer> allAnswers = llmAnswerRepository.findByModelAnswerRunIdWithQuestions(modelAnswerRunId);
-            logger.info("评测运行{}，所有回答数量: {}", evaluationRunId, allAnswers.size());
-            
-            // 查询已评测的回答ID - 使用现有方法
-            List<Evaluation> existingEvaluations = evaluationRepository.findByEvaluatorId(evaluatorId);
-            List<Long> evaluatedAnswerIds = existingEvaluations.stream()
-                    .map(eval -> eval.getLlmAnswer().getId())
-                    .collect(Collectors.toList());
-            logger.info("评测运行{}，已评测回答数量: {}", evaluationRunId, evaluatedAnswerIds.size());
-            
-            // 收集所有回答ID用于日志
-            String allAnswerIds = allAnswers.stream()
-                    .map(a -> a.getId().toString())
-                    .collect(Collectors.joining(", "));
-            logger.debug("评测运行{}，所有回答ID: {}", evaluationRunId, allAnswerIds);
-            
-            // 收集所有已评测回答ID用于日志
-            String allEvaluatedIds = evaluatedAnswerIds.stream()
-                    .map(Object::toString)
-                    .collect(Collectors.joining(", "));
-            logger.debug("评测运行{}，已评测回答ID: {}", evaluationRunId, allEvaluatedIds);
-            
-            List<LlmAnswer> remainingAnswers;
-            
-            if (lastProcessedAnswerId != null) {
-                // 过滤出未处理的回答
-                remainingAnswers = allAnswers.stream()
-                        .filter(answer -> answer.getId() > lastProcessedAnswerId)
-                        .collect(Collectors.toList());
-                logger.info("评测运行{}，使用lastProcessedAnswerId({})过滤，剩余回答数: {}", 
-                        evaluationRunId, lastProcessedAnswerId, remainingAnswers.size());
-                
-                // 如果使用lastProcessedAnswerId过滤后没有剩余回答，尝试使用评测存在检查
-                if (remainingAnswers.isEmpty()) {
-                    logger.info("评测运行{}，通过ID过滤后没有剩余回答，尝试使用评测存在检查", evaluationRunId);
-                    Set<Long> evaluatedIdsSet = new HashSet<>(evaluatedAnswerIds);
-                    remainingAnswers = allAnswers.stream()
-                            .filter(answer -> !evaluatedIdsSet.contains(answer.getId()))
-                            .collect(Collectors.toList());
-                    logger.info("评测运行{}，使用评测存在检查后，剩余回答数: {}", evaluationRunId, remainingAnswers.size());
-                }
-            } else {
-                // 获取未评测的回答
-                Set<Long> evaluatedIdsSet = new HashSet<>(evaluatedAnswerIds);
-                remainingAnswers = allAnswers.stream()
-                        .filter(answer -> !evaluatedIdsSet.contains(answer.getId()))
-                        .collect(Collectors.toList());
-                logger.info("评测运行{}，使用评测存在检查，剩余回答数: {}", evaluationRunId, remainingAnswers.size());
-            }
-            
-            // 如果还是没有剩余回答，但allAnswers不为空，强制重新评测第一个回答（这是一个安全措施）
-            if (remainingAnswers.isEmpty() && !allAnswers.isEmpty() && evaluationRun.getCompletedAnswersCount() < allAnswers.size()) {
-                logger.warn("评测运行{}可能存在问题：所有回答数={}, 已完成数={}, 已评测ID数={}，但过滤后剩余回答为0，强制选择一个回答进行评测",
-                        evaluationRunId, allAnswers.size(), evaluationRun.getCompletedAnswersCount(), evaluatedAnswerIds.size());
-                remainingAnswers = Arrays.asList(allAnswers.get(0));
-            }
-            
-            logger.info("继续评测运行，剩余回答数: {}", remainingAnswers.size());
+            // 统计尚未被该评测者评测的回答，通过反连接查询，不依赖评测者的历史评测数量
+            int remainingCount = llmAnswerRepository.countUnevaluatedByModelAnswerRunId(modelAnswerRunId, evaluatorId);
+            logger.info("继续评测运行{}，上次处理到回答ID: {}，剩余回答数: {}", 
+                    evaluationRunId, lastProcessedAnswerId, remainingCount);
             
             // 再次检查是否已暂停
             if (shouldInterruptEvaluation(evaluationRunId)) {
@@ -2767,20 +2682,12 @@ public class EvaluationServiceImpl implements EvaluationService {
                 return;
             }
             
-            // 批量处理剩余的回答
+            // 批量处理剩余的回答，按回答ID游标分页，已评测的回答由反连接排除
             int batchSize = evaluationRun.getBatchSize() != null ? evaluationRun.getBatchSize() : 10;
+            int processedCount = 0;
+            Long afterId = null;
             
-            // 确保所有问题已完全初始化
-            remainingAnswers.forEach(answer -> {
-                if (answer.getDatasetQuestionMapping() != null && answer.getDatasetQuestionMapping().getStandardQuestion() != null) {
-                    // 触发延迟加载，确保在当前事务中完全初始化
-                    StandardQuestion question = answer.getDatasetQuestionMapping().getStandardQuestion();
-                    question.getQuestionType(); // 强制初始化
-                    question.getQuestionText(); // 强制初始化
-                }
-            });
-            
-            for (int i = 0; i < remainingAnswers.size(); i += batchSize) {
+            while (true) {
                 // 每个批次前强制检查是否应该中断处理
                 if (shouldInterruptEvaluation(evaluationRunId)) {
                     logger.info("检测到评测运行{}的中断信号，立即停止批次处理", evaluationRunId);
@@ -2793,41 +2700,36 @@ public class EvaluationServiceImpl implements EvaluationService {
                     return;
                 }
                 
-                // 获取当前批次的回答
-                int endIndex = Math.min(i + batchSize, remainingAnswers.size());
-                List<LlmAnswer> batchAnswers = remainingAnswers.subList(i, endIndex);
+                // 获取当前批次的回答，evaluateAnswersBatch会在独立事务中按ID重新加载回答和问题
+                List<LlmAnswer> batchAnswers = llmAnswerRepository.findUnevaluatedByModelAnswerRunId(
+                        modelAnswerRunId, evaluatorId, afterId, batchSize);
+                if (batchAnswers.isEmpty()) {
+                    break;
+                }
                 
                 // 批量评测 - 每个批次在独立事务中处理
                 evaluateAnswersBatch(batchAnswers, evaluator.getId(), userId);
                 
                 // 更新最后处理的回答ID
-                if (!batchAnswers.isEmpty()) {
-                    LlmAnswer lastAnswer = batchAnswers.get(batchAnswers.size() - 1);
-                    updateLastProcessedAnswerId(evaluationRunId, lastAnswer.getId());
-                }
+                afterId = batchAnswers.get(batchAnswers.size() - 1).getId();
+                updateLastProcessedAnswerId(evaluationRunId, afterId);
                 
                 // 更新进度 - 查询最新的评测运行记录
+                processedCount += batchAnswers.size();
                 EvaluationRun currentRun = evaluationRunRepository.findById(evaluationRunId)
                         .orElseThrow(() -> new EntityNotFoundException("找不到指定的评测运行记录: " + evaluationRunId));
-                updateEvaluationProgress(currentRun, i + batchAnswers.size(), remainingAnswers.size());
+                updateEvaluationProgress(currentRun, processedCount, Math.max(remainingCount - processedCount, 0));
             }
             
-            // 获取最新的评测结果数量 - 使用现有方法
-            int totalAnswers = allAnswers.size();
-            
-            // 重新查询已评测的数量
-            List<Long> answerIds = allAnswers.stream().map(LlmAnswer::getId).collect(Collectors.toList());
-            int completedAnswers = 0;
-            for (Long answerId : answerIds) {
-                if (evaluationRepository.existsByLlmAnswerIdAndEvaluatorId(answerId, evaluatorId)) {
-                    completedAnswers++;
-                }
-            }
+            // 获取最新的评测结果数量
+            int totalAnswers = llmAnswerRepository.countByRunId(modelAnswerRunId);
+            int completedAnswers = evaluationRepository.countEvaluatedAnswersByEvaluatorIdAndModelAnswerRunId(
+                    evaluatorId, modelAnswerRunId);
             
             logger.info("评测运行{}完成状态检查: 总回答数={}, 已评测数={}", evaluationRunId, totalAnswers, completedAnswers);
             
             // 检查是否所有回答都已处理完成
-            if (remainingAnswers.isEmpty() || completedAnswers >= totalAnswers) {
+            if (remainingCount == 0 || completedAnswers >= totalAnswers) {
                 completeEvaluationRun(evaluationRunId);
             } else {
                 logger.warn("评测运行{}存在未完成的评测: 总回答数={}, 已评测数={}, 未评测数={}",
@@ -3100,10 +3002,14 @@ public class EvaluationServiceImpl implements EvaluationService {
         return evaluation.getEvaluationResults();
     }
 
+    // 批次客观题评测中按标准答案直接评分的题型
+    private static final List<QuestionType> OBJECTIVE_SCORING_TYPES = 
+            Arrays.asList(QuestionType.SINGLE_CHOICE, QuestionType.MULTIPLE_CHOICE, QuestionType.SIMPLE_FACT);
+
     @Override
-    @Transactional
     public Map<String, Object> evaluateBatchObjectiveQuestions(Long batchId, Long evaluatorId, Long userId) {
         logger.debug("开始评测批次的客观题，批次ID: {}", batchId);
+        long startTime = System.currentTimeMillis();
         
         // 验证评测者和用户
         Evaluator evaluator = evaluatorRepository.findById(evaluatorId)
@@ -3118,6 +3024,21 @@ public class EvaluationServiceImpl implements EvaluationService {
             throw new IllegalArgumentException("找不到指定批次的模型运行: " + batchId);
         }
         
+        // 一次性预取批次数据集版本的标准答案和该评测者已有的评测，评分过程不再访问数据库
+        Map<Long, StandardObjectiveAnswer> objectiveStandards = new HashMap<>();
+        for (StandardObjectiveAnswer standard : objectiveAnswerRepository.findActiveByAnswerGenerationBatchId(batchId)) {
+            objectiveStandards.putIfAbsent(standard.getStandardQuestion().getId(), standard);
+        }
+        Map<Long, StandardSimpleAnswer> simpleStandards = new HashMap<>();
+        for (StandardSimpleAnswer standard : simpleAnswerRepository.findActiveByAnswerGenerationBatchId(batchId)) {
+            simpleStandards.putIfAbsent(standard.getStandardQuestion().getId(), standard);
+        }
+        Map<Long, BigDecimal> existingScores =
+                evaluationRepository.findScoresByEvaluatorIdAndAnswerGenerationBatchId(evaluatorId, batchId);
+        
+        logger.debug("开始流式评测批次{}的客观题回答，标准答案: 客观题{}个，简单事实题{}个，已有评测{}条", 
+                batchId, objectiveStandards.size(), simpleStandards.size(), existingScores.size());
+        
         // 统计信息
         Map<String, Object> result = new HashMap<>();
         int totalAnswers = 0;
@@ -3143,35 +3064,60 @@ public class EvaluationServiceImpl implements EvaluationService {
         typeScoreSum.put(QuestionType.MULTIPLE_CHOICE, BigDecimal.ZERO);
         typeScoreSum.put(QuestionType.SIMPLE_FACT, BigDecimal.ZERO);
         
-        // 处理每个模型运行
-        for (ModelAnswerRun modelRun : modelRuns) {
-            // 获取该运行下的所有回答
-            List<LlmAnswer> allAnswers = llmAnswerRepository.findByModelAnswerRunIdWithQuestions(modelRun.getId());
-            
-            // 过滤出客观题回答
-            List<LlmAnswer> objectiveAnswers = allAnswers.stream()
-                    .filter(answer -> {
-                        if (answer.getDatasetQuestionMapping() == null || answer.getDatasetQuestionMapping().getStandardQuestion() == null) {
-                            logger.warn("跳过回答ID: {}，因为其关联的标准问题为空", answer.getId());
-                            return false;
-                        }
-                        StandardQuestion question = answer.getDatasetQuestionMapping().getStandardQuestion();
-                        QuestionType type = question.getQuestionType();
-                        return type == QuestionType.SINGLE_CHOICE || 
-                               type == QuestionType.MULTIPLE_CHOICE || 
-                               type == QuestionType.SIMPLE_FACT;
-                    })
-                    .collect(Collectors.toList());
-            
-            logger.debug("找到{}个客观题回答需要评测", objectiveAnswers.size());
-            totalAnswers += objectiveAnswers.size();
-            
-            // 批量评测客观题回答，包括同一问题的所有重复回答
-            for (LlmAnswer answer : objectiveAnswers) {
-                // 为每个回答创建单独的事务
+        // 流式读取批次的客观题回答，按块并行评分，每块评分完成后批量写入评测记录，内存中只保留当前块
+        int parallelism = objectiveScoringParallelism > 0 
+                ? objectiveScoringParallelism : executorRegistry.parallelism(ExecutorRegistry.Workload.SCORING);
+        int chunkSize = Math.max(1, objectiveInsertBatchSize);
+        ExecutorService scoringExecutor = executorRegistry.executor(ExecutorRegistry.Workload.SCORING);
+        try (Stream<LlmAnswer> answerStream = llmAnswerRepository.streamByBatchIdWithQuestions(
+                batchId, LlmAnswerProjection.FULL, OBJECTIVE_SCORING_TYPES)) {
+            Iterator<LlmAnswer> answerIterator = answerStream.iterator();
+            while (answerIterator.hasNext()) {
+                List<LlmAnswer> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && answerIterator.hasNext()) {
+                    chunk.add(answerIterator.next());
+                }
+                totalAnswers += chunk.size();
+                
+                // 每块切分为parallelism段提交到评分执行器，按原顺序合并结果
+                int sliceSize = (chunk.size() + parallelism - 1) / parallelism;
+                List<Future<List<ObjectiveScore>>> slices = new ArrayList<>();
+                for (int from = 0; from < chunk.size(); from += sliceSize) {
+                    List<LlmAnswer> slice = chunk.subList(from, Math.min(from + sliceSize, chunk.size()));
+                    slices.add(scoringExecutor.submit(() -> slice.stream()
+                            .map(answer -> scoreObjectiveAnswer(answer, evaluator, user, 
+                                    objectiveStandards, simpleStandards, existingScores))
+                            .collect(Collectors.toList())));
+                }
+                List<ObjectiveScore> scores = new ArrayList<>(chunk.size());
+                for (Future<List<ObjectiveScore>> slice : slices) {
+                    scores.addAll(slice.get());
+                }
+                
+                // 在同一事务中写入本块新产生的评测及其评测详情，写入失败时本块新评测均计为失败
+                List<ObjectiveScore> newScores = scores.stream()
+                        .filter(score -> score.evaluation != null)
+                        .collect(Collectors.toList());
+                List<Evaluation> newEvaluations = newScores.stream()
+                        .map(score -> score.evaluation)
+                        .collect(Collectors.toList());
+                boolean insertFailed = false;
                 try {
+                    new TransactionTemplate(transactionManager).executeWithoutResult(status -> 
+                            insertObjectiveEvaluations(evaluatorId, newScores, newEvaluations));
+                } catch (Exception e) {
+                    logger.error("批量保存评测结果失败，批次ID: {}, 本块评测数: {}", batchId, newEvaluations.size(), e);
+                    insertFailed = true;
+                }
+                
+                for (ObjectiveScore score : scores) {
+                    if (score.score == null || (insertFailed && score.evaluation != null)) {
+                        failedCount++;
+                        continue;
+                    }
+                    
                     // 获取repeatIndex，如果为null则默认为0
-                    Integer repeatIndex = answer.getRepeatIndex() != null ? answer.getRepeatIndex() : 0;
+                    Integer repeatIndex = score.answer.getRepeatIndex() != null ? score.answer.getRepeatIndex() : 0;
                     
                     // 初始化此repeatIndex的统计数据（如果不存在）
                     repeatIndexCount.putIfAbsent(repeatIndex, 0);
@@ -3193,32 +3139,31 @@ public class EvaluationServiceImpl implements EvaluationService {
                         repeatIndexTypeScoreSum.put(repeatIndex, indexTypeScoreSum);
                     }
                     
-                    BigDecimal score = evaluateSingleObjectiveAnswer(answer, evaluator, user, typeCount, typeScoreSum);
+                    // 更新问题类型统计
+                    typeCount.put(score.type, typeCount.get(score.type) + 1);
+                    typeScoreSum.put(score.type, typeScoreSum.get(score.type).add(score.score));
                     
                     // 更新按repeatIndex分组的统计
                     repeatIndexCount.put(repeatIndex, repeatIndexCount.get(repeatIndex) + 1);
-                    repeatIndexScoreSum.put(repeatIndex, repeatIndexScoreSum.get(repeatIndex).add(score));
+                    repeatIndexScoreSum.put(repeatIndex, repeatIndexScoreSum.get(repeatIndex).add(score.score));
                     
                     // 更新按repeatIndex分组的问题类型统计
-                    if (answer.getDatasetQuestionMapping() == null || answer.getDatasetQuestionMapping().getStandardQuestion() == null) {
-                        logger.warn("无法获取回答ID: {}的问题类型，因为关联的标准问题为空", answer.getId());
-                        continue;
-                    }
-                    QuestionType type = answer.getDatasetQuestionMapping().getStandardQuestion().getQuestionType();
                     Map<QuestionType, Integer> indexTypeCount = repeatIndexTypeCount.get(repeatIndex);
                     Map<QuestionType, BigDecimal> indexTypeScoreSum = repeatIndexTypeScoreSum.get(repeatIndex);
                     
-                    indexTypeCount.put(type, indexTypeCount.get(type) + 1);
-                    indexTypeScoreSum.put(type, indexTypeScoreSum.get(type).add(score));
+                    indexTypeCount.put(score.type, indexTypeCount.get(score.type) + 1);
+                    indexTypeScoreSum.put(score.type, indexTypeScoreSum.get(score.type).add(score.score));
                     
                     // 更新总统计
-                    totalScore = totalScore.add(score);
+                    totalScore = totalScore.add(score.score);
                     successCount++;
-                } catch (Exception e) {
-                    logger.error("评测回答时出错，回答ID: {}", answer.getId(), e);
-                    failedCount++;
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("批次客观题评测被中断: " + batchId, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("批次客观题评测失败: " + e.getCause().getMessage(), e.getCause());
         }
         
         // 计算统计结果
@@ -3294,186 +3239,164 @@ public class EvaluationServiceImpl implements EvaluationService {
         }
         result.put("repeatIndexStatistics", repeatIndexStats);
         
-        logger.info("批次客观题评测完成，总计: {}, 成功: {}, 失败: {}", totalAnswers, successCount, failedCount);
+        // 评测吞吐量
+        long durationMs = Math.max(1, System.currentTimeMillis() - startTime);
+        double answersPerSecond = totalAnswers * 1000.0 / durationMs;
+        result.put("durationMs", durationMs);
+        result.put("answersPerSecond", Math.round(answersPerSecond * 100) / 100.0);
+        
+        logger.info("批次客观题评测完成，总计: {}, 成功: {}, 失败: {}, 耗时: {}毫秒, 吞吐量: {} 条/秒", 
+                totalAnswers, successCount, failedCount, durationMs, String.format("%.2f", answersPerSecond));
         return result;
     }
 
     /**
-     * 评测单个客观题回答
-     * 这个方法需要在单独的事务中执行，以避免一个回答的评测失败影响其他回答
+     * 批量写入客观题评测，批量插入不可靠回填主键，按(回答ID, 评测者ID)唯一键查回评测ID后写入评测详情
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public BigDecimal evaluateSingleObjectiveAnswer(LlmAnswer answer, Evaluator evaluator, User user, 
-                                        Map<QuestionType, Integer> typeCount, 
-                                        Map<QuestionType, BigDecimal> typeScoreSum) {
-        // 确保加载完整的问题信息
-        answer = getLlmAnswerWithQuestions(answer);
-        
-        if (answer.getDatasetQuestionMapping() == null || answer.getDatasetQuestionMapping().getStandardQuestion() == null) {
-            // 获取详细的关联信息，以便更好地诊断问题
-            Map<String, Object> relations = checkAnswerRelations(answer.getId());
-            logger.warn("无法评测回答ID: {}，因为其关联的标准问题为空。关联信息: {}", answer.getId(), relations);
-            // 返回默认评分0
-            return BigDecimal.ZERO;
-        }
-
-        StandardQuestion question = answer.getDatasetQuestionMapping().getStandardQuestion();
-        QuestionType type = question.getQuestionType();
-        
-        // 获取重复索引
-        Integer repeatIndex = answer.getRepeatIndex();
-        if (repeatIndex == null) {
-            repeatIndex = 0; // 默认为0
+    private void insertObjectiveEvaluations(Long evaluatorId, List<ObjectiveScore> newScores, 
+                                            List<Evaluation> newEvaluations) {
+        if (newEvaluations.isEmpty()) {
+            return;
         }
+        evaluationRepository.insertBatch(newEvaluations);
         
-        // 检查是否已经存在针对这个回答的评测记录
-        String scoreType = "OBJECTIVE_" + type.name();
-        
-        // 考虑repeatIndex，使用完全匹配的回答ID查找
-        Optional<Evaluation> existingEvaluation = evaluationRepository.findByLlmAnswerIdAndEvaluatorId(
-                answer.getId(), evaluator.getId()).stream().findFirst();
+        List<Long> answerIds = newScores.stream()
+                .map(score -> score.answer.getId())
+                .collect(Collectors.toList());
+        Map<Long, Long> evaluationIds = evaluationRepository.findIdsByEvaluatorIdAndLlmAnswerIds(evaluatorId, answerIds);
         
-        if (existingEvaluation.isPresent()) {
-            logger.info("该回答已存在评测记录，回答ID: {}, 重复索引: {}, 评测者ID: {}, 分数类型: {}", 
-                    answer.getId(), answer.getRepeatIndex(), evaluator.getId(), scoreType);
-            
-            BigDecimal score = existingEvaluation.get().getRawScore();
-            
-            // 更新统计信息
-            if (typeCount.containsKey(type)) {
-                typeCount.put(type, typeCount.get(type) + 1);
-                typeScoreSum.put(type, typeScoreSum.get(type).add(score));
+        List<EvaluationDetail> details = new ArrayList<>();
+        for (ObjectiveScore score : newScores) {
+            Long evaluationId = evaluationIds.get(score.answer.getId());
+            if (evaluationId == null) {
+                throw new IllegalStateException("批量写入后找不到评测记录，回答ID: " + score.answer.getId());
             }
-            
-            return score;
-        }
-        
-        // 创建评测记录
-        Evaluation evaluation = new Evaluation();
-        evaluation.setLlmAnswer(answer);
-        evaluation.setEvaluator(evaluator);
-        evaluation.setEvaluationTime(LocalDateTime.now());
-        evaluation.setStatus(EvaluationStatus.SUCCESS);
-        evaluation.setCreatedByUser(user);
-        evaluation.setCreationTime(LocalDateTime.now()); // 设置创建时间
-        evaluation.setCompletionTime(LocalDateTime.now()); // 设置完成时间
-        evaluation.setEvaluationType(EvaluationType.AI_MODEL); // 设置评测类型为自动评测
-        
-        BigDecimal score;
-        Map<String, Object> evaluationResult;
-        
-        // 根据问题类型进行评测
-        switch (type) {
-            case SINGLE_CHOICE:
-                StandardObjectiveAnswer singleChoiceAnswer = objectiveAnswerRepository.findByStandardQuestionId(question.getId())
-                        .orElseThrow(() -> new IllegalStateException("找不到单选题的标准答案: " + question.getId()));
-                
-                evaluationResult = evaluateSingleChoice(
-                        answer.getAnswerText(),
-                        singleChoiceAnswer.getCorrectOptionIds(),
-                        singleChoiceAnswer.getOptions());
-                
-                // 添加重复索引信息
-                evaluationResult.put("repeatIndex", repeatIndex);
-                
-                score = new BigDecimal(evaluationResult.get("score").toString());
-                evaluation.setScore(score);
-                evaluation.setComments((String) evaluationResult.getOrDefault("feedback", evaluationResult.get("comments")));
-                evaluation.setEvaluationResults(evaluationResult); // 保存完整的评测结果
-                
-                typeCount.put(QuestionType.SINGLE_CHOICE, typeCount.get(QuestionType.SINGLE_CHOICE) + 1);
-                typeScoreSum.put(QuestionType.SINGLE_CHOICE, typeScoreSum.get(QuestionType.SINGLE_CHOICE).add(score));
-                break;
-                
-            case MULTIPLE_CHOICE:
-                StandardObjectiveAnswer multipleChoiceAnswer = objectiveAnswerRepository
-                        .findByStandardQuestionId(question.getId())
-                        .orElseThrow(() -> new IllegalStateException("找不到多选题的标准答案: " + question.getId()));
-                
-                evaluationResult = evaluateMultipleChoice(
-                        answer.getAnswerText(),
-                        multipleChoiceAnswer.getCorrectOptionIds(),
-                        multipleChoiceAnswer.getOptions());
-                
-                // 添加重复索引信息
-                evaluationResult.put("repeatIndex", repeatIndex);
-                
-                score = new BigDecimal(evaluationResult.get("score").toString());
-                evaluation.setScore(score);
-                evaluation.setComments((String) evaluationResult.getOrDefault("feedback", evaluationResult.get("comments")));
-                evaluation.setEvaluationResults(evaluationResult); // 保存完整的评测结果
-                
-                typeCount.put(QuestionType.MULTIPLE_CHOICE, typeCount.get(QuestionType.MULTIPLE_CHOICE) + 1);
-                typeScoreSum.put(QuestionType.MULTIPLE_CHOICE, typeScoreSum.get(QuestionType.MULTIPLE_CHOICE).add(score));
-                break;
-                
-            case SIMPLE_FACT:
-                StandardSimpleAnswer simpleAnswer = simpleAnswerRepository
-                        .findByStandardQuestionId(question.getId())
-                        .orElseThrow(() -> new IllegalStateException("找不到简单事实题的标准答案: " + question.getId()));
-                
-                evaluationResult = evaluateSimpleFact(
-                        answer.getAnswerText(),
-                        simpleAnswer.getAnswerText(),
-                        simpleAnswer.getAlternativeAnswers());
-                
-                // 添加重复索引信息
-                evaluationResult.put("repeatIndex", repeatIndex);
-                
-                score = new BigDecimal(evaluationResult.get("score").toString());
-                evaluation.setScore(score);
-                evaluation.setComments((String) evaluationResult.getOrDefault("feedback", evaluationResult.get("comments")));
-                evaluation.setEvaluationResults(evaluationResult); // 保存完整的评测结果
-                
-                typeCount.put(QuestionType.SIMPLE_FACT, typeCount.get(QuestionType.SIMPLE_FACT) + 1);
-                typeScoreSum.put(QuestionType.SIMPLE_FACT, typeScoreSum.get(QuestionType.SIMPLE_FACT).add(score));
-                break;
-                
-            default:
-                // 不应该到达这里，因为我们已经过滤了问题类型
-                throw new IllegalArgumentException("不支持的问题类型: " + type);
+            score.evaluation.setId(evaluationId);
+            details.addAll(score.details);
         }
+        evaluationDetailRepository.insertBatch(details);
+    }
+
+    /**
+     * 评测单个客观题回答
+     * 只使用预取的标准答案和已有评测，不访问数据库，可在评分线程池中并行执行
+     */
+    private ObjectiveScore scoreObjectiveAnswer(LlmAnswer answer, Evaluator evaluator, User user,
+                                                Map<Long, StandardObjectiveAnswer> objectiveStandards,
+                                                Map<Long, StandardSimpleAnswer> simpleStandards,
+                                                Map<Long, BigDecimal> existingScores) {
+        StandardQuestion question = answer.getDatasetQuestionMapping().getStandardQuestion();
+        ObjectiveScore objectiveScore = new ObjectiveScore(answer, question.getQuestionType());
         
         try {
-            // 保存评测结果
-            evaluation = evaluationRepository.save(evaluation);
-            logger.info("成功保存评测结果，评测ID: {}, 回答ID: {}, 重复索引: {}", 
-                    evaluation.getId(), answer.getId(), repeatIndex);
+            // 已存在针对这个回答的评测记录时沿用其分数
+            if (existingScores.containsKey(answer.getId())) {
+                BigDecimal existingScore = existingScores.get(answer.getId());
+                objectiveScore.score = existingScore != null ? existingScore : BigDecimal.ZERO;
+                return objectiveScore;
+            }
             
-            // 保存评测详情
+            // 根据问题类型进行评测
+            Map<String, Object> evaluationResult;
+            switch (objectiveScore.type) {
+                case SINGLE_CHOICE:
+                    StandardObjectiveAnswer singleChoiceAnswer = objectiveStandards.get(question.getId());
+                    if (singleChoiceAnswer == null) {
+                        throw new IllegalStateException("找不到单选题的标准答案: " + question.getId());
+                    }
+                    evaluationResult = evaluateSingleChoice(
+                            answer.getAnswerText(),
+                            singleChoiceAnswer.getCorrectOptionIds(),
+                            singleChoiceAnswer.getOptions());
+                    break;
+                    
+                case MULTIPLE_CHOICE:
+                    StandardObjectiveAnswer multipleChoiceAnswer = objectiveStandards.get(question.getId());
+                    if (multipleChoiceAnswer == null) {
+                        throw new IllegalStateException("找不到多选题的标准答案: " + question.getId());
+                    }
+                    evaluationResult = evaluateMultipleChoice(
+                            answer.getAnswerText(),
+                            multipleChoiceAnswer.getCorrectOptionIds(),
+                            multipleChoiceAnswer.getOptions());
+                    break;
+                    
+                case SIMPLE_FACT:
+                    StandardSimpleAnswer simpleAnswer = simpleStandards.get(question.getId());
+                    if (simpleAnswer == null) {
+                        throw new IllegalStateException("找不到简单事实题的标准答案: " + question.getId());
+                    }
+                    evaluationResult = evaluateSimpleFact(
+                            answer.getAnswerText(),
+                            simpleAnswer.getAnswerText(),
+                            simpleAnswer.getAlternativeAnswers());
+                    break;
+                    
+                default:
+                    // 不应该到达这里，因为我们已经过滤了问题类型
+                    throw new IllegalArgumentException("不支持的问题类型: " + objectiveScore.type);
+            }
+            
+            // 添加重复索引信息
+            evaluationResult.put("repeatIndex", answer.getRepeatIndex() != null ? answer.getRepeatIndex() : 0);
+            BigDecimal score = new BigDecimal(evaluationResult.get("score").toString());
+            
+            // 创建评测记录，对于客观题，原始分数和标准化分数相同
+            LocalDateTime now = LocalDateTime.now();
+            Evaluation evaluation = new Evaluation();
+            evaluation.setLlmAnswer(answer);
+            evaluation.setEvaluator(evaluator);
+            evaluation.setEvaluationTime(now);
+            evaluation.setStatus(EvaluationStatus.SUCCESS);
+            evaluation.setCreatedByUser(user);
+            evaluation.setCreationTime(now);
+            evaluation.setCompletionTime(now);
+            evaluation.setEvaluationType(EvaluationType.AI_MODEL);
+            evaluation.setScore(score);
+            evaluation.setComments((String) evaluationResult.getOrDefault("feedback", evaluationResult.get("comments")));
+            evaluation.setEvaluationResults(evaluationResult);
+            evaluation.setRawScore(score);
+            evaluation.setNormalizedScore(score);
+            evaluation.setScoreType("OBJECTIVE_" + objectiveScore.type.name());
+            evaluation.setScoringMethod("AUTOMATIC");
+            
+            // 评测详情在评测写入并取得ID后批量保存
             if (evaluationResult.containsKey("criteria_scores")) {
                 @SuppressWarnings("unchecked")
                 List<Map<String, Object>> criteriaScores = (List<Map<String, Object>>) evaluationResult.get("criteria_scores");
                 
-                List<EvaluationDetail> details = new ArrayList<>();
                 for (Map<String, Object> criteriaScore : criteriaScores) {
                     EvaluationDetail detail = new EvaluationDetail();
                     detail.setEvaluation(evaluation);
                     detail.setCriterionName((String) criteriaScore.get("criterion"));
                     detail.setScore(new BigDecimal(criteriaScore.get("score").toString()));
                     detail.setComments((String) criteriaScore.get("comments"));
-                    detail.setCreatedAt(LocalDateTime.now());
-                    details.add(detail);
+                    detail.setCreatedAt(now);
+                    objectiveScore.details.add(detail);
                 }
-                
-                evaluationDetailRepository.saveAll(details);
-                logger.info("成功保存评测详情，评测ID: {}, 详情数量: {}", evaluation.getId(), details.size());
             }
             
-            // 保存分数记录到Evaluation中
-            evaluation.setRawScore(score);
-            evaluation.setNormalizedScore(score); // 对于客观题，原始分数和标准化分数相同
-            evaluation.setScoreType(scoreType);
-            evaluation.setScoringMethod("AUTOMATIC");
-            
-            evaluation = evaluationRepository.save(evaluation);
-            logger.info("成功保存评测记录，评测ID: {}, 回答ID: {}, 重复索引: {}, 评测者ID: {}, 分数类型: {}", 
-                    evaluation.getId(), answer.getId(), repeatIndex, evaluator.getId(), scoreType);
-            
-            return score;
+            objectiveScore.score = score;
+            objectiveScore.evaluation = evaluation;
         } catch (Exception e) {
-            logger.error("保存评测结果时出错，回答ID: {}, 重复索引: {}", answer.getId(), repeatIndex, e);
-            throw e; // 重新抛出异常，让事务回滚
+            logger.error("评测回答时出错，回答ID: {}", answer.getId(), e);
+        }
+        return objectiveScore;
+    }
+
+    /**
+     * 单个客观题回答的评分结果，score为null表示评测失败，evaluation为null表示沿用已有评测
+     */
+    private static class ObjectiveScore {
+        private final LlmAnswer answer;
+        private final QuestionType type;
+        private BigDecimal score;
+        private Evaluation evaluation;
+        private final List<EvaluationDetail> details = new ArrayList<>();
+
+        ObjectiveScore(LlmAnswer answer, QuestionType type) {
+            this.answer = answer;
+            this.type = type;
         }
     }
 
@@ -3485,7 +3408,7 @@ public class EvaluationServiceImpl implements EvaluationService {
      * @return 相似度得分（0-1之间）
      */
     public BigDecimal calculateBertSimilarity(String text1, String text2) {
-        logger.info("计算BERT文本相似度，文本1长度: {}, 文本2长度: {}", 
+        logger.debug("计算BERT文本相似度，文本1长度: {}, 文本2长度: {}", 
                 text1 != null ? text1.length() : 0, 
                 text2 != null ? text2.length() : 0);
         
@@ -3497,11 +3420,8 @@ public class EvaluationServiceImpl implements EvaluationService {
             }
             
             // 中文文本预处理：移除常见的答案前缀
-            String processedText1 = text1.toLowerCase()
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", ""); // 移除常见的答案前缀
-            
-            String processedText2 = text2.toLowerCase()
-                .replaceAll("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?", ""); // 移除常见的答案前缀
+            String processedText1 = TextMetrics.stripAnswerPrefix(text1);
+            String processedText2 = TextMetrics.stripAnswerPrefix(text2);
             
             // 如果任一处理后的文本为空，返回0分
             if (processedText1.isEmpty() || processedText2.isEmpty()) {
@@ -3513,37 +3433,17 @@ public class EvaluationServiceImpl implements EvaluationService {
             // 实际项目中，您可以集成一个Java BERT客户端库或使用HTTP请求调用BERT服务
             
             // 模拟BERT相似度计算 - 这里使用加权Levenshtein距离作为示例
-            int distance = calculateLevenshteinDistance(processedText1, processedText2);
-            int maxLength = Math.max(processedText1.length(), processedText2.length());
-            
             // 计算基础相似度：1 - 标准化编辑距离
-            double baseSimilarity = 1.0 - ((double) distance / maxLength);
-            
-            // 关键词匹配加权（模拟BERT的语义理解能力）
-            double keywordBoost = 0.0;
-            // 提取关键词（简化实现）
-            String[] words1 = processedText1.split("\\s+");
-            String[] words2 = processedText2.split("\\s+");
+            double baseSimilarity = TextMetrics.editSimilarity(processedText1, processedText2);
             
-            Set<String> keyWords1 = new HashSet<>(Arrays.asList(words1));
-            Set<String> keyWords2 = new HashSet<>(Arrays.asList(words2));
-            
-            // 计算关键词重叠率
-            Set<String> commonWords = new HashSet<>(keyWords1);
-            commonWords.retainAll(keyWords2);
-            
-            if (!keyWords1.isEmpty() && !keyWords2.isEmpty()) {
-                keywordBoost = 0.2 * ((double) commonWords.size() / Math.min(keyWords1.size(), keyWords2.size()));
-            }
+            // 关键词匹配加权（模拟BERT的语义理解能力），按空白分词计算关键词重叠率
+            double keywordBoost = 0.2 * TextMetrics.wordOverlap(processedText1, processedText2);
             
             // 最终BERT模拟相似度 = 基础相似度 + 关键词加权
-            double bertSimilarity = Math.min(1.0, baseSimilarity + keywordBoost);
-            
-            // 转换为BigDecimal并四舍五入到2位小数
-            BigDecimal result = new BigDecimal(bertSimilarity).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal result = toMetricScore(baseSimilarity + keywordBoost);
             
-            logger.info("BERT相似度计算结果: {}, 原始文本1: {}, 处理后: {}, 原始文本2: {}, 处理后: {}", 
-                result, text1, processedText1, text2, processedText2);
+            logger.debug("BERT相似度计算结果: {}, 处理后文本长度: {} / {}", 
+                result, processedText1.length(), processedText2.length());
             return result;
             
         } catch (Exception e) {
@@ -3611,8 +3511,8 @@ public class EvaluationServiceImpl implements EvaluationService {
         evaluationRunRepository.save(evaluationRun);
         
         try {
-            // 获取该批次的所有回答
-            List<LlmAnswer> answers = llmAnswerRepository.findByBatchIdWithQuestions(batchId);
+            // 获取该批次的所有回答，先不加载大文本列
+            List<LlmAnswer> answers = llmAnswerRepository.findByBatchIdWithQuestions(batchId, LlmAnswerProjection.SUMMARY);
             
             // 过滤出主观题的回答
             answers = answers.stream()
@@ -3630,6 +3530,9 @@ public class EvaluationServiceImpl implements EvaluationService {
                 return Map.of("status", "completed", "message", "没有主观题需要评测");
             }
             
+            // 只为主观题回答加载回答文本等大文本列
+            llmAnswerRepository.loadLargeText(answers);
+            
             // 更新总回答数
             evaluationRun.setTotalAnswersCount(answers.size());
             
@@ -3669,52 +3572,20 @@ public class EvaluationServiceImpl implements EvaluationService {
                 criteria = getCriteriaForQuestionType(QuestionType.SUBJECTIVE);
             }
             
+            // 评测用户在提交前加载一次，所有回答共用
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new EntityNotFoundException("用户不存在: " + userId));
+            
             // 创建Lambda中需要的final变量
             final List<LlmAnswer> finalAnswers = new ArrayList<>(answers);
-            final Evaluator finalEvaluator = evaluator;
             final List<EvaluationCriterion> finalCriteria = new ArrayList<>(criteria);
-            final Long finalUserId = userId;
             final Long finalRunId = evaluationRun.getId();
-            final JdbcTemplate finalJdbcTemplate = jdbcTemplate;
             
             // 异步处理批次答案
             evaluationExecutor.submit(() -> {
                 try {
-                    int total = finalAnswers.size();
-                    int processed = 0;
-                    
-                    for (LlmAnswer answer : finalAnswers) {
-                        try {
-                            // 执行评测
-                            // 获取用户信息
-                            String userSql = "SELECT * FROM users WHERE id = ?";
-                            Map<String, Object> userData = finalJdbcTemplate.queryForMap(userSql, finalUserId);
-                            
-                            User user = new User();
-                            user.setId(finalUserId);
-                            user.setUsername((String) userData.get("username"));
-                            
-                            evaluateSubjectiveAnswer(answer, finalEvaluator, user, finalCriteria);
-                            processed++;
-                            
-                            // 更新进度
-                            String updateProgressSql = "UPDATE evaluation_runs SET completed_answers_count = ?, progress_percentage = ? WHERE id = ?";
-                            finalJdbcTemplate.update(updateProgressSql, processed, (int)((processed * 100.0) / total), finalRunId);
-                            
-        } catch (Exception e) {
-                            logger.error("处理回答时发生错误", e);
-                            // 更新错误状态
-                            String updateErrorSql = "UPDATE evaluation_runs SET status = 'FAILED', error_message = ? WHERE id = ?";
-                            finalJdbcTemplate.update(updateErrorSql, e.getMessage(), finalRunId);
-            throw e;
-        }
-    }
-    
-                    // 完成评测
-                    String completeRunSql = "UPDATE evaluation_runs SET status = 'COMPLETED', end_time = ? WHERE id = ?";
-                    finalJdbcTemplate.update(completeRunSql, Timestamp.valueOf(LocalDateTime.now()), finalRunId);
-                    
-        } catch (Exception e) {
+                    runSubjectiveEvaluationWorkers(finalRunId, finalAnswers, evaluator, user, finalCriteria);
+                } catch (Exception e) {
                     logger.error("批量评测过程中发生错误", e);
                 }
             });
@@ -3896,6 +3767,7 @@ public class EvaluationServiceImpl implements EvaluationService {
             evaluation.setScoreType(scoreType);
             evaluation.setScoringMethod("HUMAN");
             evaluation = evaluationRepository.save(evaluation);
+            humanEvaluationDispatcher.complete(llmAnswerId, evaluatorId, evaluation.getId());
             
             logger.info("成功创建并提交人工评测，评测ID: {}", evaluation.getId());
             return evaluation;
@@ -4507,6 +4379,9 @@ public class EvaluationServiceImpl implements EvaluationService {
     /**
      * 获取待人工评测的回答列表
      * 
+     * 列表来自批次对评测者的人工评测任务，包括已被其他评测人员领取的任务；
+     * 需要与其他评测人员分工时使用claimHumanEvaluationTasks领取。
+     * 
      * @param userId 用户ID
      * @param batchId 批次ID
      * @param modelIds 模型ID列表
@@ -4524,14 +4399,11 @@ public class EvaluationServiceImpl implements EvaluationService {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            // 前端传入的页码已经是从0开始，不需要再减1
-            Pageable pageable = PageRequest.of(page, size);
-            
-            // 使用指定的评测者ID
-            List<Long> evaluatorIds = Collections.singletonList(evaluatorId);
-            // 验证评测者ID是否有效
-            if (!evaluatorRepository.existsById(evaluatorId)) {
-                logger.warn("评测者ID {}不存在", evaluatorId);
+            // 验证评测者ID是否有效，任务按批次生成，未指定批次时没有待评测回答
+            if (batchId == null || !evaluatorRepository.existsById(evaluatorId)) {
+                if (batchId != null) {
+                    logger.warn("评测者ID {}不存在", evaluatorId);
+                }
                 result.put("items", Collections.emptyList());
                 result.put("totalItems", 0);
                 result.put("totalPages", 0);
@@ -4541,78 +4413,21 @@ public class EvaluationServiceImpl implements EvaluationService {
                 return result;
             }
             
-            // 将问题类型字符串转换为枚举类型
-            QuestionType questionTypeEnum = null;
-            if (questionType != null && !questionType.isEmpty()) {
-                try {
-                    questionTypeEnum = QuestionType.valueOf(questionType);
-                } catch (IllegalArgumentException e) {
-                    logger.warn("无效的问题类型: {}", questionType);
-                }
-            }
+            QuestionType questionTypeEnum = parseQuestionType(questionType);
             
-            // 获取未被评测过的回答
-            List<Map<String, Object>> pendingAnswers = llmAnswerRepository.findPendingAnswersForHumanEvaluation(
-                    evaluatorIds, batchId, modelIds, questionTypeEnum, pageable);
+            // 确保任务已生成，前端传入的页码已经是从0开始
+            HumanEvaluationQueue queue = humanEvaluationDispatcher.prepare(batchId, evaluatorId);
+            List<Map<String, Object>> pendingAnswers = humanEvaluationDispatcher.findUnfinished(
+                    batchId, evaluatorId, modelIds, questionTypeEnum, page, size);
             
-            // 获取总记录数
-            long totalCount = llmAnswerRepository.countPendingAnswersForHumanEvaluation(
-                    evaluatorIds, batchId, modelIds, questionTypeEnum);
+            // 无筛选条件时直接使用队列计数
+            long totalCount = humanEvaluationDispatcher.countUnfinished(queue, modelIds, questionTypeEnum);
             
             // 计算总页数
             int totalPages = (int) Math.ceil((double) totalCount / size);
             
-            // 处理回答数据，添加标准问题和标准答案信息
-            List<Map<String, Object>> detailedAnswers = new ArrayList<>();
-            for (Map<String, Object> answer : pendingAnswers) {
-                Map<String, Object> detailedAnswer = new HashMap<>(answer);
-                
-                // 获取标准问题
-                Long questionId = (Long) answer.get("questionId");
-                StandardQuestion question = standardQuestionRepository.findById(questionId).orElse(null);
-                if (question != null) {
-                    detailedAnswer.put("questionText", question.getQuestionText());
-                    detailedAnswer.put("questionType", question.getQuestionType());
-                    detailedAnswer.put("difficultyLevel", question.getDifficultyLevel());
-                    
-                    // 获取标准答案
-                    Map<String, Object> standardAnswer = getStandardAnswerForQuestion(questionId);
-                    if (standardAnswer != null && !standardAnswer.isEmpty()) {
-                        detailedAnswer.put("standardAnswer", standardAnswer);
-                    }
-                }
-                
-                // 获取模型信息
-                Long modelId = (Long) answer.get("modelId");
-                LlmModel model = llmModelRepository.findById(modelId).orElse(null);
-                if (model != null) {
-                    detailedAnswer.put("modelName", model.getName());
-                    detailedAnswer.put("modelVersion", model.getVersion());
-                }
-                
-                // 获取评测标准
-                if (question != null && question.getQuestionType() != null) {
-                    List<EvaluationCriterion> criteria = evaluationCriterionRepository.findByQuestionType(question.getQuestionType());
-                    if (!criteria.isEmpty()) {
-                        List<Map<String, Object>> criteriaData = new ArrayList<>();
-                        for (EvaluationCriterion criterion : criteria) {
-                            Map<String, Object> criterionData = new HashMap<>();
-                            criterionData.put("id", criterion.getId());
-                            criterionData.put("name", criterion.getName());
-                            criterionData.put("description", criterion.getDescription());
-                            criterionData.put("maxScore", criterion.getMaxScore());
-                            criterionData.put("weight", criterion.getWeight());
-                            criteriaData.add(criterionData);
-                        }
-                        detailedAnswer.put("evaluationCriteria", criteriaData);
-                    }
-                }
-                
-                detailedAnswers.add(detailedAnswer);
-            }
-            
             // 构建返回结果
-            result.put("items", detailedAnswers);
+            result.put("items", enrichHumanEvaluationItems(pendingAnswers));
             result.put("totalItems", totalCount);
             result.put("totalPages", totalPages);
             result.put("currentPage", page);
@@ -4628,6 +4443,130 @@ public class EvaluationServiceImpl implements EvaluationService {
         return result;
     }
 
+    @Override
+    public Map<String, Object> claimHumanEvaluationTasks(Long userId, Long evaluatorId, Long batchId, List<Long> modelIds,
+                                                         String questionType, int count) {
+        logger.info("领取人工评测任务，用户ID: {}, 评测者ID: {}, 批次ID: {}, 模型IDs: {}, 问题类型: {}, 数量: {}",
+                userId, evaluatorId, batchId, modelIds, questionType, count);
+        
+        Map<String, Object> result = new HashMap<>();
+        
+        try {
+            if (batchId == null) {
+                throw new IllegalArgumentException("批次ID不能为空");
+            }
+            Evaluator evaluator = evaluatorRepository.findById(evaluatorId)
+                    .orElseThrow(() -> new EntityNotFoundException("评测者不存在: " + evaluatorId));
+            if (evaluator.getEvaluatorType() != Evaluator.EvaluatorType.HUMAN) {
+                throw new IllegalArgumentException("评测者不是人类: " + evaluatorId);
+            }
+            
+            HumanEvaluationDispatcher.ClaimResult claim = humanEvaluationDispatcher.claim(
+                    userId, evaluatorId, batchId, modelIds, parseQuestionType(questionType), count);
+            List<Map<String, Object>> tasks = humanEvaluationDispatcher.findItems(claim.getTaskIds());
+            
+            result.put("items", enrichHumanEvaluationItems(tasks));
+            result.put("claimedCount", tasks.size());
+            result.put("renewedCount", claim.getRenewedCount());
+            result.put("success", true);
+            
+        } catch (Exception e) {
+            logger.error("领取人工评测任务时发生错误", e);
+            result.put("success", false);
+            result.put("error", e.getMessage());
+        }
+        
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> releaseHumanEvaluationTasks(Long userId, List<Long> taskIds) {
+        logger.info("释放人工评测任务，用户ID: {}, 任务IDs: {}", userId, taskIds);
+        
+        Map<String, Object> result = new HashMap<>();
+        
+        try {
+            int released = humanEvaluationDispatcher.release(userId, taskIds);
+            result.put("releasedCount", released);
+            result.put("success", true);
+        } catch (Exception e) {
+            logger.error("释放人工评测任务时发生错误", e);
+            result.put("success", false);
+            result.put("error", e.getMessage());
+        }
+        
+        return result;
+    }
+
+    /**
+     * 将问题类型字符串转换为枚举类型，无效时忽略该筛选条件
+     */
+    private QuestionType parseQuestionType(String questionType) {
+        if (questionType == null || questionType.isEmpty()) {
+            return null;
+        }
+        try {
+            return QuestionType.valueOf(questionType);
+        } catch (IllegalArgumentException e) {
+            logger.warn("无效的问题类型: {}", questionType);
+            return null;
+        }
+    }
+
+    /**
+     * 为待人工评测条目添加标准问题、标准答案、模型和评测标准信息
+     */
+    private List<Map<String, Object>> enrichHumanEvaluationItems(List<Map<String, Object>> items) {
+        List<Map<String, Object>> detailedAnswers = new ArrayList<>();
+        for (Map<String, Object> answer : items) {
+            Map<String, Object> detailedAnswer = new HashMap<>(answer);
+            
+            // 获取标准问题
+            Long questionId = (Long) answer.get("questionId");
+            StandardQuestion question = standardQuestionRepository.findById(questionId).orElse(null);
+            if (question != null) {
+                detailedAnswer.put("questionText", question.getQuestionText());
+                detailedAnswer.put("questionType", question.getQuestionType());
+                detailedAnswer.put("difficultyLevel", question.getDifficultyLevel());
+                
+                // 获取标准答案
+                Map<String, Object> standardAnswer = getStandardAnswerForQuestion(questionId);
+                if (standardAnswer != null && !standardAnswer.isEmpty()) {
+                    detailedAnswer.put("standardAnswer", standardAnswer);
+                }
+            }
+            
+            // 获取模型信息
+            Long modelId = (Long) answer.get("modelId");
+            LlmModel model = llmModelRepository.findById(modelId).orElse(null);
+            if (model != null) {
+                detailedAnswer.put("modelName", model.getName());
+                detailedAnswer.put("modelVersion", model.getVersion());
+            }
+            
+            // 获取评测标准
+            if (question != null && question.getQuestionType() != null) {
+                List<EvaluationCriterion> criteria = evaluationCriterionRepository.findByQuestionType(question.getQuestionType());
+                if (!criteria.isEmpty()) {
+                    List<Map<String, Object>> criteriaData = new ArrayList<>();
+                    for (EvaluationCriterion criterion : criteria) {
+                        Map<String, Object> criterionData = new HashMap<>();
+                        criterionData.put("id", criterion.getId());
+                        criterionData.put("name", criterion.getName());
+                        criterionData.put("description", criterion.getDescription());
+                        criterionData.put("maxScore", criterion.getMaxScore());
+                        criterionData.put("weight", criterion.getWeight());
+                        criteriaData.add(criterionData);
+                    }
+                    detailedAnswer.put("evaluationCriteria", criteriaData);
+                }
+            }
+            
+            detailedAnswers.add(detailedAnswer);
+        }
+        return detailedAnswers;
+    }
+
     /**
      * 获取用户已评测的回答列表
      * 
@@ -5013,53 +4952,24 @@ public class EvaluationServiceImpl implements EvaluationService {
         String updateRunSql = "UPDATE evaluation_runs SET total_answers_count = ? WHERE id = ?";
         jdbcTemplate.update(updateRunSql, answersData.size(), evaluationRun.getId());
         
+        // 评测者和用户在提交前加载一次，所有回答共用
+        Evaluator evaluator = evaluatorRepository.findById(evaluatorId)
+                .orElseThrow(() -> new EntityNotFoundException("评测员不存在: " + evaluatorId));
+        User user = new User();
+        user.setId(userId);
+        
+        List<LlmAnswer> answers = new ArrayList<>(answersData.size());
+        for (Map<String, Object> answerData : answersData) {
+            LlmAnswer answer = new LlmAnswer();
+            answer.setId((Long) answerData.get("id"));
+            answer.setAnswerText((String) answerData.get("answer_text"));
+            answers.add(answer);
+        }
+        
         // 异步处理批次答案
         evaluationExecutor.submit(() -> {
             try {
-                int total = answersData.size();
-                int processed = 0;
-                
-                for (Map<String, Object> answerData : answersData) {
-                    try {
-                        Long answerId = (Long) answerData.get("id");
-                        String answerText = (String) answerData.get("answer_text");
-                        String questionText = (String) answerData.get("question_text");
-                        
-                        // 构建LlmAnswer对象
-                        LlmAnswer answer = new LlmAnswer();
-                        answer.setId(answerId);
-                        answer.setAnswerText(answerText);
-                        
-                        // 获取完整的评测者对象
-                        Evaluator evaluator = evaluatorRepository.findById(evaluatorId)
-                                .orElseThrow(() -> new EntityNotFoundException("评测员不存在: " + evaluatorId));
-                        
-                        // 构建用户对象
-                        User user = new User();
-                        user.setId(userId);
-                        
-                        // 执行评测
-                        evaluateSubjectiveAnswer(answer, evaluator, user, criteria);
-                        
-                        processed++;
-                    
-                    // 更新进度
-                        String updateProgressSql = "UPDATE evaluation_runs SET completed_answers_count = ?, progress_percentage = ? WHERE id = ?";
-                        jdbcTemplate.update(updateProgressSql, processed, (int)((processed * 100.0) / total), evaluationRun.getId());
-                    
-                } catch (Exception e) {
-                        logger.error("处理回答时发生错误", e);
-                        // 更新错误状态
-                        String updateErrorSql = "UPDATE evaluation_runs SET status = 'FAILED', error_message = ? WHERE id = ?";
-                        jdbcTemplate.update(updateErrorSql, e.getMessage(), evaluationRun.getId());
-                        throw e;
-                    }
-                }
-                
-                // 完成评测
-                String completeRunSql = "UPDATE evaluation_runs SET status = 'COMPLETED', end_time = ? WHERE id = ?";
-                jdbcTemplate.update(completeRunSql, Timestamp.valueOf(LocalDateTime.now()), evaluationRun.getId());
-                
+                runSubjectiveEvaluationWorkers(evaluationRun.getId(), answers, evaluator, user, criteria);
             } catch (Exception e) {
                 logger.error("批量评测过程中发生错误", e);
             }
@@ -5085,6 +4995,96 @@ public class EvaluationServiceImpl implements EvaluationService {
         return assembleEvaluationPrompt(question, answerText, referenceAnswer, criteria);
     }
 
+    /**
+     * 并发评测一组主观题回答
+     * 
+     * 同时在途的评测调用数取评测模型配置的最大并发数（未配置时使用默认值），实际请求速率仍由
+     * LlmRateLimitManager按模型限流；单个回答失败只计入失败数，进度每完成一批写入一次。
+     */
+    private void runSubjectiveEvaluationWorkers(Long evaluationRunId, List<LlmAnswer> answers, Evaluator evaluator,
+                                                User user, List<EvaluationCriterion> criteria) throws InterruptedException {
+        int total = answers.size();
+        int concurrency = subjectiveConcurrencyFor(evaluator, total);
+        int progressBatchSize = Math.max(1, subjectiveProgressBatchSize);
+        logger.info("开始并发评测主观题，评测运行ID: {}, 回答数: {}, 并发数: {}", evaluationRunId, total, concurrency);
+        
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger reported = new AtomicInteger();
+        AtomicReference<String> lastError = new AtomicReference<>();
+        
+        long startTime = System.currentTimeMillis();
+        for (LlmAnswer answer : answers) {
+            inFlight.acquire();
+            try {
+                subjectiveEvaluationExecutor.execute(() -> {
+                    try {
+                        evaluateSubjectiveAnswer(answer, evaluator, user, criteria);
+                        completed.incrementAndGet();
+                    } catch (Exception e) {
+                        logger.error("评测主观题回答失败，回答ID: {}", answer.getId(), e);
+                        failed.incrementAndGet();
+                        lastError.set(e.getMessage());
+                    } finally {
+                        inFlight.release();
+                    }
+                    if ((completed.get() + failed.get()) % progressBatchSize == 0) {
+                        updateSubjectiveProgress(evaluationRunId, completed, failed, reported, total);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+        
+        // 等待所有在途评测结束
+        inFlight.acquire(concurrency);
+        inFlight.release(concurrency);
+        updateSubjectiveProgress(evaluationRunId, completed, failed, reported, total);
+        
+        logger.info("主观题并发评测结束，评测运行ID: {}, 成功: {}, 失败: {}, 耗时: {}毫秒",
+                evaluationRunId, completed.get(), failed.get(), System.currentTimeMillis() - startTime);
+        
+        if (completed.get() == 0 && failed.get() > 0) {
+            jdbcTemplate.update("UPDATE evaluation_runs SET status = 'FAILED', error_message = ?, end_time = ? WHERE id = ?",
+                    lastError.get(), Timestamp.valueOf(LocalDateTime.now()), evaluationRunId);
+        } else {
+            jdbcTemplate.update("UPDATE evaluation_runs SET status = 'COMPLETED', end_time = ? WHERE id = ?",
+                    Timestamp.valueOf(LocalDateTime.now()), evaluationRunId);
+        }
+    }
+    
+    /**
+     * 计算主观题评测的并发数：评测模型的最大并发数，不超过全局上限和回答数
+     */
+    private int subjectiveConcurrencyFor(Evaluator evaluator, int total) {
+        LlmModel model = evaluator.getLlmModel();
+        int concurrency = model != null && model.getMaxConcurrency() != null
+                ? model.getMaxConcurrency() : subjectiveDefaultConcurrency;
+        return Math.max(1, Math.min(Math.min(concurrency, subjectiveMaxConcurrency), total));
+    }
+    
+    /**
+     * 写入主观题评测进度，并发完成时只写入比已写入更新的进度
+     */
+    private void updateSubjectiveProgress(Long evaluationRunId, AtomicInteger completed, AtomicInteger failed,
+                                          AtomicInteger reported, int total) {
+        synchronized (reported) {
+            int done = completed.get() + failed.get();
+            if (done <= reported.get()) {
+                return;
+            }
+            jdbcTemplate.update(
+                    "UPDATE evaluation_runs SET completed_answers_count = ?, failed_evaluations_count = ?, " +
+                    "progress_percentage = ?, last_activity_time = ? WHERE id = ?",
+                    completed.get(), failed.get(), (int) ((done * 100.0) / total),
+                    Timestamp.valueOf(LocalDateTime.now()), evaluationRunId);
+            reported.set(done);
+        }
+    }
+
     private BigDecimal evaluateSubjectiveAnswer(LlmAnswer answer, Evaluator evaluator, User user, List<EvaluationCriterion> criteria) {
         try {
             // 获取问题和标准答案
@@ -5219,6 +5219,9 @@ public class EvaluationServiceImpl implements EvaluationService {
                 saveEvaluationDetails(evaluationId, evaluationResult, criteria);
             }
             
+            // 直接写入的评测不经过评测仓库，需单独使批次排行榜失效
+            batchLeaderboardRepository.markAnswersChanged(Collections.singletonList(answer.getId()));
+            
             return overallScore;
             
         } catch (Exception e) {
@@ -5301,64 +5304,17 @@ public class EvaluationServiceImpl implements EvaluationService {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            // 1. 获取批次基本信息
-            String batchQuery = "SELECT agb.id, agb.name, agb.description, agb.creation_time, " +
-                    "dv.name as dataset_name, dv.version_number as dataset_version " +
-                    "FROM answer_generation_batches agb " +
-                    "JOIN dataset_versions dv ON agb.dataset_version_id = dv.id " +
-                    "WHERE agb.id = ?";
-            
-            Map<String, Object> batchInfo = jdbcTemplate.queryForMap(batchQuery, batchId);
-            result.put("batchInfo", batchInfo);
-            
-            // 2. 获取批次中的所有模型信息
-            StringBuilder modelsQuery = new StringBuilder();
-            modelsQuery.append("SELECT DISTINCT lm.id, lm.name, lm.provider, lm.version ");
-            modelsQuery.append("FROM model_answer_runs mar ");
-            modelsQuery.append("JOIN llm_models lm ON mar.llm_model_id = lm.id ");
-            modelsQuery.append("WHERE mar.answer_generation_batch_id = ?");
-            
-            List<Object> queryParams = new ArrayList<>();
-            queryParams.add(batchId);
-            
-            if (modelIds != null && !modelIds.isEmpty()) {
-                modelsQuery.append(" AND lm.id IN (");
-                for (int i = 0; i < modelIds.size(); i++) {
-                    modelsQuery.append("?");
-                    if (i < modelIds.size() - 1) modelsQuery.append(",");
-                    queryParams.add(modelIds.get(i));
-                }
-                modelsQuery.append(")");
-            }
+            // 1. 获取批次排行榜，评测数据未变化时直接使用已保存的快照
+            BatchLeaderboardManager.Leaderboard leaderboard = batchLeaderboardManager.getLeaderboard(batchId);
+            result.put("batchInfo", leaderboard.getBatchInfo());
             
-            List<Map<String, Object>> models = jdbcTemplate.queryForList(modelsQuery.toString(), queryParams.toArray());
+            // 2. 按模型筛选，排名在筛选后的模型中计算
+            Set<Long> selectedModelIds = modelIds != null && !modelIds.isEmpty() ? new HashSet<>(modelIds) : null;
+            List<Map<String, Object>> models = leaderboard.selectModels(selectedModelIds);
             result.put("models", models);
+            List<Map<String, Object>> modelScores = leaderboard.selectModelScores(selectedModelIds);
             
-            // 3. 获取评分统计数据
-            List<Map<String, Object>> modelScores = new ArrayList<>();
-            
-            for (Map<String, Object> model : models) {
-                Long modelId = (Long) model.get("id");
-                Map<String, Object> modelScore = getModelComprehensiveScore(batchId, modelId);
-                modelScore.put("modelInfo", model);
-                modelScores.add(modelScore);
-            }
-            
-            // 4. 按总分排序
-            modelScores.sort((a, b) -> {
-                BigDecimal scoreA = (BigDecimal) a.get("overallScore");
-                BigDecimal scoreB = (BigDecimal) b.get("overallScore");
-                if (scoreA == null) scoreA = BigDecimal.ZERO;
-                if (scoreB == null) scoreB = BigDecimal.ZERO;
-                return scoreB.compareTo(scoreA); // 降序排列
-            });
-            
-            // 5. 添加排名
-            for (int i = 0; i < modelScores.size(); i++) {
-                modelScores.get(i).put("rank", i + 1);
-            }
-            
-            // 6. 分页处理
+            // 3. 分页处理
             int totalModels = modelScores.size();
             int totalPages = (int) Math.ceil((double) totalModels / size);
             int startIndex = page * size;
@@ -5366,10 +5322,10 @@ public class EvaluationServiceImpl implements EvaluationService {
             
             List<Map<String, Object>> pagedModelScores = modelScores.subList(startIndex, endIndex);
             
-            // 7. 获取评测统计概览
-            Map<String, Object> overview = getBatchEvaluationOverview(batchId, modelIds);
+            // 4. 汇总评测统计概览
+            Map<String, Object> overview = leaderboard.overview(selectedModelIds);
             
-            // 8. 构建返回结果
+            // 5. 构建返回结果
             result.put("modelScores", pagedModelScores);
             result.put("overview", overview);
             result.put("pagination", Map.of(
@@ -5387,315 +5343,6 @@ public class EvaluationServiceImpl implements EvaluationService {
             throw new RuntimeException("获取批次综合评分数据失败: " + e.getMessage(), e);
         }
     }
-    
-    /**
-     * 获取单个模型在批次中的综合评分
-     */
-    private Map<String, Object> getModelComprehensiveScore(Long batchId, Long modelId) {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            // 1. 获取客观题评分
-            Map<String, Object> objectiveScores = getModelObjectiveScores(batchId, modelId);
-            result.put("objectiveScores", objectiveScores);
-            
-            // 2. 获取主观题AI评分
-            Map<String, Object> subjectiveAiScores = getModelSubjectiveAiScores(batchId, modelId);
-            result.put("subjectiveAiScores", subjectiveAiScores);
-            
-            // 3. 获取主观题人工评分
-            Map<String, Object> subjectiveHumanScores = getModelSubjectiveHumanScores(batchId, modelId);
-            result.put("subjectiveHumanScores", subjectiveHumanScores);
-            
-            // 4. 计算综合评分
-            BigDecimal overallScore = calculateOverallScore(objectiveScores, subjectiveAiScores, subjectiveHumanScores);
-            result.put("overallScore", overallScore);
-            
-            // 5. 获取评测详情统计
-            Map<String, Object> detailStats = getModelEvaluationDetailStats(batchId, modelId);
-            result.put("detailStats", detailStats);
-            
-            return result;
-            
-        } catch (Exception e) {
-            logger.error("获取模型{}在批次{}中的综合评分失败", modelId, batchId, e);
-            return new HashMap<>();
-        }
-    }
-    
-    /**
-     * 获取模型客观题评分
-     */
-    private Map<String, Object> getModelObjectiveScores(Long batchId, Long modelId) {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            String query = "SELECT " +
-                    "COUNT(DISTINCT e.llm_answer_id) as total_answers, " +
-                    "AVG(e.normalized_score) as average_score, " +
-                    "MAX(e.normalized_score) as max_score, " +
-                    "MIN(e.normalized_score) as min_score, " +
-                    "SUM(CASE WHEN sq.question_type = 'SINGLE_CHOICE' THEN 1 ELSE 0 END) as single_choice_count, " +
-                    "SUM(CASE WHEN sq.question_type = 'MULTIPLE_CHOICE' THEN 1 ELSE 0 END) as multiple_choice_count, " +
-                    "SUM(CASE WHEN sq.question_type = 'SIMPLE_FACT' THEN 1 ELSE 0 END) as simple_fact_count, " +
-                    "AVG(CASE WHEN sq.question_type = 'SINGLE_CHOICE' THEN e.normalized_score END) as single_choice_avg, " +
-                    "AVG(CASE WHEN sq.question_type = 'MULTIPLE_CHOICE' THEN e.normalized_score END) as multiple_choice_avg, " +
-                    "AVG(CASE WHEN sq.question_type = 'SIMPLE_FACT' THEN e.normalized_score END) as simple_fact_avg " +
-                    "FROM evaluations e " +
-                    "JOIN llm_answers la ON e.llm_answer_id = la.id " +
-                    "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
-                    "JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id " +
-                    "JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
-                    "WHERE mar.answer_generation_batch_id = ? AND mar.llm_model_id = ? " +
-                    "AND sq.question_type IN ('SINGLE_CHOICE', 'MULTIPLE_CHOICE', 'SIMPLE_FACT') " +
-                    "AND e.evaluation_status = 'SUCCESS'";
-            
-            List<Map<String, Object>> queryResult = jdbcTemplate.queryForList(query, batchId, modelId);
-            
-            if (!queryResult.isEmpty()) {
-                result = queryResult.get(0);
-            }
-            
-        } catch (Exception e) {
-            logger.error("获取模型{}客观题评分失败", modelId, e);
-        }
-        
-        return result;
-    }
-    
-    /**
-     * 获取模型主观题AI评分
-     */
-    private Map<String, Object> getModelSubjectiveAiScores(Long batchId, Long modelId) {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            String query = "SELECT " +
-                    "COUNT(DISTINCT e.llm_answer_id) as total_answers, " +
-                    "AVG(e.overall_score) as average_score, " +
-                    "MAX(e.overall_score) as max_score, " +
-                    "MIN(e.overall_score) as min_score, " +
-                    "COUNT(DISTINCT e.evaluator_id) as evaluator_count " +
-                    "FROM evaluations e " +
-                    "JOIN llm_answers la ON e.llm_answer_id = la.id " +
-                    "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
-                    "JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id " +
-                    "JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
-                    "JOIN evaluators ev ON e.evaluator_id = ev.id " +
-                    "WHERE mar.answer_generation_batch_id = ? AND mar.llm_model_id = ? " +
-                    "AND sq.question_type = 'SUBJECTIVE' " +
-                    "AND ev.evaluator_type = 'AI_MODEL' " +
-                    "AND e.evaluation_status = 'SUCCESS'";
-            
-            List<Map<String, Object>> queryResult = jdbcTemplate.queryForList(query, batchId, modelId);
-            
-            if (!queryResult.isEmpty()) {
-                result = queryResult.get(0);
-                
-                // 获取各个评测标准的平均分
-                String criteriaQuery = "SELECT " +
-                        "ed.criterion_name, " +
-                        "AVG(ed.score) as average_score, " +
-                        "COUNT(*) as count " +
-                        "FROM evaluation_details ed " +
-                        "JOIN evaluations e ON ed.evaluation_id = e.id " +
-                        "JOIN llm_answers la ON e.llm_answer_id = la.id " +
-                        "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
-                        "JOIN evaluators ev ON e.evaluator_id = ev.id " +
-                        "WHERE mar.answer_generation_batch_id = ? AND mar.llm_model_id = ? " +
-                        "AND ev.evaluator_type = 'AI_MODEL' " +
-                        "AND e.evaluation_status = 'SUCCESS' " +
-                        "GROUP BY ed.criterion_name " +
-                        "ORDER BY ed.criterion_name";
-                
-                List<Map<String, Object>> criteriaScores = jdbcTemplate.queryForList(criteriaQuery, batchId, modelId);
-                result.put("criteriaScores", criteriaScores);
-            }
-            
-        } catch (Exception e) {
-            logger.error("获取模型{}主观题AI评分失败", modelId, e);
-        }
-        
-        return result;
-    }
-    
-    /**
-     * 获取模型主观题人工评分
-     */
-    private Map<String, Object> getModelSubjectiveHumanScores(Long batchId, Long modelId) {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            String query = "SELECT " +
-                    "COUNT(DISTINCT e.llm_answer_id) as total_answers, " +
-                    "AVG(e.overall_score) as average_score, " +
-                    "MAX(e.overall_score) as max_score, " +
-                    "MIN(e.overall_score) as min_score, " +
-                    "COUNT(DISTINCT e.evaluator_id) as evaluator_count " +
-                    "FROM evaluations e " +
-                    "JOIN llm_answers la ON e.llm_answer_id = la.id " +
-                    "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
-                    "JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id " +
-                    "JOIN standard_questions sq ON dqm.standard_question_id = sq.id " +
-                    "JOIN evaluators ev ON e.evaluator_id = ev.id " +
-                    "WHERE mar.answer_generation_batch_id = ? AND mar.llm_model_id = ? " +
-                    "AND sq.question_type = 'SUBJECTIVE' " +
-                    "AND ev.evaluator_type = 'HUMAN' " +
-                    "AND e.evaluation_status = 'SUCCESS'";
-            
-            List<Map<String, Object>> queryResult = jdbcTemplate.queryForList(query, batchId, modelId);
-            
-            if (!queryResult.isEmpty()) {
-                result = queryResult.get(0);
-                
-                // 获取各个评测标准的平均分
-                String criteriaQuery = "SELECT " +
-                        "ed.criterion_name, " +
-                        "AVG(ed.score) as average_score, " +
-                        "COUNT(*) as count " +
-                        "FROM evaluation_details ed " +
-                        "JOIN evaluations e ON ed.evaluation_id = e.id " +
-                        "JOIN llm_answers la ON e.llm_answer_id = la.id " +
-                        "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
-                        "JOIN evaluators ev ON e.evaluator_id = ev.id " +
-                        "WHERE mar.answer_generation_batch_id = ? AND mar.llm_model_id = ? " +
-                        "AND ev.evaluator_type = 'HUMAN' " +
-                        "AND e.evaluation_status = 'SUCCESS' " +
-                        "GROUP BY ed.criterion_name " +
-                        "ORDER BY ed.criterion_name";
-                
-                List<Map<String, Object>> criteriaScores = jdbcTemplate.queryForList(criteriaQuery, batchId, modelId);
-                result.put("criteriaScores", criteriaScores);
-            }
-            
-        } catch (Exception e) {
-            logger.error("获取模型{}主观题人工评分失败", modelId, e);
-        }
-        
-        return result;
-    }
-    
-    /**
-     * 计算综合评分
-     */
-    private BigDecimal calculateOverallScore(Map<String, Object> objectiveScores, 
-                                           Map<String, Object> subjectiveAiScores, 
-                                           Map<String, Object> subjectiveHumanScores) {
-        try {
-            List<BigDecimal> scores = new ArrayList<>();
-            
-            // 客观题评分
-            if (objectiveScores.get("average_score") != null) {
-                scores.add(new BigDecimal(objectiveScores.get("average_score").toString()));
-            }
-            
-            // 主观题AI评分
-            if (subjectiveAiScores.get("average_score") != null) {
-                scores.add(new BigDecimal(subjectiveAiScores.get("average_score").toString()));
-            }
-            
-            // 主观题人工评分
-            if (subjectiveHumanScores.get("average_score") != null) {
-                scores.add(new BigDecimal(subjectiveHumanScores.get("average_score").toString()));
-            }
-            
-            if (scores.isEmpty()) {
-                return BigDecimal.ZERO;
-            }
-            
-            // 计算平均分
-            BigDecimal sum = scores.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
-            return sum.divide(new BigDecimal(scores.size()), 2, RoundingMode.HALF_UP);
-            
-        } catch (Exception e) {
-            logger.error("计算综合评分失败", e);
-            return BigDecimal.ZERO;
-        }
-    }
-    
-    /**
-     * 获取模型评测详情统计
-     */
-    private Map<String, Object> getModelEvaluationDetailStats(Long batchId, Long modelId) {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            String query = "SELECT " +
-                    "COUNT(DISTINCT e.id) as total_evaluations, " +
-                    "COUNT(DISTINCT e.llm_answer_id) as total_answers, " +
-                    "COUNT(DISTINCT e.evaluator_id) as total_evaluators, " +
-                    "SUM(CASE WHEN e.evaluation_status = 'SUCCESS' THEN 1 ELSE 0 END) as success_count, " +
-                    "SUM(CASE WHEN e.evaluation_status = 'FAILED' THEN 1 ELSE 0 END) as failed_count " +
-                    "FROM evaluations e " +
-                    "JOIN llm_answers la ON e.llm_answer_id = la.id " +
-                    "JOIN model_answer_runs mar ON la.model_answer_run_id = mar.id " +
-                    "WHERE mar.answer_generation_batch_id = ? AND mar.llm_model_id = ?";
-            
-            List<Map<String, Object>> queryResult = jdbcTemplate.queryForList(query, batchId, modelId);
-            
-            if (!queryResult.isEmpty()) {
-                result = queryResult.get(0);
-            }
-            
-        } catch (Exception e) {
-            logger.error("获取模型{}评测详情统计失败", modelId, e);
-        }
-        
-        return result;
-    }
-    
-    /**
-     * 获取批次评测概览
-     */
-    private Map<String, Object> getBatchEvaluationOverview(Long batchId, List<Long> modelIds) {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            StringBuilder query = new StringBuilder();
-            query.append("SELECT ");
-            query.append("COUNT(DISTINCT mar.llm_model_id) as total_models, ");
-            query.append("COUNT(DISTINCT la.id) as total_answers, ");
-            query.append("COUNT(DISTINCT e.id) as total_evaluations, ");
-            query.append("COUNT(DISTINCT e.evaluator_id) as total_evaluators, ");
-            query.append("SUM(CASE WHEN sq.question_type = 'SINGLE_CHOICE' THEN 1 ELSE 0 END) as single_choice_count, ");
-            query.append("SUM(CASE WHEN sq.question_type = 'MULTIPLE_CHOICE' THEN 1 ELSE 0 END) as multiple_choice_count, ");
-            query.append("SUM(CASE WHEN sq.question_type = 'SIMPLE_FACT' THEN 1 ELSE 0 END) as simple_fact_count, ");
-            query.append("SUM(CASE WHEN sq.question_type = 'SUBJECTIVE' THEN 1 ELSE 0 END) as subjective_count, ");
-            query.append("SUM(CASE WHEN ev.evaluator_type = 'AI_MODEL' THEN 1 ELSE 0 END) as ai_evaluation_count, ");
-            query.append("SUM(CASE WHEN ev.evaluator_type = 'HUMAN' THEN 1 ELSE 0 END) as human_evaluation_count ");
-            query.append("FROM model_answer_runs mar ");
-            query.append("JOIN llm_answers la ON mar.id = la.model_answer_run_id ");
-            query.append("JOIN dataset_question_mapping dqm ON la.dataset_question_mapping_id = dqm.id ");
-            query.append("JOIN standard_questions sq ON dqm.standard_question_id = sq.id ");
-            query.append("LEFT JOIN evaluations e ON la.id = e.llm_answer_id ");
-            query.append("LEFT JOIN evaluators ev ON e.evaluator_id = ev.id ");
-            query.append("WHERE mar.answer_generation_batch_id = ?");
-            
-            List<Object> queryParams = new ArrayList<>();
-            queryParams.add(batchId);
-            
-            if (modelIds != null && !modelIds.isEmpty()) {
-                query.append(" AND mar.llm_model_id IN (");
-                for (int i = 0; i < modelIds.size(); i++) {
-                    query.append("?");
-                    if (i < modelIds.size() - 1) query.append(",");
-                    queryParams.add(modelIds.get(i));
-                }
-                query.append(")");
-            }
-            
-            List<Map<String, Object>> queryResult = jdbcTemplate.queryForList(query.toString(), queryParams.toArray());
-            
-            if (!queryResult.isEmpty()) {
-                result = queryResult.get(0);
-            }
-            
-        } catch (Exception e) {
-            logger.error("获取批次{}评测概览失败", batchId, e);
-        }
-        
-        return result;
-    }
 
     @Override
     public Map<String, Object> getAnswerEvaluationDetails(Long answerId, Long batchId, Long questionId, 
@@ -0,0 +1,109 @@
+package com.example.demo.service.impl;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dto.FullTextSearchHitDTO;
+import com.example.demo.repository.jdbc.FullTextSearchRepository;
+import com.example.demo.service.FullTextSearchService;
+import com.example.demo.utils.FullTextQuery;
+
+/**
+ * 问题全文检索服务实现类
+ */
+@Service
+public class FullTextSearchServiceImpl implements FullTextSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FullTextSearchServiceImpl.class);
+
+    private final FullTextSearchRepository fullTextSearchRepository;
+
+    @Value("${search.fulltext.snippet-length:120}")
+    private int snippetLength;
+
+    @Value("${search.fulltext.facet-limit:20}")
+    private int facetLimit;
+
+    public FullTextSearchServiceImpl(FullTextSearchRepository fullTextSearchRepository) {
+        this.fullTextSearchRepository = fullTextSearchRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> searchStandardQuestions(String keyword, List<String> tags, Pageable pageable) {
+        String booleanQuery = toBooleanQuery(keyword);
+        List<String> terms = FullTextQuery.terms(keyword);
+        long startTime = System.currentTimeMillis();
+
+        List<FullTextSearchHitDTO> hits = fullTextSearchRepository.searchStandardQuestions(
+                booleanQuery, tags, pageable.getOffset(), pageable.getPageSize());
+        for (FullTextSearchHitDTO hit : hits) {
+            hit.setHighlightedContent(FullTextQuery.highlight(hit.getContent(), terms, snippetLength));
+        }
+        long total = fullTextSearchRepository.countStandardQuestions(booleanQuery, tags);
+        Map<String, Long> facets = fullTextSearchRepository.findStandardQuestionTagFacets(booleanQuery, tags, facetLimit);
+
+        logger.debug("全文检索标准问题 - 关键词: {}, 标签: {}, 命中: {}, 耗时: {}ms",
+                keyword, tags, total, System.currentTimeMillis() - startTime);
+        return buildResult(hits, total, facets, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> searchRawQuestions(String keyword, List<String> tags, Pageable pageable) {
+        String booleanQuery = toBooleanQuery(keyword);
+        List<String> terms = FullTextQuery.terms(keyword);
+        long startTime = System.currentTimeMillis();
+
+        List<FullTextSearchHitDTO> hits = fullTextSearchRepository.searchRawQuestions(
+                booleanQuery, tags, pageable.getOffset(), pageable.getPageSize());
+        Map<Long, String> matchedAnswers = fullTextSearchRepository.findBestMatchedRawAnswers(
+                booleanQuery, hits.stream().map(FullTextSearchHitDTO::getId).collect(Collectors.toList()));
+        for (FullTextSearchHitDTO hit : hits) {
+            hit.setHighlightedTitle(FullTextQuery.highlight(hit.getTitle(), terms, snippetLength));
+            hit.setHighlightedContent(FullTextQuery.highlight(hit.getContent(), terms, snippetLength));
+            String answer = matchedAnswers.get(hit.getId());
+            if (answer != null) {
+                hit.setHighlightedAnswer(FullTextQuery.highlight(answer, terms, snippetLength));
+            }
+        }
+        long total = fullTextSearchRepository.countRawQuestions(booleanQuery, tags);
+        Map<String, Long> facets = fullTextSearchRepository.findRawQuestionTagFacets(booleanQuery, tags, facetLimit);
+
+        logger.debug("全文检索原始问题 - 关键词: {}, 标签: {}, 命中: {}, 耗时: {}ms",
+                keyword, tags, total, System.currentTimeMillis() - startTime);
+        return buildResult(hits, total, facets, pageable);
+    }
+
+    /**
+     * 校验关键词并转换为布尔模式查询串
+     */
+    private String toBooleanQuery(String keyword) {
+        if (!FullTextQuery.isIndexable(keyword)) {
+            throw new IllegalArgumentException("检索关键词不能为空，且每个词至少包含" + FullTextQuery.NGRAM_TOKEN_SIZE + "个字符");
+        }
+        return FullTextQuery.toBooleanQuery(keyword);
+    }
+
+    private Map<String, Object> buildResult(List<FullTextSearchHitDTO> hits, long total, Map<String, Long> facets,
+                                            Pageable pageable) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("hits", hits);
+        result.put("total", total);
+        result.put("page", pageable.getPageNumber());
+        result.put("size", pageable.getPageSize());
+        result.put("totalPages", (int) Math.ceil((double) total / pageable.getPageSize()));
+        result.put("tagFacets", facets);
+        return result;
+    }
+}
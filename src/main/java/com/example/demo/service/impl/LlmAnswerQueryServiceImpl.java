@@ -1,17 +1,24 @@
 package com.example.demo.service.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -20,6 +27,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.example.demo.dto.LlmAnswerQueryDTO;
 import com.example.demo.dto.LlmAnswerResponseDTO;
 import com.example.demo.dto.PageResponseDTO;
+import com.example.demo.exception.BadRequestException;
 import com.example.demo.repository.jdbc.EvaluationRepository;
 import com.example.demo.repository.jdbc.LlmAnswerRepository;
 import com.example.demo.service.LlmAnswerQueryService;
@@ -27,22 +35,57 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * LLM回答查询服务实现类
+ *
+ * 按(GENERATION_TIME, ID)倒序游标翻页：每页只从上一页最后一行之后取size+1行，不再读取全部结果后在内存中截取，
+ * 按游标翻到第几页的代价都相同。没有游标的页码请求先按已缓存的页起点定位，未缓存时用LIMIT 1 OFFSET
+ * 只扫描ID和生成时间找到页起点，代价仍随页码增长；页码定位得到的下一页起点会缓存，游标请求不写缓存。
+ * 总数按筛选条件缓存，回答表（只看未评测时还有评测表）的最大ID变化即视为有新插入，缓存失效重新计数。
  */
 @Service
 public class LlmAnswerQueryServiceImpl implements LlmAnswerQueryService {
 
     private static final Logger logger = LoggerFactory.getLogger(LlmAnswerQueryServiceImpl.class);
-    
+
+    private static final String SQL_FROM =
+            "FROM LLM_ANSWERS la " +
+            "JOIN MODEL_ANSWER_RUNS mar ON la.MODEL_ANSWER_RUN_ID = mar.ID " +
+            "JOIN LLM_MODELS lm ON mar.LLM_MODEL_ID = lm.ID " +
+            "JOIN DATASET_QUESTION_MAPPING dqm ON la.DATASET_QUESTION_MAPPING_ID = dqm.ID " +
+            "JOIN STANDARD_QUESTIONS sq ON dqm.STANDARD_QUESTION_ID = sq.ID " +
+            "WHERE 1=1 ";
+
+    // 生成时间为空的回答在倒序中排在最后
+    private static final String SQL_ORDER_BY = "ORDER BY la.GENERATION_TIME DESC, la.ID DESC ";
+
+    private static final String SQL_MAX_ANSWER_ID = "SELECT COALESCE(MAX(ID), 0) FROM LLM_ANSWERS";
+
+    private static final String SQL_MAX_EVALUATION_ID = "SELECT COALESCE(MAX(ID), 0) FROM EVALUATIONS";
+
     private final JdbcTemplate jdbcTemplate;
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final LlmAnswerRepository llmAnswerRepository;
     private final EvaluationRepository evaluationRepository;
     private final ObjectMapper objectMapper;
 
+    // 列表中回答摘要的最大字符数
+    @Value("${llm-answer-query.answer-preview-length:500}")
+    private int answerPreviewLength;
+
+    // 缓存的总数最长使用时间，用于反映删除等不改变最大ID的变化
+    @Value("${llm-answer-query.count-cache-ttl-ms:60000}")
+    private long countCacheTtlMs;
+
+    // 最多缓存的筛选条件数
+    @Value("${llm-answer-query.count-cache-max-entries:1000}")
+    private int countCacheMaxEntries;
+
+    // 筛选条件 -> 总数和页起点
+    private final ConcurrentHashMap<String, FilterStats> filterStats = new ConcurrentHashMap<>();
+
     public LlmAnswerQueryServiceImpl(
             JdbcTemplate jdbcTemplate,
             NamedParameterJdbcTemplate namedParameterJdbcTemplate,
-            LlmAnswerRepository llmAnswerRepository, 
+            LlmAnswerRepository llmAnswerRepository,
             EvaluationRepository evaluationRepository) {
         this.jdbcTemplate = jdbcTemplate;
         this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
@@ -55,342 +98,447 @@ public class LlmAnswerQueryServiceImpl implements LlmAnswerQueryService {
     @Transactional(readOnly = true)
     public PageResponseDTO<LlmAnswerResponseDTO> queryLlmAnswers(LlmAnswerQueryDTO queryDTO) {
         try {
-            // 使用命名参数构建SQL查询
-            StringBuilder sqlBuilder = new StringBuilder();
+            int pageNumber = queryDTO.getPage() != null && queryDTO.getPage() > 0 ? queryDTO.getPage() : 0;
+            int pageSize = queryDTO.getSize() != null && queryDTO.getSize() > 0 ? queryDTO.getSize() : 10;
+
+            // 使用命名参数构建筛选条件
             MapSqlParameterSource params = new MapSqlParameterSource();
-            
-            // 基础查询，使用最简单的语法
-            sqlBuilder.append("SELECT la.ID, la.MODEL_ANSWER_RUN_ID, la.ANSWER_TEXT, la.GENERATION_TIME, la.REPEAT_INDEX, " +
-                    "lm.NAME AS model_name, sq.ID AS question_id, sq.QUESTION_TEXT, sq.QUESTION_TYPE " +
-                    "FROM LLM_ANSWERS la " +
-                    "JOIN MODEL_ANSWER_RUNS mar ON la.MODEL_ANSWER_RUN_ID = mar.ID " +
-                    "JOIN LLM_MODELS lm ON mar.LLM_MODEL_ID = lm.ID " +
-                    "JOIN DATASET_QUESTION_MAPPING dqm ON la.DATASET_QUESTION_MAPPING_ID = dqm.ID " +
-                    "JOIN STANDARD_QUESTIONS sq ON dqm.STANDARD_QUESTION_ID = sq.ID " +
-                    "WHERE 1=1 ");
-    
-            // 添加条件语句
-            // 关键词搜索条件
-            if (queryDTO.getKeyword() != null && !queryDTO.getKeyword().trim().isEmpty()) {
-                sqlBuilder.append("AND (la.ANSWER_TEXT LIKE :keyword OR sq.QUESTION_TEXT LIKE :keyword) ");
-                String searchPattern = "%" + queryDTO.getKeyword().trim() + "%";
-                params.addValue("keyword", searchPattern);
-            }
-            
-            // 标签搜索条件
-            if (queryDTO.getTag() != null && !queryDTO.getTag().trim().isEmpty()) {
-                sqlBuilder.append("AND sq.ID IN (SELECT sqt.STANDARD_QUESTION_ID FROM STANDARD_QUESTION_TAGS sqt " +
-                        "JOIN TAGS t ON sqt.TAG_ID = t.ID WHERE t.NAME = :tag) ");
-                params.addValue("tag", queryDTO.getTag().trim());
-            }
-            
-            // 只返回特定评测员未评测过的回答
-            if (Boolean.TRUE.equals(queryDTO.getOnlyUnevaluated()) && queryDTO.getEvaluatorId() != null) {
-                sqlBuilder.append("AND NOT EXISTS (SELECT 1 FROM EVALUATIONS e " +
-                        "WHERE e.LLM_ANSWER_ID = la.ID AND e.EVALUATOR_ID = :evaluatorId) ");
-                params.addValue("evaluatorId", queryDTO.getEvaluatorId());
-            }
-            
-            // 根据批次ID过滤
-            if (queryDTO.getBatchId() != null) {
-                sqlBuilder.append("AND mar.ANSWER_GENERATION_BATCH_ID = :batchId ");
-                params.addValue("batchId", queryDTO.getBatchId());
-            }
-            
-            // 根据问题类型过滤
-            if (queryDTO.getQuestionType() != null && !queryDTO.getQuestionType().trim().isEmpty()) {
-                sqlBuilder.append("AND sq.QUESTION_TYPE = :questionType ");
-                params.addValue("questionType", queryDTO.getQuestionType().trim());
+            String filterSql = buildFilter(queryDTO, params);
+            boolean unevaluatedFilter = params.hasValue("evaluatorId");
+
+            // 筛选条件及参数值作为缓存键
+            String filterKey = filterSql + new TreeMap<>(params.getValues());
+            FilterStats stats = currentStats(filterKey, filterSql, params, unevaluatedFilter);
+            if (stats.totalCount == 0L) {
+                return new PageResponseDTO<>(Collections.emptyList(), 0, pageNumber, pageSize);
             }
-            
-            // 添加排序
-            sqlBuilder.append("ORDER BY la.GENERATION_TIME DESC, la.ID DESC ");
-            
-            // 计算总记录数
-            String countSql = "SELECT COUNT(*) FROM (" + sqlBuilder.toString() + ") AS count_query";
-            
-            logger.debug("查询总数SQL: {}", countSql);
-            logger.debug("查询参数: {}", params.getValues());
-            
-            Long totalCount = 0L;
-            try {
-                totalCount = namedParameterJdbcTemplate.queryForObject(countSql, params, Long.class);
-                if (totalCount == null) {
-                    totalCount = 0L;
+
+            // 定位本页起点（上一页最后一行），第一页没有起点
+            PageCursor start = null;
+            boolean byCursor = queryDTO.getCursor() != null && !queryDTO.getCursor().trim().isEmpty();
+            if (byCursor) {
+                start = PageCursor.decode(queryDTO.getCursor().trim());
+            } else if (pageNumber > 0) {
+                String pageKey = pageSize + ":" + pageNumber;
+                start = stats.pageStarts.get(pageKey);
+                if (start == null) {
+                    start = locatePageStart(filterSql, params, (long) pageNumber * pageSize);
+                    if (start == null) {
+                        return new PageResponseDTO<>(Collections.emptyList(), stats.totalCount, pageNumber, pageSize);
+                    }
+                    stats.pageStarts.put(pageKey, start);
                 }
-            } catch (Exception e) {
-                logger.error("计算总记录数时出错: {}", e.getMessage());
-                return new PageResponseDTO<>(Collections.emptyList(), 0, queryDTO.getPage(), queryDTO.getSize());
-            }
-            
-            if (totalCount == 0L) {
-                return new PageResponseDTO<>(Collections.emptyList(), 0, queryDTO.getPage(), queryDTO.getSize());
             }
-            
-            // 执行查询
-            logger.debug("执行SQL: {}", sqlBuilder.toString());
-            logger.debug("查询参数: {}", params.getValues());
-            
-            List<Map<String, Object>> allRows;
-            try {
-                allRows = namedParameterJdbcTemplate.queryForList(sqlBuilder.toString(), params);
-            } catch (Exception e) {
-                logger.error("执行查询时出错: {}", e.getMessage(), e);
-                return new PageResponseDTO<>(Collections.emptyList(), 0, queryDTO.getPage(), queryDTO.getSize());
-            }
-            
-            // 手动在内存中处理分页
-            int pageSize = queryDTO.getSize();
-            int pageNumber = queryDTO.getPage();
-            int fromIndex = pageNumber * pageSize;
-            int toIndex = Math.min(fromIndex + pageSize, allRows.size());
-            
-            if (fromIndex >= allRows.size()) {
-                return new PageResponseDTO<>(Collections.emptyList(), totalCount, pageNumber, pageSize);
-            }
-            
-            List<Map<String, Object>> pagedRows = allRows.subList(fromIndex, toIndex);
-            
-            // 提取问题ID列表
-            Set<Long> questionIds = pagedRows.stream()
-                    .map(row -> ((Number) row.get("question_id")).longValue())
-                    .collect(Collectors.toSet());
-            
-            // 提取回答ID列表
-            List<Long> answerIds = pagedRows.stream()
-                    .map(row -> ((Number) row.get("ID")).longValue())
-                    .collect(Collectors.toList());
-            
-            // 查询每个LLM回答的标签
-            Map<Long, List<String>> questionTagsMap = getQuestionTags(questionIds);
-            
-            // 批量查询标准答案
-            Map<Long, String> standardAnswersMap = getStandardAnswers(questionIds);
-            
-            // 查询哪些回答已被指定评测员评测过
-            Set<Long> evaluatedAnswerIds = Collections.emptySet();
-            if (queryDTO.getEvaluatorId() != null) {
-                evaluatedAnswerIds = getEvaluatedAnswerIds(queryDTO.getEvaluatorId(), answerIds);
-            }
-            
-            // 转换为DTO
-            List<LlmAnswerResponseDTO> result = new ArrayList<>();
-            for (Map<String, Object> row : pagedRows) {
-                LlmAnswerResponseDTO dto = new LlmAnswerResponseDTO();
-                
-                Long answerId = ((Number) row.get("ID")).longValue();
-                Long questionId = ((Number) row.get("question_id")).longValue();
-                String questionType = (String) row.get("QUESTION_TYPE");
-                
-                dto.setId(answerId);
-                dto.setModelAnswerRunId(((Number) row.get("MODEL_ANSWER_RUN_ID")).longValue());
-                dto.setModelName((String) row.get("model_name"));
-                dto.setAnswerText((String) row.get("ANSWER_TEXT"));
-                
-                if (row.get("GENERATION_TIME") != null) {
-                    Object timeValue = row.get("GENERATION_TIME");
-                    if (timeValue instanceof java.sql.Timestamp) {
-                        dto.setGenerationTime(((java.sql.Timestamp) timeValue).toLocalDateTime());
-                    } else if (timeValue instanceof java.time.LocalDateTime) {
-                        dto.setGenerationTime((java.time.LocalDateTime) timeValue);
-                    } else {
-                        logger.warn("意外的日期时间类型: {}", timeValue.getClass().getName());
-                    }
+
+            // 多取一行判断是否还有下一页
+            List<LlmAnswerResponseDTO> result = fetchPage(filterSql, params, start, pageSize + 1,
+                    Boolean.TRUE.equals(queryDTO.getFullText()));
+            boolean hasNext = result.size() > pageSize;
+            String nextCursor = null;
+            if (hasNext) {
+                result = new ArrayList<>(result.subList(0, pageSize));
+                LlmAnswerResponseDTO lastRow = result.get(pageSize - 1);
+                PageCursor next = new PageCursor(lastRow.getGenerationTime(), lastRow.getId());
+                // 游标请求的页码不可信，只有按页码定位的页才能确定下一页的页码
+                if (!byCursor) {
+                    stats.pageStarts.put(pageSize + ":" + (pageNumber + 1), next);
                 }
-                
-                dto.setRepeatIndex((Integer) row.get("REPEAT_INDEX"));
-                dto.setQuestionId(questionId);
-                dto.setQuestionText((String) row.get("QUESTION_TEXT"));
-                dto.setQuestionType(questionType);
-                dto.setStandardAnswer(standardAnswersMap.get(questionId));
-                dto.setTags(questionTagsMap.getOrDefault(questionId, Collections.emptyList()));
-                dto.setEvaluated(evaluatedAnswerIds.contains(answerId));
-                
-                result.add(dto);
+                nextCursor = next.encode();
             }
-            
+
+            fillDetails(result, queryDTO.getEvaluatorId());
+
             // 返回分页结果
-            return new PageResponseDTO<>(result, totalCount, queryDTO.getPage(), queryDTO.getSize());
+            PageResponseDTO<LlmAnswerResponseDTO> response =
+                    new PageResponseDTO<>(result, stats.totalCount, pageNumber, pageSize);
+            response.setNextCursor(nextCursor);
+            response.setLast(!hasNext);
+            return response;
         } catch (Exception e) {
             logger.error("查询LLM回答时发生错误: {}", e.getMessage(), e);
             throw e;
         }
     }
-    
+
+    /**
+     * 构建筛选条件
+     *
+     * @param queryDTO 查询参数
+     * @param params 填充的命名参数
+     * @return 以AND开头的条件语句
+     */
+    private String buildFilter(LlmAnswerQueryDTO queryDTO, MapSqlParameterSource params) {
+        StringBuilder sqlBuilder = new StringBuilder();
+
+        // 关键词搜索条件
+        if (queryDTO.getKeyword() != null && !queryDTO.getKeyword().trim().isEmpty()) {
+            sqlBuilder.append("AND (la.ANSWER_TEXT LIKE :keyword OR sq.QUESTION_TEXT LIKE :keyword) ");
+            params.addValue("keyword", "%" + queryDTO.getKeyword().trim() + "%");
+        }
+
+        // 标签搜索条件
+        if (queryDTO.getTag() != null && !queryDTO.getTag().trim().isEmpty()) {
+            sqlBuilder.append("AND sq.ID IN (SELECT sqt.STANDARD_QUESTION_ID FROM STANDARD_QUESTION_TAGS sqt " +
+                    "JOIN TAGS t ON sqt.TAG_ID = t.ID WHERE t.TAG_NAME = :tag) ");
+            params.addValue("tag", queryDTO.getTag().trim());
+        }
+
+        // 只返回特定评测员未评测过的回答
+        if (Boolean.TRUE.equals(queryDTO.getOnlyUnevaluated()) && queryDTO.getEvaluatorId() != null) {
+            sqlBuilder.append("AND NOT EXISTS (SELECT 1 FROM EVALUATIONS e " +
+                    "WHERE e.LLM_ANSWER_ID = la.ID AND e.EVALUATOR_ID = :evaluatorId) ");
+            params.addValue("evaluatorId", queryDTO.getEvaluatorId());
+        }
+
+        // 根据批次ID过滤
+        if (queryDTO.getBatchId() != null) {
+            sqlBuilder.append("AND mar.ANSWER_GENERATION_BATCH_ID = :batchId ");
+            params.addValue("batchId", queryDTO.getBatchId());
+        }
+
+        // 根据问题类型过滤
+        if (queryDTO.getQuestionType() != null && !queryDTO.getQuestionType().trim().isEmpty()) {
+            sqlBuilder.append("AND sq.QUESTION_TYPE = :questionType ");
+            params.addValue("questionType", queryDTO.getQuestionType().trim());
+        }
+
+        return sqlBuilder.toString();
+    }
+
+    /**
+     * 获取筛选条件的总数，缓存未过期且期间没有新插入时直接使用缓存
+     */
+    private FilterStats currentStats(String filterKey, String filterSql, MapSqlParameterSource params,
+                                     boolean unevaluatedFilter) {
+        String signature = String.valueOf(jdbcTemplate.queryForObject(SQL_MAX_ANSWER_ID, Long.class));
+        if (unevaluatedFilter) {
+            signature += ":" + jdbcTemplate.queryForObject(SQL_MAX_EVALUATION_ID, Long.class);
+        }
+
+        long now = System.currentTimeMillis();
+        FilterStats stats = filterStats.get(filterKey);
+        if (stats != null && stats.signature.equals(signature) && now - stats.computedAt < countCacheTtlMs) {
+            return stats;
+        }
+
+        String countSql = "SELECT COUNT(*) " + SQL_FROM + filterSql;
+        logger.debug("查询总数SQL: {}", countSql);
+        logger.debug("查询参数: {}", params.getValues());
+        Long totalCount = namedParameterJdbcTemplate.queryForObject(countSql, params, Long.class);
+
+        if (filterStats.size() >= countCacheMaxEntries) {
+            filterStats.values().removeIf(cached -> now - cached.computedAt >= countCacheTtlMs);
+            if (filterStats.size() >= countCacheMaxEntries) {
+                filterStats.clear();
+            }
+        }
+        stats = new FilterStats(totalCount != null ? totalCount : 0L, signature, now);
+        filterStats.put(filterKey, stats);
+        return stats;
+    }
+
+    /**
+     * 按偏移量定位页起点，只读取排序列
+     *
+     * @param offset 本页第一行之前的行数
+     * @return 上一页最后一行，超出结果范围时返回null
+     */
+    private PageCursor locatePageStart(String filterSql, MapSqlParameterSource params, long offset) {
+        String sql = "SELECT la.ID, la.GENERATION_TIME " + SQL_FROM + filterSql + SQL_ORDER_BY +
+                "LIMIT 1 OFFSET :startOffset";
+        MapSqlParameterSource locateParams = new MapSqlParameterSource(params.getValues());
+        locateParams.addValue("startOffset", offset - 1);
+        List<PageCursor> cursors = namedParameterJdbcTemplate.query(sql, locateParams, (rs, rowNum) -> {
+            Timestamp generationTime = rs.getTimestamp("GENERATION_TIME");
+            return new PageCursor(generationTime != null ? generationTime.toLocalDateTime() : null, rs.getLong("ID"));
+        });
+        return cursors.isEmpty() ? null : cursors.get(0);
+    }
+
+    /**
+     * 从游标之后读取一页回答，列表视图只返回回答摘要
+     */
+    private List<LlmAnswerResponseDTO> fetchPage(String filterSql, MapSqlParameterSource params,
+                                                 PageCursor start, int limit, boolean fullText) {
+        MapSqlParameterSource pageParams = new MapSqlParameterSource(params.getValues());
+        StringBuilder sqlBuilder = new StringBuilder("SELECT la.ID, la.MODEL_ANSWER_RUN_ID, ");
+        if (fullText) {
+            sqlBuilder.append("la.ANSWER_TEXT, 0 AS ANSWER_TRUNCATED, ");
+        } else {
+            sqlBuilder.append("LEFT(la.ANSWER_TEXT, :previewLength) AS ANSWER_TEXT, " +
+                    "CHAR_LENGTH(la.ANSWER_TEXT) > :previewLength AS ANSWER_TRUNCATED, ");
+            pageParams.addValue("previewLength", answerPreviewLength);
+        }
+        sqlBuilder.append("la.GENERATION_TIME, la.REPEAT_INDEX, " +
+                "lm.NAME AS model_name, sq.ID AS question_id, sq.QUESTION_TEXT, sq.QUESTION_TYPE ");
+        sqlBuilder.append(SQL_FROM).append(filterSql);
+
+        // 倒序中位于游标之后的行
+        if (start != null) {
+            if (start.generationTime != null) {
+                sqlBuilder.append("AND (la.GENERATION_TIME < :cursorTime " +
+                        "OR (la.GENERATION_TIME = :cursorTime AND la.ID < :cursorId) " +
+                        "OR la.GENERATION_TIME IS NULL) ");
+                pageParams.addValue("cursorTime", Timestamp.valueOf(start.generationTime));
+            } else {
+                sqlBuilder.append("AND la.GENERATION_TIME IS NULL AND la.ID < :cursorId ");
+            }
+            pageParams.addValue("cursorId", start.id);
+        }
+        sqlBuilder.append(SQL_ORDER_BY).append("LIMIT :pageLimit");
+        pageParams.addValue("pageLimit", limit);
+
+        logger.debug("执行SQL: {}", sqlBuilder);
+        logger.debug("查询参数: {}", pageParams.getValues());
+
+        return namedParameterJdbcTemplate.query(sqlBuilder.toString(), pageParams, (rs, rowNum) -> {
+            LlmAnswerResponseDTO dto = new LlmAnswerResponseDTO();
+            dto.setId(rs.getLong("ID"));
+            dto.setModelAnswerRunId(rs.getLong("MODEL_ANSWER_RUN_ID"));
+            dto.setModelName(rs.getString("model_name"));
+            dto.setAnswerText(rs.getString("ANSWER_TEXT"));
+            dto.setAnswerTruncated(rs.getBoolean("ANSWER_TRUNCATED"));
+            Timestamp generationTime = rs.getTimestamp("GENERATION_TIME");
+            if (generationTime != null) {
+                dto.setGenerationTime(generationTime.toLocalDateTime());
+            }
+            dto.setRepeatIndex(rs.getInt("REPEAT_INDEX"));
+            dto.setQuestionId(rs.getLong("question_id"));
+            dto.setQuestionText(rs.getString("QUESTION_TEXT"));
+            dto.setQuestionType(rs.getString("QUESTION_TYPE"));
+            return dto;
+        });
+    }
+
+    /**
+     * 批量填充本页回答的标签、标准答案和评测状态
+     */
+    private void fillDetails(List<LlmAnswerResponseDTO> answers, Long evaluatorId) {
+        if (answers.isEmpty()) {
+            return;
+        }
+
+        Map<Long, String> questionTypes = new HashMap<>();
+        List<Long> answerIds = new ArrayList<>();
+        for (LlmAnswerResponseDTO answer : answers) {
+            questionTypes.put(answer.getQuestionId(), answer.getQuestionType());
+            answerIds.add(answer.getId());
+        }
+
+        // 查询每个LLM回答的标签
+        Map<Long, List<String>> questionTagsMap = getQuestionTags(questionTypes.keySet());
+
+        // 批量查询标准答案
+        Map<Long, String> standardAnswersMap = getStandardAnswers(questionTypes);
+
+        // 查询哪些回答已被指定评测员评测过
+        Set<Long> evaluatedAnswerIds = Collections.emptySet();
+        if (evaluatorId != null) {
+            evaluatedAnswerIds = getEvaluatedAnswerIds(evaluatorId, answerIds);
+        }
+
+        for (LlmAnswerResponseDTO answer : answers) {
+            answer.setStandardAnswer(standardAnswersMap.get(answer.getQuestionId()));
+            answer.setTags(questionTagsMap.getOrDefault(answer.getQuestionId(), Collections.emptyList()));
+            answer.setEvaluated(evaluatedAnswerIds.contains(answer.getId()));
+        }
+    }
+
     /**
      * 查询哪些回答已被指定评测员评测过
-     * 
+     *
      * @param evaluatorId 评测员ID
      * @param answerIds 回答ID列表
      * @return 已评测过的回答ID集合
      */
     private Set<Long> getEvaluatedAnswerIds(Long evaluatorId, List<Long> answerIds) {
-        if (answerIds.isEmpty()) {
-            return Collections.emptySet();
-        }
-        
         try {
-            Set<Long> result = new HashSet<>();
-            
-            for (Long answerId : answerIds) {
-                String sql = "SELECT COUNT(*) FROM EVALUATIONS WHERE EVALUATOR_ID = ? AND LLM_ANSWER_ID = ?";
-                Integer count = jdbcTemplate.queryForObject(sql, Integer.class, evaluatorId, answerId);
-                if (count != null && count > 0) {
-                    result.add(answerId);
-                }
-            }
-            
-            return result;
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("evaluatorId", evaluatorId)
+                    .addValue("answerIds", answerIds);
+            return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                    "SELECT DISTINCT LLM_ANSWER_ID FROM EVALUATIONS " +
+                    "WHERE EVALUATOR_ID = :evaluatorId AND LLM_ANSWER_ID IN (:answerIds)",
+                    params, Long.class));
         } catch (Exception e) {
             logger.error("查询已评测回答时出错: {}", e.getMessage());
             return Collections.emptySet();
         }
     }
-    
+
     /**
      * 获取问题的标签
-     * 
+     *
      * @param questionIds 问题ID集合
      * @return 问题ID到标签列表的映射
      */
     private Map<Long, List<String>> getQuestionTags(Set<Long> questionIds) {
-        if (questionIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        
         try {
             Map<Long, List<String>> result = new HashMap<>();
-            
-            for (Long questionId : questionIds) {
-                String sql = "SELECT t.NAME AS tag_name FROM STANDARD_QUESTION_TAGS sqt " +
-                        "JOIN TAGS t ON sqt.TAG_ID = t.ID WHERE sqt.STANDARD_QUESTION_ID = ?";
-                
-                List<String> tags = jdbcTemplate.queryForList(sql, String.class, questionId);
-                if (!tags.isEmpty()) {
-                    result.put(questionId, tags);
-                }
-            }
-            
+            namedParameterJdbcTemplate.query(
+                    "SELECT sqt.STANDARD_QUESTION_ID, t.TAG_NAME FROM STANDARD_QUESTION_TAGS sqt " +
+                    "JOIN TAGS t ON sqt.TAG_ID = t.ID WHERE sqt.STANDARD_QUESTION_ID IN (:questionIds)",
+                    new MapSqlParameterSource("questionIds", questionIds),
+                    (RowCallbackHandler) rs -> result
+                            .computeIfAbsent(rs.getLong("STANDARD_QUESTION_ID"), id -> new ArrayList<>())
+                            .add(rs.getString("TAG_NAME")));
             return result;
         } catch (Exception e) {
             logger.error("查询问题标签时出错: {}", e.getMessage());
             return Collections.emptyMap();
         }
     }
-    
+
     /**
      * 批量获取标准答案
      *
-     * @param questionIds 问题ID集合
+     * @param questionTypes 问题ID到题型的映射
      * @return 问题ID到标准答案的映射
      */
-    private Map<Long, String> getStandardAnswers(Set<Long> questionIds) {
-        if (questionIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-
+    private Map<Long, String> getStandardAnswers(Map<Long, String> questionTypes) {
         Map<Long, String> result = new HashMap<>();
-        
-        // 查询问题类型
-        Map<Long, String> questionTypes = new HashMap<>();
-        for (Long questionId : questionIds) {
-            try {
-                String typeSql = "SELECT QUESTION_TYPE FROM STANDARD_QUESTIONS WHERE ID = ?";
-                String questionType = jdbcTemplate.queryForObject(typeSql, String.class, questionId);
-                if (questionType != null) {
-                    questionTypes.put(questionId, questionType);
-                }
-            } catch (Exception e) {
-                logger.error("查询问题{}类型时出错: {}", questionId, e.getMessage());
-            }
-        }
-        
-        // 对每个问题查询标准答案
+
+        // 按答案表分组
+        Set<Long> objectiveIds = new HashSet<>();
+        Set<Long> simpleIds = new HashSet<>();
+        Set<Long> subjectiveIds = new HashSet<>();
         questionTypes.forEach((questionId, questionType) -> {
-            String tableName;
-            
+            if (questionType == null) {
+                return;
+            }
             switch (questionType) {
                 case "SINGLE_CHOICE":
                 case "MULTIPLE_CHOICE":
                     // 单选题和多选题都存储在STANDARD_OBJECTIVE_ANSWERS表中
-                    tableName = "STANDARD_OBJECTIVE_ANSWERS";
-                    // 对于客观题，我们需要特殊处理，因为答案存储在OPTIONS和CORRECT_IDS字段中
-                    try {
-                        String optionsSql = "SELECT OPTIONS, CORRECT_IDS FROM " + tableName + 
-                                " WHERE STANDARD_QUESTION_ID = ?";
-                        
-                        Map<String, Object> optionsResult = jdbcTemplate.queryForMap(optionsSql, questionId);
-                        if (optionsResult != null) {
-                            String options = (String) optionsResult.get("OPTIONS");
-                            String correctIds = (String) optionsResult.get("CORRECT_IDS");
-                            
-                            // 构建格式化的答案文本
-                            StringBuilder formattedAnswer = new StringBuilder("选项：\n");
-                            
-                            // 解析JSON数据
-                            try {
-                                List<Map<String, String>> optionsList = objectMapper.readValue(options, List.class);
-                                List<String> correctIdsList = objectMapper.readValue(correctIds, List.class);
-                                
-                                for (Map<String, String> option : optionsList) {
-                                    String id = option.get("id");
-                                    String text = option.get("text");
-                                    boolean isCorrect = correctIdsList.contains(id);
-                                    
-                                    formattedAnswer.append(id)
-                                            .append(". ")
-                                            .append(text);
-                                    
-                                    if (isCorrect) {
-                                        formattedAnswer.append(" (✓)");
-                                    }
-                                    
-                                    formattedAnswer.append("\n");
-                                }
-                                
-                                result.put(questionId, formattedAnswer.toString());
-                            } catch (Exception e) {
-                                logger.error("解析客观题答案JSON时出错: {}", e.getMessage());
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.error("查询客观题问题{}的标准答案时出错: {}", questionId, e.getMessage());
-                    }
+                    objectiveIds.add(questionId);
                     break;
                 case "SIMPLE_FACT":
-                    tableName = "STANDARD_SIMPLE_ANSWERS";
-                    try {
-                        String answerSql = "SELECT ANSWER_TEXT FROM " + tableName + 
-                                " WHERE STANDARD_QUESTION_ID = ?";
-                        
-                        String answer = jdbcTemplate.queryForObject(answerSql, String.class, questionId);
-                        if (answer != null) {
-                            result.put(questionId, answer);
-                        }
-                    } catch (Exception e) {
-                        logger.error("查询简单事实题问题{}的标准答案时出错: {}", questionId, e.getMessage());
-                    }
+                    simpleIds.add(questionId);
                     break;
                 case "SUBJECTIVE":
-                    tableName = "STANDARD_SUBJECTIVE_ANSWERS";
-                    try {
-                        String answerSql = "SELECT ANSWER_TEXT FROM " + tableName + 
-                                " WHERE STANDARD_QUESTION_ID = ?";
-                        
-                        String answer = jdbcTemplate.queryForObject(answerSql, String.class, questionId);
-                        if (answer != null) {
-                            result.put(questionId, answer);
-                        }
-                    } catch (Exception e) {
-                        logger.error("查询主观题问题{}的标准答案时出错: {}", questionId, e.getMessage());
-                    }
+                    subjectiveIds.add(questionId);
                     break;
                 default:
                     logger.warn("未知题型: {}", questionType);
                     break;
             }
         });
-        
+
+        if (!objectiveIds.isEmpty()) {
+            try {
+                // 对于客观题，答案存储在OPTIONS和CORRECT_IDS字段中
+                namedParameterJdbcTemplate.query(
+                        "SELECT STANDARD_QUESTION_ID, OPTIONS, CORRECT_IDS FROM STANDARD_OBJECTIVE_ANSWERS " +
+                        "WHERE STANDARD_QUESTION_ID IN (:questionIds)",
+                        new MapSqlParameterSource("questionIds", objectiveIds),
+                        (RowCallbackHandler) rs -> {
+                            String formatted = formatObjectiveAnswer(rs.getString("OPTIONS"), rs.getString("CORRECT_IDS"));
+                            if (formatted != null) {
+                                result.putIfAbsent(rs.getLong("STANDARD_QUESTION_ID"), formatted);
+                            }
+                        });
+            } catch (Exception e) {
+                logger.error("查询客观题标准答案时出错: {}", e.getMessage());
+            }
+        }
+        putTextAnswers(result, "STANDARD_SIMPLE_ANSWERS", simpleIds, "简单事实题");
+        putTextAnswers(result, "STANDARD_SUBJECTIVE_ANSWERS", subjectiveIds, "主观题");
+
         return result;
     }
-} 
\ No newline at end of file
+
+    private void putTextAnswers(Map<Long, String> result, String tableName, Set<Long> questionIds, String typeName) {
+        if (questionIds.isEmpty()) {
+            return;
+        }
+        try {
+            namedParameterJdbcTemplate.query(
+                    "SELECT STANDARD_QUESTION_ID, ANSWER_TEXT FROM " + tableName +
+                    " WHERE STANDARD_QUESTION_ID IN (:questionIds)",
+                    new MapSqlParameterSource("questionIds", questionIds),
+                    (RowCallbackHandler) rs -> {
+                        String answer = rs.getString("ANSWER_TEXT");
+                        if (answer != null) {
+                            result.putIfAbsent(rs.getLong("STANDARD_QUESTION_ID"), answer);
+                        }
+                    });
+        } catch (Exception e) {
+            logger.error("查询{}标准答案时出错: {}", typeName, e.getMessage());
+        }
+    }
+
+    /**
+     * 构建格式化的客观题答案文本
+     */
+    @SuppressWarnings("unchecked")
+    private String formatObjectiveAnswer(String options, String correctIds) {
+        try {
+            List<Map<String, String>> optionsList = objectMapper.readValue(options, List.class);
+            List<String> correctIdsList = objectMapper.readValue(correctIds, List.class);
+
+            StringBuilder formattedAnswer = new StringBuilder("选项：\n");
+            for (Map<String, String> option : optionsList) {
+                String id = option.get("id");
+                formattedAnswer.append(id)
+                        .append(". ")
+                        .append(option.get("text"));
+                if (correctIdsList.contains(id)) {
+                    formattedAnswer.append(" (✓)");
+                }
+                formattedAnswer.append("\n");
+            }
+            return formattedAnswer.toString();
+        } catch (Exception e) {
+            logger.error("解析客观题答案JSON时出错: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 筛选条件的缓存状态
+     */
+    private static class FilterStats {
+        private final long totalCount;
+        // 计数时回答表（和评测表）的最大ID
+        private final String signature;
+        private final long computedAt;
+        // 每页大小:页码 -> 页起点
+        private final ConcurrentHashMap<String, PageCursor> pageStarts = new ConcurrentHashMap<>();
+
+        FilterStats(long totalCount, String signature, long computedAt) {
+            this.totalCount = totalCount;
+            this.signature = signature;
+            this.computedAt = computedAt;
+        }
+    }
+
+    /**
+     * 翻页游标：倒序中上一页最后一行的(GENERATION_TIME, ID)
+     */
+    private static class PageCursor {
+        private final LocalDateTime generationTime;
+        private final long id;
+
+        PageCursor(LocalDateTime generationTime, long id) {
+            this.generationTime = generationTime;
+            this.id = id;
+        }
+
+        String encode() {
+            String value = (generationTime != null ? generationTime.toString() : "") + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String token) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = value.lastIndexOf('|');
+                String time = value.substring(0, separator);
+                return new PageCursor(time.isEmpty() ? null : LocalDateTime.parse(time),
+                        Long.parseLong(value.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("无效的翻页游标: " + token);
+            }
+        }
+    }
+}
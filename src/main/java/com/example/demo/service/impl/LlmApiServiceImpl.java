@@ -3,24 +3,36 @@ package com.example.demo.service.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
-import com.example.demo.config.RestTemplateConfig;
+import com.example.demo.dto.ModelAnswerResult;
+import com.example.demo.manager.LlmHttpClientRegistry;
+import com.example.demo.manager.LlmRateLimitManager;
 import com.example.demo.service.LlmApiService;
 import com.example.demo.entity.jdbc.LlmModel;
+import com.example.demo.utils.TextPreprocessor;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * LLM API服务实现类
@@ -32,18 +44,27 @@ public class LlmApiServiceImpl implements LlmApiService {
     
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
-    private final RestTemplateConfig restTemplateConfig;
-    private final RestTemplateBuilder restTemplateBuilder;
+    private final LlmHttpClientRegistry httpClientRegistry;
+    private final LlmRateLimitManager rateLimitManager;
     
     @Value("${llm.default-model:gpt-3.5-turbo}")
     private String defaultModelName;
     
+    @Value("${llm.streaming.enabled:true}")
+    private boolean streamingEnabled;
+    
+    @Value("${llm.retry.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${llm.retry.backoff-delay:1000}")
+    private long backoffDelay;
+    
     public LlmApiServiceImpl(RestTemplate restTemplate, ObjectMapper objectMapper, 
-                            RestTemplateConfig restTemplateConfig, RestTemplateBuilder restTemplateBuilder) {
+                            LlmHttpClientRegistry httpClientRegistry, LlmRateLimitManager rateLimitManager) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
-        this.restTemplateConfig = restTemplateConfig;
-        this.restTemplateBuilder = restTemplateBuilder;
+        this.httpClientRegistry = httpClientRegistry;
+        this.rateLimitManager = rateLimitManager;
     }
     
     @Override
@@ -53,119 +74,67 @@ public class LlmApiServiceImpl implements LlmApiService {
     
     @Override
     public String generateAnswer(String apiUrl, String apiKey, String apiType, String prompt, Map<String, Object> parameters) {
+        String modelName = parameters != null && parameters.get("model") != null ? parameters.get("model").toString() : null;
+        int estimatedTokens = LlmRateLimitManager.estimateTokens(prompt, parameters != null ? parameters.get("max_tokens") : null);
+        return callWithRateLimit(
+            () -> rateLimitManager.acquire(apiUrl, modelName, estimatedTokens),
+            () -> sendGenerateRequest(httpClientRegistry.getRestTemplate(apiUrl, modelName),
+                apiUrl, apiKey, apiType, prompt, parameters));
+    }
+    
+    /**
+     * 在模型限流器的许可下执行调用，遇到429或5xx时按配置的最大次数重试
+     */
+    private <T> T callWithRateLimit(Supplier<LlmRateLimitManager.Permit> permitSupplier, Supplier<T> call) {
+        int attempts = Math.max(1, maxAttempts);
+        for (int attempt = 1; ; attempt++) {
+            LlmRateLimitManager.Permit permit = permitSupplier.get();
+            try {
+                T result = call.get();
+                permit.release(LlmRateLimitManager.Outcome.SUCCESS, 0);
+                return result;
+            } catch (RuntimeException e) {
+                boolean retryable = permit.fail(e);
+                if (!retryable || attempt >= attempts) {
+                    throw e;
+                }
+                logger.warn("LLM API调用被限流或服务端错误，第{}次重试: {}", attempt, e.getMessage());
+                try {
+                    Thread.sleep(backoffDelay * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 使用模型的HTTP客户端发送生成请求（不经过限流）
+     */
+    private String sendGenerateRequest(RestTemplate client, String apiUrl, String apiKey, String apiType,
+                                       String prompt, Map<String, Object> parameters) {
         logger.debug("调用LLM API生成回答, URL: {}, API类型: {}", apiUrl, apiType);
         
         try {
             // 根据API类型补全API路径
-            if (apiUrl != null && !apiUrl.isEmpty()) {
-                if (apiType != null) {
-                    switch (apiType.toLowerCase()) {
-                        case "openai":
-                        case "openai_compatible":
-                            // 检查并补全OpenAI API路径
-                            if (!apiUrl.endsWith("/v1/chat/completions")) {
-                                if (!apiUrl.endsWith("/v1")) {
-                                    apiUrl = apiUrl.endsWith("/") 
-                                        ? apiUrl + "v1/chat/completions" 
-                                        : apiUrl + "/v1/chat/completions";
-                                } else {
-                                    apiUrl = apiUrl + "/chat/completions";
-                                }
-                            }
-                            break;
-                        case "anthropic":
-                            // 检查并补全Anthropic API路径
-                            if (!apiUrl.endsWith("/v1/complete")) {
-                                apiUrl = apiUrl.endsWith("/") 
-                                    ? apiUrl + "v1/complete" 
-                                    : apiUrl + "/v1/complete";
-                            }
-                            break;
-                        case "google":
-                            // 检查并补全Google API路径
-                            if (!apiUrl.contains("/v1/models") && !apiUrl.contains("/generateContent")) {
-                                apiUrl = apiUrl.endsWith("/") 
-                                    ? apiUrl + "v1/models/gemini-pro:generateContent" 
-                                    : apiUrl + "/v1/models/gemini-pro:generateContent";
-                            }
-                            break;
-                    }
-                    logger.debug("完整API URL: {}", apiUrl);
-                }
-            }
+            apiUrl = completeApiUrl(apiUrl, apiType);
             
             // 准备HTTP请求头
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            if (apiKey != null && !apiKey.isEmpty()) {
-                // 根据API类型设置不同的认证头
-                if (apiType != null) {
-                    switch (apiType.toLowerCase()) {
-                        case "openai":
-                            headers.set("Authorization", "Bearer " + apiKey);
-                            break;
-                        case "openai_compatible":
-                            // OpenAI兼容类型，使用相同的认证方式
-                            headers.set("Authorization", "Bearer " + apiKey);
-                            break;
-                        case "azure":
-                            headers.set("api-key", apiKey);
-                            break;
-                        case "anthropic":
-                            headers.set("x-api-key", apiKey);
-                            break;
-                        case "google":
-                            headers.set("Authorization", "Bearer " + apiKey);
-                            break;
-                        default:
-                            // 默认Bearer认证
-                            headers.set("Authorization", "Bearer " + apiKey);
-                            break;
-                    }
-                } else {
-                    // 兼容旧代码，根据URL推断
-                    if (apiUrl.contains("openai.com")) {
-                        headers.set("Authorization", "Bearer " + apiKey);
-                    } else if (apiUrl.contains("azure.com")) {
-                        headers.set("api-key", apiKey);
-                    } else if (apiUrl.contains("anthropic.com")) {
-                        headers.set("x-api-key", apiKey);
-                    } else {
-                        // 默认Bearer认证
-                        headers.set("Authorization", "Bearer " + apiKey);
-                    }
-                }
-            }
+            HttpHeaders headers = createHeaders(apiUrl, apiKey, apiType);
             
             // 构建请求体
             ObjectNode requestBody = createRequestBody(prompt, parameters, apiType);
             
-            // 获取模型名称，用于配置特定的超时时间
-            String modelName = null;
-            if (parameters != null && parameters.containsKey("model")) {
-                modelName = parameters.get("model").toString();
-            }
-            
-            // 根据模型类型获取特定的RestTemplate，以支持不同的超时设置
-            RestTemplate modelSpecificRestTemplate;
-            if (modelName != null) {
-                logger.info("使用模型特定的RestTemplate，模型: {}", modelName);
-                // 创建适合该模型特性的RestTemplate，支持更长的超时时间
-                modelSpecificRestTemplate = restTemplateConfig.getModelSpecificRestTemplate(restTemplateBuilder, modelName);
-            } else {
-                // 使用默认RestTemplate
-                modelSpecificRestTemplate = restTemplate;
-            }
-            
-            // 打印问题内容
-            logger.info("向LLM发送问题: {}", prompt);
+            // 生成路径上只在INFO记录长度，完整问题内容在DEBUG级别输出
+            logger.info("向LLM发送问题: 模型={}, 问题长度={}", parameters != null ? parameters.get("model") : null, prompt.length());
+            logger.debug("向LLM发送问题内容: {}", prompt);
             
             // 创建HTTP实体
             HttpEntity<String> requestEntity = new HttpEntity<>(requestBody.toString(), headers);
             
-            // 使用模型特定的RestTemplate发送请求
-            ResponseEntity<String> responseEntity = modelSpecificRestTemplate.postForEntity(apiUrl, requestEntity, String.class);
+            // 使用模型的连接池客户端发送请求
+            ResponseEntity<String> responseEntity = client.postForEntity(apiUrl, requestEntity, String.class);
             
             // 解析响应
             return parseResponse(responseEntity.getBody(), apiType);
@@ -176,6 +145,98 @@ public class LlmApiServiceImpl implements LlmApiService {
         }
     }
     
+    /**
+     * 根据API类型补全API路径
+     */
+    private String completeApiUrl(String apiUrl, String apiType) {
+        if (apiUrl != null && !apiUrl.isEmpty()) {
+            if (apiType != null) {
+                switch (apiType.toLowerCase()) {
+                    case "openai":
+                    case "openai_compatible":
+                        // 检查并补全OpenAI API路径
+                        if (!apiUrl.endsWith("/v1/chat/completions")) {
+                            if (!apiUrl.endsWith("/v1")) {
+                                apiUrl = apiUrl.endsWith("/") 
+                                    ? apiUrl + "v1/chat/completions" 
+                                    : apiUrl + "/v1/chat/completions";
+                            } else {
+                                apiUrl = apiUrl + "/chat/completions";
+                            }
+                        }
+                        break;
+                    case "anthropic":
+                        // 检查并补全Anthropic API路径
+                        if (!apiUrl.endsWith("/v1/complete")) {
+                            apiUrl = apiUrl.endsWith("/") 
+                                ? apiUrl + "v1/complete" 
+                                : apiUrl + "/v1/complete";
+                        }
+                        break;
+                    case "google":
+                        // 检查并补全Google API路径
+                        if (!apiUrl.contains("/v1/models") && !apiUrl.contains("/generateContent")) {
+                            apiUrl = apiUrl.endsWith("/") 
+                                ? apiUrl + "v1/models/gemini-pro:generateContent" 
+                                : apiUrl + "/v1/models/gemini-pro:generateContent";
+                        }
+                        break;
+                }
+                logger.debug("完整API URL: {}", apiUrl);
+            }
+        }
+        return apiUrl;
+    }
+    
+    /**
+     * 根据API类型创建带认证信息的请求头
+     */
+    private HttpHeaders createHeaders(String apiUrl, String apiKey, String apiType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        
+        if (apiKey != null && !apiKey.isEmpty()) {
+            // 根据API类型设置不同的认证头
+            if (apiType != null) {
+                switch (apiType.toLowerCase()) {
+                    case "openai":
+                        headers.set("Authorization", "Bearer " + apiKey);
+                        break;
+                    case "openai_compatible":
+                        // OpenAI兼容类型，使用相同的认证方式
+                        headers.set("Authorization", "Bearer " + apiKey);
+                        break;
+                    case "azure":
+                        headers.set("api-key", apiKey);
+                        break;
+                    case "anthropic":
+                        headers.set("x-api-key", apiKey);
+                        break;
+                    case "google":
+                        headers.set("Authorization", "Bearer " + apiKey);
+                        break;
+                    default:
+                        // 默认Bearer认证
+                        headers.set("Authorization", "Bearer " + apiKey);
+                        break;
+                }
+            } else {
+                // 兼容旧代码，根据URL推断
+                if (apiUrl.contains("openai.com")) {
+                    headers.set("Authorization", "Bearer " + apiKey);
+                } else if (apiUrl.contains("azure.com")) {
+                    headers.set("api-key", apiKey);
+                } else if (apiUrl.contains("anthropic.com")) {
+                    headers.set("x-api-key", apiKey);
+                } else {
+                    // 默认Bearer认证
+                    headers.set("Authorization", "Bearer " + apiKey);
+                }
+            }
+        }
+        return headers;
+    }
+    
     /**
      * 根据API类型和参数创建请求体
      */
@@ -608,14 +669,20 @@ public class LlmApiServiceImpl implements LlmApiService {
             logger.debug("请求头: {}", headers);
             logger.debug("请求体: {}", requestBody.toString());
             
-            // 获取模型特定的RestTemplate，支持更长的超时设置
-            RestTemplate modelSpecificRestTemplate = restTemplateConfig.getModelSpecificRestTemplate(
-                    restTemplateBuilder, modelName);
+            // 获取模型的连接池客户端
+            RestTemplate modelSpecificRestTemplate = httpClientRegistry.getRestTemplate(apiUrl, modelName);
                 
-            try {
+            // 连通性测试与正式调用共用模型限流器，避免测试请求挤占限额
+            try (LlmRateLimitManager.Permit permit = rateLimitManager.acquire(apiUrl, modelName, 10)) {
                 // 发送POST请求，使用模型特定的RestTemplate
-                ResponseEntity<String> response = modelSpecificRestTemplate.postForEntity(
-                        endpointUrl, requestEntity, String.class);
+                ResponseEntity<String> response;
+                try {
+                    response = modelSpecificRestTemplate.postForEntity(endpointUrl, requestEntity, String.class);
+                    permit.complete(response.getStatusCode().value());
+                } catch (Exception e) {
+                    permit.fail(e);
+                    throw e;
+                }
                 
                 int statusCode = response.getStatusCodeValue();
                 String responseBody = response.getBody();
@@ -698,7 +765,51 @@ public class LlmApiServiceImpl implements LlmApiService {
     public String generateModelAnswer(LlmModel model, String prompt, Map<String, Object> contextVariables) {
         logger.debug("调用LLM模型生成回答, 模型: {}, API类型: {}", model.getName(), model.getApiType());
         
-        // 组装参数
+        Map<String, Object> parameters = buildModelParameters(model, contextVariables);
+        
+        // 在模型自身的限额下调用生成回答
+        int estimatedTokens = LlmRateLimitManager.estimateTokens(prompt, parameters.get("max_tokens"));
+        return callWithRateLimit(
+            () -> rateLimitManager.acquire(model, estimatedTokens),
+            () -> sendGenerateRequest(
+                httpClientRegistry.getRestTemplate(model),
+                model.getApiUrl(),
+                model.getApiKey(),
+                model.getApiType(),
+                prompt,
+                parameters
+            ));
+    }
+    
+    @Override
+    public boolean supportsStreaming(LlmModel model) {
+        if (!streamingEnabled || model.getApiType() == null) {
+            return false;
+        }
+        String apiType = model.getApiType().toLowerCase();
+        return apiType.equals("openai") || apiType.equals("openai_compatible");
+    }
+    
+    /**
+     * 以流式方式使用LLM模型生成回答
+     */
+    @Override
+    public ModelAnswerResult generateModelAnswerStreaming(LlmModel model, String prompt, Map<String, Object> contextVariables,
+                                                          Consumer<String> onVisibleText) {
+        logger.debug("流式调用LLM模型生成回答, 模型: {}, API类型: {}", model.getName(), model.getApiType());
+        
+        Map<String, Object> parameters = buildModelParameters(model, contextVariables);
+        
+        int estimatedTokens = LlmRateLimitManager.estimateTokens(prompt, parameters.get("max_tokens"));
+        return callWithRateLimit(
+            () -> rateLimitManager.acquire(model, estimatedTokens),
+            () -> sendStreamingRequest(httpClientRegistry.getRestTemplate(model), model, prompt, parameters, onVisibleText));
+    }
+    
+    /**
+     * 组装模型调用参数：模型默认参数，再由上下文变量覆盖
+     */
+    private Map<String, Object> buildModelParameters(LlmModel model, Map<String, Object> contextVariables) {
         Map<String, Object> parameters = new HashMap<>();
         
         // 添加模型默认参数
@@ -717,14 +828,132 @@ public class LlmApiServiceImpl implements LlmApiService {
             parameters.put("model", model.getName());
         }
         
-        // 调用生成回答
-        return generateAnswer(
-            model.getApiUrl(),
-            model.getApiKey(),
-            model.getApiType(),
-            prompt,
-            parameters
-        );
+        return parameters;
+    }
+    
+    /**
+     * 发送流式生成请求（OpenAI兼容的SSE格式，不经过限流）
+     */
+    private ModelAnswerResult sendStreamingRequest(RestTemplate client, LlmModel model, String prompt,
+                                                   Map<String, Object> parameters, Consumer<String> onVisibleText) {
+        try {
+            String apiUrl = completeApiUrl(model.getApiUrl(), model.getApiType());
+            HttpHeaders headers = createHeaders(apiUrl, model.getApiKey(), model.getApiType());
+            headers.setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+            
+            ObjectNode requestBody = createRequestBody(prompt, parameters, model.getApiType());
+            requestBody.put("stream", true);
+            byte[] body = requestBody.toString().getBytes(StandardCharsets.UTF_8);
+            
+            logger.debug("向LLM发送流式请求: URL={}, 提示词长度={}", apiUrl, prompt.length());
+            
+            long startTime = System.currentTimeMillis();
+            return client.execute(apiUrl, HttpMethod.POST,
+                request -> {
+                    request.getHeaders().putAll(headers);
+                    request.getBody().write(body);
+                },
+                response -> readEventStream(response.getBody(), startTime, onVisibleText));
+        } catch (Exception e) {
+            logger.error("LLM API流式调用失败", e);
+            throw new RuntimeException("LLM API流式调用失败: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 逐行读取SSE响应，增量过滤思考过程并回调可展示文本，同时统计首个Token耗时和生成速度
+     *
+     * 已收到部分内容后连接超时或中断时，不抛出异常，返回标记为不完整的结果，由调用方保存已生成的部分。
+     */
+    private ModelAnswerResult readEventStream(InputStream stream, long startTime, Consumer<String> onVisibleText) throws IOException {
+        StringBuilder rawText = new StringBuilder();
+        TextPreprocessor.ThinkingFilter filter = TextPreprocessor.newThinkingFilter();
+        Long firstTokenTime = null;
+        int deltaCount = 0;
+        Integer usageTokens = null;
+        
+        String streamError = null;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        String line;
+        try {
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring(5).trim();
+                if (data.isEmpty()) {
+                    continue;
+                }
+                if ("[DONE]".equals(data)) {
+                    break;
+                }
+            
+                JsonNode chunk = objectMapper.readTree(data);
+                JsonNode usage = chunk.get("usage");
+                if (usage != null && usage.hasNonNull("completion_tokens")) {
+                    usageTokens = usage.get("completion_tokens").asInt();
+                }
+            
+                JsonNode choices = chunk.get("choices");
+                if (choices == null || choices.size() == 0 || choices.get(0).get("delta") == null) {
+                    continue;
+                }
+                JsonNode delta = choices.get(0).get("delta");
+                String content = delta.hasNonNull("content") ? delta.get("content").asText() : "";
+                // 部分推理模型把思考过程放在单独的reasoning_content字段中，只计入Token统计
+                boolean hasReasoning = delta.hasNonNull("reasoning_content") && !delta.get("reasoning_content").asText().isEmpty();
+                if (content.isEmpty() && !hasReasoning) {
+                    continue;
+                }
+            
+                if (firstTokenTime == null) {
+                    firstTokenTime = System.currentTimeMillis();
+                }
+                deltaCount++;
+            
+                if (!content.isEmpty()) {
+                    rawText.append(content);
+                    String visible = filter.accept(content);
+                    if (!visible.isEmpty() && onVisibleText != null) {
+                        onVisibleText.accept(visible);
+                    }
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            if (rawText.length() == 0) {
+                throw e;
+            }
+            streamError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            logger.warn("流式响应在已收到{}个字符后中断: {}", rawText.length(), streamError);
+        }
+        
+        String rest = filter.finish();
+        if (!rest.isEmpty() && onVisibleText != null) {
+            onVisibleText.accept(rest);
+        }
+        
+        long endTime = System.currentTimeMillis();
+        
+        // 最终结果与非流式调用一致，使用cleanText处理完整文本
+        ModelAnswerResult result = new ModelAnswerResult(TextPreprocessor.cleanText(rawText.toString()), endTime - startTime);
+        result.setStreamed(true);
+        if (streamError != null) {
+            result.setPartial(true);
+            result.setErrorMessage(streamError);
+        }
+        if (firstTokenTime != null) {
+            int tokens = usageTokens != null ? usageTokens : deltaCount;
+            result.setFirstTokenMs(firstTokenTime - startTime);
+            result.setCompletionTokens(tokens);
+            long generationMs = endTime - firstTokenTime;
+            if (generationMs > 0) {
+                result.setTokensPerSecond(tokens * 1000.0 / generationMs);
+            }
+        }
+        
+        logger.info("流式回答生成完成: 总耗时={}毫秒, 首Token耗时={}毫秒, Token数={}, 速度={}",
+            result.getTotalMs(), result.getFirstTokenMs(), result.getCompletionTokens(), result.getTokensPerSecond());
+        return result;
     }
 
     /**
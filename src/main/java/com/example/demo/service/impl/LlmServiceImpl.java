@@ -8,7 +8,6 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -21,10 +20,10 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import com.example.demo.config.LlmConfig;
-import com.example.demo.config.RestTemplateConfig;
 import com.example.demo.dto.LlmRequestDTO;
 import com.example.demo.dto.LlmResponseDTO;
 import com.example.demo.dto.ModelInfoDTO;
+import com.example.demo.manager.LlmHttpClientRegistry;
 import com.example.demo.service.LlmService;
 
 @Service
@@ -33,16 +32,13 @@ public class LlmServiceImpl implements LlmService {
     private static final Logger logger = LoggerFactory.getLogger(LlmServiceImpl.class);
     
     private final RestTemplate restTemplate;
-    private final RestTemplateBuilder restTemplateBuilder;
-    private final RestTemplateConfig restTemplateConfig;
+    private final LlmHttpClientRegistry httpClientRegistry;
     private final LlmConfig llmConfig;
 
     @Autowired
-    public LlmServiceImpl(RestTemplate restTemplate, RestTemplateBuilder restTemplateBuilder, 
-                         RestTemplateConfig restTemplateConfig, LlmConfig llmConfig) {
+    public LlmServiceImpl(RestTemplate restTemplate, LlmHttpClientRegistry httpClientRegistry, LlmConfig llmConfig) {
         this.restTemplate = restTemplate;
-        this.restTemplateBuilder = restTemplateBuilder;
-        this.restTemplateConfig = restTemplateConfig;
+        this.httpClientRegistry = httpClientRegistry;
         this.llmConfig = llmConfig;
     }
 
@@ -204,13 +200,9 @@ public class LlmServiceImpl implements LlmService {
             // 创建HTTP实体
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
             
-            // 根据模型类型获取特定的RestTemplate
+            // 获取模型的连接池客户端
             RestTemplate modelSpecificRestTemplate = 
-                restTemplateConfig.getModelSpecificRestTemplate(restTemplateBuilder, request.getModel());
-            
-            // 记录实际使用的超时设置
-            logger.info("模型 {} 使用的超时设置: {}", request.getModel(), 
-                       modelSpecificRestTemplate.getRequestFactory().toString());
+                httpClientRegistry.getRestTemplate(request.getApiUrl(), request.getModel());
             
             // 发送请求
             ResponseEntity<Map> response = modelSpecificRestTemplate.postForEntity(
@@ -21,6 +21,7 @@ import com.example.demo.entity.jdbc.ChangeType;
 import com.example.demo.entity.jdbc.EvaluationPromptAssemblyConfig;
 import com.example.demo.entity.jdbc.User;
 import com.example.demo.exception.EntityNotFoundException;
+import com.example.demo.manager.AnswerPromptPlanCache;
 import com.example.demo.repository.jdbc.AnswerPromptAssemblyConfigRepository;
 import com.example.demo.repository.jdbc.ChangeLogRepository;
 import com.example.demo.repository.jdbc.EvaluationPromptAssemblyConfigRepository;
@@ -39,17 +40,20 @@ public class PromptAssemblyConfigServiceImpl implements PromptAssemblyConfigServ
     private final EvaluationPromptAssemblyConfigRepository evalConfigRepository;
     private final UserRepository userRepository;
     private final ChangeLogRepository changeLogRepository;
+    private final AnswerPromptPlanCache answerPromptPlanCache;
     
     @Autowired
     public PromptAssemblyConfigServiceImpl(
             AnswerPromptAssemblyConfigRepository answerConfigRepository,
             EvaluationPromptAssemblyConfigRepository evalConfigRepository,
             UserRepository userRepository,
-            ChangeLogRepository changeLogRepository) {
+            ChangeLogRepository changeLogRepository,
+            AnswerPromptPlanCache answerPromptPlanCache) {
         this.answerConfigRepository = answerConfigRepository;
         this.evalConfigRepository = evalConfigRepository;
         this.userRepository = userRepository;
         this.changeLogRepository = changeLogRepository;
+        this.answerPromptPlanCache = answerPromptPlanCache;
     }
     
     @Override
@@ -88,6 +92,7 @@ public class PromptAssemblyConfigServiceImpl implements PromptAssemblyConfigServ
         // 保存配置
         AnswerPromptAssemblyConfig savedConfig = answerConfigRepository.save(config);
         logger.debug("回答提示词组装配置已创建: ID={}, 名称={}", savedConfig.getId(), savedConfig.getName());
+        answerPromptPlanCache.invalidateAll();
         
         // 转换为DTO并返回
         return convertToAnswerDTO(savedConfig);
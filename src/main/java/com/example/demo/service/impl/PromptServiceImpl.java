@@ -6,6 +6,7 @@ import com.example.demo.dto.EvaluationSubjectivePromptDTO;
 import com.example.demo.dto.EvaluationTagPromptDTO;
 import com.example.demo.entity.jdbc.*;
 import com.example.demo.repository.jdbc.*;
+import com.example.demo.manager.AnswerPromptPlanCache;
 import com.example.demo.service.PromptService;
 import com.example.demo.exception.EntityNotFoundException;
 import org.slf4j.Logger;
@@ -38,6 +39,9 @@ public class PromptServiceImpl implements PromptService {
     @Autowired
     private TagRepository tagRepository;
     
+    @Autowired
+    private AnswerPromptPlanCache answerPromptPlanCache;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -68,7 +72,9 @@ public class PromptServiceImpl implements PromptService {
             prompt.setParentPrompt(parentPrompt);
         }
         
-        return answerTagPromptRepository.save(prompt);
+        AnswerTagPrompt savedPrompt = answerTagPromptRepository.save(prompt);
+        answerPromptPlanCache.invalidateAll();
+        return savedPrompt;
     }
 
     @Override
@@ -119,7 +125,9 @@ public class PromptServiceImpl implements PromptService {
             prompt.setParentPrompt(parentPrompt);
         }
         
-        return answerTagPromptRepository.save(prompt);
+        AnswerTagPrompt savedPrompt = answerTagPromptRepository.save(prompt);
+        answerPromptPlanCache.invalidateAll();
+        return savedPrompt;
     }
 
     @Override
@@ -147,6 +155,7 @@ public class PromptServiceImpl implements PromptService {
         
         prompt.setDeletedAt(LocalDateTime.now());
         answerTagPromptRepository.save(prompt);
+        answerPromptPlanCache.invalidateAll();
     }
 
     @Override
@@ -174,7 +183,9 @@ public class PromptServiceImpl implements PromptService {
             prompt.setParentPrompt(parentPrompt);
         }
         
-        return answerQuestionTypePromptRepository.save(prompt);
+        AnswerQuestionTypePrompt savedPrompt = answerQuestionTypePromptRepository.save(prompt);
+        answerPromptPlanCache.invalidateAll();
+        return savedPrompt;
     }
 
     @Override
@@ -222,7 +233,9 @@ public class PromptServiceImpl implements PromptService {
             prompt.setParentPrompt(parentPrompt);
         }
         
-        return answerQuestionTypePromptRepository.save(prompt);
+        AnswerQuestionTypePrompt savedPrompt = answerQuestionTypePromptRepository.save(prompt);
+        answerPromptPlanCache.invalidateAll();
+        return savedPrompt;
     }
 
     @Override
@@ -250,6 +263,7 @@ public class PromptServiceImpl implements PromptService {
         
         prompt.setDeletedAt(LocalDateTime.now());
         answerQuestionTypePromptRepository.save(prompt);
+        answerPromptPlanCache.invalidateAll();
     }
     
     // ===== 评测标签提示词相关方法实现 =====
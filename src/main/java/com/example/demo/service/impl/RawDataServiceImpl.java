@@ -28,6 +28,7 @@ import com.example.demo.entity.jdbc.RawQuestion;
 import com.example.demo.entity.jdbc.RawQuestionTag;
 import com.example.demo.entity.jdbc.StandardQuestion;
 import com.example.demo.entity.jdbc.Tag;
+import com.example.demo.manager.TagRecommendationIndex;
 import com.example.demo.repository.jdbc.RawAnswerRepository;
 import com.example.demo.repository.jdbc.RawQuestionRepository;
 import com.example.demo.repository.jdbc.RawQuestionTagRepository;
@@ -64,6 +65,9 @@ public class RawDataServiceImpl implements RawDataService {
     @Autowired
     private StandardQuestionRepository standardQuestionRepository;
 
+    @Autowired
+    private TagRecommendationIndex tagRecommendationIndex;
+
     @Override
     @Transactional
     public RawQuestion createQuestion(RawQuestion question) {
@@ -282,6 +286,10 @@ public class RawDataServiceImpl implements RawDataService {
         
         if (!questionTags.isEmpty()) {
             rawQuestionTagRepository.saveAll(questionTags);
+            for (RawQuestionTag questionTag : questionTags) {
+                tagRecommendationIndex.rawQuestionTagged(question.getId(), question.getTitle(),
+                        question.getContent(), questionTag.getTag().getTagName());
+            }
         }
     }
 
@@ -403,16 +411,14 @@ public class RawDataServiceImpl implements RawDataService {
                     return Page.empty(pageable);
                 } else if (resultMap.isEmpty() && keyword == null && (tags == null || tags.isEmpty())) {
                     // 如果没有其他搜索条件，获取所有问题
-                    logger.debug("没有其他搜索条件，获取所有问题");
-                    Page<RawQuestion> allQuestions = rawQuestionRepository.findAll(Pageable.unpaged());
-                    allQuestions.forEach(q -> resultMap.put(q.getId(), q));
+                    logger.debug("没有其他搜索条件，直接分页查询所有问题");
+                    return rawQuestionRepository.findAll(pageable).map(this::convertToDisplayDTO);
                 }
             }
         } else if (!hasSearchConditions) {
             // 如果没有任何搜索条件，获取所有问题
-            logger.debug("没有任何搜索条件，获取所有问题");
-            Page<RawQuestion> allQuestions = rawQuestionRepository.findAll(Pageable.unpaged());
-            allQuestions.forEach(q -> resultMap.put(q.getId(), q));
+            logger.debug("没有任何搜索条件，直接分页查询所有问题");
+            return rawQuestionRepository.findAll(pageable).map(this::convertToDisplayDTO);
         }
         
         // 如果有搜索条件但没有结果，返回空页面
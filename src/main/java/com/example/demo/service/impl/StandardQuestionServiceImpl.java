@@ -42,11 +42,13 @@ import com.example.demo.entity.jdbc.StandardQuestion;
 import com.example.demo.entity.jdbc.StandardQuestionTag;
 import com.example.demo.entity.jdbc.Tag;
 import com.example.demo.entity.jdbc.User;
+import com.example.demo.manager.TagRecommendationIndex;
 import com.example.demo.repository.jdbc.ChangeLogDetailRepository;
 import com.example.demo.repository.jdbc.ChangeLogRepository;
 import com.example.demo.repository.jdbc.CrowdsourcedAnswerRepository;
 import com.example.demo.repository.jdbc.DatasetQuestionMappingRepository;
 import com.example.demo.repository.jdbc.ExpertCandidateAnswerRepository;
+import com.example.demo.repository.jdbc.FetchMode;
 import com.example.demo.repository.jdbc.RawQuestionRepository;
 import com.example.demo.repository.jdbc.StandardObjectiveAnswerRepository;
 import com.example.demo.repository.jdbc.StandardQuestionRepository;
@@ -78,6 +80,7 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
     private final StandardSimpleAnswerRepository standardSimpleAnswerRepository;
     private final StandardSubjectiveAnswerRepository standardSubjectiveAnswerRepository;
     private final DatasetQuestionMappingRepository datasetQuestionMappingRepository;
+    private final TagRecommendationIndex tagRecommendationIndex;
     
     // 显式构造函数
     public StandardQuestionServiceImpl(
@@ -94,7 +97,8 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
             StandardObjectiveAnswerRepository standardObjectiveAnswerRepository,
             StandardSimpleAnswerRepository standardSimpleAnswerRepository,
             StandardSubjectiveAnswerRepository standardSubjectiveAnswerRepository,
-            DatasetQuestionMappingRepository datasetQuestionMappingRepository) {
+            DatasetQuestionMappingRepository datasetQuestionMappingRepository,
+            TagRecommendationIndex tagRecommendationIndex) {
         this.standardQuestionRepository = standardQuestionRepository;
         this.rawQuestionRepository = rawQuestionRepository;
         this.userRepository = userRepository;
@@ -109,6 +113,7 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
         this.standardSimpleAnswerRepository = standardSimpleAnswerRepository;
         this.standardSubjectiveAnswerRepository = standardSubjectiveAnswerRepository;
         this.datasetQuestionMappingRepository = datasetQuestionMappingRepository;
+        this.tagRecommendationIndex = tagRecommendationIndex;
     }
 
     @Override
@@ -417,6 +422,10 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
         
         if (!questionTags.isEmpty()) {
             standardQuestionTagRepository.saveAll(questionTags);
+            for (StandardQuestionTag questionTag : questionTags) {
+                tagRecommendationIndex.standardQuestionTagged(standardQuestion.getId(),
+                        standardQuestion.getQuestionText(), questionTag.getTag().getTagName());
+            }
         }
     }
 
@@ -958,6 +967,7 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
                 StandardQuestionTag questionTag = new StandardQuestionTag(question, tag, user);
                 questionTag.setCreatedChangeLog(changeLog);
                 standardQuestionTagRepository.save(questionTag);
+                tagRecommendationIndex.standardQuestionTagged(question.getId(), question.getQuestionText(), tag.getTagName());
                 question.addTag(questionTag);
                 
                 // 记录变更日志详情
@@ -1068,54 +1078,6 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
         return searchQuestions(tags, keyword, userId, onlyLatest, false, pageable);
     }
     
-    /**
-     * 根据标签列表获取包含所有指定标签的问题
-     * 
-     * @param tags 标签列表
-     * @return 包含所有指定标签的问题列表
-     */
-    private List<StandardQuestion> getQuestionsByTags(List<String> tags) {
-        if (tags == null || tags.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        try {
-            // 使用优化的数据库查询方法，避免在内存中过滤
-            return standardQuestionRepository.findByAllTagNames(tags);
-        } catch (Exception e) {
-            logger.error("根据标签查询问题失败，回退到内存过滤", e);
-            
-            // 如果数据库查询失败，回退到内存过滤
-            List<StandardQuestion> allQuestions = standardQuestionRepository.findAll();
-            
-            // 过滤出包含所有指定标签的问题
-            return allQuestions.stream()
-                    .filter(question -> {
-                        if (question == null) {
-                            return false;
-                        }
-                        
-                        // 获取问题标签名称 - 修改为final变量
-                        final List<String> questionTagNames;
-                        if (question.getQuestionTags() != null) {
-                            questionTagNames = question.getQuestionTags().stream()
-                                    .filter(tag -> tag != null && tag.getTag() != null && tag.getTag().getTagName() != null)
-                                    .map(tag -> tag.getTag().getTagName().toLowerCase())
-                                    .collect(Collectors.toList());
-                        } else {
-                            questionTagNames = new ArrayList<>();
-                        }
-                        
-                        // 检查问题是否包含所有指定标签
-                        return tags.stream()
-                                .filter(tag -> tag != null)
-                                .map(tag -> tag.toLowerCase())
-                                .allMatch(tag -> questionTagNames.contains(tag));
-                    })
-                    .collect(Collectors.toList());
-        }
-    }
-
     @Override
     public Map<String, Object> getOriginalQuestionAndAnswers(Long questionId, Pageable pageable) {
         logger.debug("开始获取原始问题和回答 - 标准问题ID: {}, 页码: {}, 每页大小: {}", 
@@ -1838,7 +1800,7 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
             }
             
             // 获取数据集内的问题ID列表
-            List<Long> datasetQuestionIds = datasetQuestionMappingRepository.findByDatasetVersionId(datasetId)
+            List<Long> datasetQuestionIds = datasetQuestionMappingRepository.findByDatasetVersionId(datasetId, FetchMode.LAZY)
                 .stream()
                 .map(mapping -> mapping.getStandardQuestion().getId())
                 .collect(Collectors.toList());
@@ -2081,99 +2043,35 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
     
     @Override
     public Map<String, Object> searchQuestions(List<String> tags, String keyword, Long userId, Boolean onlyLatest, Boolean onlyWithStandardAnswers, Pageable pageable) {
-        logger.info("搜索标准问题 - 标签: {}, 关键词: {}, 用户ID: {}, 仅最新版本: {}, 仅有标准答案: {}", 
-            tags, keyword, userId, onlyLatest, onlyWithStandardAnswers);
-        
-        // 1. 根据条件获取问题列表
-        List<StandardQuestion> questions = new ArrayList<>();
-        
-        // 如果同时有标签和关键词，先按标签过滤，再按关键词过滤
-        if (tags != null && !tags.isEmpty() && keyword != null && !keyword.trim().isEmpty()) {
-            // 获取包含所有指定标签的问题
-            List<StandardQuestion> tagFilteredQuestions = getQuestionsByTags(tags);
-            
-            // 在标签过滤结果中进一步按关键词过滤
-            for (StandardQuestion question : tagFilteredQuestions) {
-                if (question != null && question.getQuestionText() != null && 
-                    question.getQuestionText().toLowerCase().contains(keyword.toLowerCase())) {
-                    questions.add(question);
-                }
-            }
-        }
-        // 只有标签
-        else if (tags != null && !tags.isEmpty()) {
-            questions = getQuestionsByTags(tags);
-        }
-        // 只有关键词
-        else if (keyword != null && !keyword.trim().isEmpty()) {
-            // 注意：不要再添加百分号，因为Repository实现中已经添加了
-            questions = standardQuestionRepository.findByQuestionTextContaining(keyword);
-        }
-        // 没有搜索条件，返回所有问题或最新版本
-        else {
-            // 先获取所有问题
-            questions = standardQuestionRepository.findAll();
-            
-            // 如果需要最新版本，后续会过滤
-        }
-        
-        // 如果需要过滤出有标准答案的问题
-        if (Boolean.TRUE.equals(onlyWithStandardAnswers)) {
-            logger.debug("过滤出有标准答案的问题");
-            
-            questions = questions.stream()
-                .filter(question -> {
-                    // 检查不同类型问题的标准回答
-                    if (question.getQuestionType() == QuestionType.SINGLE_CHOICE || 
-                        question.getQuestionType() == QuestionType.MULTIPLE_CHOICE) {
-                        return standardObjectiveAnswerRepository.findByStandardQuestionId(question.getId()).isPresent();
-                    } else if (question.getQuestionType() == QuestionType.SIMPLE_FACT) {
-                        return standardSimpleAnswerRepository.findByStandardQuestionId(question.getId()).isPresent();
-                    } else if (question.getQuestionType() == QuestionType.SUBJECTIVE) {
-                        return standardSubjectiveAnswerRepository.findByStandardQuestionId(question.getId()).isPresent();
-                    }
-                    return false;  // 未知类型，默认视为没有回答
-                })
-                .collect(Collectors.toList());
-            
-            logger.debug("有标准答案的问题数量: {}", questions.size());
-        }
-        
-        // 如果需要过滤出叶子节点（没有子问题的节点）
-        if (Boolean.TRUE.equals(onlyLatest)) {
-            // 创建一个辅助Set用于快速检查问题是否有子问题
-            Set<Long> questionsWithChildren = new HashSet<>();
-            for (StandardQuestion question : standardQuestionRepository.findAll()) {
-                if (question != null && question.getParentStandardQuestion() != null) {
-                    questionsWithChildren.add(question.getParentStandardQuestion().getId());
-                }
-            }
-            
-            // 过滤出没有子问题的节点（叶子节点）
-            questions = questions.stream()
-                .filter(q -> q != null && q.getId() != null && !questionsWithChildren.contains(q.getId()))
-                .collect(Collectors.toList());
-        }
-        
-        // 去重处理，确保每个问题ID只出现一次
-        Map<Long, StandardQuestion> uniqueQuestionsMap = new HashMap<>();
-        for (StandardQuestion question : questions) {
-            if (question != null && question.getId() != null) {
-                uniqueQuestionsMap.put(question.getId(), question);
-            }
-        }
-        questions = new ArrayList<>(uniqueQuestionsMap.values());
-        
-        // 2. 分页处理
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), questions.size());
-        
-        List<StandardQuestion> pagedQuestions;
-        if (start <= end && start < questions.size()) {
-            pagedQuestions = questions.subList(start, end);
-        } else {
-            pagedQuestions = new ArrayList<>();
-        }
+        return searchQuestions(tags, keyword, userId, onlyLatest, onlyWithStandardAnswers, null, true, pageable);
+    }
+    
+    @Override
+    public Map<String, Object> searchQuestions(List<String> tags, String keyword, Long userId, Boolean onlyLatest, Boolean onlyWithStandardAnswers,
+                                               Long afterId, boolean includeTotal, Pageable pageable) {
+        logger.info("搜索标准问题 - 标签: {}, 关键词: {}, 用户ID: {}, 仅最新版本: {}, 仅有标准答案: {}, 起始ID: {}", 
+            tags, keyword, userId, onlyLatest, onlyWithStandardAnswers, afterId);
+        
+        boolean latestOnly = Boolean.TRUE.equals(onlyLatest);
+        boolean withStandardAnswersOnly = Boolean.TRUE.equals(onlyWithStandardAnswers);
+        int pageSize = pageable.getPageSize();
+        
+        // 1. 在数据库中过滤并分页，多取一条用于判断是否还有下一页
+        List<StandardQuestion> questions = standardQuestionRepository.search(
+            tags, keyword, latestOnly, withStandardAnswersOnly, afterId, pageable.getOffset(), pageSize + 1);
+        boolean hasMore = questions.size() > pageSize;
+        List<StandardQuestion> pagedQuestions = hasMore ? questions.subList(0, pageSize) : questions;
+        
+        // 2. 批量查询当前页问题的标准答案和子版本情况
+        List<Long> pagedQuestionIds = pagedQuestions.stream()
+            .map(StandardQuestion::getId)
+            .collect(Collectors.toList());
+        Set<Long> questionsWithStandardAnswers = withStandardAnswersOnly
+            ? new HashSet<>(pagedQuestionIds)
+            : standardQuestionRepository.findIdsWithStandardAnswers(pagedQuestionIds);
+        Set<Long> questionsWithChildren = latestOnly
+            ? new HashSet<>()
+            : standardQuestionRepository.findIdsWithChildren(pagedQuestionIds);
         
         // 3. 转换为DTO并添加额外信息
         List<Map<String, Object>> questionDTOs = new ArrayList<>();
@@ -2198,20 +2096,7 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
             }
             questionDTO.put("tags", questionTags);
             
-            // 检查是否有标准回答 - 添加问题类型的空值检查
-            boolean hasStandardAnswer = false;
-            
-            if (question.getQuestionType() != null) {
-                if (question.getQuestionType() == QuestionType.SINGLE_CHOICE || question.getQuestionType() == QuestionType.MULTIPLE_CHOICE) {
-                    hasStandardAnswer = standardObjectiveAnswerRepository.findByStandardQuestionId(question.getId()).isPresent();
-                } else if (question.getQuestionType() == QuestionType.SIMPLE_FACT) {
-                    hasStandardAnswer = standardSimpleAnswerRepository.findByStandardQuestionId(question.getId()).isPresent();
-                } else if (question.getQuestionType() == QuestionType.SUBJECTIVE) {
-                    hasStandardAnswer = standardSubjectiveAnswerRepository.findByStandardQuestionId(question.getId()).isPresent();
-                }
-            }
-            
-            questionDTO.put("hasStandardAnswer", hasStandardAnswer);
+            questionDTO.put("hasStandardAnswer", questionsWithStandardAnswers.contains(question.getId()));
             
             // 如果提供了用户ID，检查用户是否已回答
             if (userId != null) {
@@ -2234,29 +2119,27 @@ public class StandardQuestionServiceImpl implements StandardQuestionService {
                 questionDTO.put("parentQuestionId", question.getParentStandardQuestion().getId());
             }
             
-            // 添加叶子节点标识 - 检查是否有以此ID为父ID的问题
-            boolean isLeafNode = true;
-            for (StandardQuestion potentialChild : standardQuestionRepository.findAll()) {
-                if (potentialChild.getParentStandardQuestion() != null && 
-                    potentialChild.getParentStandardQuestion().getId() != null && 
-                    potentialChild.getParentStandardQuestion().getId().equals(question.getId())) {
-                    isLeafNode = false;
-                    break;
-                }
-            }
-            questionDTO.put("isLatestVersion", isLeafNode);
+            // 添加叶子节点标识
+            questionDTO.put("isLatestVersion", !questionsWithChildren.contains(question.getId()));
             
             questionDTOs.add(questionDTO);
         }
         
-        // 4. 构建响应
+        // 4. 构建响应，总数只在需要时统计
         Map<String, Object> result = new HashMap<>();
         result.put("success", true);
         result.put("questions", questionDTOs);
-        result.put("total", questions.size());
+        if (includeTotal) {
+            long total = standardQuestionRepository.countSearch(tags, keyword, latestOnly, withStandardAnswersOnly);
+            result.put("total", total);
+            result.put("totalPages", (int) Math.ceil((double) total / pageSize));
+        }
         result.put("page", pageable.getPageNumber());
-        result.put("size", pageable.getPageSize());
-        result.put("totalPages", (int) Math.ceil((double) questions.size() / pageable.getPageSize()));
+        result.put("size", pageSize);
+        result.put("hasMore", hasMore);
+        if (!pagedQuestions.isEmpty()) {
+            result.put("nextAfterId", pagedQuestions.get(pagedQuestions.size() - 1).getId());
+        }
         
         // 添加筛选条件信息
         result.put("onlyLatest", onlyLatest);
@@ -1,55 +1,62 @@
 package com.example.demo.task;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.TransactionDefinition;
-import org.springframework.transaction.TransactionStatus;
-import org.springframework.transaction.support.DefaultTransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.demo.dto.ModelAnswerResult;
 import com.example.demo.dto.WebSocketMessage.MessageType;
 import com.example.demo.entity.jdbc.AnswerGenerationBatch;
 import com.example.demo.entity.jdbc.AnswerGenerationBatch.BatchStatus;
-import com.example.demo.entity.jdbc.AnswerPromptAssemblyConfig;
-import com.example.demo.entity.jdbc.AnswerQuestionTypePrompt;
-import com.example.demo.entity.jdbc.AnswerTagPrompt;
+import com.example.demo.entity.jdbc.AnswerGenerationWorkUnit;
+import com.example.demo.entity.jdbc.AnswerGenerationWorkUnit.UnitStatus;
 import com.example.demo.entity.jdbc.DatasetQuestionMapping;
 import com.example.demo.entity.jdbc.DatasetVersion;
 import com.example.demo.entity.jdbc.LlmAnswer;
 import com.example.demo.entity.jdbc.LlmModel;
 import com.example.demo.entity.jdbc.ModelAnswerRun;
 import com.example.demo.entity.jdbc.ModelAnswerRun.RunStatus;
-import com.example.demo.entity.jdbc.QuestionType;
 import com.example.demo.entity.jdbc.StandardQuestion;
-import com.example.demo.entity.jdbc.Tag;
 import com.example.demo.exception.EntityNotFoundException;
+import com.example.demo.manager.AnswerPromptPlanCache;
 import com.example.demo.manager.BatchStateManager;
+import com.example.demo.manager.ExecutorRegistry;
+import com.example.demo.manager.GenerationWorkQueue;
 import com.example.demo.repository.jdbc.AnswerGenerationBatchRepository;
-import com.example.demo.repository.jdbc.AnswerQuestionTypePromptRepository;
-import com.example.demo.repository.jdbc.AnswerTagPromptRepository;
+import com.example.demo.repository.jdbc.FetchMode;
 import com.example.demo.repository.jdbc.LlmAnswerRepository;
 import com.example.demo.repository.jdbc.ModelAnswerRunRepository;
 import com.example.demo.repository.jdbc.StandardQuestionRepository;
-import com.example.demo.repository.jdbc.StandardQuestionTagsRepository;
 import com.example.demo.service.LlmApiService;
 import com.example.demo.service.WebSocketService;
 import com.example.demo.utils.TextPreprocessor;
@@ -73,9 +80,7 @@ public class AnswerGenerationTask {
     private final LlmAnswerRepository answerRepository;
     private final WebSocketService webSocketService;
     private final LlmApiService llmApiService;
-    private final AnswerTagPromptRepository answerTagPromptRepository;
-    private final AnswerQuestionTypePromptRepository answerQuestionTypePromptRepository;
-    private final StandardQuestionTagsRepository standardQuestionTagsRepository;
+    private final AnswerPromptPlanCache promptPlanCache;
     private final JdbcTemplate jdbcTemplate;
     private BatchStateManager batchStateManager;
     // 添加事务管理器
@@ -83,11 +88,52 @@ public class AnswerGenerationTask {
     
     // 添加中断控制器
     private final ConcurrentHashMap<Long, AtomicBoolean> interruptionFlags = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService interruptionMonitor = Executors.newScheduledThreadPool(1);
+    
+    // 各批次正在调用LLM API的线程，暂停时中断这些线程以取消在途HTTP请求
+    private final ConcurrentHashMap<Long, Set<Thread>> inFlightCalls = new ConcurrentHashMap<>();
     
     // 添加中断标志来源跟踪
     private final ConcurrentHashMap<Long, String> interruptionSource = new ConcurrentHashMap<>();
     
+    // 本实例同时处理的工作单元数（不同模型的单元并行执行）
+    @Value("${answer-generation.max-parallel-runs:4}")
+    private int maxParallelRuns;
+    
+    // 单个工作单元内同时在途的问题数
+    @Value("${answer-generation.question-concurrency:8}")
+    private int questionConcurrency;
+    
+    // 流式生成时增量文本的推送间隔（毫秒）
+    @Value("${answer-generation.stream-push-interval-ms:300}")
+    private long streamPushIntervalMs;
+    
+    // 回答延迟写入的批量大小，达到后立即批量插入
+    @Value("${answer-generation.write-behind.batch-size:20}")
+    private int writeBatchSize;
+    
+    // 回答延迟写入的定时刷新间隔（毫秒）
+    @Value("${answer-generation.write-behind.flush-interval-ms:2000}")
+    private long writeFlushIntervalMs;
+    
+    // 定时刷新各运行的回答缓冲区
+    private final ScheduledExecutorService answerFlushScheduler = Executors.newSingleThreadScheduledExecutor();
+    
+    // 回答生成执行器，工作单元和问题任务共用，由ExecutorRegistry创建和关闭
+    private final ExecutorRegistry executorRegistry;
+    private ExecutorService generationExecutor;
+    
+    // 分布式工作队列，批次切分为工作单元后由各实例领取
+    private final GenerationWorkQueue workQueue;
+    
+    // 本实例处理中的工作单元
+    private final ConcurrentHashMap<Long, GenerationWorkQueue.Lease> activeUnits = new ConcurrentHashMap<>();
+    
+    // 本实例处理中的批次上下文
+    private final ConcurrentHashMap<Long, BatchContext> batchContexts = new ConcurrentHashMap<>();
+    
+    // 定时轮询和单元结束后的领取互斥执行
+    private final ReentrantLock pollLock = new ReentrantLock();
+    
     @Autowired
     public AnswerGenerationTask(
             AnswerGenerationBatchRepository batchRepository,
@@ -96,22 +142,22 @@ public class AnswerGenerationTask {
             LlmAnswerRepository answerRepository,
             WebSocketService webSocketService,
             LlmApiService llmApiService,
-            AnswerTagPromptRepository answerTagPromptRepository,
-            AnswerQuestionTypePromptRepository answerQuestionTypePromptRepository,
-            StandardQuestionTagsRepository standardQuestionTagsRepository,
+            AnswerPromptPlanCache promptPlanCache,
             JdbcTemplate jdbcTemplate,
-            PlatformTransactionManager transactionManager) {
+            PlatformTransactionManager transactionManager,
+            ExecutorRegistry executorRegistry,
+            GenerationWorkQueue workQueue) {
         this.batchRepository = batchRepository;
         this.runRepository = runRepository;
         this.questionRepository = questionRepository;
         this.answerRepository = answerRepository;
         this.webSocketService = webSocketService;
         this.llmApiService = llmApiService;
-        this.answerTagPromptRepository = answerTagPromptRepository;
-        this.answerQuestionTypePromptRepository = answerQuestionTypePromptRepository;
-        this.standardQuestionTagsRepository = standardQuestionTagsRepository;
+        this.promptPlanCache = promptPlanCache;
         this.jdbcTemplate = jdbcTemplate;
         this.transactionManager = transactionManager;
+        this.executorRegistry = executorRegistry;
+        this.workQueue = workQueue;
     }
     
     @Autowired
@@ -121,55 +167,25 @@ public class AnswerGenerationTask {
     }
     
     /**
-     * 初始化方法，启动中断监控
+     * 初始化方法，获取回答生成执行器
+     *
+     * 中断标志不再轮询Redis，由BatchStateManager订阅中断频道后通过onInterruptSignal推送。
      */
     @PostConstruct
     public void init() {
         logger.info("初始化回答生成任务管理器");
         
-        // 启动定期检查Redis中断标志的任务
-        interruptionMonitor.scheduleAtFixedRate(() -> {
-            try {
-                // 检查所有有中断标志的批次
-                for (Long batchId : interruptionFlags.keySet()) {
-                    try {
-                        // 检查Redis中的中断标志
-                        if (batchStateManager != null) {
-                            boolean redisInterruptFlag = batchStateManager.isInterrupted(batchId);
-                            boolean memoryInterruptFlag = interruptionFlags.get(batchId).get();
-                            
-                            // 同步Redis和内存中的中断标志
-                            if (redisInterruptFlag && !memoryInterruptFlag) {
-                                logger.info("批次{}在Redis中有中断标志，同步到内存", batchId);
-                                markForInterruption(batchId, "REDIS_SYNC");
-                            } else if (!redisInterruptFlag && memoryInterruptFlag) {
-                                // 检查是否是手动暂停
-                                String source = interruptionSource.getOrDefault(batchId, "UNKNOWN");
-                                if (!"MANUAL_PAUSE".equals(source)) {
-                                    logger.info("批次{}在Redis中无中断标志，清除内存中的中断标志", batchId);
-                                    clearInterruptionFlag(batchId);
-                                } else {
-                                    logger.info("批次{}有手动暂停标志，保持中断状态", batchId);
-                                }
-                            }
-                        }
-                    } catch (Exception e) {
-                        logger.error("检查批次{}中断状态时出错", batchId, e);
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("中断监控任务出错", e);
-            }
-        }, 5, 5, TimeUnit.SECONDS);
+        // 工作单元会阻塞等待自身的问题任务，GENERATION执行器不能限制并发数
+        generationExecutor = executorRegistry.executor(ExecutorRegistry.Workload.GENERATION);
     }
     
     /**
-     * 销毁方法，关闭中断监控
+     * 销毁方法，关闭定时刷新线程，生成执行器由ExecutorRegistry关闭
      */
     @PreDestroy
     public void destroy() {
         logger.info("关闭回答生成任务管理器");
-        interruptionMonitor.shutdownNow();
+        answerFlushScheduler.shutdownNow();
     }
     
     /**
@@ -202,24 +218,50 @@ public class AnswerGenerationTask {
         interruptionSource.remove(batchId);
     }
     
+    /**
+     * 中断频道推送的标志变更（包括其他实例发起的暂停），由BatchStateManager调用
+     */
+    public void onInterruptSignal(Long batchId, boolean interrupted) {
+        if (interrupted) {
+            markForInterruption(batchId, "REDIS_SYNC");
+            cancelInFlightCalls(batchId);
+        } else {
+            // 检查是否是手动暂停
+            String source = interruptionSource.getOrDefault(batchId, "UNKNOWN");
+            AtomicBoolean flag = interruptionFlags.get(batchId);
+            if (flag != null && flag.get() && !"MANUAL_PAUSE".equals(source)) {
+                clearInterruptionFlag(batchId);
+            }
+        }
+    }
+    
+    /**
+     * 中断批次正在调用LLM API的线程，取消在途HTTP请求，被取消的问题在恢复时重新生成
+     */
+    private void cancelInFlightCalls(Long batchId) {
+        Set<Thread> threads = inFlightCalls.get(batchId);
+        if (threads == null) {
+            return;
+        }
+        synchronized (threads) {
+            if (!threads.isEmpty()) {
+                logger.info("批次{}已中断，取消{}个在途LLM请求", batchId, threads.size());
+            }
+            threads.forEach(Thread::interrupt);
+        }
+    }
+    
     /**
      * 检查批次是否应该中断
+     *
+     * 只读取本地标志：任务内存标志，以及BatchStateManager由中断频道维护的本地标志，不访问Redis。
      */
     public boolean shouldInterrupt(Long batchId) {
-        // 只检查内存中的中断标志
         AtomicBoolean flag = interruptionFlags.get(batchId);
         if (flag != null && flag.get()) {
-            logger.debug("批次{}有内存中断标志，需要中断", batchId);
             return true;
         }
-        
-        // 如果Redis中有中断标志，也应该中断
-        if (batchStateManager != null && batchStateManager.isInterrupted(batchId)) {
-            logger.debug("批次{}在Redis中有中断标志，需要中断", batchId);
-            return true;
-        }
-        
-        return false;
+        return batchStateManager != null && batchStateManager.isInterrupted(batchId);
     }
     
     /**
@@ -232,6 +274,10 @@ public class AnswerGenerationTask {
     
     /**
      * 开始处理单个批次
+     *
+     * 为未完成的运行创建工作单元并记录本实例为批次的处理实例，之后由各实例（包括本实例）通过
+     * pollWorkUnits领取单元处理；不同模型的单元并行执行，同一模型的单元在同一实例上依次执行，
+     * 避免对同一提供商叠加并发，每个单元内部同时保持若干个在途问题请求。
      */
     public void startBatchAnswerGeneration(Long batchId) {
         logger.info("开始处理批次: {}", batchId);
@@ -245,12 +291,12 @@ public class AnswerGenerationTask {
             logger.info("批次{}当前状态为{}，开始处理", batchId, currentStatus);
             
             // 直接更新状态为GENERATING_ANSWERS，不做状态检查
-            int updated = jdbcTemplate.update(
+            jdbcTemplate.update(
                 "UPDATE answer_generation_batches SET status = 'GENERATING_ANSWERS', last_activity_time = ?, " + 
                 "last_check_time = ?, processing_instance = ? WHERE id = ?",
-                LocalDateTime.now(), LocalDateTime.now(), UUID.randomUUID().toString(), batchId);
+                LocalDateTime.now(), LocalDateTime.now(), workQueue.getInstanceId(), batchId);
                     
-            logger.info("已将批次{}状态更新为GENERATING_ANSWERS并获取处理权", batchId);
+            logger.info("已将批次{}状态更新为GENERATING_ANSWERS，处理实例: {}", batchId, workQueue.getInstanceId());
             
             // 同步Redis状态
             if (batchStateManager != null) {
@@ -261,129 +307,49 @@ public class AnswerGenerationTask {
             // 清除内存中断标志
             clearInterruptionFlag(batchId);
             
-            // 获取批次信息
-            AnswerGenerationBatch batch = batchRepository.findById(batchId)
-                .orElseThrow(() -> new EntityNotFoundException("找不到指定的批次: " + batchId));
-            
-            // 获取批次关联的所有运行
-            List<ModelAnswerRun> runs = runRepository.findByAnswerGenerationBatchId(batchId);
-            if (runs.isEmpty()) {
+            // 重新加载批次上下文，暂停期间运行的状态和参数可能已变化
+            evictBatchContext(batchId);
+            BatchContext context = batchContexts.computeIfAbsent(batchId, this::loadBatchContext);
+            if (context.runs.isEmpty()) {
                 logger.warn("批次{}没有关联的运行，无法启动处理", batchId);
                 return;
             }
-            logger.info("批次{}共有{}个运行", batchId, runs.size());
-            
-            // 获取批次关联的所有问题
-            List<StandardQuestion> questions = questionRepository.findByDatasetVersionId(batch.getDatasetVersion().getId());
-            if (questions.isEmpty()) {
+            if (context.questions.isEmpty()) {
                 logger.warn("批次{}关联的数据集版本没有问题，无法启动处理", batchId);
                 return;
             }
-            logger.info("批次{}关联的数据集共有{}个问题", batchId, questions.size());
             
-            // 预加载问题ID
-            List<Long> questionIds = questions.stream().map(StandardQuestion::getId).collect(java.util.stream.Collectors.toList());
-            
-            // 预加载数据集映射（不会覆盖已加载的标签）
-            if (!questionIds.isEmpty()) {
-                logger.info("预加载批次{}的问题映射关系", batchId);
-                List<StandardQuestion> questionsWithMappings = questionRepository.findByIdsWithDatasetMappings(questionIds);
-                
-                // 创建ID到预加载问题的映射，用于替换原始列表中的问题
-                Map<Long, StandardQuestion> questionMap = new HashMap<>();
-                for (StandardQuestion q : questionsWithMappings) {
-                    questionMap.put(q.getId(), q);
-                }
-                
-                // 使用预加载的问题替换原始列表中的问题
-                for (int i = 0; i < questions.size(); i++) {
-                    Long id = questions.get(i).getId();
-                    if (questionMap.containsKey(id)) {
-                        questions.set(i, questionMap.get(id));
-                    }
+            // 更新批次的总问题数
+            int totalQuestions = context.questionsPerRun() * context.runs.size();
+            logger.info("批次{}共有{}个运行，{}个问题，总问题数: {}", 
+                batchId, context.runs.size(), context.questions.size(), totalQuestions);
+            
+            // 已完成的运行不再重复处理
+            List<ModelAnswerRun> pendingRuns = new ArrayList<>();
+            for (ModelAnswerRun run : context.runs.values()) {
+                if (run.getStatus() == RunStatus.COMPLETED) {
+                    logger.info("批次{}的运行{}已完成，跳过", batchId, run.getId());
+                    continue;
                 }
-                logger.info("批次{}问题映射关系加载完成", batchId);
+                pendingRuns.add(run);
             }
             
-            // 更新批次的总问题数
-            int totalQuestions = questions.size() * runs.size() * batch.getAnswerRepeatCount();
-            logger.info("批次{}总问题数: {}", batchId, totalQuestions);
-            
-            // 检查是否有上次处理到的运行记录
-            Long lastProcessedRunId = batch.getLastProcessedRunId();
-            ModelAnswerRun lastProcessedRun = null;
-            int startIndex = 0;
+            int unfinishedUnits = workQueue.plan(batchId, pendingRuns, context.questionsPerRun());
+            jdbcTemplate.update(
+                "UPDATE model_answer_runs SET status = 'GENERATING_ANSWERS', last_activity_time = ? " +
+                "WHERE answer_generation_batch_id = ? AND status IN ('PENDING', 'PAUSED', 'RESUMING')",
+                LocalDateTime.now(), batchId);
             
-            if (lastProcessedRunId != null) {
-                lastProcessedRun = runRepository.findById(lastProcessedRunId).orElse(null);
-                if (lastProcessedRun != null) {
-                    logger.info("批次{}有上次处理记录，从运行ID={}之后开始处理", batchId, lastProcessedRunId);
-                    // 找到上次处理的运行在列表中的位置
-                    for (int i = 0; i < runs.size(); i++) {
-                        if (runs.get(i).getId().equals(lastProcessedRunId)) {
-                            startIndex = i; // 从下一个运行开始
-                            break;
-                        }
-                    }
-                    logger.info("将从运行列表的索引{}开始处理", startIndex);
-                }
-            }
+            logger.info("批次{}共有{}个运行待处理，未结束的工作单元: {}，单实例最大并行单元数: {}，单元内并发问题数: {}", 
+                batchId, pendingRuns.size(), unfinishedUnits, maxParallelRuns, questionConcurrency);
             
-            // 启动每个运行的处理，从startIndex开始
-            for (int i = startIndex; i < runs.size(); i++) {
-                ModelAnswerRun run = runs.get(i);
-                Long runId = run.getId();
-                
-                // 获取当前状态但不用于判断是否处理
-                String runStatus = jdbcTemplate.queryForObject(
-                    "SELECT status FROM model_answer_runs WHERE id = ?", 
-                    String.class, runId);
-                
-                logger.info("开始处理批次{}的运行: {}，模型: {}, 当前状态: {}", 
-                        batchId, runId, run.getLlmModel().getName(), runStatus);
-                
-                // 直接更新运行状态为GENERATING_ANSWERS
-                jdbcTemplate.update(
-                    "UPDATE model_answer_runs SET status = 'GENERATING_ANSWERS', last_activity_time = ? WHERE id = ?",
-                    LocalDateTime.now(), runId);
-                    
-                logger.info("运行{}状态已更新为GENERATING_ANSWERS", runId);
-                
-                // 更新批次的lastProcessedRun为当前运行
-                jdbcTemplate.update(
-                    "UPDATE answer_generation_batches SET last_processed_run_id = ? WHERE id = ?",
-                    runId, batchId);
-                logger.info("批次{}的last_processed_run_id已更新为{}", batchId, runId);
-                
-                // 检查是否有断点信息
-                Long lastProcessedQuestionId = run.getLastProcessedQuestionId();
-                Integer lastProcessedQuestionIndex = run.getLastProcessedQuestionIndex();
-                
-                if (lastProcessedQuestionId != null && lastProcessedQuestionIndex != null && lastProcessedQuestionIndex >= 0) {
-                    logger.info("运行{}有断点信息，将从断点处继续: 问题ID={}, 索引={}", 
-                                runId, lastProcessedQuestionId, lastProcessedQuestionIndex);
-                    
-                    // 从断点处继续处理
-                    startRunAnswerGenerationFromCheckpoint(run, questions, batch.getAnswerRepeatCount(), new AtomicBoolean(false));
-                } else {
-                    logger.info("运行{}没有断点信息，将从头开始处理", runId);
-                    
-                    // 从头开始处理
-                    startRunAnswerGeneration(run, questions, batch.getAnswerRepeatCount(), new AtomicBoolean(false));
-                }
-                
-                logger.info("批次{}的运行{}处理已启动", batchId, runId);
+            if (unfinishedUnits == 0) {
+                finishBatch(batchId);
+                return;
             }
             
-            // 批次处理完成后，检查所有运行状态并更新批次状态
-            checkAndUpdateBatchCompletion(batch);
-            
-            // 处理完成后，清除处理标记
-            jdbcTemplate.update(
-                "UPDATE answer_generation_batches SET processing_instance = NULL WHERE id = ?",
-                batchId);
-                
-            logger.info("批次{}处理完成，已清除处理标记", batchId);
+            // 本实例立即开始领取，其他实例在下一次轮询时加入
+            pollWorkUnits();
         } catch (Exception e) {
             logger.error("处理批次{}失败: {}", batchId, e.getMessage(), e);
             
@@ -407,257 +373,487 @@ public class AnswerGenerationTask {
             } catch (Exception ex) {
                 logger.error("更新批次{}失败状态时出错", batchId, ex);
             }
+            evictBatchContext(batchId);
         }
     }
     
     /**
-     * 从断点处开始处理单个运行的回答生成
+     * 批次在本实例上的处理上下文：运行和按ID排序的问题列表，各实例的扁平索引因此指向相同的问题
      */
-    private void startRunAnswerGenerationFromCheckpoint(ModelAnswerRun run, List<StandardQuestion> questions, int repeatCount, AtomicBoolean shouldStop) {
-        Long runId = run.getId();
-        Long batchId = run.getAnswerGenerationBatch().getId();
-        logger.info("从断点处恢复运行: {}, 模型: {}", runId, run.getLlmModel().getName());
+    private static class BatchContext {
+        private final AnswerGenerationBatch batch;
+        private final List<StandardQuestion> questions;
+        private final Map<Long, ModelAnswerRun> runs;
+        
+        BatchContext(AnswerGenerationBatch batch, List<StandardQuestion> questions, Map<Long, ModelAnswerRun> runs) {
+            this.batch = batch;
+            this.questions = questions;
+            this.runs = runs;
+        }
+        
+        int questionsPerRun() {
+            return questions.size() * batch.getAnswerRepeatCount();
+        }
+    }
+    
+    /**
+     * 加载批次、运行和问题（含数据集映射）
+     */
+    private BatchContext loadBatchContext(Long batchId) {
+        // 获取批次信息
+        AnswerGenerationBatch batch = batchRepository.findById(batchId)
+            .orElseThrow(() -> new EntityNotFoundException("找不到指定的批次: " + batchId));
+        
+        // 获取批次关联的所有运行
+        Map<Long, ModelAnswerRun> runs = new LinkedHashMap<>();
+        for (ModelAnswerRun run : runRepository.findByAnswerGenerationBatchId(batchId)) {
+            runs.put(run.getId(), run);
+        }
         
-        // 获取批次状态但不用于判断是否处理
-        String batchStatus = jdbcTemplate.queryForObject(
-            "SELECT status FROM answer_generation_batches WHERE id = ?", 
-            String.class, batchId);
+        // 获取批次关联的所有问题
+        List<StandardQuestion> questions = questionRepository.findByDatasetVersionId(batch.getDatasetVersion().getId(), FetchMode.LAZY);
+        questions.sort(Comparator.comparing(StandardQuestion::getId));
         
-        logger.info("断点恢复前批次{}状态: {}，继续处理", batchId, batchStatus);
+        // 预加载问题ID
+        List<Long> questionIds = questions.stream().map(StandardQuestion::getId).collect(java.util.stream.Collectors.toList());
         
+        // 预加载数据集映射（不会覆盖已加载的标签）
+        if (!questionIds.isEmpty()) {
+            logger.info("预加载批次{}的问题映射关系", batchId);
+            List<StandardQuestion> questionsWithMappings = questionRepository.findByIdsWithDatasetMappings(questionIds);
+            
+            // 创建ID到预加载问题的映射，用于替换原始列表中的问题
+            Map<Long, StandardQuestion> questionMap = new HashMap<>();
+            for (StandardQuestion q : questionsWithMappings) {
+                questionMap.put(q.getId(), q);
+            }
+            
+            // 使用预加载的问题替换原始列表中的问题
+            for (int i = 0; i < questions.size(); i++) {
+                Long id = questions.get(i).getId();
+                if (questionMap.containsKey(id)) {
+                    questions.set(i, questionMap.get(id));
+                }
+            }
+            logger.info("批次{}问题映射关系加载完成", batchId);
+        }
+        
+        return new BatchContext(batch, questions, runs);
+    }
+    
+    /**
+     * 移除批次在本实例上的上下文和Prompt组装计划
+     */
+    private void evictBatchContext(Long batchId) {
+        batchContexts.remove(batchId);
+        promptPlanCache.evict(batchId);
+        inFlightCalls.remove(batchId);
+    }
+    
+    /**
+     * 领取工作单元，直到本实例处理中的单元数达到最大并行数或没有可领取的单元
+     *
+     * 其他实例启动或恢复的批次、宕机实例租约到期的单元都由轮询领取。
+     */
+    @Scheduled(initialDelayString = "${answer-generation.work-queue.poll-interval-ms:5000}",
+               fixedDelayString = "${answer-generation.work-queue.poll-interval-ms:5000}")
+    public void pollWorkUnits() {
+        if (!pollLock.tryLock()) {
+            return;
+        }
         try {
-            // 直接更新运行状态为GENERATING_ANSWERS，不做状态检查
+            while (activeUnits.size() < Math.max(1, maxParallelRuns)) {
+                Set<Long> busyModels = new HashSet<>();
+                for (GenerationWorkQueue.Lease active : activeUnits.values()) {
+                    busyModels.add(active.getUnit().getLlmModelId());
+                }
+                
+                Optional<GenerationWorkQueue.Lease> claimed = workQueue.claim(busyModels);
+                if (claimed.isEmpty()) {
+                    evictIdleBatchContexts();
+                    break;
+                }
+                
+                GenerationWorkQueue.Lease lease = claimed.get();
+                activeUnits.put(lease.getUnit().getId(), lease);
+                try {
+                    generationExecutor.execute(() -> runUnit(lease));
+                } catch (RejectedExecutionException e) {
+                    activeUnits.remove(lease.getUnit().getId());
+                    workQueue.release(lease, null);
+                    logger.warn("回答生成执行器拒绝任务，工作单元{}已释放", lease.getUnit().getId());
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("领取回答生成工作单元失败", e);
+        } finally {
+            pollLock.unlock();
+        }
+    }
+    
+    /**
+     * 没有可领取的单元时，移除本实例上已没有处理中单元的批次上下文
+     */
+    private void evictIdleBatchContexts() {
+        for (Long batchId : new ArrayList<>(batchContexts.keySet())) {
+            boolean active = activeUnits.values().stream()
+                .anyMatch(lease -> lease.getUnit().getBatchId().equals(batchId));
+            if (!active) {
+                evictBatchContext(batchId);
+            }
+        }
+    }
+    
+    /**
+     * 处理领取到的工作单元，结束后立即尝试领取下一个
+     */
+    private void runUnit(GenerationWorkQueue.Lease lease) {
+        try {
+            executeUnit(lease);
+        } catch (Exception e) {
+            logger.error("处理工作单元{}时出现未预期的错误", lease.getUnit().getId(), e);
+        } finally {
+            activeUnits.remove(lease.getUnit().getId());
+        }
+        pollWorkUnits();
+    }
+    
+    /**
+     * 处理单个工作单元的回答生成
+     *
+     * 从单元断点处继续，问题以扁平索引（重复索引 * 问题数 + 问题索引）依次派发，同时在途的问题数不超过配置的并发数；
+     * 单元断点始终记录"之前全部已完成"的水位线位置，与回答在同一事务中写入。
+     * 批次暂停时释放单元，出错时释放后重新领取，超过最大尝试次数后标记为失败；租约被回收时直接停止。
+     */
+    private void executeUnit(GenerationWorkQueue.Lease lease) {
+        AnswerGenerationWorkUnit unit = lease.getUnit();
+        Long batchId = unit.getBatchId();
+        Long runId = unit.getRunId();
+        ScheduledFuture<?> flushTask = null;
+        String error;
+        
+        try {
+            BatchContext context = batchContexts.computeIfAbsent(batchId, this::loadBatchContext);
+            ModelAnswerRun run = context.runs.get(runId);
+            if (run == null) {
+                throw new IllegalStateException("批次" + batchId + "中找不到运行" + runId);
+            }
+            List<StandardQuestion> questions = context.questions;
+            int totalQuestions = context.questionsPerRun();
+            if (unit.getEndIndex() > totalQuestions) {
+                throw new IllegalStateException("工作单元区间超出运行的问题数" + totalQuestions + "，数据集版本可能已变化");
+            }
+            
             jdbcTemplate.update(
-                "UPDATE model_answer_runs SET status = 'GENERATING_ANSWERS', last_activity_time = ? WHERE id = ?",
+                "UPDATE model_answer_runs SET status = 'GENERATING_ANSWERS', last_activity_time = ? " +
+                "WHERE id = ? AND status IN ('PENDING', 'RESUMING')",
                 LocalDateTime.now(), runId);
             
-            logger.info("运行{}状态已更新为GENERATING_ANSWERS", runId);
+            // 更新批次的lastProcessedRun为当前运行
+            jdbcTemplate.update(
+                "UPDATE answer_generation_batches SET last_processed_run_id = ? WHERE id = ?",
+                runId, batchId);
+            
+            logger.info("开始处理工作单元{}: 运行={}, 模型={}, 区间=[{}, {}), 断点={}", 
+                unit.getId(), runId, run.getLlmModel().getName(), unit.getStartIndex(), unit.getEndIndex(), 
+                unit.getCheckpointIndex());
+            
+            // 单元内的进度，计数从0开始，刷新时按增量累加到运行和单元
+            RunProgressTracker tracker = new RunProgressTracker(unit.getEndIndex(), unit.getCheckpointIndex(), 0, 0);
+            
+            // 回答先进入缓冲区，按批量大小或定时批量写入
+            AnswerWriteBuffer writeBuffer = new AnswerWriteBuffer(writeBatchSize);
+            flushTask = answerFlushScheduler.scheduleWithFixedDelay(
+                () -> flushAnswers(lease, run, totalQuestions, tracker, writeBuffer),
+                writeFlushIntervalMs, writeFlushIntervalMs, TimeUnit.MILLISECONDS);
+            
+            // 断点之后可能已有乱序完成的回答（包括租约被回收前其他实例写入的回答），跳过，避免重复生成
+            Set<Long> unitQuestionIds = new HashSet<>();
+            for (int index = unit.getCheckpointIndex(); index < unit.getEndIndex(); index++) {
+                unitQuestionIds.add(questions.get(index % questions.size()).getId());
+            }
+            Map<Long, Set<Integer>> answeredRepeats = answerRepository.findAnsweredQuestionRepeats(runId, unitQuestionIds);
             
-            // 初始化计数器
-            int totalQuestions = questions.size() * repeatCount;
-            int completedQuestions = run.getCompletedQuestionsCount();
-            int failedQuestions = run.getFailedQuestionsCount();
+            int concurrency = Math.max(1, questionConcurrency);
+            Semaphore inFlight = new Semaphore(concurrency);
             
-            logger.info("运行{}已完成的问题数: {}, 失败的问题数: {}, 总问题数: {}", 
-                runId, completedQuestions, failedQuestions, totalQuestions);
+            long startTime = System.currentTimeMillis();
             
-            // 查找上次处理的位置
-            int lastProcessedIndex = run.getLastProcessedQuestionIndex();
-            Long lastProcessedId = run.getLastProcessedQuestionId();
+            for (int index = unit.getCheckpointIndex(); index < unit.getEndIndex(); index++) {
+                int repeatIndex = index / questions.size();
+                StandardQuestion question = questions.get(index % questions.size());
+                
+                Set<Integer> repeats = answeredRepeats.get(question.getId());
+                if (repeats != null && repeats.contains(repeatIndex)) {
+                    logger.debug("运行{}的问题已有回答，跳过: 问题ID={}, 重复索引={}", runId, question.getId(), repeatIndex);
+                    tracker.markSkipped(index);
+                    continue;
+                }
+                
+                // 每次派发一个问题前检查批次是否应该中断，以及租约是否仍属于本实例
+                if (shouldInterrupt(batchId) || lease.isLost()) {
+                    logger.info("批次{}已中断或工作单元{}的租约已被回收，停止派发新问题", batchId, unit.getId());
+                    break;
+                }
+                
+                // 等待并发槽位
+                inFlight.acquire();
+                
+                // 等待槽位期间可能收到了中断信号
+                if (shouldInterrupt(batchId) || lease.isLost()) {
+                    inFlight.release();
+                    logger.info("批次{}已中断或工作单元{}的租约已被回收，停止派发新问题", batchId, unit.getId());
+                    break;
+                }
+                
+                final int flatIndex = index;
+                try {
+                    generationExecutor.execute(() -> {
+                        try {
+                            QuestionOutcome outcome = processQuestion(run, question, repeatIndex, flatIndex, writeBuffer);
+                            onQuestionFinished(lease, run, outcome, question, repeatIndex, flatIndex, tracker, totalQuestions, writeBuffer);
+                        } catch (Exception e) {
+                            logger.error("运行{}处理问题{}时出现未预期的错误", runId, question.getId(), e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
             
-            logger.info("运行{}上次处理位置: 问题ID={}, 索引={}", runId, lastProcessedId, lastProcessedIndex);
+            // 等待所有在途问题结束
+            inFlight.acquire(concurrency);
+            inFlight.release(concurrency);
             
-            // 确定开始处理的重复索引和问题索引
-            int startRepeatIndex = 0;
-            int startQuestionIndex = 0;
+            // 写入缓冲区中剩余的回答
+            flushTask.cancel(false);
+            flushAnswers(lease, run, totalQuestions, tracker, writeBuffer);
             
-            if (lastProcessedIndex >= 0) {
-                // 计算重复索引和问题索引
-                startRepeatIndex = lastProcessedIndex / questions.size();
-                startQuestionIndex = lastProcessedIndex % questions.size();
-                
-                logger.info("运行{}从断点处恢复：重复索引={}, 问题索引={}", runId, startRepeatIndex, startQuestionIndex);
-            } else {
-                logger.info("运行{}没有有效的断点位置，从头开始处理", runId);
+            if (lease.isLost()) {
+                logger.warn("工作单元{}的租约已被回收，由领取该单元的实例继续处理", unit.getId());
+                return;
             }
             
-            long startTime = System.currentTimeMillis();
-            logger.info("开始从断点处恢复运行{}的处理", runId);
+            boolean finished;
+            int watermark;
+            tracker.lock().lock();
+            try {
+                finished = tracker.isFinished();
+                watermark = tracker.getWatermark();
+            } finally {
+                tracker.lock().unlock();
+            }
             
-            // 处理每个问题（考虑重复次数），从断点处开始
-            for (int r = startRepeatIndex; r < repeatCount; r++) {
-                for (int q = (r == startRepeatIndex ? startQuestionIndex : 0); q < questions.size(); q++) {
-                    StandardQuestion question = questions.get(q);
-                    
-                    logger.debug("运行{}处理问题: ID={}, 重复索引={}, 问题索引={}", 
-                        runId, question.getId(), r, q);
-                    
-                    // 每次处理一个问题前检查批次是否应该中断
-                    if (shouldInterrupt(batchId) || shouldStop.get()) {
-                        logger.info("检测到批次{}已标记为中断，停止处理运行{}中的新问题", batchId, runId);
-                        
-                        // 保存当前处理位置
-                        jdbcTemplate.update(
-                            "UPDATE model_answer_runs SET status = 'PAUSED', last_activity_time = ?, " +
-                            "last_processed_question_id = ?, last_processed_question_index = ? WHERE id = ?",
-                            LocalDateTime.now(), question.getId(), (r * questions.size() + q), runId);
-                            
-                        logger.info("运行{}已暂停，当前处理位置已保存: 问题ID={}, 索引={}", 
-                            runId, question.getId(), (r * questions.size() + q));
-                            
-                        // 发送状态变更通知
-                        Map<String, Object> statusData = new HashMap<>();
-                        statusData.put("runId", runId);
-                        statusData.put("status", "PAUSED");
-                        statusData.put("completedQuestions", completedQuestions);
-                        statusData.put("failedQuestions", failedQuestions);
-                        statusData.put("totalQuestions", totalQuestions);
-                        statusData.put("message", "运行已暂停");
-                        
-                        webSocketService.sendRunMessage(runId, MessageType.STATUS_CHANGE, statusData);
-                        
-                        return;
-                    }
-                    
-                    // 处理单个问题
-                    logger.debug("运行{}开始处理问题: ID={}", runId, question.getId());
-                    boolean success = processQuestion(run, question, r, completedQuestions + 1);
-                    
-                    // 更新计数器
-                    if (success) {
-                        completedQuestions++;
-                        logger.debug("运行{}问题处理成功: ID={}, 已完成问题数={}", 
-                            runId, question.getId(), completedQuestions);
-                    } else {
-                        failedQuestions++;
-                        logger.debug("运行{}问题处理失败: ID={}, 失败问题数={}", 
-                            runId, question.getId(), failedQuestions);
-                    }
-                    
-                    // 更新处理位置
-                    jdbcTemplate.update(
-                        "UPDATE model_answer_runs SET last_processed_question_id = ?, last_processed_question_index = ? WHERE id = ?",
-                        question.getId(), (r * questions.size() + q), runId);
-                    
-                    logger.debug("运行{}处理位置已更新: 问题ID={}, 索引={}", 
-                        runId, question.getId(), (r * questions.size() + q));
-                    
-                    // 更新进度
-                    updateRunProgress(run, completedQuestions, failedQuestions, totalQuestions);
-                    
-                    // 每处理5个问题后，再次检查中断状态
-                    if ((completedQuestions + failedQuestions) % 5 == 0) {
-                        if (shouldInterrupt(batchId) || shouldStop.get()) {
-                            logger.info("批量处理过程中检测到批次{}已标记为中断，停止处理", batchId);
-                            return;
-                        }
-                    }
-                }
+            if (finished) {
+                logger.info("工作单元{}处理完成，总耗时: {}毫秒", unit.getId(), System.currentTimeMillis() - startTime);
+                completeUnit(lease, UnitStatus.COMPLETED, null);
+                return;
             }
             
-            long endTime = System.currentTimeMillis();
-            logger.info("运行{}处理完成，总耗时: {}毫秒", runId, (endTime - startTime));
+            if (shouldInterrupt(batchId)) {
+                // 收到暂停信号，断点已随回答写入，释放后由恢复的批次重新领取
+                logger.info("批次{}已暂停，工作单元{}在断点{}处释放", batchId, unit.getId(), watermark);
+                workQueue.release(lease, null);
+                return;
+            }
             
-            // 更新运行状态为COMPLETED
-            updateRunStatus(run, RunStatus.COMPLETED, null);
+            // 部分结果写入失败或在途请求被取消，释放后重新领取，从断点继续
+            error = "工作单元未全部完成，断点: " + watermark;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("工作单元{}在等待并发槽位时被中断", unit.getId());
+            error = "等待并发槽位时被中断";
+        } catch (Exception e) {
+            logger.error("处理工作单元{}失败: {}", unit.getId(), e.getMessage(), e);
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+            }
+        }
+        
+        if (lease.isLost()) {
+            return;
+        }
+        if (workQueue.isExhausted(lease)) {
+            logger.error("工作单元{}已出错{}次仍未完成，标记为失败: {}", unit.getId(), unit.getAttempts() + 1, error);
+            completeUnit(lease, UnitStatus.FAILED, error);
+        } else {
+            logger.warn("工作单元{}未完成，释放后重新处理: {}", unit.getId(), error);
+            workQueue.release(lease, error);
+        }
+    }
+    
+    /**
+     * 结束工作单元，运行的所有单元结束时更新运行状态，批次的所有单元结束时更新批次状态
+     */
+    private void completeUnit(GenerationWorkQueue.Lease lease, UnitStatus status, String errorMessage) {
+        AnswerGenerationWorkUnit unit = lease.getUnit();
+        try {
+            GenerationWorkQueue.FinishResult result = workQueue.finish(lease, status, errorMessage);
+            if (result.isLeaseLost()) {
+                return;
+            }
             
-            // 检查批次是否所有运行都已完成
-            checkAndUpdateBatchCompletion(run.getAnswerGenerationBatch());
+            if (result.isRunFinished()) {
+                ModelAnswerRun run = refreshRunStatus(unit.getRunId());
+                if (result.isRunFailed()) {
+                    updateRunStatus(run, RunStatus.FAILED, "部分问题区间多次处理失败");
+                } else {
+                    updateRunStatus(run, RunStatus.COMPLETED, null);
+                }
+            }
             
+            if (result.isBatchFinished()) {
+                finishBatch(unit.getBatchId());
+            }
         } catch (Exception e) {
-            logger.error("处理运行{}失败: {}", runId, e.getMessage(), e);
-            
-            // 更新运行状态为FAILED
-            updateRunStatus(run, RunStatus.FAILED, e.getMessage());
+            logger.error("结束工作单元{}时出错", unit.getId(), e);
         }
     }
     
     /**
-     * 开始处理单个运行的回答生成
+     * 批次的所有单元结束后，检查运行状态并更新批次状态，清除处理标记
      */
-    private void startRunAnswerGeneration(ModelAnswerRun run, List<StandardQuestion> questions, int repeatCount, AtomicBoolean shouldStop) {
-        Long runId = run.getId();
-        Long batchId = run.getAnswerGenerationBatch().getId();
-        logger.info("开始处理运行: {}, 模型: {}", runId, run.getLlmModel().getName());
+    private void finishBatch(Long batchId) {
+        AnswerGenerationBatch batch = batchRepository.findById(batchId)
+            .orElseThrow(() -> new EntityNotFoundException("找不到指定的批次: " + batchId));
+        checkAndUpdateBatchCompletion(batch);
         
-        // 获取批次状态但不用于判断是否处理
-        String batchStatus = jdbcTemplate.queryForObject(
-            "SELECT status FROM answer_generation_batches WHERE id = ?", 
-            String.class, batchId);
+        jdbcTemplate.update(
+            "UPDATE answer_generation_batches SET processing_instance = NULL WHERE id = ?",
+            batchId);
+        evictBatchContext(batchId);
         
-        logger.info("批次{}当前状态为{}，继续处理运行{}", batchId, batchStatus, runId);
+        logger.info("批次{}处理完成，已清除处理标记", batchId);
+    }
+    
+    /**
+     * 问题处理结束后将失败结果放入缓冲区，缓冲区达到批量大小时立即写入
+     */
+    private void onQuestionFinished(GenerationWorkQueue.Lease lease, ModelAnswerRun run, QuestionOutcome outcome,
+                                    StandardQuestion question, int repeatIndex, int flatIndex, RunProgressTracker tracker,
+                                    int totalQuestions, AnswerWriteBuffer writeBuffer) {
+        if (outcome == QuestionOutcome.INTERRUPTED) {
+            // 被中断的问题不推进水位线，恢复时重新生成
+            return;
+        }
         
+        // 成功的回答已在processQuestion中放入缓冲区
+        if (outcome == QuestionOutcome.FAILED) {
+            writeBuffer.add(new AnswerWriteBuffer.Entry(null, question, repeatIndex, flatIndex));
+        }
+        
+        if (writeBuffer.isFull()) {
+            flushAnswers(lease, run, totalQuestions, tracker, writeBuffer);
+        }
+    }
+    
+    /**
+     * 刷新回答缓冲区：在同一事务中推进单元断点、批量插入回答并累加运行的计数
+     *
+     * 单元断点的更新带有租约持有者条件，租约已被回收时整个事务回滚，本批回答交由领取该单元的实例重新生成，
+     * 因此同一问题不会被两个实例重复保存。进度先在跟踪器副本上推进，事务提交后才生效；写入失败时本批问题
+     * 不推进水位线，单元结束时释放后重新领取；进程崩溃时未刷新的回答在单元被回收后重新生成。
+     */
+    private void flushAnswers(GenerationWorkQueue.Lease lease, ModelAnswerRun run, int totalQuestions,
+                              RunProgressTracker tracker, AnswerWriteBuffer writeBuffer) {
+        List<AnswerWriteBuffer.Entry> entries;
+        int completedAfter;
+        
+        tracker.lock().lock();
         try {
-            // 直接更新运行状态为GENERATING_ANSWERS，不做状态检查
-            jdbcTemplate.update(
-                "UPDATE model_answer_runs SET status = 'GENERATING_ANSWERS', last_activity_time = ? WHERE id = ?",
-                LocalDateTime.now(), runId);
-            
-            // 初始化计数器
-            int totalQuestions = questions.size() * repeatCount;
-            int completedQuestions = 0;
-            int failedQuestions = 0;
-            
-            long startTime = System.currentTimeMillis();
+            entries = writeBuffer.drain();
+            if (entries.isEmpty()) {
+                return;
+            }
+            if (lease.isLost()) {
+                logger.warn("工作单元{}的租约已被回收，丢弃{}个未写入的问题结果", lease.getUnit().getId(), entries.size());
+                return;
+            }
             
-            // 处理每个问题（考虑重复次数）
-            for (int r = 0; r < repeatCount; r++) {
-                for (int q = 0; q < questions.size(); q++) {
-                    StandardQuestion question = questions.get(q);
-                    
-                    // 每次处理一个问题前检查批次是否应该中断
-                    if (shouldInterrupt(batchId) || shouldStop.get()) {
-                        logger.info("检测到批次{}已标记为中断，停止处理运行{}中的新问题", batchId, runId);
-                        
-                        // 更新运行状态为PAUSED，同时保存当前处理位置
-                        jdbcTemplate.update(
-                            "UPDATE model_answer_runs SET status = 'PAUSED', last_activity_time = ?, " +
-                            "last_processed_question_id = ?, last_processed_question_index = ? WHERE id = ?",
-                            LocalDateTime.now(), question.getId(), (r * questions.size() + q), runId);
-                            
-                        // 发送状态变更通知
-                        Map<String, Object> statusData = new HashMap<>();
-                        statusData.put("runId", runId);
-                        statusData.put("status", "PAUSED");
-                        statusData.put("completedQuestions", completedQuestions);
-                        statusData.put("failedQuestions", failedQuestions);
-                        statusData.put("totalQuestions", totalQuestions);
-                        statusData.put("message", "运行已暂停");
-                        
-                        webSocketService.sendRunMessage(runId, MessageType.STATUS_CHANGE, statusData);
-                        
-                        return;
-                    }
-                    
-                    // 处理单个问题
-                    boolean success = processQuestion(run, question, r, completedQuestions + 1);
-                    
-                    // 更新计数器
-                    if (success) {
-                        completedQuestions++;
-                    } else {
-                        failedQuestions++;
-                    }
-                    
-                    // 更新处理位置
-                    jdbcTemplate.update(
-                        "UPDATE model_answer_runs SET last_processed_question_id = ?, last_processed_question_index = ? WHERE id = ?",
-                        question.getId(), (r * questions.size() + q), runId);
-                    
-                    // 更新进度
-                    updateRunProgress(run, completedQuestions, failedQuestions, totalQuestions);
-                    
-                    // 每处理5个问题后，再次检查中断状态
-                    if ((completedQuestions + failedQuestions) % 5 == 0) {
-                        if (shouldInterrupt(batchId) || shouldStop.get()) {
-                            logger.info("批量处理过程中检测到批次{}已标记为中断，停止处理", batchId);
-                            return;
-                        }
-                    }
+            RunProgressTracker next = tracker.copy();
+            List<LlmAnswer> answers = new ArrayList<>();
+            List<Long> failedQuestionIds = new ArrayList<>();
+            for (AnswerWriteBuffer.Entry entry : entries) {
+                if (entry.isSuccess()) {
+                    next.recordSuccess(entry.flatIndex);
+                    answers.add(entry.answer);
+                } else {
+                    next.recordFailure(entry.flatIndex);
+                    failedQuestionIds.add(entry.question.getId());
                 }
             }
+            int completedDelta = next.getCompletedCount() - tracker.getCompletedCount();
+            int failedDelta = next.getFailedCount() - tracker.getFailedCount();
             
-            long endTime = System.currentTimeMillis();
-            logger.info("运行{}处理完成，总耗时: {}毫秒", runId, (endTime - startTime));
-            
-            // 更新运行状态为COMPLETED
-            updateRunStatus(run, RunStatus.COMPLETED, null);
+            Integer result;
+            try {
+                TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+                result = txTemplate.execute(status -> {
+                    if (!workQueue.saveCheckpoint(lease, next.getWatermark(), completedDelta, failedDelta)) {
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    answerRepository.insertBatch(answers);
+                    return runRepository.incrementProgress(run.getId(), completedDelta, failedDelta, 
+                        failedQuestionIds, totalQuestions);
+                });
+            } catch (Exception e) {
+                logger.error("运行{}批量写入{}个问题结果失败，这些问题将在单元重新处理时重新生成", run.getId(), entries.size(), e);
+                return;
+            }
+            if (result == null) {
+                logger.warn("工作单元{}的租约已被回收，丢弃{}个未写入的问题结果，由领取该单元的实例重新生成", 
+                    lease.getUnit().getId(), entries.size());
+                return;
+            }
             
-            // 检查批次是否所有运行都已完成
-            checkAndUpdateBatchCompletion(run.getAnswerGenerationBatch());
+            completedAfter = result;
+            tracker.adopt(next);
+            logger.debug("运行{}批量写入完成: 回答数={}, 失败数={}, 单元{}断点={}", 
+                run.getId(), answers.size(), failedQuestionIds.size(), lease.getUnit().getId(), next.getWatermark());
             
+            // 发送WebSocket进度更新通知
+            double progressPercentage = BigDecimal.valueOf((double) completedAfter / totalQuestions * 100)
+                .setScale(2, RoundingMode.HALF_UP).doubleValue();
+            sendRunProgressNotification(run, progressPercentage, 
+                "已处理 " + completedAfter + "/" + totalQuestions + " 个问题");
         } catch (Exception e) {
-            logger.error("处理运行{}失败: {}", runId, e.getMessage(), e);
-            
-            // 更新运行状态为FAILED
-            updateRunStatus(run, RunStatus.FAILED, e.getMessage());
+            logger.error("运行{}刷新回答缓冲区时出错", run.getId(), e);
+            return;
+        } finally {
+            tracker.lock().unlock();
+        }
+        
+        // 回答落库后发送问题完成通知
+        int completedCount = completedAfter - (int) entries.stream().filter(AnswerWriteBuffer.Entry::isSuccess).count();
+        for (AnswerWriteBuffer.Entry entry : entries) {
+            if (entry.isSuccess()) {
+                completedCount++;
+                sendQuestionCompletedNotification(run, entry.question, entry.repeatIndex, completedCount);
+            }
         }
     }
     
     /**
-     * 处理单个问题
+     * 单个问题的处理结果
+     */
+    enum QuestionOutcome {
+        SUCCESS,      // 回答已生成并保存
+        FAILED,       // 处理失败，计入失败数
+        INTERRUPTED   // 因批次中断未处理，恢复时重新生成
+    }
+    
+    /**
+     * 处理单个问题，生成的回答放入运行的写入缓冲区
      */
-    public boolean processQuestion(ModelAnswerRun run, StandardQuestion question, int repeatIndex, int expectedCompletedCount) {
+    QuestionOutcome processQuestion(ModelAnswerRun run, StandardQuestion question, int repeatIndex, int flatIndex,
+                                    AnswerWriteBuffer writeBuffer) {
         Long runId = run.getId();
         Long questionId = question.getId();
         Long batchId = run.getAnswerGenerationBatch().getId();
@@ -680,50 +876,46 @@ public class AnswerGenerationTask {
             webSocketService.sendRunMessage(runId, MessageType.NOTIFICATION, payload);
             logger.debug("问题跳过通知已发送: 运行={}, 问题ID={}", runId, questionId);
             
-            return false; // 立即返回，不处理当前问题
+            return QuestionOutcome.INTERRUPTED; // 立即返回，不处理当前问题
         }
         
         logger.debug("处理问题: 运行={}, 问题={}, 重复索引={}", runId, questionId, repeatIndex);
         
-        // 创建事务定义
-        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
-        def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
-        TransactionStatus status = transactionManager.getTransaction(def);
-        
         try {
-            // 在问题处理过程中定期检查中断标志
-            if (shouldInterrupt(batchId)) {
-                logger.info("问题处理前检测到批次{}的中断信号，中止处理", batchId);
-                transactionManager.rollback(status);
-                return false;
-            }
-            
             // 发送问题开始处理通知
             sendQuestionStartedNotification(run, question, repeatIndex);
             logger.debug("问题处理开始通知已发送: 运行={}, 问题ID={}", runId, questionId);
             
-            // 组装Prompt
+            // 第一阶段：预取，从批次的组装计划取出Prompt和数据集映射（计划批量加载，之后不再访问数据库）
             logger.debug("开始组装问题Prompt: 运行={}, 问题ID={}", runId, questionId);
-            String prompt = assemblePrompt(run, question);
-            logger.debug("问题Prompt组装完成: 运行={}, 问题ID={}, Prompt长度={}", runId, questionId, prompt.length());
+            PreparedQuestion prepared = prepareQuestion(run, question);
+            logger.debug("问题Prompt组装完成: 运行={}, 问题ID={}, Prompt长度={}", runId, questionId, prepared.prompt.length());
             
-            // 调用LLM API生成回答，并支持中断检查
+            // 第二阶段：调用LLM API生成回答，不持有事务和数据库连接
             logger.info("开始调用LLM API生成回答: 运行={}, 问题ID={}, 模型={}", 
                 runId, questionId, run.getLlmModel().getName());
-            String answer = generateAnswerWithInterruptCheck(run, prompt, new AtomicBoolean(false));
+            ModelAnswerResult result = generateAnswerWithInterruptCheck(run, question, repeatIndex, prepared.prompt);
             
-            // 如果已被中断，则不继续处理
-            if (answer == null) {
+            // 如果已被中断，则不继续处理，由运行的处理流程统一保存断点
+            if (result == null) {
                 logger.info("批次{}在生成回答过程中被中断，不保存结果: 运行={}, 问题={}", batchId, runId, questionId);
-                jdbcTemplate.update(
-                    "UPDATE model_answer_runs SET status = 'PAUSED', last_activity_time = ? WHERE id = ?",
-                    LocalDateTime.now(), runId);
-                transactionManager.rollback(status);
-                return false;
+                return QuestionOutcome.INTERRUPTED;
+            }
+            
+            // 流式响应中途中断：与其他失败的问题一样计为失败并推进断点，不写入回答表，恢复运行时也不会重新生成；
+            // 已生成的部分只随失败通知推送并记录在日志中，不会进入评测和评分
+            if (result.isPartial()) {
+                logger.warn("流式响应中断，问题记为失败: 运行={}, 问题ID={}, 已生成长度={}, 原因={}",
+                    runId, questionId, result.getText().length(), result.getErrorMessage());
+                logger.debug("流式响应中断前已生成的部分回答: 运行={}, 问题ID={}, 内容={}", runId, questionId, result.getText());
+                sendQuestionFailedNotification(run, question, repeatIndex,
+                    "流式响应中断: " + result.getErrorMessage(), result.getText());
+                return QuestionOutcome.FAILED;
             }
             
-            logger.info("LLM API生成回答成功: 运行={}, 问题ID={}, 回答长度={}", 
-                runId, questionId, answer.length());
+            String answer = result.getText();
+            logger.info("LLM API生成回答成功: 运行={}, 问题ID={}, 回答长度={}, 首Token耗时={}毫秒", 
+                runId, questionId, answer.length(), result.getFirstTokenMs());
             
             // 使用TextPreprocessor处理模型回答，移除思考过程标记
             String cleanedAnswer = TextPreprocessor.cleanText(answer);
@@ -744,205 +936,141 @@ public class AnswerGenerationTask {
             // 保存清理后的回答
             answer = cleanedAnswer;
             
-            // 保存回答结果
-            logger.debug("开始保存回答结果: 运行={}, 问题ID={}", runId, questionId);
-            saveModelAnswer(run, question, answer, repeatIndex);
-            logger.info("回答结果保存成功: 运行={}, 问题ID={}", runId, questionId);
+            // 第三阶段：放入写入缓冲区，由批量写入统一落库
+            writeBuffer.add(new AnswerWriteBuffer.Entry(
+                buildModelAnswer(run, prepared, answer, repeatIndex, result), question, repeatIndex, flatIndex));
+            logger.debug("回答结果已放入写入缓冲区: 运行={}, 问题ID={}", runId, questionId);
             
-            // 提交事务
-            transactionManager.commit(status);
-            
-            // 事务提交成功后发送问题完成处理通知
-            sendQuestionCompletedNotification(run, question, repeatIndex, expectedCompletedCount);
-            logger.debug("问题处理完成通知已发送: 运行={}, 问题ID={}, 完成数量={}", runId, questionId, expectedCompletedCount);
-            
-            return true;
+            return QuestionOutcome.SUCCESS;
         } catch (Exception e) {
-            // 回滚事务
-            transactionManager.rollback(status);
-            
             logger.error("处理问题失败: 运行={}, 问题={}, 错误={}", runId, questionId, e.getMessage(), e);
             
-            // 记录失败信息
-            recordFailedQuestion(run, questionId);
-            
             // 发送问题处理失败通知
             sendQuestionFailedNotification(run, question, repeatIndex, e.getMessage());
             
-            return false;
+            return QuestionOutcome.FAILED;
         }
     }
     
     /**
-     * 组装Prompt
+     * 预取的问题数据，LLM调用和保存回答时不再访问数据库读取
      */
-    private String assemblePrompt(ModelAnswerRun run, StandardQuestion question) {
-        StringBuilder promptBuilder = new StringBuilder();
-        
-        // 获取回答Prompt组装配置
-        AnswerGenerationBatch batch = run.getAnswerGenerationBatch();
-        if (batch == null) {
-            logger.error("ModelAnswerRun {}的关联批次为null，无法组装prompt", run.getId());
-            return "Error: 无法找到批次配置";
-        }
-        
-        AnswerPromptAssemblyConfig config = batch.getAnswerAssemblyConfig();
-        
-        // 详细记录批次和配置信息
-        logger.info("组装prompt - 批次ID：{}，名称：{}，关联配置ID：{}", 
-            batch.getId(), batch.getName(), 
-            batch.getAnswerAssemblyConfig() != null ? batch.getAnswerAssemblyConfig().getId() : "null");
-        
-        if (config == null) {
-            logger.warn("未找到Prompt组装配置，尝试使用默认系统提示词");
-            // 使用一个默认的系统提示词
-            promptBuilder.append("你是一个专业的医学AI助手，请基于专业医学知识回答以下问题：\n\n");
-            promptBuilder.append(question.getQuestionText());
-            
-            logger.warn("使用默认提示词：{}", promptBuilder.toString());
-            return promptBuilder.toString();
-        }
-        
-        logger.debug("使用配置：名称={}，系统提示词={}", config.getName(), config.getBaseSystemPrompt());
-        
-        // 添加系统提示词
-        if (config.getBaseSystemPrompt() != null && !config.getBaseSystemPrompt().trim().isEmpty()) {
-            promptBuilder.append(config.getBaseSystemPrompt()).append("\n\n");
-        } else {
-            logger.debug("系统提示词为空，跳过添加");
-        }
+    private static class PreparedQuestion {
+        private final StandardQuestion question;
+        private final String prompt;
+        private final DatasetQuestionMapping mapping;
         
-        // 获取问题的标签
-        List<Tag> tags = standardQuestionTagsRepository.findTagsByQuestionId(question.getId());
-        logger.debug("问题ID={}关联标签数量：{}", question.getId(), tags.size());
-        
-        // 只有存在标签时才添加标签提示词部分
-        if (!tags.isEmpty()) {
-            // 添加标签提示词部分标题
-            if (config.getTagPromptsSectionHeader() != null) {
-                promptBuilder.append(config.getTagPromptsSectionHeader()).append("\n");
-            }
-            
-            StringBuilder tagPromptsBuilder = new StringBuilder();
-            List<AnswerTagPrompt> tagPrompts = new ArrayList<>();
-            
-            // 收集标签相关的prompt
-            for (Tag tag : tags) {
-                List<AnswerTagPrompt> prompts = answerTagPromptRepository.findActivePromptsByTagId(tag.getId());
-                if (!prompts.isEmpty()) {
-                    logger.debug("标签「{}」(ID={})找到{}个提示词", tag.getTagName(), tag.getId(), prompts.size());
-                    tagPrompts.addAll(prompts);
-                } else {
-                    logger.debug("标签「{}」(ID={})无相关提示词", tag.getTagName(), tag.getId());
-                }
-            }
-            
-            // 按优先级排序
-            tagPrompts.sort(Comparator.comparing(AnswerTagPrompt::getPromptPriority));
-            
-            // 添加标签prompt
-            boolean isFirst = true;
-            for (AnswerTagPrompt tagPrompt : tagPrompts) {
-                if (!isFirst) {
-                    // 使用配置的分隔符或默认分隔符
-                    tagPromptsBuilder.append(
-                        config.getTagPromptSeparator() != null ? 
-                        config.getTagPromptSeparator() : "\n\n"
-                    );
-                }
-                tagPromptsBuilder.append(tagPrompt.getPromptTemplate());
-                isFirst = false;
-                
-                logger.debug("添加标签提示词：ID={}, 名称={}", tagPrompt.getId(), tagPrompt.getName());
-            }
-            
-            if (tagPromptsBuilder.length() > 0) {
-                promptBuilder.append(tagPromptsBuilder);
-                
-                // 添加部分分隔符
-                promptBuilder.append(
-                    config.getSectionSeparator() != null ? 
-                    config.getSectionSeparator() : "\n\n"
-                );
-            } else {
-                logger.debug("所有标签均无可用提示词，跳过添加标签提示部分");
-            }
-        } else {
-            logger.debug("问题无关联标签，跳过添加标签提示部分");
+        PreparedQuestion(StandardQuestion question, String prompt, DatasetQuestionMapping mapping) {
+            this.question = question;
+            this.prompt = prompt;
+            this.mapping = mapping;
         }
+    }
+    
+    /**
+     * 从批次的组装计划中取出Prompt和问题在数据集版本中的映射，计划已批量加载，不访问数据库
+     */
+    private PreparedQuestion prepareQuestion(ModelAnswerRun run, StandardQuestion question) {
+        AnswerPromptPlanCache.Plan plan = promptPlanCache.getPlan(run.getAnswerGenerationBatch());
         
-        // 添加题型提示词部分
-        AnswerQuestionTypePrompt questionTypePrompt = getQuestionTypePrompt(batch, question.getQuestionType());
-        
-        if (questionTypePrompt != null) {
-            if (config.getQuestionTypeSectionHeader() != null) {
-                promptBuilder.append(config.getQuestionTypeSectionHeader()).append("\n");
-            }
-            
-            promptBuilder.append(questionTypePrompt.getPromptTemplate());
-            
-            // 添加格式说明
-            if (questionTypePrompt.getResponseFormatInstruction() != null && 
-                !questionTypePrompt.getResponseFormatInstruction().trim().isEmpty()) {
-                promptBuilder.append("\n\n").append(questionTypePrompt.getResponseFormatInstruction());
-            }
-            
-            // 添加示例（可选）
-            if (questionTypePrompt.getResponseExample() != null && 
-                !questionTypePrompt.getResponseExample().trim().isEmpty()) {
-                promptBuilder.append("\n例如：").append(questionTypePrompt.getResponseExample());
-            }
-            
-            logger.debug("添加题型提示词：题型={}，提示词ID={}", 
-                question.getQuestionType(), questionTypePrompt.getId());
-        } else {
-            logger.warn("找不到题型={}的提示词", question.getQuestionType());
+        if (plan.getDatasetVersionId() == null) {
+            logger.info("数据集版本为空: runId={}, questionId={}, batchId={}", 
+                run.getId(), question.getId(), run.getAnswerGenerationBatch().getId());
+            throw new IllegalStateException("批次的数据集版本为空，无法保存回答");
         }
         
-        // 添加最终指令和问题
-        if (config.getFinalInstruction() != null && !config.getFinalInstruction().trim().isEmpty()) {
-            promptBuilder.append("\n\n").append(config.getFinalInstruction());
+        Long mappingId = plan.getMappingId(question.getId());
+        if (mappingId == null) {
+            throw new IllegalStateException("问题" + question.getId() + "不在批次的数据集版本中，无法保存回答");
         }
         
-        // 添加问题文本
-        promptBuilder.append("\n\n问题：").append(question.getQuestionText());
+        // 构建DatasetQuestionMapping对象
+        DatasetQuestionMapping mapping = new DatasetQuestionMapping();
+        mapping.setId(mappingId);
         
-        // 记录完整的prompt
-        String fullPrompt = promptBuilder.toString();
-        logger.info("组装完成，问题ID={}的prompt长度：{}", question.getId(), fullPrompt.length());
-        logger.debug("完整prompt内容：{}", fullPrompt);
+        DatasetVersion datasetVersion = new DatasetVersion();
+        datasetVersion.setId(plan.getDatasetVersionId());
+        mapping.setDatasetVersion(datasetVersion);
+        mapping.setStandardQuestion(question);
         
-        return fullPrompt;
+        return new PreparedQuestion(question, plan.getPrompt(question), mapping);
     }
     
     /**
      * 调用LLM API生成回答，并支持中断检查
+     * 
+     * 模型支持流式生成时，按推送间隔将增量文本推送到运行的WebSocket频道，返回结果附带首个Token耗时和生成速度。
      */
-    private String generateAnswerWithInterruptCheck(ModelAnswerRun run, String prompt, AtomicBoolean interrupted) {
+    private ModelAnswerResult generateAnswerWithInterruptCheck(ModelAnswerRun run, StandardQuestion question, int repeatIndex,
+                                                               String prompt) {
         Long batchId = run.getAnswerGenerationBatch().getId();
         LlmModel model = run.getLlmModel();
         
-        // API调用前检查中断状态
+        // API调用前检查中断状态（包括interruptionFlags中的批次标志）
         if (shouldInterrupt(batchId)) {
             logger.info("API调用前检测到批次{}的中断信号，不执行API调用", batchId);
             return null;
         }
         
-        // 如果外部已经设置中断标志，也直接返回
-        if (interrupted.get()) {
-            logger.info("检测到外部中断标志，不执行API调用");
-            return null;
+        Set<Thread> batchCalls = inFlightCalls.computeIfAbsent(batchId, k -> ConcurrentHashMap.newKeySet());
+        Thread currentThread = Thread.currentThread();
+        synchronized (batchCalls) {
+            batchCalls.add(currentThread);
         }
         
         try {
+            // 注册后再检查一次，避免错过注册前到达的中断信号
+            if (shouldInterrupt(batchId)) {
+                return null;
+            }
+            
             // 获取上下文变量
             Map<String, Object> contextVariables = getContextVariables(run);
             
-            // 使用LlmApiService生成回答，同时传入中断检查回调
-            return llmApiService.generateModelAnswer(model, prompt, contextVariables);
+            if (!llmApiService.supportsStreaming(model)) {
+                long startTime = System.currentTimeMillis();
+                String text = llmApiService.generateModelAnswer(model, prompt, contextVariables);
+                return new ModelAnswerResult(text, System.currentTimeMillis() - startTime);
+            }
+            
+            // 流式生成，增量文本按间隔合并后推送，避免每个Token一条消息
+            StringBuilder pending = new StringBuilder();
+            long[] lastPushTime = {System.currentTimeMillis()};
+            int[] pushedLength = {0};
+            ModelAnswerResult result = llmApiService.generateModelAnswerStreaming(model, prompt, contextVariables, delta -> {
+                pending.append(delta);
+                long now = System.currentTimeMillis();
+                if (now - lastPushTime[0] >= streamPushIntervalMs) {
+                    pushedLength[0] += pending.length();
+                    sendAnswerStreamingNotification(run, question, repeatIndex, pending.toString(), pushedLength[0]);
+                    pending.setLength(0);
+                    lastPushTime[0] = now;
+                }
+            });
+            if (pending.length() > 0) {
+                pushedLength[0] += pending.length();
+                sendAnswerStreamingNotification(run, question, repeatIndex, pending.toString(), pushedLength[0]);
+            }
+            // 批次暂停取消请求时流式响应同样会中途结束，按中断处理，不保存部分回答
+            if (result.isPartial() && shouldInterrupt(batchId)) {
+                logger.info("批次{}已中断，流式请求已取消: {}", batchId, result.getErrorMessage());
+                return null;
+            }
+            return result;
         } catch (Exception e) {
+            // 批次暂停时在途请求被取消，按中断处理
+            if (shouldInterrupt(batchId)) {
+                logger.info("批次{}已中断，LLM请求已取消: {}", batchId, e.getMessage());
+                return null;
+            }
             logger.error("生成模型回答失败: {}", e.getMessage(), e);
             throw e;
+        } finally {
+            synchronized (batchCalls) {
+                batchCalls.remove(currentThread);
+            }
+            // 清除取消请求时设置的中断状态，避免影响线程的后续操作
+            Thread.interrupted();
         }
     }
     
@@ -969,145 +1097,42 @@ public class AnswerGenerationTask {
      * 保存模型回答
      */
     public void saveModelAnswer(ModelAnswerRun run, StandardQuestion question, String answerText, int repeatIndex) {
-        // 创建事务模板
-        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        LlmAnswer answer = buildModelAnswer(run, prepareQuestion(run, question), answerText, repeatIndex, null);
         
-        txTemplate.execute(status -> {
-            try {
-                // 先记录原始批次信息用于调试
-                logger.debug("原始批次信息: runId={}, batchId={}", 
-                    run.getId(),
-                    run.getAnswerGenerationBatch() != null ? run.getAnswerGenerationBatch().getId() : "NULL");
-                
-                // 强制重新加载批次对象，避免使用可能部分加载的引用
-                Long originalBatchId = run.getAnswerGenerationBatch().getId();
-                AnswerGenerationBatch freshBatch = batchRepository.findById(originalBatchId)
-                    .orElseThrow(() -> new IllegalStateException("找不到ID为" + originalBatchId + "的批次"));
-                
-                // 用新加载的批次替换运行对象中的引用
-                run.setAnswerGenerationBatch(freshBatch);
-                logger.debug("重新加载的批次信息: id={}, name={}", 
-                    freshBatch.getId(), freshBatch.getName());
-                
-                // 确保数据集版本已正确加载
-                if (freshBatch.getDatasetVersion() == null) {
-                    // 尝试直接从数据库查询数据集版本ID
-                    Long datasetVersionId = jdbcTemplate.queryForObject(
-                        "SELECT dataset_version_id FROM answer_generation_batches WHERE id = ?", 
-                        Long.class, freshBatch.getId());
-                    
-                    if (datasetVersionId != null) {
-                        // 从数据库加载完整的数据集版本
-                        DatasetVersion version = jdbcTemplate.queryForObject(
-                            "SELECT * FROM dataset_versions WHERE id = ?",
-                            (rs, rowNum) -> {
-                                DatasetVersion dv = new DatasetVersion();
-                                dv.setId(rs.getLong("id"));
-                                dv.setName(rs.getString("name"));
-                                dv.setVersionNumber(rs.getString("version_number"));
-                                return dv;
-                            },
-                            datasetVersionId);
-                            
-                        if (version != null) {
-                            freshBatch.setDatasetVersion(version);
-                            logger.info("从数据库直接加载数据集版本成功: versionId={}, name={}", 
-                                version.getId(), version.getName());
-                        }
-                    }
-                }
-                
-                LlmAnswer answer = new LlmAnswer();
-                answer.setModelAnswerRun(run);
-                
-                // 检查批次的数据集版本是否为空
-                if (run.getAnswerGenerationBatch() == null) {
-                    logger.info("批次为空: runId={}, questionId={}", run.getId(), question.getId());
-                    throw new IllegalStateException("批次为空，无法保存回答");
-                }
-
-                logger.debug("批次信息: id={}, name={}", 
-                    run.getAnswerGenerationBatch().getId(),
-                    run.getAnswerGenerationBatch().getName());
-
-                if (run.getAnswerGenerationBatch().getDatasetVersion() == null) {
-                    logger.info("数据集版本为空: runId={}, questionId={}, batchId={}", 
-                        run.getId(), question.getId(), run.getAnswerGenerationBatch().getId());
-                    throw new IllegalStateException("批次的数据集版本为空，无法保存回答");
-                }
-
-                logger.debug("数据集版本信息: id={}, name={}, version={}", 
-                    run.getAnswerGenerationBatch().getDatasetVersion().getId(),
-                    run.getAnswerGenerationBatch().getDatasetVersion().getName(),
-                    run.getAnswerGenerationBatch().getDatasetVersion().getVersionNumber());
-                
-                // 需要从StandardQuestion获取对应的DatasetQuestionMapping
-                // 直接通过ID查询，避免使用懒加载的集合
-                Long datasetVersionId = run.getAnswerGenerationBatch().getDatasetVersion().getId();
-                
-                // 使用JDBC直接查询，替代EntityManager查询
-                Map<String, Object> mappingData = jdbcTemplate.queryForMap(
-                    "SELECT dqm.* FROM dataset_question_mapping dqm " +
-                    "WHERE dqm.standard_question_id = ? " +
-                    "AND dqm.dataset_version_id = ?", 
-                    question.getId(), datasetVersionId);
-                    
-                // 构建DatasetQuestionMapping对象
-                DatasetQuestionMapping mapping = new DatasetQuestionMapping();
-                mapping.setId(((Number) mappingData.get("id")).longValue());
-                
-                // 设置必要的关联
-                DatasetVersion datasetVersion = new DatasetVersion();
-                datasetVersion.setId(datasetVersionId);
-                mapping.setDatasetVersion(datasetVersion);
-                
-                mapping.setStandardQuestion(question);
-                // 设置其他需要的字段
-                
-                answer.setDatasetQuestionMapping(mapping);
-                answer.setAnswerText(answerText);
-                answer.setRepeatIndex(repeatIndex);
-                answer.setGenerationTime(LocalDateTime.now());
-                answer.setGenerationStatus(LlmAnswer.GenerationStatus.SUCCESS);
-                
-                // 可以添加其他字段
-                answer.setPromptUsed(assemblePrompt(run, question));
-                
-                answerRepository.save(answer);
-                return null;
-            } catch (Exception e) {
-                status.setRollbackOnly();
-                logger.error("保存模型回答失败: questionId={}, runId={}", question.getId(), run.getId(), e);
-                throw e;
-            }
-        });
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        try {
+            txTemplate.executeWithoutResult(status -> answerRepository.save(answer));
+        } catch (Exception e) {
+            logger.error("保存模型回答失败: questionId={}, runId={}", question.getId(), run.getId(), e);
+            throw e;
+        }
     }
     
     /**
-     * 记录失败的问题
+     * 构建模型回答，同时记录首个Token耗时和生成速度
+     * 
+     * Prompt和数据集映射已在预取阶段解析，这里不访问数据库。
      */
-    public void recordFailedQuestion(ModelAnswerRun run, Long questionId) {
-        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
-        txTemplate.execute(status -> {
-            try {
-                run.setFailedQuestionsCount(run.getFailedQuestionsCount() + 1);
-                
-                // 添加到失败问题ID列表
-                List<Long> failedIds = run.getFailedQuestionsIds();
-                if (failedIds == null) {
-                    failedIds = new ArrayList<>();
-                }
-                failedIds.add(questionId);
-                run.setFailedQuestionsIds(failedIds);
-                
-                runRepository.save(run);
-                return null;
-            } catch (Exception e) {
-                status.setRollbackOnly();
-                logger.error("记录失败问题时出错: runId={}, questionId={}", run.getId(), questionId, e);
-                throw e;
+    private LlmAnswer buildModelAnswer(ModelAnswerRun run, PreparedQuestion prepared, String answerText, int repeatIndex,
+                                       ModelAnswerResult result) {
+        LlmAnswer answer = new LlmAnswer();
+        answer.setModelAnswerRun(run);
+        answer.setDatasetQuestionMapping(prepared.mapping);
+        answer.setAnswerText(answerText);
+        answer.setRepeatIndex(repeatIndex);
+        answer.setGenerationTime(LocalDateTime.now());
+        answer.setGenerationStatus(LlmAnswer.GenerationStatus.SUCCESS);
+        answer.setPromptUsed(prepared.prompt);
+        
+        // 流式生成的性能指标
+        if (result != null) {
+            answer.setFirstTokenMs(result.getFirstTokenMs());
+            if (result.getTokensPerSecond() != null) {
+                answer.setTokensPerSecond(BigDecimal.valueOf(result.getTokensPerSecond()).setScale(2, RoundingMode.HALF_UP));
             }
-        });
+        }
+        
+        return answer;
     }
     
     /**
@@ -1118,40 +1143,6 @@ public class AnswerGenerationTask {
                 .orElseThrow(() -> new IllegalArgumentException("运行不存在: " + runId));
     }
     
-    /**
-     * 更新运行进度
-     */
-    public void updateRunProgress(ModelAnswerRun run, int completedQuestions, int failedQuestions, int totalQuestions) {
-        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
-        txTemplate.execute(status -> {
-            try {
-                // 更新运行进度信息
-                run.setLastProcessedQuestionId(null);
-                run.setLastProcessedQuestionIndex(-1);
-                run.setLastActivityTime(LocalDateTime.now());
-                
-                run.setCompletedQuestionsCount(completedQuestions);
-                run.setFailedQuestionsCount(failedQuestions);
-                
-                // 计算进度百分比
-                BigDecimal progressPercentage = BigDecimal.valueOf((double) completedQuestions / totalQuestions * 100)
-                        .setScale(2, java.math.RoundingMode.HALF_UP);
-                run.setProgressPercentage(progressPercentage);
-                
-                runRepository.save(run);
-                
-                // 发送WebSocket进度更新通知
-                sendRunProgressNotification(run, progressPercentage.doubleValue(), 
-                        "已处理 " + completedQuestions + "/" + totalQuestions + " 个问题");
-                return null;
-            } catch (Exception e) {
-                status.setRollbackOnly();
-                logger.error("更新运行{}进度失败", run.getId(), e);
-                throw e;
-            }
-        });
-    }
-    
     /**
      * 更新运行状态
      */
@@ -1170,7 +1161,8 @@ public class AnswerGenerationTask {
                     run.setProgressPercentage(BigDecimal.valueOf(100));
                 }
                 
-                runRepository.saveAndFlush(run);
+                // 只更新状态，进度由各工作单元累加
+                runRepository.updateStatus(run.getId(), status, errorMessage);
                 
                 // 发送状态变更通知
                 webSocketService.sendStatusChangeMessage(run.getId(), status.name(), 
@@ -1362,6 +1354,21 @@ public class AnswerGenerationTask {
         webSocketService.sendRunProgressMessage(run.getId(), progress, message);
     }
     
+    /**
+     * 发送回答流式增量通知
+     */
+    private void sendAnswerStreamingNotification(ModelAnswerRun run, StandardQuestion question, int repeatIndex,
+                                                 String delta, int length) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("runId", run.getId());
+        payload.put("questionId", question.getId());
+        payload.put("repeatIndex", repeatIndex);
+        payload.put("delta", delta);
+        payload.put("length", length);
+        
+        webSocketService.sendRunMessage(run.getId(), MessageType.ANSWER_STREAMING, payload);
+    }
+    
     /**
      * 发送问题开始处理通知
      */
@@ -1414,6 +1421,14 @@ public class AnswerGenerationTask {
      * 发送问题处理失败通知
      */
     private void sendQuestionFailedNotification(ModelAnswerRun run, StandardQuestion question, int repeatIndex, String error) {
+        sendQuestionFailedNotification(run, question, repeatIndex, error, null);
+    }
+    
+    /**
+     * 发送问题处理失败通知，附带流式中断前已生成的部分回答
+     */
+    private void sendQuestionFailedNotification(ModelAnswerRun run, StandardQuestion question, int repeatIndex, String error,
+                                                String partialAnswer) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("runId", run.getId());
         payload.put("questionId", question.getId());
@@ -1421,6 +1436,9 @@ public class AnswerGenerationTask {
         payload.put("repeatIndex", repeatIndex);
         payload.put("timestamp", System.currentTimeMillis());
         payload.put("error", error);
+        if (partialAnswer != null) {
+            payload.put("partialAnswer", partialAnswer);
+        }
         
         webSocketService.sendRunMessage(run.getId(), MessageType.QUESTION_FAILED, payload);
     }
@@ -1467,75 +1485,4 @@ public class AnswerGenerationTask {
             batchStateManager.setInterruptFlag(batchId, false);
         }
     }
-
-    /**
-     * 根据题型获取对应的提示词
-     */
-    private AnswerQuestionTypePrompt getQuestionTypePrompt(AnswerGenerationBatch batch, QuestionType questionType) {
-        if (questionType == null) {
-            logger.warn("题型为null，无法获取对应提示词");
-            return null;
-        }
-        
-        AnswerQuestionTypePrompt prompt = null;
-        
-        // 首先尝试从批次中获取预设的题型提示词
-        switch (questionType) {
-            case SINGLE_CHOICE:
-                prompt = batch.getSingleChoicePrompt();
-                break;
-            case MULTIPLE_CHOICE:
-                prompt = batch.getMultipleChoicePrompt();
-                break;
-            case SIMPLE_FACT:
-                prompt = batch.getSimpleFactPrompt();
-                break;
-            case SUBJECTIVE:
-                prompt = batch.getSubjectivePrompt();
-                break;
-            default:
-                logger.warn("未知题型: {}", questionType);
-                return null;
-        }
-        
-        // 如果批次没有预设提示词，则从仓库中查询激活的提示词
-        if (prompt == null) {
-            logger.info("批次{}未设置{}题型提示词，尝试从仓库获取", batch.getId(), questionType);
-            List<AnswerQuestionTypePrompt> prompts = answerQuestionTypePromptRepository
-                .findByQuestionTypeAndIsActiveTrueAndDeletedAtIsNull(questionType);
-            
-            if (!prompts.isEmpty()) {
-                prompt = prompts.get(0);
-                logger.info("从仓库获取到{}题型的提示词：ID={}，名称={}", 
-                    questionType, prompt.getId(), prompt.getName());
-                
-                // 将提示词设置到批次对象中，提高后续使用效率
-                switch (questionType) {
-                    case SINGLE_CHOICE:
-                        batch.setSingleChoicePrompt(prompt);
-                        break;
-                    case MULTIPLE_CHOICE:
-                        batch.setMultipleChoicePrompt(prompt);
-                        break;
-                    case SIMPLE_FACT:
-                        batch.setSimpleFactPrompt(prompt);
-                        break;
-                    case SUBJECTIVE:
-                        batch.setSubjectivePrompt(prompt);
-                        break;
-                }
-                
-                // 更新批次对象到数据库
-                try {
-                    batchRepository.save(batch);
-                } catch (Exception e) {
-                    logger.warn("保存批次{}的题型提示词失败: {}", batch.getId(), e.getMessage());
-                }
-            } else {
-                logger.warn("在仓库中未找到{}题型的提示词", questionType);
-            }
-        }
-        
-        return prompt;
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.example.demo.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.entity.jdbc.LlmAnswer;
+import com.example.demo.entity.jdbc.StandardQuestion;
+
+/**
+ * 单个运行的回答延迟写入缓冲区
+ *
+ * 问题处理结束后只把结果放入缓冲区，由调用方在达到批量大小或定时刷新时统一批量插入回答，
+ * 并在同一事务中写入一次运行进度和断点。未刷新的结果不推进水位线，进程崩溃后恢复时重新生成。
+ */
+class AnswerWriteBuffer {
+
+    /**
+     * 待写入的问题结果，answer为null表示处理失败
+     */
+    static class Entry {
+        final LlmAnswer answer;
+        final StandardQuestion question;
+        final int repeatIndex;
+        final int flatIndex;
+
+        Entry(LlmAnswer answer, StandardQuestion question, int repeatIndex, int flatIndex) {
+            this.answer = answer;
+            this.question = question;
+            this.repeatIndex = repeatIndex;
+            this.flatIndex = flatIndex;
+        }
+
+        boolean isSuccess() {
+            return answer != null;
+        }
+    }
+
+    private final int batchSize;
+    private List<Entry> pending = new ArrayList<>();
+
+    AnswerWriteBuffer(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    synchronized void add(Entry entry) {
+        pending.add(entry);
+    }
+
+    /**
+     * 缓冲区是否已达到批量大小
+     */
+    synchronized boolean isFull() {
+        return pending.size() >= batchSize;
+    }
+
+    /**
+     * 取出全部待写入的结果
+     */
+    synchronized List<Entry> drain() {
+        List<Entry> drained = pending;
+        pending = new ArrayList<>();
+        return drained;
+    }
+}
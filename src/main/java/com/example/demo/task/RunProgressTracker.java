@@ -0,0 +1,123 @@
+package com.example.demo.task;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单个工作单元的并发进度跟踪器
+ *
+ * 问题按"重复索引 * 问题数 + 问题索引"展开为扁平索引，工作单元覆盖其中一个区间，totalQuestions为区间的结束索引。
+ * 并发执行时问题可能乱序完成，跟踪器维护一个水位线：水位线之前的所有问题均已确认完成，单元断点(checkpoint_index)
+ * 始终记录水位线，恢复时从水位线重新开始，水位线之后已完成的问题由调用方跳过。
+ *
+ * 回答采用延迟批量写入时，先在副本上记录一批结果，回答和进度落库成功后再采用副本的状态，
+ * 保证内存中的水位线不会超过数据库中已保存的回答。
+ */
+class RunProgressTracker {
+
+    private final int totalQuestions;
+    private final BitSet finished;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int watermark;
+    private int completedCount;
+    private int failedCount;
+
+    RunProgressTracker(int totalQuestions, int startIndex, int completedCount, int failedCount) {
+        this.totalQuestions = totalQuestions;
+        this.finished = new BitSet(totalQuestions);
+        this.watermark = Math.max(0, Math.min(startIndex, totalQuestions));
+        this.finished.set(0, this.watermark);
+        this.completedCount = completedCount;
+        this.failedCount = failedCount;
+    }
+
+    private RunProgressTracker(RunProgressTracker source) {
+        this.totalQuestions = source.totalQuestions;
+        this.finished = (BitSet) source.finished.clone();
+        this.watermark = source.watermark;
+        this.completedCount = source.completedCount;
+        this.failedCount = source.failedCount;
+    }
+
+    /**
+     * 复制当前进度，调用方需持有锁
+     */
+    RunProgressTracker copy() {
+        return new RunProgressTracker(this);
+    }
+
+    /**
+     * 采用副本的进度（副本在当前进度基础上推进而来），调用方需持有锁
+     */
+    void adopt(RunProgressTracker other) {
+        this.finished.clear();
+        this.finished.or(other.finished);
+        this.watermark = other.watermark;
+        this.completedCount = other.completedCount;
+        this.failedCount = other.failedCount;
+    }
+
+    /**
+     * 运行级别的锁，进度落库和通知需要在锁内串行执行，保证写入顺序与计数一致
+     */
+    ReentrantLock lock() {
+        return lock;
+    }
+
+    /**
+     * 标记问题已在之前的执行中完成（不计入计数）
+     */
+    void markSkipped(int flatIndex) {
+        lock.lock();
+        try {
+            markFinished(flatIndex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 记录问题处理成功，调用方需持有锁
+     */
+    void recordSuccess(int flatIndex) {
+        completedCount++;
+        markFinished(flatIndex);
+    }
+
+    /**
+     * 记录问题处理失败，调用方需持有锁
+     */
+    void recordFailure(int flatIndex) {
+        failedCount++;
+        markFinished(flatIndex);
+    }
+
+    private void markFinished(int flatIndex) {
+        finished.set(flatIndex);
+        if (flatIndex == watermark) {
+            int next = finished.nextClearBit(watermark);
+            watermark = Math.min(next, totalQuestions);
+        }
+    }
+
+    int getWatermark() {
+        return watermark;
+    }
+
+    int getCompletedCount() {
+        return completedCount;
+    }
+
+    int getFailedCount() {
+        return failedCount;
+    }
+
+    int getTotalQuestions() {
+        return totalQuestions;
+    }
+
+    boolean isFinished() {
+        return watermark >= totalQuestions;
+    }
+}
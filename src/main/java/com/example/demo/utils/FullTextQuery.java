@@ -0,0 +1,174 @@
+package com.example.demo.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 全文检索查询工具类
+ *
+ * 问题和回答文本使用MySQL的ngram全文索引（ngram_token_size=2）。关键词按空白拆分为词，
+ * 每个词在布尔模式下作为必须出现的短语匹配，效果接近LIKE '%词%'但可以走索引并得到相关度；
+ * 短于ngram长度的词无法命中索引，调用方应回退到LIKE查询。
+ */
+public final class FullTextQuery {
+
+    // 与MySQL的ngram_token_size保持一致
+    public static final int NGRAM_TOKEN_SIZE = 2;
+
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    // 布尔模式中有特殊含义的字符
+    private static final Pattern OPERATOR_PATTERN = Pattern.compile("[+\\-<>()~*\"@]");
+
+    private static final String HIGHLIGHT_OPEN = "<em>";
+    private static final String HIGHLIGHT_CLOSE = "</em>";
+    private static final String ELLIPSIS = "...";
+
+    private FullTextQuery() {
+    }
+
+    /**
+     * 将关键词拆分为去重后的检索词，移除布尔模式运算符
+     */
+    public static List<String> terms(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        for (String part : WHITESPACE_PATTERN.split(OPERATOR_PATTERN.matcher(keyword).replaceAll(" ").trim())) {
+            if (!part.isEmpty()) {
+                terms.add(part);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 判断关键词能否使用全文索引：至少有一个词，且每个词都不短于ngram长度
+     */
+    public static boolean isIndexable(String keyword) {
+        List<String> terms = terms(keyword);
+        if (terms.isEmpty()) {
+            return false;
+        }
+        for (String term : terms) {
+            if (term.codePointCount(0, term.length()) < NGRAM_TOKEN_SIZE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 构造布尔模式的查询串，所有词都必须出现，例如 +"高血压" +"用药"
+     */
+    public static String toBooleanQuery(String keyword) {
+        StringBuilder sb = new StringBuilder();
+        for (String term : terms(keyword)) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append("+\"").append(term).append('"');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 生成高亮摘要：截取首个命中位置附近最多maxLength个字符，HTML转义后用em标签标记命中的词
+     *
+     * @param text 原文
+     * @param terms 检索词
+     * @param maxLength 摘要最大长度
+     * @return 高亮后的摘要，原文为空时返回空字符串
+     */
+    public static String highlight(String text, List<String> terms, int maxLength) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        int firstMatch = -1;
+        for (String term : terms) {
+            int index = indexOfIgnoreCase(text, term);
+            if (index >= 0 && (firstMatch < 0 || index < firstMatch)) {
+                firstMatch = index;
+            }
+        }
+
+        // 命中位置之前保留四分之一的上下文
+        int start = 0;
+        if (text.length() > maxLength && firstMatch > maxLength / 4) {
+            start = Math.min(firstMatch - maxLength / 4, text.length() - maxLength);
+        }
+        int end = Math.min(text.length(), start + maxLength);
+
+        StringBuilder sb = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            sb.append(ELLIPSIS);
+        }
+        int i = start;
+        while (i < end) {
+            int matchLength = longestMatchAt(text, i, end, terms);
+            if (matchLength > 0) {
+                sb.append(HIGHLIGHT_OPEN);
+                appendEscaped(sb, text, i, i + matchLength);
+                sb.append(HIGHLIGHT_CLOSE);
+                i += matchLength;
+            } else {
+                appendEscaped(sb, text, i, i + 1);
+                i++;
+            }
+        }
+        if (end < text.length()) {
+            sb.append(ELLIPSIS);
+        }
+        return sb.toString();
+    }
+
+    private static int indexOfIgnoreCase(String text, String term) {
+        for (int i = 0; i + term.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, term, 0, term.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int longestMatchAt(String text, int offset, int end, List<String> terms) {
+        int longest = 0;
+        for (String term : terms) {
+            int length = term.length();
+            if (length > longest && offset + length <= end && text.regionMatches(true, offset, term, 0, length)) {
+                longest = length;
+            }
+        }
+        return longest;
+    }
+
+    private static void appendEscaped(StringBuilder sb, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '"':
+                    sb.append("&quot;");
+                    break;
+                case '\'':
+                    sb.append("&#39;");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+}
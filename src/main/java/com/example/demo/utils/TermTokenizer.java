@@ -0,0 +1,93 @@
+package com.example.demo.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 中英文混合文本分词工具类
+ *
+ * 拉丁字母和数字按连续串切分为词并转小写，过滤英文停用词和单字符词；
+ * 中日韩文字按相邻两字切分为二元词（与全文索引的ngram_token_size=2一致），单独的一个字保留为一元词。
+ */
+public final class TermTokenizer {
+
+    // 常见英文停用词
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+        "a", "an", "the", "and", "or", "but", "is", "are", "was", "were",
+        "be", "been", "being", "have", "has", "had", "do", "does", "did",
+        "can", "could", "will", "would", "shall", "should", "may", "might",
+        "must", "in", "on", "at", "to", "for", "with", "by", "about", "of",
+        "this", "that", "these", "those", "i", "you", "he", "she", "it", "we", "they"
+    ));
+
+    private TermTokenizer() {
+    }
+
+    /**
+     * 将文本切分为检索词，保留重复出现的词以便统计词频
+     *
+     * @param text 文本
+     * @return 检索词列表，文本为空时返回空列表
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        String lower = text.toLowerCase();
+        StringBuilder word = new StringBuilder();
+        List<Integer> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < lower.length()) {
+            int codePoint = lower.codePointAt(i);
+            if (isCjk(codePoint)) {
+                flushWord(word, terms);
+                cjkRun.add(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, terms);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, terms);
+                flushCjk(cjkRun, terms);
+            }
+            i += Character.charCount(codePoint);
+        }
+        flushWord(word, terms);
+        flushCjk(cjkRun, terms);
+        return terms;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> terms) {
+        if (word.length() > 1) {
+            String term = word.toString();
+            if (!STOP_WORDS.contains(term)) {
+                terms.add(term);
+            }
+        }
+        word.setLength(0);
+    }
+
+    private static void flushCjk(List<Integer> run, List<String> terms) {
+        if (run.size() == 1) {
+            terms.add(new String(Character.toChars(run.get(0))));
+        }
+        for (int i = 0; i + 1 < run.size(); i++) {
+            StringBuilder bigram = new StringBuilder(4);
+            bigram.appendCodePoint(run.get(i)).appendCodePoint(run.get(i + 1));
+            terms.add(bigram.toString());
+        }
+        run.clear();
+    }
+}
@@ -0,0 +1,319 @@
+package com.example.demo.utils;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 文本评分指标工具类，用于简单事实题回答与标准答案的比较
+ *
+ * 中文文本按字符计算：BLEU为1-4元字符n-gram的裁剪精确率几何平均乘以简短惩罚，ROUGE为基于最长公共子序列的ROUGE-L F1，
+ * 文本相似度为1减去标准化编辑距离。正则表达式预先编译，n-gram计数使用开放寻址的long键哈希表，
+ * 动态规划只保留两行，缓冲区按线程复用，评分过程不装箱字符。
+ */
+public final class TextMetrics {
+
+    // 常见的答案前缀，在移除标点之后匹配
+    private static final Pattern ANSWER_PREFIX_PATTERN = Pattern.compile("(答案|答|回答|正确答案|正确的答案|应该是|是)[:：]?");
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    // 标准化时移除的空白和标点字符
+    private static final String REMOVED_CHARS = " \t\n\u000B\f\r:：,，.。!！?？;；()（）[]【】\"'";
+
+    private static final int MAX_NGRAM = 4;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private TextMetrics() {
+    }
+
+    /**
+     * 标准化文本：转为小写，移除空白和标点符号，再移除常见的答案前缀
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase();
+        StringBuilder sb = BUFFERS.get().text;
+        sb.setLength(0);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (REMOVED_CHARS.indexOf(c) < 0) {
+                sb.append(c);
+            }
+        }
+        return ANSWER_PREFIX_PATTERN.matcher(sb).replaceAll("");
+    }
+
+    /**
+     * 只移除答案前缀的标准化，保留空白用于分词
+     */
+    public static String stripAnswerPrefix(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        return ANSWER_PREFIX_PATTERN.matcher(text.toLowerCase()).replaceAll("");
+    }
+
+    /**
+     * 计算编辑距离(Levenshtein距离)，只保留两行
+     */
+    public static int levenshteinDistance(CharSequence s1, CharSequence s2) {
+        // 较短的字符串作为列，减少缓冲区长度
+        if (s1.length() < s2.length()) {
+            CharSequence tmp = s1;
+            s1 = s2;
+            s2 = tmp;
+        }
+        int n = s1.length();
+        int m = s2.length();
+        if (m == 0) {
+            return n;
+        }
+
+        Buffers buffers = BUFFERS.get();
+        int[] prev = buffers.rowA(m + 1);
+        int[] curr = buffers.rowB(m + 1);
+        for (int j = 0; j <= m; j++) {
+            prev[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            char c1 = s1.charAt(i - 1);
+            curr[0] = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = c1 == s2.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+            }
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[m];
+    }
+
+    /**
+     * 计算最长公共子序列长度，只保留两行
+     */
+    public static int lcsLength(CharSequence s1, CharSequence s2) {
+        if (s1.length() < s2.length()) {
+            CharSequence tmp = s1;
+            s1 = s2;
+            s2 = tmp;
+        }
+        int n = s1.length();
+        int m = s2.length();
+        if (m == 0) {
+            return 0;
+        }
+
+        Buffers buffers = BUFFERS.get();
+        int[] prev = buffers.rowA(m + 1);
+        int[] curr = buffers.rowB(m + 1);
+        Arrays.fill(prev, 0, m + 1, 0);
+
+        for (int i = 1; i <= n; i++) {
+            char c1 = s1.charAt(i - 1);
+            curr[0] = 0;
+            for (int j = 1; j <= m; j++) {
+                curr[j] = c1 == s2.charAt(j - 1) ? prev[j - 1] + 1 : Math.max(prev[j], curr[j - 1]);
+            }
+            int[] tmp = prev;
+            prev = curr;
+            curr = tmp;
+        }
+        return prev[m];
+    }
+
+    /**
+     * 基于编辑距离的相似度：1 - 编辑距离 / 较长文本长度，输入应为标准化后的文本
+     */
+    public static double editSimilarity(CharSequence s1, CharSequence s2) {
+        int maxLength = Math.max(s1.length(), s2.length());
+        if (maxLength == 0) {
+            return 0.0;
+        }
+        return 1.0 - (double) levenshteinDistance(s1, s2) / maxLength;
+    }
+
+    /**
+     * 字符级ROUGE-L F1，输入应为标准化后的文本
+     */
+    public static double rougeL(CharSequence candidate, CharSequence reference) {
+        if (candidate.length() == 0 || reference.length() == 0) {
+            return 0.0;
+        }
+        int lcs = lcsLength(candidate, reference);
+        if (lcs == 0) {
+            return 0.0;
+        }
+        double precision = (double) lcs / candidate.length();
+        double recall = (double) lcs / reference.length();
+        return 2 * precision * recall / (precision + recall);
+    }
+
+    /**
+     * 字符级BLEU，输入应为标准化后的文本
+     *
+     * n-gram阶数取4与两段文本长度的较小值，高阶n-gram没有匹配时按加一平滑，避免短答案直接得零分。
+     */
+    public static double bleu(CharSequence candidate, CharSequence reference) {
+        int candidateLength = candidate.length();
+        int referenceLength = reference.length();
+        if (candidateLength == 0 || referenceLength == 0) {
+            return 0.0;
+        }
+
+        int maxOrder = Math.min(MAX_NGRAM, Math.min(candidateLength, referenceLength));
+        NgramCounter counter = BUFFERS.get().ngrams;
+        double logPrecisionSum = 0.0;
+        for (int n = 1; n <= maxOrder; n++) {
+            counter.clear(referenceLength);
+            for (int i = 0; i + n <= referenceLength; i++) {
+                counter.increment(ngramKey(reference, i, n));
+            }
+
+            // 候选n-gram逐个消耗参考计数，即按参考文本中的出现次数裁剪
+            int matches = 0;
+            int total = candidateLength - n + 1;
+            for (int i = 0; i < total; i++) {
+                if (counter.decrementIfPositive(ngramKey(candidate, i, n))) {
+                    matches++;
+                }
+            }
+
+            if (matches == 0 && n == 1) {
+                return 0.0;
+            }
+            double precision = n == 1 ? (double) matches / total : (matches + 1.0) / (total + 1.0);
+            logPrecisionSum += Math.log(precision);
+        }
+
+        double brevityPenalty = candidateLength >= referenceLength
+                ? 1.0 : Math.exp(1.0 - (double) referenceLength / candidateLength);
+        return brevityPenalty * Math.exp(logPrecisionSum / maxOrder);
+    }
+
+    /**
+     * 按空白分词后的词集合重叠率：公共词数 / 较小词集合大小
+     */
+    public static double wordOverlap(String text1, String text2) {
+        Set<String> words1 = new HashSet<>(Arrays.asList(WHITESPACE_PATTERN.split(text1)));
+        Set<String> words2 = new HashSet<>(Arrays.asList(WHITESPACE_PATTERN.split(text2)));
+        if (words1.isEmpty() || words2.isEmpty()) {
+            return 0.0;
+        }
+        Set<String> smaller = words1.size() <= words2.size() ? words1 : words2;
+        Set<String> larger = smaller == words1 ? words2 : words1;
+        int common = 0;
+        for (String word : smaller) {
+            if (larger.contains(word)) {
+                common++;
+            }
+        }
+        return (double) common / smaller.size();
+    }
+
+    /**
+     * 将最多4个字符的n-gram编码为long，每个字符占16位，计数表按阶清空，不同阶的键不会同时出现
+     */
+    private static long ngramKey(CharSequence text, int start, int n) {
+        long key = 0;
+        for (int i = start; i < start + n; i++) {
+            key = (key << 16) | text.charAt(i);
+        }
+        return key;
+    }
+
+    /**
+     * 按线程复用的缓冲区
+     */
+    private static class Buffers {
+        private final StringBuilder text = new StringBuilder(256);
+        private final NgramCounter ngrams = new NgramCounter();
+        private int[] rowA = new int[256];
+        private int[] rowB = new int[256];
+
+        int[] rowA(int length) {
+            if (rowA.length < length) {
+                rowA = new int[Math.max(length, rowA.length * 2)];
+            }
+            return rowA;
+        }
+
+        int[] rowB(int length) {
+            if (rowB.length < length) {
+                rowB = new int[Math.max(length, rowB.length * 2)];
+            }
+            return rowB;
+        }
+    }
+
+    /**
+     * long键到计数的开放寻址哈希表，按代次标记有效槽位，清空时不需要重置数组
+     */
+    private static class NgramCounter {
+        private long[] keys = new long[256];
+        private int[] counts = new int[256];
+        private int[] stamps = new int[256];
+        private int generation = 1;
+        private int mask = 255;
+
+        /**
+         * 清空计数，并保证容量足以容纳expectedSize个键
+         */
+        void clear(int expectedSize) {
+            int required = Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1;
+            if (required > keys.length) {
+                keys = new long[required];
+                counts = new int[required];
+                stamps = new int[required];
+                mask = required - 1;
+                generation = 1;
+                return;
+            }
+            generation++;
+            if (generation == 0) {
+                Arrays.fill(stamps, 0);
+                generation = 1;
+            }
+        }
+
+        void increment(long key) {
+            int slot = indexOf(key);
+            if (stamps[slot] != generation) {
+                stamps[slot] = generation;
+                keys[slot] = key;
+                counts[slot] = 1;
+            } else {
+                counts[slot]++;
+            }
+        }
+
+        boolean decrementIfPositive(long key) {
+            int slot = indexOf(key);
+            if (stamps[slot] == generation && counts[slot] > 0) {
+                counts[slot]--;
+                return true;
+            }
+            return false;
+        }
+
+        private int indexOf(long key) {
+            int slot = (int) (mix(key) & mask);
+            while (stamps[slot] == generation && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static long mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return key;
+        }
+    }
+}
@@ -117,4 +117,120 @@ public class TextPreprocessor {
         
         return result;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 创建流式思考过程过滤器
+     * 
+     * @return 新的过滤器实例，每个流式回答使用一个
+     */
+    public static ThinkingFilter newThinkingFilter() {
+        return new ThinkingFilter();
+    }
+    
+    /**
+     * 流式思考过程过滤器
+     * 
+     * 逐块接收模型输出，去掉思考过程标记及其内容，只返回可展示的增量文本。
+     * 标记可能被拆分在两个分块之间，无法确定的标记前缀会暂存到下一个分块再判断。
+     * 该过滤器仅用于实时展示，最终保存的回答仍以cleanText处理完整文本为准。
+     */
+    public static class ThinkingFilter {
+        
+        private static final String[] TAG_NAMES = {"think", "thinking", "reasoning", "work", "thought"};
+        
+        private final StringBuilder pending = new StringBuilder();
+        private final StringBuilder thinking = new StringBuilder();
+        private String openTag;
+        
+        /**
+         * 输入一个分块，返回其中可展示的文本
+         */
+        public String accept(String chunk) {
+            if (chunk != null) {
+                pending.append(chunk);
+            }
+            StringBuilder visible = new StringBuilder();
+            
+            while (pending.length() > 0) {
+                if (openTag != null) {
+                    // 在思考过程内部，查找结束标记
+                    String closeTag = "</" + openTag + ">";
+                    int end = pending.indexOf(closeTag);
+                    if (end >= 0) {
+                        thinking.append(pending, 0, end);
+                        pending.delete(0, end + closeTag.length());
+                        openTag = null;
+                        continue;
+                    }
+                    // 保留可能是结束标记前缀的尾部
+                    int keep = Math.min(pending.length(), closeTag.length() - 1);
+                    thinking.append(pending, 0, pending.length() - keep);
+                    pending.delete(0, pending.length() - keep);
+                    break;
+                }
+                
+                int lt = pending.indexOf("<");
+                if (lt < 0) {
+                    visible.append(pending);
+                    pending.setLength(0);
+                    break;
+                }
+                visible.append(pending, 0, lt);
+                pending.delete(0, lt);
+                
+                String matched = matchOpenTag();
+                if (matched != null) {
+                    openTag = matched;
+                    pending.delete(0, matched.length() + 2);
+                } else if (isOpenTagPrefix()) {
+                    // 标记可能被拆分，等待下一个分块
+                    break;
+                } else {
+                    visible.append('<');
+                    pending.deleteCharAt(0);
+                }
+            }
+            return visible.toString();
+        }
+        
+        /**
+         * 流结束时调用，返回剩余的可展示文本
+         */
+        public String finish() {
+            String rest = openTag == null ? pending.toString() : "";
+            if (openTag != null) {
+                thinking.append(pending);
+            }
+            pending.setLength(0);
+            return rest;
+        }
+        
+        /**
+         * 已过滤掉的思考过程文本
+         */
+        public String getThinking() {
+            return thinking.toString();
+        }
+        
+        private String matchOpenTag() {
+            for (String name : TAG_NAMES) {
+                int length = name.length() + 2;
+                if (pending.length() >= length && pending.charAt(length - 1) == '>'
+                        && name.contentEquals(pending.subSequence(1, length - 1))) {
+                    return name;
+                }
+            }
+            return null;
+        }
+        
+        private boolean isOpenTagPrefix() {
+            for (String name : TAG_NAMES) {
+                String tag = "<" + name + ">";
+                if (pending.length() < tag.length() && tag.startsWith(pending.toString())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+} 